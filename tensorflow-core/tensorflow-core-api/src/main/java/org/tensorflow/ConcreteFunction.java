@@ -0,0 +1,509 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_DeleteFunction;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_FunctionName;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphToFunction;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacpp.PointerScope;
+import org.tensorflow.internal.c_api.TF_Function;
+import org.tensorflow.internal.c_api.TF_Graph;
+import org.tensorflow.internal.c_api.TF_Operation;
+import org.tensorflow.internal.c_api.TF_Output;
+import org.tensorflow.internal.c_api.TF_Status;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.Scope;
+import org.tensorflow.op.core.Placeholder;
+
+/**
+ * A function of a graph, with named inputs and outputs described by a {@link Signature}.
+ *
+ * <p>The tensors referred by the signature are resolved only once, when the function is created,
+ * so calling a function does not require to parse or look up any operation name. For example:
+ *
+ * <pre>{@code
+ * try (SavedModelBundle bundle = SavedModelBundle.load("/path/to/model", "serve")) {
+ *   ConcreteFunction predict = bundle.function("serving_default");
+ *   Map<String, Tensor<?>> outputs = predict.call(Collections.singletonMap("images", images));
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>Functions can also be traced from Java code with {@link #trace(Signature, Body)}, in which
+ * case they are compiled into a native graph function that can be invoked as a single operation
+ * from any graph or eager session. For example:
+ *
+ * <pre>{@code
+ * Signature signature = Signature.builder().input("x", TFloat32.DTYPE, Shape.scalar()).build();
+ * try (ConcreteFunction square = ConcreteFunction.trace(signature, (tf, inputs) ->
+ *     Collections.singletonMap("y", tf.math.square((Operand<TFloat32>)inputs.get("x"))))) {
+ *   Ops tf = Ops.create(eagerSession);
+ *   Operand<?> y = square.call(tf.scope(), tf.constant(2.0f));
+ * }
+ * }</pre>
+ *
+ * <p>Similarly, an existing subgraph can be converted into a function with
+ * {@link #create(Signature, Graph)}, so it can be reused by other graphs or eager sessions
+ * instead of being duplicated in each of them.
+ *
+ * <p>Instances of this class are thread-safe.
+ */
+public final class ConcreteFunction implements AutoCloseable {
+
+  /** Builds the body of a traced function. */
+  @FunctionalInterface
+  public interface Body {
+
+    /**
+     * Builds the operations of the function.
+     *
+     * <p>This is invoked only once per traced function, against a graph that is private to the
+     * function.
+     *
+     * @param tf API to build the operations of the function graph
+     * @param inputs placeholders of the function inputs, by logical name
+     * @return outputs of the function, by logical name
+     */
+    Map<String, Operand<?>> build(Ops tf, Map<String, Operand<?>> inputs);
+  }
+
+  /**
+   * Traces a function.
+   *
+   * <p>The body of the function is built once in a new graph, where its inputs are placeholders
+   * matching the inputs of the signature. The returned function owns this graph and must be
+   * closed to release it.
+   *
+   * @param signature signature describing the inputs of the function
+   * @param body builder of the function body
+   * @return traced function, with a signature completed with its outputs
+   * @throws IllegalArgumentException if the body fails to build
+   */
+  public static ConcreteFunction trace(Signature signature, Body body) {
+    Graph graph = new Graph();
+    Session session = null;
+    try {
+      Ops tf = Ops.create(graph);
+      Map<String, Operand<?>> inputs = new LinkedHashMap<>();
+      for (Map.Entry<String, Signature.TensorDescription> input : signature.inputs().entrySet()) {
+        Signature.TensorDescription description = input.getValue();
+        inputs.put(input.getKey(), tf.withName(input.getKey())
+            .placeholder(description.dataType(), Placeholder.shape(description.shape())));
+      }
+      Map<String, Operand<?>> outputs = body.build(tf, Collections.unmodifiableMap(inputs));
+      Map<String, Signature.TensorDescription> outputDescriptions = new LinkedHashMap<>();
+      for (Map.Entry<String, Operand<?>> output : outputs.entrySet()) {
+        outputDescriptions.put(output.getKey(), Signature.describe(output.getValue().asOutput()));
+      }
+      Signature tracedSignature = Signature.create(signature.key(), signature.methodName(),
+          signature.inputs(), outputDescriptions);
+      session = new Session(graph);
+      return new ConcreteFunction(tracedSignature, session, graph, true, true);
+    } catch (RuntimeException e) {
+      // the graph cannot be closed while a session still references it
+      if (session != null) {
+        session.close();
+      }
+      graph.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Creates a function from a subgraph of an existing graph.
+   *
+   * <p>The body of the function is made of all operations required to compute the outputs of the
+   * signature from its inputs, other operations of the graph being ignored. Once created, the
+   * function can be called as a single operation from other graphs or eager sessions, instead of
+   * duplicating its subgraph in each of them.
+   *
+   * <p>The graph is not owned by the function and must remain open as long as the function is in
+   * use, while the function must be closed to release its own resources.
+   *
+   * @param signature signature of the function, whose inputs and outputs are operands of the graph
+   * @param graph graph containing the body of the function
+   * @return new function
+   * @throws IllegalArgumentException if a tensor of the signature is not found in the graph, or
+   *                                  if the outputs depend on a placeholder which is not an input
+   *                                  of the signature
+   * @see Signature.Builder#input(String, Operand)
+   * @see Signature.Builder#output(String, Operand)
+   */
+  public static ConcreteFunction create(Signature signature, Graph graph) {
+    Session session = new Session(graph);
+    try {
+      return new ConcreteFunction(signature, session, graph, true, false);
+    } catch (RuntimeException e) {
+      session.close();
+      throw e;
+    }
+  }
+
+  /** Returns the signature of this function. */
+  public Signature signature() {
+    return signature;
+  }
+
+  /**
+   * Invokes this function.
+   *
+   * <p>The caller is responsible of closing all returned tensors.
+   *
+   * @param arguments tensors to feed, by logical input name
+   * @return output tensors, by logical output name, in the order of the signature
+   * @throws IllegalArgumentException if an input of the signature is missing from the arguments,
+   *                                  or if an argument does not match any input
+   */
+  public Map<String, Tensor<?>> call(Map<String, Tensor<?>> arguments) {
+    Session.Runner runner = session.runner();
+    for (int i = 0; i < inputNames.length; ++i) {
+      Tensor<?> argument = arguments.get(inputNames[i]);
+      if (argument == null) {
+        throw new IllegalArgumentException(
+            "Missing input \"" + inputNames[i] + "\" for signature \"" + signature.key() + "\"");
+      }
+      runner.feed(inputs[i], argument);
+    }
+    if (arguments.size() > inputNames.length) {
+      for (String name : arguments.keySet()) {
+        if (!signature.inputs().containsKey(name)) {
+          throw new IllegalArgumentException(
+              "Unknown input \"" + name + "\" for signature \"" + signature.key() + "\"");
+        }
+      }
+    }
+    for (Output<?> output : outputs) {
+      runner.fetch(output);
+    }
+    List<Tensor<?>> results = runner.run();
+    Map<String, Tensor<?>> namedResults = new LinkedHashMap<>();
+    for (int i = 0; i < outputNames.length; ++i) {
+      namedResults.put(outputNames[i], results.get(i));
+    }
+    return namedResults;
+  }
+
+  /**
+   * Invokes a function that has a single input and a single output.
+   *
+   * <p>The caller is responsible of closing the returned tensor.
+   *
+   * @param argument tensor to feed
+   * @return output tensor
+   * @throws IllegalArgumentException if this function does not have exactly one input and one
+   *                                  output
+   */
+  public Tensor<?> call(Tensor<?> argument) {
+    if (inputs.length != 1 || outputs.length != 1) {
+      throw new IllegalArgumentException("Signature \"" + signature.key()
+          + "\" must have exactly one input and one output, use call(Map) instead");
+    }
+    return session.runner().feed(inputs[0], argument).fetch(outputs[0]).run().get(0);
+  }
+
+  /**
+   * Invokes this function as a single operation of an execution environment.
+   *
+   * <p>The function is registered in the environment of the scope on its first invocation. In an
+   * eager session, it is executed immediately.
+   *
+   * @param scope current scope
+   * @param arguments operands to pass to the function, by logical input name
+   * @return output operands, by logical output name, in the order of the signature
+   * @throws IllegalArgumentException if an input of the signature is missing from the arguments,
+   *                                  or if an argument does not match any input
+   * @throws IllegalStateException if this function cannot be converted to a graph function, like
+   *                               functions loaded from a saved model
+   */
+  public Map<String, Operand<?>> call(Scope scope, Map<String, Operand<?>> arguments) {
+    Output<?>[] inputs = new Output<?>[inputNames.length];
+    for (int i = 0; i < inputNames.length; ++i) {
+      Operand<?> argument = arguments.get(inputNames[i]);
+      if (argument == null) {
+        throw new IllegalArgumentException(
+            "Missing input \"" + inputNames[i] + "\" for signature \"" + signature.key() + "\"");
+      }
+      inputs[i] = argument.asOutput();
+    }
+    if (arguments.size() > inputNames.length) {
+      for (String name : arguments.keySet()) {
+        if (!signature.inputs().containsKey(name)) {
+          throw new IllegalArgumentException(
+              "Unknown input \"" + name + "\" for signature \"" + signature.key() + "\"");
+        }
+      }
+    }
+    Operation operation = callOperation(scope, inputs);
+    Map<String, Operand<?>> namedResults = new LinkedHashMap<>();
+    for (int i = 0; i < outputNames.length; ++i) {
+      namedResults.put(outputNames[i], operation.output(i));
+    }
+    return namedResults;
+  }
+
+  /**
+   * Invokes a function that has a single input and a single output as a single operation of an
+   * execution environment.
+   *
+   * @param scope current scope
+   * @param argument operand to pass to the function
+   * @return output operand
+   * @throws IllegalArgumentException if this function does not have exactly one input and one
+   *                                  output
+   * @throws IllegalStateException if this function cannot be converted to a graph function, like
+   *                               functions loaded from a saved model
+   * @see #call(Scope, Map)
+   */
+  public Operand<?> call(Scope scope, Operand<?> argument) {
+    if (inputs.length != 1 || outputs.length != 1) {
+      throw new IllegalArgumentException("Signature \"" + signature.key()
+          + "\" must have exactly one input and one output, use call(Scope, Map) instead");
+    }
+    return callOperation(scope, new Output<?>[] { argument.asOutput() }).output(0);
+  }
+
+  /**
+   * Releases the resources of a traced function or of a function created from a subgraph.
+   *
+   * <p>This has no effect on functions loaded from a saved model, which are released with their
+   * bundle, and never closes a graph the function has been created from. Operations already
+   * calling this function in other graphs or sessions remain valid.
+   */
+  @Override
+  public void close() {
+    if (!convertible) {
+      return;
+    }
+    synchronized (this) {
+      if (nativeFunction != null) {
+        TF_DeleteFunction(nativeFunction);
+        nativeFunction = null;
+      }
+      attachedEnvironments.clear();
+    }
+    session.close();
+    if (ownsGraph) {
+      graph.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return signature.toString();
+  }
+
+  /**
+   * Returns the name under which this function is registered in graphs and eager sessions.
+   *
+   * <p>This name is derived from the key of the signature and from a hash of the function body.
+   *
+   * @throws IllegalStateException if this function cannot be converted to a graph function, like
+   *                               functions loaded from a saved model
+   */
+  public synchronized String functionName() {
+    return TF_FunctionName(nativeFunction()).getString();
+  }
+
+  /**
+   * Registers this function in a graph or an eager session, if it is not already.
+   *
+   * <p>Functions are registered automatically the first time they are called from an
+   * environment, so this is only required by operations referring to the function by its
+   * {@link #functionName() name}, like those of an imported graph definition.
+   *
+   * @param env a graph or an eager session
+   * @throws IllegalArgumentException if functions cannot be registered in this environment
+   * @throws IllegalStateException if this function cannot be converted to a graph function, like
+   *                               functions loaded from a saved model
+   */
+  public synchronized void attachTo(ExecutionEnvironment env) {
+    if (attachedEnvironments.contains(env)) {
+      return;
+    }
+    if (env instanceof Graph) {
+      ((Graph)env).attachFunction(nativeFunction());
+    } else if (env instanceof EagerSession) {
+      ((EagerSession)env).attachFunction(nativeFunction());
+    } else {
+      throw new IllegalArgumentException("Cannot register functions in " + env);
+    }
+    attachedEnvironments.add(env);
+  }
+
+  /**
+   * Creates a function running a signature on a session.
+   *
+   * @param signature signature of the function
+   * @param session session to run
+   * @param graph graph of the session, used to resolve the tensors of the signature
+   * @return new function
+   * @throws IllegalArgumentException if a tensor of the signature is not found in the graph
+   */
+  static ConcreteFunction create(Signature signature, Session session, Graph graph) {
+    return new ConcreteFunction(signature, session, graph, false, false);
+  }
+
+  private final Signature signature;
+  private final Session session;
+  private final Graph graph;
+  private final boolean convertible;
+  private final boolean ownsGraph;
+  private final String[] inputNames;
+  private final Output<?>[] inputs;
+  private final String[] outputNames;
+  private final Output<?>[] outputs;
+  private final GraphOperation[] body;
+  private final Set<ExecutionEnvironment> attachedEnvironments =
+      Collections.newSetFromMap(new WeakHashMap<>());
+  private TF_Function nativeFunction;
+
+  private ConcreteFunction(Signature signature, Session session, Graph graph, boolean convertible,
+      boolean ownsGraph) {
+    this.signature = signature;
+    this.session = session;
+    this.graph = graph;
+    this.convertible = convertible;
+    this.ownsGraph = ownsGraph;
+    inputNames = signature.inputs().keySet().toArray(new String[0]);
+    inputs = resolve(signature.inputs(), graph);
+    outputNames = signature.outputs().keySet().toArray(new String[0]);
+    outputs = resolve(signature.outputs(), graph);
+    // A private graph is converted entirely, while only the subgraph between the inputs and the
+    // outputs of a shared graph is
+    body = convertible && !ownsGraph ? graph.subgraph(inputs, outputs) : null;
+  }
+
+  private Output<?>[] resolve(Map<String, Signature.TensorDescription> tensors, Graph graph) {
+    Output<?>[] resolved = new Output<?>[tensors.size()];
+    int i = 0;
+    for (Signature.TensorDescription tensor : tensors.values()) {
+      String name = tensor.name();
+      int colon = name.lastIndexOf(':');
+      int index = 0;
+      if (colon > 0) {
+        try {
+          index = Integer.parseInt(name.substring(colon + 1));
+          name = name.substring(0, colon);
+        } catch (NumberFormatException e) {
+          // the whole string is the name of the operation
+        }
+      }
+      GraphOperation op = graph.operation(name);
+      if (op == null) {
+        throw new IllegalArgumentException("Signature \"" + signature.key()
+            + "\" refers to tensor \"" + tensor.name() + "\" which is not found in the graph");
+      }
+      resolved[i++] = op.output(index);
+    }
+    return resolved;
+  }
+
+  private Operation callOperation(Scope scope, Output<?>[] arguments) {
+    DataType<?>[] inputTypes = new DataType<?>[inputs.length];
+    for (int i = 0; i < inputs.length; ++i) {
+      inputTypes[i] = inputs[i].dataType();
+    }
+    DataType<?>[] outputTypes = new DataType<?>[outputs.length];
+    for (int i = 0; i < outputs.length; ++i) {
+      outputTypes[i] = outputs[i].dataType();
+    }
+    OperationBuilder opBuilder = scope.env()
+        .opBuilder("StatefulPartitionedCall", scope.makeOpName("StatefulPartitionedCall"));
+    opBuilder.addInputList(arguments);
+    opBuilder = scope.applyControlDependencies(opBuilder);
+    opBuilder.setAttr("Tin", inputTypes);
+    opBuilder.setAttr("Tout", outputTypes);
+    opBuilder.setAttr("f", this);
+    return opBuilder.build();
+  }
+
+  private TF_Function nativeFunction() {
+    if (!convertible) {
+      throw new IllegalStateException(
+          "Function \"" + signature.key() + "\" cannot be converted to a graph function");
+    }
+    if (nativeFunction == null) {
+      Graph.Reference r = graph.ref();
+      try {
+        nativeFunction = graphToFunction(r.nativeHandle(), sanitizeName(signature.key()), body,
+            inputs, outputs);
+      } finally {
+        r.close();
+      }
+    }
+    return nativeFunction;
+  }
+
+  private static String sanitizeName(String key) {
+    // A hash of the function definition is appended to this name to make it unique
+    StringBuilder name = new StringBuilder(key.isEmpty() ? "function" : key);
+    for (int i = 0; i < name.length(); ++i) {
+      char c = name.charAt(i);
+      if (!Character.isLetterOrDigit(c) && c != '_') {
+        name.setCharAt(i, '_');
+      }
+    }
+    return name.toString();
+  }
+
+  private static TF_Function graphToFunction(TF_Graph graphHandle, String name,
+      GraphOperation[] body, Output<?>[] inputs, Output<?>[] outputs) {
+    try (PointerScope scope = new PointerScope()) {
+      // all operations of the graph are converted if no body is given
+      int numOperations = -1;
+      PointerPointer<TF_Operation> operations = null;
+      if (body != null) {
+        numOperations = body.length;
+        operations = new PointerPointer<>(numOperations);
+        for (int i = 0; i < numOperations; ++i) {
+          operations.put(i, body[i].getUnsafeNativeHandle());
+        }
+      }
+      TF_Output inputOutputs = resolveOutputs("inputs", inputs);
+      TF_Output outputOutputs = resolveOutputs("outputs", outputs);
+      TF_Status status = TF_Status.newStatus();
+      TF_Function function = TF_GraphToFunction(graphHandle, new BytePointer(name), (byte)1,
+          numOperations, operations, inputs.length, inputOutputs, outputs.length, outputOutputs,
+          (PointerPointer)null, null, (BytePointer)null, status);
+      status.throwExceptionIfNotOK();
+      return function;
+    }
+  }
+
+  private static TF_Output resolveOutputs(String type, Output<?>[] outputs) {
+    if (outputs.length == 0) {
+      return null;
+    }
+    TF_Operation[] opHandles = new TF_Operation[outputs.length];
+    int[] indices = new int[outputs.length];
+    for (int i = 0; i < outputs.length; ++i) {
+      opHandles[i] = (TF_Operation)outputs[i].getUnsafeNativeHandle();
+      indices[i] = outputs[i].index();
+    }
+    TF_Output resolved = new TF_Output(outputs.length);
+    Graph.resolveOutputs(type, opHandles, indices, resolved, outputs.length);
+    return resolved;
+  }
+}
@@ -0,0 +1,326 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_DeleteKernelBuilder;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_GetCode;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphGetOpDef;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_INTERNAL;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_INVALID_ARGUMENT;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_KernelBuilder_TypeConstraint;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_NewKernelBuilder;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_NewOpDefinitionBuilder;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OK;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OUT_OF_RANGE;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OpDefinitionBuilderAddAttr;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OpDefinitionBuilderAddInput;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OpDefinitionBuilderAddOutput;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OpDefinitionBuilderSetIsStateful;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OpKernelContext_Failure;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_RegisterKernelBuilder;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_RegisterOpDefinition;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.PointerScope;
+import org.tensorflow.internal.c_api.Compute_func_Pointer_TF_OpKernelContext;
+import org.tensorflow.internal.c_api.TF_Buffer;
+import org.tensorflow.internal.c_api.TF_Graph;
+import org.tensorflow.internal.c_api.TF_KernelBuilder;
+import org.tensorflow.internal.c_api.TF_OpDefinitionBuilder;
+import org.tensorflow.internal.c_api.TF_OpKernelContext;
+import org.tensorflow.internal.c_api.TF_Status;
+
+/**
+ * Registers an operation whose CPU kernel is implemented in Java.
+ *
+ * <p>Unlike operations loaded from a compiled library with {@link TensorFlow#loadLibrary(String)},
+ * the kernel of a custom operation is a Java {@link Kernel} invoked by the runtime every time the
+ * operation is executed, in a graph or in an eager session. Its inputs and outputs are accessed
+ * through a {@link KernelContext} as n-dimensional arrays mapped directly to the memory of the
+ * tensors, without any copy. For example:
+ *
+ * <pre>{@code
+ * CustomOp.builder("Scale")
+ *     .input("x: float")
+ *     .output("y: float")
+ *     .kernel(context -> {
+ *       TFloat32 x = context.input(0, TFloat32.DTYPE);
+ *       TFloat32 y = context.allocateOutput(0, TFloat32.DTYPE, x.shape());
+ *       x.scalars().forEachIndexed((idx, value) -> y.setFloat(value.getFloat() * 2.0f, idx));
+ *     })
+ *     .register();
+ *
+ * Output<TFloat32> y = graph.opBuilder("Scale", "scale").addInput(x).build().output(0);
+ * }</pre>
+ *
+ * <p>Operations and kernels are registered globally, for the lifetime of the process, and an
+ * operation cannot be registered twice. The shapes of the outputs of a custom operation are
+ * unknown until it is executed.
+ */
+public final class CustomOp {
+
+  /** Computes the outputs of a custom operation. */
+  @FunctionalInterface
+  public interface Kernel {
+
+    /**
+     * Computes the outputs of an operation from its inputs.
+     *
+     * <p>This may be invoked concurrently by different threads of the runtime. Any exception
+     * thrown by this method fails the execution of the operation.
+     *
+     * @param context inputs and outputs of the operation, only valid during this call
+     */
+    void compute(KernelContext context);
+  }
+
+  /** Builds and registers a custom operation. */
+  public static final class Builder {
+
+    /**
+     * Adds an input to the operation.
+     *
+     * @param spec specification of the input, like {@code "x: float"} or {@code "x: T"}
+     * @return this builder
+     */
+    public Builder input(String spec) {
+      inputs.add(spec);
+      return this;
+    }
+
+    /**
+     * Adds an output to the operation.
+     *
+     * @param spec specification of the output, like {@code "y: float"} or {@code "y: T"}
+     * @return this builder
+     */
+    public Builder output(String spec) {
+      outputs.add(spec);
+      return this;
+    }
+
+    /**
+     * Adds an attribute to the operation.
+     *
+     * @param spec specification of the attribute, like {@code "T: {float, double}"}
+     * @return this builder
+     */
+    public Builder attr(String spec) {
+      attrs.add(spec);
+      return this;
+    }
+
+    /**
+     * Marks the operation as stateful, so that the runtime never prunes, folds or deduplicates its
+     * executions.
+     *
+     * @return this builder
+     */
+    public Builder stateful() {
+      stateful = true;
+      return this;
+    }
+
+    /**
+     * Restricts the kernel to a single data type for a type attribute.
+     *
+     * @param attrName name of a type attribute of the operation
+     * @param dataType only data type supported by the kernel for this attribute
+     * @return this builder
+     */
+    public Builder typeConstraint(String attrName, DataType<?> dataType) {
+      typeConstraints.put(attrName, dataType);
+      return this;
+    }
+
+    /**
+     * Sets the kernel computing the outputs of the operation on CPU.
+     *
+     * @param kernel kernel of the operation
+     * @return this builder
+     */
+    public Builder kernel(Kernel kernel) {
+      this.kernel = kernel;
+      return this;
+    }
+
+    /**
+     * Registers the operation and its kernel.
+     *
+     * <p>Specifications of inputs, outputs and attributes follow the syntax of the
+     * {@code REGISTER_OP} macro of the C++ API.
+     *
+     * @throws IllegalStateException if no kernel has been set
+     * @throws IllegalArgumentException if an operation with the same name is already registered,
+     *                                  or if a type constraint refers to an undeclared attribute
+     */
+    public void register() {
+      if (kernel == null) {
+        throw new IllegalStateException("No kernel set for operation \"" + name + "\"");
+      }
+      synchronized (kernels) {
+        // the runtime aborts the process if an operation is registered twice
+        if (isRegistered(name)) {
+          throw new IllegalArgumentException("Operation \"" + name + "\" is already registered");
+        }
+        for (String attrName : typeConstraints.keySet()) {
+          if (!hasAttr(attrName)) {
+            throw new IllegalArgumentException(
+                "Operation \"" + name + "\" has no attribute \"" + attrName + "\"");
+          }
+        }
+        // the callback is retained so that any pointer scope opened by the caller does not
+        // release it, since it is used by the runtime for the lifetime of the process
+        ComputeFunction computeFunction = new ComputeFunction(kernel);
+        computeFunction.retainReference();
+        registerOpAndKernel(name, inputs, outputs, attrs, stateful, typeConstraints,
+            computeFunction);
+        kernels.add(computeFunction);
+      }
+    }
+
+    private boolean hasAttr(String attrName) {
+      for (String attr : attrs) {
+        int separator = attr.indexOf(':');
+        if (separator >= 0 && attr.substring(0, separator).trim().equals(attrName)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private final String name;
+    private final List<String> inputs = new ArrayList<>();
+    private final List<String> outputs = new ArrayList<>();
+    private final List<String> attrs = new ArrayList<>();
+    private final Map<String, DataType<?>> typeConstraints = new LinkedHashMap<>();
+    private boolean stateful = false;
+    private Kernel kernel;
+
+    private Builder(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Returns a builder of a custom operation.
+   *
+   * @param name name of the operation type, like {@code "Scale"}
+   */
+  public static Builder builder(String name) {
+    return new Builder(name);
+  }
+
+  /** Invokes a Java kernel from the runtime. */
+  private static final class ComputeFunction extends Compute_func_Pointer_TF_OpKernelContext {
+
+    ComputeFunction(Kernel kernel) {
+      this.kernel = kernel;
+    }
+
+    @Override
+    public void call(Pointer state, TF_OpKernelContext contextHandle) {
+      KernelContext context = new KernelContext(contextHandle);
+      try {
+        kernel.compute(context);
+      } catch (Throwable t) {
+        // exceptions must not be propagated to the native runtime
+        fail(contextHandle, t);
+      } finally {
+        context.release();
+      }
+    }
+
+    private final Kernel kernel;
+  }
+
+  // Kernels are registered for the lifetime of the process, so their callbacks are never released
+  private static final List<ComputeFunction> kernels = new ArrayList<>();
+
+  private CustomOp() {}
+
+  private static boolean isRegistered(String name) {
+    try (PointerScope scope = new PointerScope()) {
+      TF_Graph graph = TF_Graph.newGraph();
+      TF_Buffer opDef = TF_Buffer.newBuffer();
+      TF_Status status = TF_Status.newStatus();
+      TF_GraphGetOpDef(graph, name, opDef, status);
+      return TF_GetCode(status) == TF_OK;
+    }
+  }
+
+  private static void registerOpAndKernel(String name, List<String> inputs,
+      List<String> outputs, List<String> attrs, boolean stateful,
+      Map<String, DataType<?>> typeConstraints, ComputeFunction computeFunction) {
+    try (PointerScope scope = new PointerScope()) {
+      // the kernel is built first, so that an invalid type constraint does not leave behind an
+      // operation without kernel
+      TF_Status status = TF_Status.newStatus();
+      TF_KernelBuilder kernelBuilder =
+          TF_NewKernelBuilder(name, "CPU", null, computeFunction, null);
+      for (Map.Entry<String, DataType<?>> constraint : typeConstraints.entrySet()) {
+        TF_KernelBuilder_TypeConstraint(kernelBuilder, constraint.getKey(),
+            constraint.getValue().nativeCode(), status);
+        if (TF_GetCode(status) != TF_OK) {
+          TF_DeleteKernelBuilder(kernelBuilder);
+          status.throwExceptionIfNotOK();
+        }
+      }
+      TF_OpDefinitionBuilder builder = TF_NewOpDefinitionBuilder(name);
+      for (String input : inputs) {
+        TF_OpDefinitionBuilderAddInput(builder, input);
+      }
+      for (String output : outputs) {
+        TF_OpDefinitionBuilderAddOutput(builder, output);
+      }
+      for (String attr : attrs) {
+        TF_OpDefinitionBuilderAddAttr(builder, attr);
+      }
+      TF_OpDefinitionBuilderSetIsStateful(builder, stateful);
+      TF_RegisterOpDefinition(builder, status);
+      if (TF_GetCode(status) != TF_OK) {
+        TF_DeleteKernelBuilder(kernelBuilder);
+        status.throwExceptionIfNotOK();
+      }
+      TF_RegisterKernelBuilder(name + "/CPU/Java", kernelBuilder, status);
+      status.throwExceptionIfNotOK();
+    }
+  }
+
+  private static void fail(TF_OpKernelContext contextHandle, Throwable t) {
+    int code = TF_INTERNAL;
+    if (t instanceof IndexOutOfBoundsException) {
+      code = TF_OUT_OF_RANGE;
+    } else if (t instanceof IllegalArgumentException) {
+      code = TF_INVALID_ARGUMENT;
+    }
+    String message = t.getMessage() != null ? t.getMessage() : t.toString();
+    try (PointerScope scope = new PointerScope()) {
+      TF_Status status = TF_Status.newStatus();
+      TF_SetStatus(status, code, message);
+      TF_OpKernelContext_Failure(contextHandle, status);
+    }
+  }
+
+  static {
+    TensorFlow.init();
+  }
+}
@@ -24,6 +24,7 @@ import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrBool;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrBoolList;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrFloat;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrFloatList;
+import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrFunctionName;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrInt;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrIntList;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetAttrShape;
@@ -37,6 +38,10 @@ import static org.tensorflow.internal.c_api.global.tensorflow.TFE_OpSetDevice;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 import org.bytedeco.javacpp.BooleanPointer;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.IntPointer;
@@ -61,6 +66,13 @@ final class EagerOperationBuilder implements OperationBuilder {
     this.type = type;
     this.name = name;
     this.nativeRef = new NativeReference(session, this, allocate(session.nativeHandle(), type));
+    if (session.isRecording()) {
+      recordedInputs = new ArrayList<>();
+      calls = new ArrayList<>();
+    } else {
+      recordedInputs = null;
+      calls = null;
+    }
   }
 
   @Override
@@ -71,12 +83,19 @@ final class EagerOperationBuilder implements OperationBuilder {
     // Release our reference to the native op handle now that we transferred its
     // ownership to the EagerOperation
     nativeRef.clear();
+    if (calls != null) {
+      session.record(operation, recordedInputs, calls);
+    }
     return operation;
   }
 
   @Override
   public EagerOperationBuilder addInput(Output<?> input) {
     addInput(nativeRef.opHandle, (TFE_TensorHandle)input.getUnsafeNativeHandle());
+    if (calls != null) {
+      recordedInputs.add(input);
+      calls.add((builder, graphInputs) -> builder.addInput(graphInputs.apply(input)));
+    }
     return this;
   }
 
@@ -87,6 +106,17 @@ final class EagerOperationBuilder implements OperationBuilder {
       inputHandles[i] = (TFE_TensorHandle)inputs[i].getUnsafeNativeHandle();
     }
     addInputList(nativeRef.opHandle, inputHandles);
+    if (calls != null) {
+      Output<?>[] inputList = inputs.clone();
+      recordedInputs.addAll(Arrays.asList(inputList));
+      calls.add((builder, graphInputs) -> {
+        Output<?>[] graphInputList = new Output<?>[inputList.length];
+        for (int i = 0; i < inputList.length; ++i) {
+          graphInputList[i] = graphInputs.apply(inputList[i]);
+        }
+        builder.addInputList(graphInputList);
+      });
+    }
     return this;
   }
 
@@ -99,6 +129,7 @@ final class EagerOperationBuilder implements OperationBuilder {
   @Override
   public EagerOperationBuilder setDevice(String device) {
     setDevice(nativeRef.opHandle, device);
+    record(builder -> builder.setDevice(device));
     return this;
   }
 
@@ -115,54 +146,63 @@ final class EagerOperationBuilder implements OperationBuilder {
       objects[i] = values[i].getBytes(utf8);
     }
     setAttrStringList(nativeRef.opHandle, name, objects);
+    record(builder -> builder.setAttr(name, values));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, byte[] values) {
     setAttrString(nativeRef.opHandle, name, values);
+    record(builder -> builder.setAttr(name, values));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, long value) {
     setAttrInt(nativeRef.opHandle, name, value);
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, long[] values) {
     setAttrIntList(nativeRef.opHandle, name, values);
+    record(builder -> builder.setAttr(name, values));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, float value) {
     setAttrFloat(nativeRef.opHandle, name, value);
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, float[] values) {
     setAttrFloatList(nativeRef.opHandle, name, values);
+    record(builder -> builder.setAttr(name, values));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, boolean value) {
     setAttrBool(nativeRef.opHandle, name, value);
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, boolean[] values) {
     setAttrBoolList(nativeRef.opHandle, name, values);
+    record(builder -> builder.setAttr(name, values));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, DataType<?> value) {
     setAttrType(nativeRef.opHandle, name, value.nativeCode());
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
@@ -173,12 +213,14 @@ final class EagerOperationBuilder implements OperationBuilder {
       c[i] = values[i].nativeCode();
     }
     setAttrTypeList(nativeRef.opHandle, name, c);
+    record(builder -> builder.setAttr(name, values));
     return this;
   }
 
   @Override
   public EagerOperationBuilder setAttr(String name, Tensor<?> value) {
     setAttrTensor(nativeRef.opHandle, name, value.getNativeHandle());
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
@@ -192,6 +234,7 @@ final class EagerOperationBuilder implements OperationBuilder {
   @Override
   public EagerOperationBuilder setAttr(String name, Shape value) {
     setAttrShape(nativeRef.opHandle, name, value.asArray(), value.numDimensions());
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
@@ -218,9 +261,24 @@ final class EagerOperationBuilder implements OperationBuilder {
       }
     }
     setAttrShapeList(nativeRef.opHandle, name, shapes, numDimensions);
+    record(builder -> builder.setAttr(name, values));
+    return this;
+  }
+
+  @Override
+  public EagerOperationBuilder setAttr(String name, ConcreteFunction value) {
+    value.attachTo(session);
+    setAttrFunctionName(nativeRef.opHandle, name, value.functionName());
+    record(builder -> builder.setAttr(name, value));
     return this;
   }
 
+  private void record(Consumer<OperationBuilder> call) {
+    if (calls != null) {
+      calls.add((builder, graphInputs) -> call.accept(builder));
+    }
+  }
+
   private static class NativeReference extends EagerSession.NativeReference {
 
     NativeReference(EagerSession session, EagerOperationBuilder operation, TFE_Op opHandle) {
@@ -249,6 +307,9 @@ final class EagerOperationBuilder implements OperationBuilder {
   private final String type;
   private final String name;
   private final NativeReference nativeRef;
+  // inputs and builder calls of the operation, only kept while a gradient tape is recording
+  private final List<Output<?>> recordedInputs;
+  private final List<GradientTape.BuilderCall> calls;
 
   /** This value should be >= to the maximum number of outputs in any op */
   private static final int MAX_OUTPUTS_PER_OP = 8;
@@ -363,6 +424,15 @@ final class EagerOperationBuilder implements OperationBuilder {
     }
   }
 
+  private static void setAttrFunctionName(TFE_Op opHandle, String name, String value) {
+    requireOp(opHandle);
+    try (PointerScope scope = new PointerScope()) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      TFE_OpSetAttrFunctionName(opHandle, new BytePointer(name), new BytePointer(bytes),
+          bytes.length);
+    }
+  }
+
   private static void setAttrInt(TFE_Op opHandle, String name, long value) {
     requireOp(opHandle);
     TFE_OpSetAttrInt(opHandle, name, value);
@@ -15,6 +15,7 @@ limitations under the License.
 
 package org.tensorflow;
 
+import static org.tensorflow.internal.c_api.global.tensorflow.TFE_ContextAddFunction;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_ContextOptionsSetAsync;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_ContextOptionsSetConfig;
 import static org.tensorflow.internal.c_api.global.tensorflow.TFE_ContextOptionsSetDevicePlacementPolicy;
@@ -25,14 +26,19 @@ import java.lang.ref.PhantomReference;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.PointerScope;
 import org.tensorflow.internal.c_api.TFE_Context;
 import org.tensorflow.internal.c_api.TFE_ContextOptions;
+import org.tensorflow.internal.c_api.TF_Function;
 import org.tensorflow.internal.c_api.TF_Status;
+import org.tensorflow.metrics.Metrics;
+import org.tensorflow.metrics.MetricsListener;
 
 /**
  * An environment for executing TensorFlow operations eagerly.
@@ -353,10 +359,52 @@ public final class EagerSession implements ExecutionEnvironment, AutoCloseable {
     return nativeHandle;
   }
 
+  /**
+   * Registers a function in this session, so it can be executed by eager operations.
+   *
+   * @param function native handle of the function
+   */
+  void attachFunction(TF_Function function) {
+    try (PointerScope scope = new PointerScope()) {
+      TF_Status status = TF_Status.newStatus();
+      TFE_ContextAddFunction(nativeHandle(), function, status);
+      status.throwExceptionIfNotOK();
+    }
+  }
+
   ResourceCleanupStrategy resourceCleanupStrategy() {
     return resourceCleanupStrategy;
   }
 
+  /** Starts recording the operations executed in this session on a gradient tape. */
+  void startRecording(GradientTape tape) {
+    tapes.add(tape);
+  }
+
+  /** Stops recording the operations executed in this session on a gradient tape. */
+  void stopRecording(GradientTape tape) {
+    tapes.remove(tape);
+  }
+
+  /** Returns true if at least one gradient tape is recording the operations of this session. */
+  boolean isRecording() {
+    return !tapes.isEmpty();
+  }
+
+  /**
+   * Records an operation executed in this session on all active gradient tapes.
+   *
+   * @param operation executed operation
+   * @param inputs inputs of the operation, in the order they were added
+   * @param calls calls made to the builder of the operation, to replay them in a graph
+   */
+  void record(EagerOperation operation, List<Output<?>> inputs,
+      List<GradientTape.BuilderCall> calls) {
+    for (GradientTape tape : tapes) {
+      tape.record(operation, inputs, calls);
+    }
+  }
+
   /**
    * A reference to one or more allocated native resources.
    *
@@ -430,35 +478,53 @@ public final class EagerSession implements ExecutionEnvironment, AutoCloseable {
     }
 
     void attach(NativeReference nativeRef) {
+      MetricsListener metrics = Metrics.listener();
       synchronized (nativeRefs) {
-        nativeRefs.put(nativeRef, null);
+        nativeRefs.put(nativeRef, metrics != null ? metrics : UNTRACKED);
+      }
+      if (metrics != null) {
+        metrics.onEagerHandleAttached();
       }
     }
 
     void detach(NativeReference nativeRef) {
+      MetricsListener metrics;
       synchronized (nativeRefs) {
-        nativeRefs.remove(nativeRef);
+        metrics = nativeRefs.remove(nativeRef);
       }
+      untrack(metrics);
     }
 
     void delete(NativeReference nativeRef) {
+      MetricsListener metrics;
       synchronized (nativeRefs) {
-        if (!nativeRefs.keySet().remove(nativeRef)) {
+        metrics = nativeRefs.remove(nativeRef);
+        if (metrics == null) {
           return; // safety check
         }
       }
+      untrack(metrics);
       nativeRef.delete();
     }
 
     void deleteAll() {
       synchronized (nativeRefs) {
-        for (NativeReference nativeRef : nativeRefs.keySet()) {
-          nativeRef.delete();
+        for (Map.Entry<NativeReference, MetricsListener> entry : nativeRefs.entrySet()) {
+          untrack(entry.getValue());
+          entry.getKey().delete();
         }
         nativeRefs.clear();
       }
     }
 
+    // Notifies the listener that was notified of the attachment, even if metrics have been
+    // disabled since, to keep the gauges consistent
+    private static void untrack(MetricsListener metrics) {
+      if (metrics != null) {
+        metrics.onEagerHandleReleased();
+      }
+    }
+
     void tryCleanup() {
       Reference<?> nativeRef;
       synchronized (nativeRefs) {
@@ -506,7 +572,12 @@ public final class EagerSession implements ExecutionEnvironment, AutoCloseable {
       thread.setContextClassLoader(null);
       return thread;
     });
-    private final Map<NativeReference, Void> nativeRefs = new IdentityHashMap<>();
+    // Placeholder for references attached while metrics were disabled, since the map cannot
+    // hold null values
+    private static final MetricsListener UNTRACKED = new MetricsListener() {};
+
+    // Maps each reference to the listener notified of its attachment, or to UNTRACKED
+    private final Map<NativeReference, MetricsListener> nativeRefs = new IdentityHashMap<>();
     private final ReferenceQueue<Object> garbageQueue;
     private volatile boolean cleanupInBackground = false;
   }
@@ -515,6 +586,7 @@ public final class EagerSession implements ExecutionEnvironment, AutoCloseable {
 
   private final NativeResourceCollector nativeResources;
   private final ResourceCleanupStrategy resourceCleanupStrategy;
+  private final List<GradientTape> tapes = new CopyOnWriteArrayList<>();
   private TFE_Context nativeHandle;
 
   private EagerSession(Options options, ReferenceQueue<Object> garbageQueue) {
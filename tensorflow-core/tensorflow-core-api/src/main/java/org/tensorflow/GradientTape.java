@@ -0,0 +1,272 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.tensorflow.op.Scope;
+import org.tensorflow.op.core.Constant;
+
+/**
+ * Records the operations executed in an eager session to compute their gradients.
+ *
+ * <p>Gradients cannot be added to an eager session like they are added to a graph with {@link
+ * org.tensorflow.op.core.Gradients}. Instead, a tape records the operations depending on the
+ * operands it watches while they are executed. When gradients are requested, the recorded
+ * operations are replayed in a temporary graph, in which {@link Graph#addGradients(Output,
+ * Output[])} builds the gradients, and the results are returned as constants of the eager session.
+ * For example:
+ *
+ * <pre>{@code
+ * Ops tf = Ops.create(session);
+ * Operand<TFloat32> x = tf.constant(3.0f);
+ * try (GradientTape tape = GradientTape.record(session)) {
+ *   tape.watch(x);
+ *   Operand<TFloat32> y = tf.math.mul(x, x);
+ *   Operand<?> dx = tape.gradient(y, Arrays.asList(x)).get(0); // 6.0
+ * }
+ * }</pre>
+ *
+ * <p>Only operations having at least one input computed from a watched operand are recorded, other
+ * values being fed as constants when the tape is replayed. The recorded operations, and the eager
+ * tensors they refer to, are released as soon as gradients have been computed by a tape that is
+ * not persistent, or when the tape is closed.
+ *
+ * <p>A tape records the operations executed by all threads of its session. Gradients of resource
+ * variables are computed with respect to the values read from them, which must be watched.
+ */
+public final class GradientTape implements AutoCloseable {
+
+  /**
+   * Starts recording the operations of an eager session on a new tape.
+   *
+   * <p>The returned tape can compute gradients only once.
+   *
+   * @param session eager session to record
+   * @return new tape
+   */
+  public static GradientTape record(EagerSession session) {
+    return record(session, false);
+  }
+
+  /**
+   * Starts recording the operations of an eager session on a new tape.
+   *
+   * @param session eager session to record
+   * @param persistent true if the tape can compute gradients many times, in which case its
+   *                   recorded operations are only released when it is closed
+   * @return new tape
+   */
+  public static GradientTape record(EagerSession session, boolean persistent) {
+    GradientTape tape = new GradientTape(session, persistent);
+    session.startRecording(tape);
+    return tape;
+  }
+
+  /**
+   * Watches an operand, so the operations computed from it are recorded.
+   *
+   * @param operand operand of the eager session of this tape
+   * @throws IllegalStateException if this tape is not recording anymore
+   */
+  public synchronized void watch(Operand<?> operand) {
+    checkRecording();
+    tracked.add(operand.asOutput());
+  }
+
+  /**
+   * Computes the gradients of a target with respect to a list of sources.
+   *
+   * <p>If the tape is not persistent, it stops recording and releases its recorded operations.
+   *
+   * @param target operand to derive, computed from the watched operands
+   * @param sources operands for which partial derivatives are computed, like watched operands
+   * @return gradients of the target, one per source, as constants of the eager session
+   * @throws IllegalStateException if the tape is not persistent and has already computed gradients,
+   *                               or if it has been closed
+   */
+  public List<Operand<?>> gradient(Operand<?> target, Iterable<? extends Operand<?>> sources) {
+    List<RecordedOperation> recordedOperations;
+    synchronized (this) {
+      checkRecording();
+      recordedOperations = new ArrayList<>(operations);
+      if (!persistent) {
+        stopRecording();
+      }
+    }
+    List<Tensor<?>> results;
+    try (Graph graph = new Graph();
+        Session graphSession = new Session(graph)) {
+      Replay replay = new Replay(graph);
+      for (int i = 0; i < recordedOperations.size(); ++i) {
+        replay.replay(recordedOperations.get(i), i);
+      }
+      List<Output<?>> x = new ArrayList<>();
+      for (Operand<?> source : sources) {
+        x.add(replay.apply(source.asOutput()));
+      }
+      Output<?>[] dy = graph.addGradients(replay.apply(target.asOutput()),
+          x.toArray(new Output<?>[0]));
+
+      Session.Runner runner = graphSession.runner();
+      for (Map.Entry<Output<?>, Tensor<?>> feed : replay.feeds.entrySet()) {
+        runner.feed(feed.getKey(), feed.getValue());
+      }
+      for (Output<?> gradient : dy) {
+        runner.fetch(gradient);
+      }
+      results = runner.run();
+    }
+    Scope scope = new Scope(session);
+    List<Operand<?>> gradients = new ArrayList<>(results.size());
+    for (Tensor<?> result : results) {
+      try (Tensor<?> value = result) {
+        gradients.add(Constant.create(scope, value));
+      }
+    }
+    return gradients;
+  }
+
+  /** Stops recording and releases the recorded operations. */
+  @Override
+  public synchronized void close() {
+    if (recording) {
+      stopRecording();
+    }
+  }
+
+  /** Replays a call made to the builder of a recorded operation. */
+  @FunctionalInterface
+  interface BuilderCall {
+
+    /**
+     * Replays the call on the builder of an operation of a graph.
+     *
+     * @param builder graph operation builder
+     * @param graphInputs maps outputs of the eager session to outputs of the graph
+     */
+    void replay(OperationBuilder builder, Function<Output<?>, Output<?>> graphInputs);
+  }
+
+  /**
+   * Records an operation if at least one of its inputs is computed from a watched operand.
+   *
+   * @param operation executed operation
+   * @param inputs inputs of the operation
+   * @param calls calls made to the builder of the operation
+   */
+  synchronized void record(EagerOperation operation, List<Output<?>> inputs,
+      List<BuilderCall> calls) {
+    if (!recording) {
+      return;
+    }
+    for (Output<?> input : inputs) {
+      if (tracked.contains(input)) {
+        operations.add(new RecordedOperation(operation, calls));
+        for (int i = 0; i < operation.numOutputs(); ++i) {
+          tracked.add(operation.output(i));
+        }
+        return;
+      }
+    }
+  }
+
+  /** Returns the number of operations recorded by this tape. */
+  synchronized int numRecordedOperations() {
+    return operations.size();
+  }
+
+  private static final class RecordedOperation {
+
+    RecordedOperation(EagerOperation operation, List<BuilderCall> calls) {
+      this.operation = operation;
+      this.calls = calls;
+    }
+
+    final EagerOperation operation;
+    final List<BuilderCall> calls;
+  }
+
+  /** Replays recorded operations in a graph. */
+  private static final class Replay implements Function<Output<?>, Output<?>> {
+
+    /** Returns the output of the graph matching an output of the eager session. */
+    @Override
+    public Output<?> apply(Output<?> eagerOutput) {
+      Output<?> graphOutput = graphOutputs.get(eagerOutput);
+      if (graphOutput == null) {
+        // the value has not been computed by a recorded operation, feed it to a placeholder
+        graphOutput = graph.opBuilder("Placeholder", "Input_" + feeds.size())
+            .setAttr("dtype", eagerOutput.dataType())
+            .build()
+            .output(0);
+        feeds.put(graphOutput, eagerOutput.tensor());
+        graphOutputs.put(eagerOutput, graphOutput);
+      }
+      return graphOutput;
+    }
+
+    void replay(RecordedOperation recorded, int index) {
+      EagerOperation operation = recorded.operation;
+      OperationBuilder builder = graph.opBuilder(operation.type(), operation.type() + "_" + index);
+      for (BuilderCall call : recorded.calls) {
+        call.replay(builder, this);
+      }
+      Operation graphOperation = builder.build();
+      for (int i = 0; i < operation.numOutputs(); ++i) {
+        graphOutputs.put(operation.output(i), graphOperation.output(i));
+      }
+    }
+
+    private final Graph graph;
+    private final Map<Output<?>, Output<?>> graphOutputs = new HashMap<>();
+    private final Map<Output<?>, Tensor<?>> feeds = new HashMap<>();
+
+    private Replay(Graph graph) {
+      this.graph = graph;
+    }
+  }
+
+  private final EagerSession session;
+  private final boolean persistent;
+  private final List<RecordedOperation> operations = new ArrayList<>();
+  private final Set<Output<?>> tracked = new HashSet<>();
+  private boolean recording = true;
+
+  private GradientTape(EagerSession session, boolean persistent) {
+    this.session = session;
+    this.persistent = persistent;
+  }
+
+  private void checkRecording() {
+    if (!recording) {
+      throw new IllegalStateException(persistent ? "Gradient tape has been closed"
+          : "Gradient tape is not persistent and has already computed gradients, or is closed");
+    }
+  }
+
+  private void stopRecording() {
+    session.stopRecording(this);
+    recording = false;
+    operations.clear();
+    tracked.clear();
+  }
+}
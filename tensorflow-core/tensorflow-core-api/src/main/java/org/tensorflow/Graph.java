@@ -18,6 +18,7 @@ package org.tensorflow;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_AddGradientsWithPrefix;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_DeleteGraph;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_FinishWhile;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphCopyFunction;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphImportGraphDef;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphOperationByName;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphNextOperation;
@@ -25,13 +26,25 @@ import static org.tensorflow.internal.c_api.global.tensorflow.TF_GraphToGraphDef
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_ImportGraphDefOptionsSetPrefix;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_NewGraph;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_NewWhile;
-
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OperationAllInputs;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OperationGetControlInputs;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OperationNumControlInputs;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_OperationNumInputs;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.Pointer;
+import org.bytedeco.javacpp.PointerPointer;
 import org.bytedeco.javacpp.PointerScope;
 import org.bytedeco.javacpp.SizeTPointer;
 import org.tensorflow.internal.c_api.TF_Buffer;
+import org.tensorflow.internal.c_api.TF_Function;
 import org.tensorflow.internal.c_api.TF_Graph;
 import org.tensorflow.internal.c_api.TF_ImportGraphDefOptions;
 import org.tensorflow.internal.c_api.TF_Operation;
@@ -374,6 +387,73 @@ public final class Graph implements ExecutionEnvironment, AutoCloseable {
     }
   }
 
+  /**
+   * Registers a function in this graph, so it can be invoked by the operations of this graph.
+   *
+   * <p>Registering a function that is already present in the graph has no effect.
+   *
+   * @param function native handle of the function
+   */
+  void attachFunction(TF_Function function) {
+    Reference r = ref();
+    try {
+      attachFunction(r.nativeHandle(), function);
+    } finally {
+      r.close();
+    }
+  }
+
+  /**
+   * Returns the operations computing a set of outputs from a set of inputs.
+   *
+   * <p>The data and control inputs of the operations are walked back from the outputs, stopping
+   * at the given inputs, so operations that are only needed to produce these inputs are excluded.
+   *
+   * @param inputs tensors to stop at
+   * @param outputs tensors to compute
+   * @return operations of the subgraph, in no particular order
+   * @throws IllegalArgumentException if the outputs depend on a placeholder which is not one of
+   *                                  the inputs
+   */
+  GraphOperation[] subgraph(Output<?>[] inputs, Output<?>[] outputs) {
+    Set<Output<?>> boundary = new HashSet<>(Arrays.asList(inputs));
+    Set<GraphOperation> visited = new LinkedHashSet<>();
+    Deque<GraphOperation> pending = new ArrayDeque<>();
+    for (Output<?> output : outputs) {
+      if (!boundary.contains(output)) {
+        pending.push((GraphOperation)output.op());
+      }
+    }
+    Reference r = ref();
+    try {
+      while (!pending.isEmpty()) {
+        GraphOperation op = pending.pop();
+        if (!visited.add(op)) {
+          continue;
+        }
+        if (op.type().equals("Placeholder")) {
+          throw new IllegalArgumentException(
+              "Operation \"" + op.name() + "\" is a placeholder that must be an input");
+        }
+        Object[] inputHandlesAndIndices = dataInputs(op.getUnsafeNativeHandle());
+        int numInputs = inputHandlesAndIndices.length / 2;
+        for (int i = 0, j = numInputs; i < numInputs; ++i, ++j) {
+          GraphOperation input =
+              new GraphOperation(this, (TF_Operation)inputHandlesAndIndices[i]);
+          if (!boundary.contains(input.output((int)inputHandlesAndIndices[j]))) {
+            pending.push(input);
+          }
+        }
+        for (TF_Operation controlInput : controlInputs(op.getUnsafeNativeHandle())) {
+          pending.push(new GraphOperation(this, controlInput));
+        }
+      }
+    } finally {
+      r.close();
+    }
+    return visited.toArray(new GraphOperation[0]);
+  }
+
   private final Object nativeHandleLock = new Object();
   private TF_Graph nativeHandle;
   private int refcount = 0;
@@ -599,6 +679,48 @@ public final class Graph implements ExecutionEnvironment, AutoCloseable {
     }
   }
 
+  private static void attachFunction(TF_Graph handle, TF_Function function) {
+    requireHandle(handle);
+    try (PointerScope scope = new PointerScope()) {
+      TF_Status status = TF_Status.newStatus();
+      TF_GraphCopyFunction(handle, function, null, status);
+      status.throwExceptionIfNotOK();
+    }
+  }
+
+  private static Object[] dataInputs(TF_Operation handle) {
+    try (PointerScope scope = new PointerScope()) {
+      int numInputs = TF_OperationNumInputs(handle);
+      // returned array contains both op handles and output indices, in pair
+      Object[] inputHandlesAndIndices = new Object[numInputs * 2];
+      if (numInputs > 0) {
+        TF_Output inputs = new TF_Output(numInputs);
+        TF_OperationAllInputs(handle, inputs, numInputs);
+        for (int i = 0, j = numInputs; i < numInputs; ++i, ++j) {
+          TF_Output input = inputs.position(i);
+          inputHandlesAndIndices[i] = input.oper();
+          inputHandlesAndIndices[j] = input.index();
+        }
+      }
+      return inputHandlesAndIndices;
+    }
+  }
+
+  private static TF_Operation[] controlInputs(TF_Operation handle) {
+    try (PointerScope scope = new PointerScope()) {
+      int numControlInputs = TF_OperationNumControlInputs(handle);
+      TF_Operation[] controlInputs = new TF_Operation[numControlInputs];
+      if (numControlInputs > 0) {
+        PointerPointer<TF_Operation> handles = new PointerPointer<>(numControlInputs);
+        TF_OperationGetControlInputs(handle, handles, numControlInputs);
+        for (int i = 0; i < numControlInputs; ++i) {
+          controlInputs[i] = handles.get(TF_Operation.class, i);
+        }
+      }
+      return controlInputs;
+    }
+  }
+
   private static Object[] whileLoop(
       TF_Graph handle,
       TF_Operation[] inputHandles,
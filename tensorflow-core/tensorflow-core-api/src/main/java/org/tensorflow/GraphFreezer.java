@@ -0,0 +1,411 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.tensorflow.tools.proto.ProtoReader;
+import org.tensorflow.tools.proto.ProtoWriter;
+import org.tensorflow.types.TString;
+
+/**
+ * Transforms graphs into smaller graphs dedicated to inference.
+ *
+ * <p>Graphs imported from a {@code GraphDef} or loaded from a saved model keep all the nodes they
+ * were built with, including training-only subgraphs, summaries and optimizer nodes. Given the
+ * outputs to fetch, this class extracts the minimal subgraph computing them, optionally folding
+ * the current value of the variables into constants ("freezing"), and returns it as a new
+ * serialized {@code GraphDef}. For example:
+ *
+ * <pre>{@code
+ * try (SavedModelBundle bundle = SavedModelBundle.load(exportDir, "serve")) {
+ *   byte[] frozen = GraphFreezer.freeze(bundle.session(), Arrays.asList("y:0"));
+ *   try (Graph g = new Graph()) {
+ *     g.importGraphDef(frozen);
+ *     // ...
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>The transformation also:
+ *
+ * <ul>
+ *   <li>bypasses {@code Identity} and {@code CheckNumerics} nodes that have no control inputs,
+ *       unless they are fetched or used as control inputs (like the pivots of {@code cond}
+ *       branches);
+ *   <li>replaces control dependencies on {@code NoOp} nodes by the control dependencies of those
+ *       nodes, unless they are fetched;
+ *   <li>removes the {@code _class} colocation attribute, which may refer to pruned nodes.
+ * </ul>
+ *
+ * <p>Variables are frozen when they are read by a {@code VariableV2} node or by a
+ * {@code ReadVariableOp} of a {@code VarHandleOp}. Resource variables consumed by other
+ * operations (e.g. {@code ResourceGather}) are left untouched and must still be initialized in the
+ * session running the resulting graph.
+ */
+public final class GraphFreezer {
+
+  /**
+   * Prunes a graph to the nodes required to compute a set of outputs, without freezing variables.
+   *
+   * @param graphDef serialized {@code GraphDef} protocol buffer
+   * @param fetches names of the outputs to compute, in the {@code operation_name[:index]} format
+   * @return serialized {@code GraphDef} of the pruned graph
+   * @throws IllegalArgumentException if the message is malformed or if a fetch is not found
+   */
+  public static byte[] prune(byte[] graphDef, Collection<String> fetches) {
+    GraphFreezer freezer = new GraphFreezer(graphDef, fetches);
+    freezer.stripPassThroughNodes();
+    return freezer.toGraphDef();
+  }
+
+  /**
+   * Prunes the graph of a session to the nodes required to compute a set of outputs, replacing the
+   * variables they read by constants holding their current value in this session.
+   *
+   * @param session session from which the value of the variables is read
+   * @param fetches names of the outputs to compute, in the {@code operation_name[:index]} format
+   * @return serialized {@code GraphDef} of the frozen graph
+   * @throws IllegalArgumentException if a fetch is not found or if a variable is of type string
+   * @throws IllegalStateException if the session has been closed
+   */
+  public static byte[] freeze(Session session, Collection<String> fetches) {
+    GraphFreezer freezer = new GraphFreezer(session.graph().toGraphDef(), fetches);
+    freezer.foldVariables(session);
+    freezer.stripPassThroughNodes();
+    return freezer.toGraphDef();
+  }
+
+  private static final int GRAPH_DEF_NODE = 1;
+  private static final int GRAPH_DEF_LIBRARY = 2;
+  private static final int GRAPH_DEF_VERSION = 3;
+  private static final int GRAPH_DEF_VERSIONS = 4;
+  private static final int NODE_DEF_NAME = 1;
+  private static final int NODE_DEF_OP = 2;
+  private static final int NODE_DEF_INPUT = 3;
+  private static final int NODE_DEF_DEVICE = 4;
+  private static final int NODE_DEF_ATTR = 5;
+  private static final int MAP_ENTRY_KEY = 1;
+  private static final int MAP_ENTRY_VALUE = 2;
+  private static final int ATTR_VALUE_TYPE = 6;
+  private static final int ATTR_VALUE_TENSOR = 8;
+  private static final int TENSOR_PROTO_DTYPE = 1;
+  private static final int TENSOR_PROTO_TENSOR_SHAPE = 2;
+  private static final int TENSOR_PROTO_TENSOR_CONTENT = 4;
+  private static final int TENSOR_SHAPE_DIM = 2;
+  private static final int TENSOR_SHAPE_DIM_SIZE = 1;
+
+  /** A node of the graph, where fields not transformed by this class are kept serialized. */
+  private static final class Node {
+    String name = "";
+    String op = "";
+    List<String> inputs = new ArrayList<>();
+    String device;
+    /** Serialized entries of the {@code attr} map, by key. */
+    Map<String, byte[]> attrs = new LinkedHashMap<>();
+    /** Other fields, kept serialized. */
+    List<RawField> otherFields = new ArrayList<>();
+  }
+
+  private static final class RawField {
+    final int fieldNumber;
+    final byte[] value;
+
+    RawField(int fieldNumber, byte[] value) {
+      this.fieldNumber = fieldNumber;
+      this.value = value;
+    }
+  }
+
+  private final List<Node> nodes = new ArrayList<>();
+  private final Map<String, Node> nodesByName = new HashMap<>();
+  private final Set<String> fetchedNodes = new HashSet<>();
+  private final Set<String> controllingNodes = new HashSet<>();
+  private byte[] library;
+  private byte[] versions;
+  private int version;
+
+  private GraphFreezer(byte[] graphDef, Collection<String> fetches) {
+    ProtoReader graph = ProtoReader.of(graphDef);
+    while (graph.next()) {
+      switch (graph.fieldNumber()) {
+        case GRAPH_DEF_NODE:
+          Node node = parseNode(graph.readMessage());
+          nodes.add(node);
+          nodesByName.put(node.name, node);
+          break;
+        case GRAPH_DEF_LIBRARY:
+          library = graph.readBytes();
+          break;
+        case GRAPH_DEF_VERSION:
+          version = graph.readInt32();
+          break;
+        case GRAPH_DEF_VERSIONS:
+          versions = graph.readBytes();
+          break;
+        default:
+          break;
+      }
+    }
+    for (String fetch : fetches) {
+      String nodeName = nodeName(fetch);
+      if (!nodesByName.containsKey(nodeName)) {
+        throw new IllegalArgumentException("No operation named [" + nodeName + "] in the graph");
+      }
+      fetchedNodes.add(nodeName);
+    }
+  }
+
+  private static Node parseNode(ProtoReader nodeDef) {
+    Node node = new Node();
+    while (nodeDef.next()) {
+      switch (nodeDef.fieldNumber()) {
+        case NODE_DEF_NAME:
+          node.name = nodeDef.readString();
+          break;
+        case NODE_DEF_OP:
+          node.op = nodeDef.readString();
+          break;
+        case NODE_DEF_INPUT:
+          node.inputs.add(nodeDef.readString());
+          break;
+        case NODE_DEF_DEVICE:
+          node.device = nodeDef.readString();
+          break;
+        case NODE_DEF_ATTR:
+          byte[] entry = nodeDef.readBytes();
+          ProtoReader entryReader = ProtoReader.of(entry);
+          String key = "";
+          while (entryReader.next()) {
+            if (entryReader.fieldNumber() == MAP_ENTRY_KEY) {
+              key = entryReader.readString();
+            }
+          }
+          node.attrs.put(key, entry);
+          break;
+        default:
+          node.otherFields.add(new RawField(nodeDef.fieldNumber(), nodeDef.readBytes()));
+          break;
+      }
+    }
+    return node;
+  }
+
+  /** Replaces the reachable variable reads by constants holding their value in the session. */
+  private void foldVariables(Session session) {
+    List<Node> reads = new ArrayList<>();
+    for (Node node : reachableNodes()) {
+      if (node.op.equals("VariableV2") || node.op.equals("Variable")) {
+        reads.add(node);
+      } else if (node.op.equals("ReadVariableOp") && !node.inputs.isEmpty()) {
+        Node handle = nodesByName.get(nodeName(node.inputs.get(0)));
+        if (handle != null && handle.op.equals("VarHandleOp")) {
+          reads.add(node);
+        }
+      }
+    }
+    if (reads.isEmpty()) {
+      return;
+    }
+    Session.Runner runner = session.runner();
+    for (Node node : reads) {
+      runner.fetch(node.name, 0);
+    }
+    List<Tensor<?>> values = runner.run();
+    try {
+      for (int i = 0; i < reads.size(); ++i) {
+        toConstant(reads.get(i), values.get(i));
+      }
+    } finally {
+      for (Tensor<?> value : values) {
+        value.close();
+      }
+    }
+  }
+
+  private static void toConstant(Node node, Tensor<?> value) {
+    if (value.dataType() == TString.DTYPE) {
+      throw new IllegalArgumentException(
+          "Cannot freeze variable \"" + node.name + "\" of type " + value.dataType());
+    }
+    int dtype = value.dataType().nativeCode();
+    ProtoWriter shape = new ProtoWriter();
+    for (long size : value.shape().asArray()) {
+      shape.writeMessage(TENSOR_SHAPE_DIM, new ProtoWriter().writeInt64(TENSOR_SHAPE_DIM_SIZE, size));
+    }
+    byte[] content = new byte[(int)value.numBytes()];
+    value.writeTo(ByteBuffer.wrap(content));
+    ProtoWriter tensor = new ProtoWriter()
+        .writeInt32(TENSOR_PROTO_DTYPE, dtype)
+        .writeMessage(TENSOR_PROTO_TENSOR_SHAPE, shape)
+        .writeBytes(TENSOR_PROTO_TENSOR_CONTENT, content);
+
+    node.op = "Const";
+    node.inputs.clear();
+    node.attrs.clear();
+    node.attrs.put("dtype", attrEntry("dtype", new ProtoWriter().writeInt32(ATTR_VALUE_TYPE, dtype)));
+    node.attrs.put("value", attrEntry("value", new ProtoWriter().writeMessage(ATTR_VALUE_TENSOR, tensor)));
+  }
+
+  private static byte[] attrEntry(String key, ProtoWriter attrValue) {
+    return new ProtoWriter()
+        .writeString(MAP_ENTRY_KEY, key)
+        .writeMessage(MAP_ENTRY_VALUE, attrValue)
+        .toByteArray();
+  }
+
+  /** Rewires the inputs of all nodes to bypass Identity, CheckNumerics and NoOp nodes. */
+  private void stripPassThroughNodes() {
+    for (Node node : nodes) {
+      for (String input : node.inputs) {
+        if (input.startsWith("^")) {
+          controllingNodes.add(input.substring(1));
+        }
+      }
+    }
+    for (Node node : nodes) {
+      List<String> dataInputs = new ArrayList<>();
+      Set<String> controlInputs = new LinkedHashSet<>();
+      for (String input : node.inputs) {
+        if (input.startsWith("^")) {
+          resolveControlInput(input.substring(1), controlInputs, new HashSet<>());
+        } else {
+          dataInputs.add(resolveDataInput(input));
+        }
+      }
+      node.inputs.clear();
+      node.inputs.addAll(dataInputs);
+      for (String controlInput : controlInputs) {
+        node.inputs.add("^" + controlInput);
+      }
+    }
+  }
+
+  private String resolveDataInput(String input) {
+    Node producer = nodesByName.get(nodeName(input));
+    while (producer != null && isBypassable(producer) && outputIndex(input) == 0) {
+      input = producer.inputs.get(0);
+      producer = nodesByName.get(nodeName(input));
+    }
+    return input;
+  }
+
+  private void resolveControlInput(String nodeName, Set<String> controlInputs, Set<String> visited) {
+    if (!visited.add(nodeName)) {
+      return;
+    }
+    Node producer = nodesByName.get(nodeName);
+    if (producer == null || fetchedNodes.contains(nodeName)) {
+      controlInputs.add(nodeName);
+    } else if (producer.op.equals("NoOp")) {
+      for (String input : producer.inputs) {
+        resolveControlInput(nodeName(input), controlInputs, visited);
+      }
+    } else {
+      controlInputs.add(nodeName);
+    }
+  }
+
+  private boolean isBypassable(Node node) {
+    if (!(node.op.equals("Identity") || node.op.equals("CheckNumerics"))
+        || fetchedNodes.contains(node.name)
+        || controllingNodes.contains(node.name)
+        || node.inputs.size() != 1) {
+      return false;
+    }
+    return !node.inputs.get(0).startsWith("^");
+  }
+
+  /** Returns the nodes required to compute the fetches, in the order of the graph. */
+  private List<Node> reachableNodes() {
+    Set<String> reached = new HashSet<>(fetchedNodes);
+    Deque<String> pending = new ArrayDeque<>(fetchedNodes);
+    while (!pending.isEmpty()) {
+      Node node = nodesByName.get(pending.poll());
+      if (node == null) {
+        continue;
+      }
+      for (String input : node.inputs) {
+        String inputName = nodeName(input);
+        if (reached.add(inputName)) {
+          pending.add(inputName);
+        }
+      }
+    }
+    List<Node> reachable = new ArrayList<>();
+    for (Node node : nodes) {
+      if (reached.contains(node.name)) {
+        reachable.add(node);
+      }
+    }
+    return reachable;
+  }
+
+  private byte[] toGraphDef() {
+    ProtoWriter graph = new ProtoWriter();
+    for (Node node : reachableNodes()) {
+      ProtoWriter nodeDef = new ProtoWriter()
+          .writeString(NODE_DEF_NAME, node.name)
+          .writeString(NODE_DEF_OP, node.op);
+      for (String input : node.inputs) {
+        nodeDef.writeString(NODE_DEF_INPUT, input);
+      }
+      if (node.device != null && !node.device.isEmpty()) {
+        nodeDef.writeString(NODE_DEF_DEVICE, node.device);
+      }
+      for (Map.Entry<String, byte[]> attr : node.attrs.entrySet()) {
+        if (!attr.getKey().equals("_class")) {
+          nodeDef.writeBytes(NODE_DEF_ATTR, attr.getValue());
+        }
+      }
+      for (RawField field : node.otherFields) {
+        nodeDef.writeBytes(field.fieldNumber, field.value);
+      }
+      graph.writeMessage(GRAPH_DEF_NODE, nodeDef);
+    }
+    if (library != null) {
+      graph.writeBytes(GRAPH_DEF_LIBRARY, library);
+    }
+    if (version != 0) {
+      graph.writeInt32(GRAPH_DEF_VERSION, version);
+    }
+    if (versions != null) {
+      graph.writeBytes(GRAPH_DEF_VERSIONS, versions);
+    }
+    return graph.toByteArray();
+  }
+
+  private static String nodeName(String input) {
+    int start = input.startsWith("^") ? 1 : 0;
+    int colon = input.lastIndexOf(':');
+    return colon > start ? input.substring(start, colon) : input.substring(start);
+  }
+
+  private static int outputIndex(String input) {
+    int colon = input.lastIndexOf(':');
+    return colon > 0 ? Integer.parseInt(input.substring(colon + 1)) : 0;
+  }
+}
@@ -24,6 +24,7 @@ import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrBool;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrBoolList;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrFloat;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrFloatList;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrFuncName;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrInt;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrIntList;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetAttrShape;
@@ -315,6 +316,18 @@ public final class GraphOperationBuilder implements OperationBuilder {
     return this;
   }
 
+  @Override
+  public GraphOperationBuilder setAttr(String name, ConcreteFunction value) {
+    value.attachTo(graph);
+    Graph.Reference r = graph.ref();
+    try {
+      setAttrFuncName(unsafeNativeHandle, name, value.functionName());
+    } finally {
+      r.close();
+    }
+    return this;
+  }
+
   @Override
   public GraphOperationBuilder setAttr(String name, String[] value) {
     Charset utf8 = Charset.forName("UTF-8");
@@ -421,6 +434,14 @@ public final class GraphOperationBuilder implements OperationBuilder {
     }
   }
 
+  private static void setAttrFuncName(TF_OperationDescription handle, String name, String value) {
+    requireHandle(handle);
+    try (PointerScope scope = new PointerScope()) {
+      byte[] bytes = value.getBytes(Charset.forName("UTF-8"));
+      TF_SetAttrFuncName(handle, new BytePointer(name), new BytePointer(bytes), bytes.length);
+    }
+  }
+
   private static void setAttrInt(TF_OperationDescription handle, String name, long value) {
     requireHandle(handle);
     TF_SetAttrInt(handle, name, value);
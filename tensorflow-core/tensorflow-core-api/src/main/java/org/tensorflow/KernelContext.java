@@ -0,0 +1,131 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_AllocateOutput;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_GetInput;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_NumInputs;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_NumOutputs;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_StepId;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bytedeco.javacpp.PointerPointer;
+import org.bytedeco.javacpp.PointerScope;
+import org.tensorflow.internal.c_api.TF_OpKernelContext;
+import org.tensorflow.internal.c_api.TF_Status;
+import org.tensorflow.internal.c_api.TF_Tensor;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.family.TType;
+
+/**
+ * Inputs and outputs of a custom operation, as seen by its {@link CustomOp.Kernel}.
+ *
+ * <p>Input and output tensors are returned as n-dimensional arrays mapped directly to the memory
+ * managed by the runtime, so no data is copied between the kernel and the rest of the graph. These
+ * arrays are only valid until the kernel returns and must not be retained afterwards.
+ */
+public final class KernelContext {
+
+  /** Returns the number of inputs of the operation. */
+  public int numInputs() {
+    return TF_NumInputs(handle);
+  }
+
+  /** Returns the number of outputs of the operation. */
+  public int numOutputs() {
+    return TF_NumOutputs(handle);
+  }
+
+  /** Returns the identifier of the step during which the operation is executed. */
+  public long stepId() {
+    return TF_StepId(handle);
+  }
+
+  /**
+   * Returns the value of an input of the operation.
+   *
+   * <p>The returned array shares its memory with the input tensor, which may also be read by other
+   * operations, and therefore must not be modified.
+   *
+   * @param index index of the input
+   * @param dtype expected data type of the input
+   * @return input data
+   * @throws IndexOutOfBoundsException if {@code index} is not a valid input index
+   * @throws IllegalArgumentException if the input is not of type {@code dtype}
+   */
+  public <T extends TType> T input(int index, DataType<T> dtype) {
+    try (PointerScope scope = new PointerScope()) {
+      PointerPointer<TF_Tensor> tensorHandle = new PointerPointer<>(1);
+      TF_Status status = TF_Status.newStatus();
+      TF_GetInput(handle, index, tensorHandle, status);
+      status.throwExceptionIfNotOK();
+      return open(tensorHandle.get(TF_Tensor.class, 0)).expect(dtype).data();
+    }
+  }
+
+  /**
+   * Allocates an output of the operation and returns its value, to be filled by the kernel.
+   *
+   * <p>Every output of the operation must be allocated before the kernel returns.
+   *
+   * @param index index of the output
+   * @param dtype data type of the output
+   * @param shape shape of the output
+   * @return output data, initially uninitialized
+   * @throws IndexOutOfBoundsException if {@code index} is not a valid output index
+   * @throws IllegalArgumentException if {@code dtype} is a variable-length type or if {@code shape}
+   *                                  has unknown dimensions
+   */
+  public <T extends TType> T allocateOutput(int index, DataType<T> dtype, Shape shape) {
+    if (dtype.byteSize() < 0) {
+      throw new IllegalArgumentException(
+          "Outputs of type " + dtype + " cannot be allocated by a custom kernel");
+    }
+    if (shape.hasUnknownDimension()) {
+      throw new IllegalArgumentException("Output shape " + shape + " has unknown dimensions");
+    }
+    try (PointerScope scope = new PointerScope()) {
+      long[] dims = shape.asArray();
+      TF_Status status = TF_Status.newStatus();
+      TF_Tensor tensorHandle = TF_AllocateOutput(handle, index, dtype.nativeCode(), dims,
+          dims.length, shape.size() * dtype.byteSize(), status);
+      status.throwExceptionIfNotOK();
+      return open(tensorHandle).expect(dtype).data();
+    }
+  }
+
+  KernelContext(TF_OpKernelContext handle) {
+    this.handle = handle;
+  }
+
+  /** Releases the references to the tensors opened by the kernel. */
+  void release() {
+    for (Tensor<?> tensor : tensors) {
+      tensor.close();
+    }
+    tensors.clear();
+  }
+
+  private final TF_OpKernelContext handle;
+  private final List<Tensor<?>> tensors = new ArrayList<>();
+
+  private Tensor<?> open(TF_Tensor tensorHandle) {
+    Tensor<?> tensor = Tensor.fromHandle(tensorHandle);
+    tensors.add(tensor);
+    return tensor;
+  }
+}
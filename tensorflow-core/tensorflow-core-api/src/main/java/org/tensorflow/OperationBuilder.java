@@ -223,4 +223,16 @@ public interface OperationBuilder {
    * @return the OperationBuilder instance for chaining.
    */
    OperationBuilder setAttr(String name, Shape[] value);
+
+  /**
+   * Set the function value of an attribute of the operation being built.
+   *
+   * <p>The function is registered in the execution environment of the operation if it is not
+   * already.
+   *
+   * @param name attribute name
+   * @param value attribute value
+   * @return the OperationBuilder instance for chaining.
+   */
+   OperationBuilder setAttr(String name, ConcreteFunction value);
 }
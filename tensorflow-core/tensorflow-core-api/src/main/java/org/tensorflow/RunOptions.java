@@ -0,0 +1,138 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import org.tensorflow.tools.proto.ProtoWriter;
+
+/**
+ * Builds the options of a session run, without depending on the Java classes generated for the
+ * TensorFlow protocol buffers.
+ *
+ * <p>This class encodes the <a
+ * href="https://www.tensorflow.org/code/tensorflow/core/protobuf/config.proto">RunOptions</a>
+ * protocol buffer, for example:
+ *
+ * <pre>{@code
+ * byte[] options = RunOptions.builder()
+ *     .timeoutMillis(500)
+ *     .interOpThreadPool(1)
+ *     .build();
+ * session.runner().feed("x", x).fetch("y").setOptions(options).run();
+ * }</pre>
+ *
+ * @see Session.Runner#setOptions(byte[])
+ * @see SavedModelBundle.Loader#withRunOptions(byte[])
+ */
+public final class RunOptions {
+
+  /** Level of tracing of a run. */
+  public enum TraceLevel {
+    NO_TRACE(0),
+    SOFTWARE_TRACE(1),
+    HARDWARE_TRACE(2),
+    FULL_TRACE(3);
+
+    private final int value;
+
+    TraceLevel(int value) {
+      this.value = value;
+    }
+  }
+
+  /** Builds a serialized {@code RunOptions}. */
+  public static final class Builder {
+
+    /**
+     * Sets the level of tracing of the run.
+     *
+     * <p>Traces are returned in the metadata of the run.
+     *
+     * @see Session.Runner#runAndFetchMetadata()
+     */
+    public Builder traceLevel(TraceLevel value) {
+      traceLevel = value;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time the run can take, in milliseconds.
+     *
+     * @param value timeout, or 0 for no timeout
+     */
+    public Builder timeoutMillis(long value) {
+      timeoutMillis = value;
+      return this;
+    }
+
+    /**
+     * Selects the thread pool running the operations.
+     *
+     * @param value index of a pool added with {@link
+     *     SessionConfig.Builder#addSessionInterOpThreadPool(int, String)}
+     */
+    public Builder interOpThreadPool(int value) {
+      if (value < 0) {
+        throw new IllegalArgumentException("Thread pool index cannot be negative");
+      }
+      interOpThreadPool = value;
+      return this;
+    }
+
+    /** Sets if allocated tensors should be reported when the run fails by lack of memory. */
+    public Builder reportTensorAllocationsUponOom(boolean value) {
+      reportTensorAllocationsUponOom = value;
+      return this;
+    }
+
+    /** Returns the serialized {@code RunOptions} with the selected options. */
+    public byte[] build() {
+      ProtoWriter options = new ProtoWriter();
+      if (traceLevel != null) {
+        options.writeInt32(RUN_OPTIONS_TRACE_LEVEL, traceLevel.value);
+      }
+      if (timeoutMillis != null) {
+        options.writeInt64(RUN_OPTIONS_TIMEOUT_IN_MS, timeoutMillis);
+      }
+      if (interOpThreadPool != null) {
+        options.writeInt32(RUN_OPTIONS_INTER_OP_THREAD_POOL, interOpThreadPool);
+      }
+      if (reportTensorAllocationsUponOom != null) {
+        options.writeBool(RUN_OPTIONS_REPORT_TENSOR_ALLOCATIONS_UPON_OOM,
+            reportTensorAllocationsUponOom);
+      }
+      return options.toByteArray();
+    }
+
+    private TraceLevel traceLevel;
+    private Long timeoutMillis;
+    private Integer interOpThreadPool;
+    private Boolean reportTensorAllocationsUponOom;
+
+    private Builder() {}
+  }
+
+  /** Starts building new run options. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static final int RUN_OPTIONS_TRACE_LEVEL = 1;
+  private static final int RUN_OPTIONS_TIMEOUT_IN_MS = 2;
+  private static final int RUN_OPTIONS_INTER_OP_THREAD_POOL = 3;
+  private static final int RUN_OPTIONS_REPORT_TENSOR_ALLOCATIONS_UPON_OOM = 7;
+
+  private RunOptions() {}
+}
@@ -19,6 +19,8 @@ import static org.tensorflow.internal.c_api.global.tensorflow.TF_LoadSessionFrom
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_NewGraph;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetConfig;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.PointerPointer;
 import org.bytedeco.javacpp.PointerScope;
@@ -27,6 +29,8 @@ import org.tensorflow.internal.c_api.TF_Graph;
 import org.tensorflow.internal.c_api.TF_Session;
 import org.tensorflow.internal.c_api.TF_SessionOptions;
 import org.tensorflow.internal.c_api.TF_Status;
+import org.tensorflow.metrics.Metrics;
+import org.tensorflow.metrics.MetricsListener;
 
 /**
  * SavedModelBundle represents a model loaded from storage.
@@ -42,7 +46,16 @@ public class SavedModelBundle implements AutoCloseable {
   public static final class Loader {
     /** Load a <code>SavedModelBundle</code> with the configured options. */
     public SavedModelBundle load() {
-      return SavedModelBundle.load(exportDir, tags, configProto, runOptions);
+      SavedModelBundle bundle = SavedModelBundle.load(exportDir, tags, configProto, runOptions);
+      if (warmup != null) {
+        try {
+          bundle.warmupReport = warmup.run(bundle);
+        } catch (RuntimeException e) {
+          bundle.close();
+          throw e;
+        }
+      }
+      return bundle;
     }
 
     /**
@@ -79,6 +92,21 @@ public class SavedModelBundle implements AutoCloseable {
       return this;
     }
 
+    /**
+     * Replays requests on the model once loaded, before returning it.
+     *
+     * <p>Warming up a model prevents the latency spikes of the first requests, caused by the lazy
+     * initialization of kernels and memory pools. The bundle is closed if any of the warmup
+     * requests fails.
+     *
+     * @param warmup requests to replay
+     * @see SavedModelBundle#warmupReport()
+     */
+    public Loader withWarmup(SavedModelWarmup warmup) {
+      this.warmup = warmup;
+      return this;
+    }
+
     private Loader(String exportDir) {
       this.exportDir = exportDir;
     }
@@ -87,6 +115,7 @@ public class SavedModelBundle implements AutoCloseable {
     private String[] tags = null;
     private byte[] configProto = null;
     private byte[] runOptions = null;
+    private SavedModelWarmup warmup = null;
   }
 
   /**
@@ -129,6 +158,63 @@ public class SavedModelBundle implements AutoCloseable {
     return metaGraphDef;
   }
 
+  /**
+   * Returns the signatures of the functions exported in the saved model.
+   *
+   * <p>Signatures are decoded from the {@link #metaGraphDef() MetaGraphDef} the first time this
+   * method is called.
+   *
+   * @return signatures by key, in the order they were exported
+   * @throws IllegalArgumentException if the MetaGraphDef cannot be decoded
+   */
+  public Map<String, Signature> signatures() {
+    Map<String, Signature> result = signatures;
+    if (result == null) {
+      result = Signature.parseAll(metaGraphDef);
+      signatures = result;
+    }
+    return result;
+  }
+
+  /**
+   * Returns a function running one of the signatures exported in the saved model.
+   *
+   * <p>The inputs and outputs of the signature are resolved to tensors of the {@link #graph()}
+   * once, and the function is reused by subsequent calls with the same key. For example:
+   *
+   * <pre>{@code
+   * ConcreteFunction predict = bundle.function(Signature.DEFAULT_KEY);
+   * try (Tensor<?> y = predict.call(x)) {
+   *   ...
+   * }
+   * }</pre>
+   *
+   * @param signatureKey key of the signature, like {@code "serving_default"}
+   * @return function running the signature on the {@link #session()} of this bundle
+   * @throws IllegalArgumentException if no signature is found with this key or if its tensors are
+   *                                  not found in the graph
+   */
+  public ConcreteFunction function(String signatureKey) {
+    return functions.computeIfAbsent(signatureKey, key -> {
+      Signature signature = signatures().get(key);
+      if (signature == null) {
+        throw new IllegalArgumentException("Signature \"" + key
+            + "\" not found in saved model, available signatures are " + signatures().keySet());
+      }
+      return ConcreteFunction.create(signature, session, graph);
+    });
+  }
+
+  /**
+   * Returns statistics on the requests replayed to warm up the model.
+   *
+   * @return warmup report, or null if no warmup was requested when loading the model
+   * @see Loader#withWarmup(SavedModelWarmup)
+   */
+  public SavedModelWarmup.Report warmupReport() {
+    return warmupReport;
+  }
+
   /** Returns the graph that describes the computation performed by the model. */
   public Graph graph() {
     return graph;
@@ -156,6 +242,9 @@ public class SavedModelBundle implements AutoCloseable {
   private final Graph graph;
   private final Session session;
   private final byte[] metaGraphDef;
+  private final Map<String, ConcreteFunction> functions = new ConcurrentHashMap<>();
+  private volatile Map<String, Signature> signatures = null;
+  private SavedModelWarmup.Report warmupReport = null;
 
   private SavedModelBundle(Graph graph, Session session, byte[] metaGraphDef) {
     this.graph = graph;
@@ -179,6 +268,7 @@ public class SavedModelBundle implements AutoCloseable {
   private static SavedModelBundle load(
       String exportDir, String[] tags, byte[] config, byte[] runOptions) {
     SavedModelBundle bundle = null;
+    long startNanos = System.nanoTime();
 
     try (PointerScope scope = new PointerScope()) {
       TF_Status status = TF_Status.newStatus();
@@ -203,6 +293,10 @@ public class SavedModelBundle implements AutoCloseable {
       bundle = fromHandle(graph, session, metagraphDef.get());
     }
 
+    MetricsListener metrics = Metrics.listener();
+    if (metrics != null) {
+      metrics.onSavedModelLoaded(exportDir, System.nanoTime() - startNanos);
+    }
     return bundle;
   }
 
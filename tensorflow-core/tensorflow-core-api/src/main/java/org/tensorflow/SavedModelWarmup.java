@@ -0,0 +1,327 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.tensorflow.metrics.LatencyHistogram;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.types.TString;
+
+/**
+ * Requests to replay on a saved model right after it has been loaded.
+ *
+ * <p>The first runs of a session are much slower than the following ones, since kernels are
+ * instantiated and memory pools grow lazily. Replaying a few requests before a model is handed out
+ * takes this cost out of the latency of the first real requests. Requests are run in parallel
+ * across multiple threads, so that per-thread resources are initialized as well.
+ *
+ * <p>Requests can either be synthesized from the signatures of the model, in which case all
+ * inputs are fed with zeros (or empty strings), or be provided explicitly, like requests recorded
+ * from production traffic. For example:
+ *
+ * <pre>{@code
+ * SavedModelBundle bundle = SavedModelBundle.loader("/path/to/model")
+ *     .withTags("serve")
+ *     .withWarmup(SavedModelWarmup.syntheticRequests(10).threads(4))
+ *     .load();
+ * System.out.println(bundle.warmupReport());
+ * }</pre>
+ *
+ * @see SavedModelBundle.Loader#withWarmup(SavedModelWarmup)
+ */
+public final class SavedModelWarmup {
+
+  /** Statistics on the requests replayed during a warmup. */
+  public static final class Report {
+
+    /** Returns the number of requests replayed. */
+    public long numRequests() {
+      return latencies.count();
+    }
+
+    /** Returns the time elapsed to replay all requests, in nanoseconds. */
+    public long elapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /** Returns the latency of the replayed requests. */
+    public LatencyHistogram latencies() {
+      return latencies;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Warmup of %d requests completed in %.3fms (%s)", numRequests(),
+          elapsedNanos / 1e6, latencies);
+    }
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private long elapsedNanos;
+
+    private Report() {}
+  }
+
+  /**
+   * Warms up a model by replaying requests synthesized from its signatures.
+   *
+   * <p>Each input is fed with a tensor filled with zeros, or with empty strings, whose shape is
+   * the one of the signature, unknown dimensions being replaced by the {@link #batchSize(long)
+   * batch size}.
+   *
+   * @param numRequests number of requests to replay for each signature
+   * @return warmup configuration, warming up all signatures of the model by default
+   */
+  public static SavedModelWarmup syntheticRequests(int numRequests) {
+    if (numRequests <= 0) {
+      throw new IllegalArgumentException("Number of requests must be strictly positive");
+    }
+    return new SavedModelWarmup(numRequests, null, Collections.emptyList());
+  }
+
+  /**
+   * Warms up a model by replaying the given requests on one of its signatures.
+   *
+   * <p>Input tensors remain owned by the caller, which must not close them until the model has
+   * been loaded.
+   *
+   * @param signatureKey key of the signature to run
+   * @param requests input tensors of each request, by logical input name
+   * @return warmup configuration
+   */
+  public static SavedModelWarmup requests(String signatureKey,
+      List<Map<String, Tensor<?>>> requests) {
+    if (requests.isEmpty()) {
+      throw new IllegalArgumentException("At least one request must be provided");
+    }
+    return new SavedModelWarmup(0, new String[] { signatureKey }, requests);
+  }
+
+  /**
+   * Restricts the signatures warmed up with synthetic requests.
+   *
+   * @param signatureKeys keys of the signatures to run
+   * @return this object
+   */
+  public SavedModelWarmup signatures(String... signatureKeys) {
+    if (!recordedRequests.isEmpty()) {
+      throw new IllegalStateException("Signatures can only be selected for synthetic requests");
+    }
+    this.signatureKeys = signatureKeys;
+    return this;
+  }
+
+  /**
+   * Sets the number of threads replaying requests concurrently (default: 1).
+   *
+   * @param numThreads number of threads
+   * @return this object
+   */
+  public SavedModelWarmup threads(int numThreads) {
+    if (numThreads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be strictly positive");
+    }
+    this.numThreads = numThreads;
+    return this;
+  }
+
+  /**
+   * Sets the size given to unknown dimensions of synthetic inputs (default: 1).
+   *
+   * @param batchSize size of unknown dimensions
+   * @return this object
+   */
+  public SavedModelWarmup batchSize(long batchSize) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be strictly positive");
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Replays the requests on a loaded model.
+   *
+   * @param bundle model to warm up
+   * @return warmup statistics
+   * @throws IllegalArgumentException if a signature is not found or cannot be synthesized
+   * @throws TensorFlowException if a request fails
+   */
+  Report run(SavedModelBundle bundle) {
+    List<ConcreteFunction> functions = new ArrayList<>();
+    List<Map<String, Tensor<?>>> requests = new ArrayList<>();
+    List<Tensor<?>> syntheticTensors = new ArrayList<>();
+    try {
+      if (!recordedRequests.isEmpty()) {
+        ConcreteFunction function = bundle.function(signatureKeys[0]);
+        for (Map<String, Tensor<?>> request : recordedRequests) {
+          functions.add(function);
+          requests.add(request);
+        }
+      } else {
+        for (ConcreteFunction function : functionsToSynthesize(bundle)) {
+          Map<String, Tensor<?>> request = synthesize(function.signature(), syntheticTensors);
+          for (int i = 0; i < numSyntheticRequests; ++i) {
+            functions.add(function);
+            requests.add(request);
+          }
+        }
+      }
+      return replay(functions, requests);
+    } finally {
+      for (Tensor<?> t : syntheticTensors) {
+        t.close();
+      }
+    }
+  }
+
+  private final int numSyntheticRequests;
+  private final List<Map<String, Tensor<?>>> recordedRequests;
+  private String[] signatureKeys;
+  private int numThreads = 1;
+  private long batchSize = 1;
+
+  private SavedModelWarmup(int numSyntheticRequests, String[] signatureKeys,
+      List<Map<String, Tensor<?>>> recordedRequests) {
+    this.numSyntheticRequests = numSyntheticRequests;
+    this.signatureKeys = signatureKeys;
+    this.recordedRequests = recordedRequests;
+  }
+
+  private List<ConcreteFunction> functionsToSynthesize(SavedModelBundle bundle) {
+    List<ConcreteFunction> functions = new ArrayList<>();
+    if (signatureKeys != null) {
+      for (String key : signatureKeys) {
+        functions.add(bundle.function(key));
+      }
+      return functions;
+    }
+    for (String key : bundle.signatures().keySet()) {
+      // Skip signatures with inputs that cannot be synthesized, like resources
+      if (isSynthesizable(bundle.signatures().get(key))) {
+        functions.add(bundle.function(key));
+      }
+    }
+    return functions;
+  }
+
+  private static boolean isSynthesizable(Signature signature) {
+    for (Signature.TensorDescription input : signature.inputs().values()) {
+      try {
+        input.dataType();
+      } catch (IllegalArgumentException e) {
+        return false;
+      }
+      if (input.shape().numDimensions() < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Map<String, Tensor<?>> synthesize(Signature signature, List<Tensor<?>> allocated) {
+    Map<String, Tensor<?>> request = new LinkedHashMap<>();
+    for (Map.Entry<String, Signature.TensorDescription> input : signature.inputs().entrySet()) {
+      Shape signatureShape = input.getValue().shape();
+      if (signatureShape.numDimensions() < 0) {
+        throw new IllegalArgumentException("Cannot synthesize input \"" + input.getKey()
+            + "\" of signature \"" + signature.key() + "\", its rank is unknown");
+      }
+      long[] dimSizes = signatureShape.asArray();
+      if (dimSizes == null) {
+        dimSizes = new long[0];
+      }
+      for (int i = 0; i < dimSizes.length; ++i) {
+        if (dimSizes[i] < 0) {
+          dimSizes[i] = batchSize;
+        }
+      }
+      Tensor<?> tensor = zeros(input.getValue().dataType(), Shape.make(dimSizes));
+      allocated.add(tensor);
+      request.put(input.getKey(), tensor);
+    }
+    return request;
+  }
+
+  private static Tensor<?> zeros(DataType<?> dataType, Shape shape) {
+    if (dataType == TString.DTYPE) {
+      NdArray<String> values = NdArrays.ofObjects(String.class, shape);
+      values.scalars().forEach(s -> s.setObject(""));
+      return TString.copyOf(values);
+    }
+    ByteBuffer data = ByteBuffer.allocate((int)(shape.size() * dataType.byteSize()));
+    return Tensor.create(dataType, shape.asArray(), data);
+  }
+
+  private Report replay(List<ConcreteFunction> functions, List<Map<String, Tensor<?>>> requests) {
+    Report report = new Report();
+    long startNanos = System.nanoTime();
+    if (numThreads == 1) {
+      replay(functions, requests, 0, 1, report);
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(numThreads, r -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setDaemon(true);
+        thread.setName("tensorflow-warmup-" + thread.getId());
+        return thread;
+      });
+      try {
+        List<Future<?>> tasks = new ArrayList<>(numThreads);
+        for (int t = 0; t < numThreads; ++t) {
+          int first = t;
+          tasks.add(executor.submit(() -> replay(functions, requests, first, numThreads, report)));
+        }
+        for (Future<?> task : tasks) {
+          task.get();
+        }
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException)e.getCause();
+        }
+        throw new TensorFlowException("Model warmup failed", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new TensorFlowException("Model warmup interrupted", e);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+    report.elapsedNanos = System.nanoTime() - startNanos;
+    return report;
+  }
+
+  private static void replay(List<ConcreteFunction> functions,
+      List<Map<String, Tensor<?>>> requests, int first, int step, Report report) {
+    for (int i = first; i < requests.size(); i += step) {
+      long requestStart = System.nanoTime();
+      Map<String, Tensor<?>> outputs = functions.get(i).call(requests.get(i));
+      report.latencies.record(System.nanoTime() - requestStart);
+      for (Tensor<?> output : outputs.values()) {
+        output.close();
+      }
+    }
+  }
+}
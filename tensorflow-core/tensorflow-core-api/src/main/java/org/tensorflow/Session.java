@@ -17,13 +17,18 @@ package org.tensorflow;
 
 import static org.tensorflow.Graph.resolveOutputs;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_CloseSession;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_DeletePRunHandle;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_DeleteSession;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_NewSession;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_SessionPRun;
+import static org.tensorflow.internal.c_api.global.tensorflow.TF_SessionPRunSetup;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SessionRun;
 import static org.tensorflow.internal.c_api.global.tensorflow.TF_SetConfig;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.bytedeco.javacpp.BytePointer;
 import org.bytedeco.javacpp.Pointer;
 import org.bytedeco.javacpp.PointerPointer;
@@ -36,6 +41,8 @@ import org.tensorflow.internal.c_api.TF_Session;
 import org.tensorflow.internal.c_api.TF_SessionOptions;
 import org.tensorflow.internal.c_api.TF_Status;
 import org.tensorflow.internal.c_api.TF_Tensor;
+import org.tensorflow.metrics.Metrics;
+import org.tensorflow.metrics.MetricsListener;
 
 /**
  * Driver for {@link Graph} execution.
@@ -100,6 +107,11 @@ public final class Session implements AutoCloseable {
     graphRef = g.ref();
   }
 
+  /** Returns the graph executed by this session. */
+  Graph graph() {
+    return graph;
+  }
+
   /**
    * Release resources associated with the Session.
    *
@@ -302,6 +314,10 @@ public final class Session implements AutoCloseable {
      * returns metadata about the graph execution in the form of a serialized <a
      * href="https://www.tensorflow.org/code/tensorflow/core/protobuf/config.proto">RunMetadata
      * protocol buffer</a>.
+     *
+     * <p>When run with {@link org.tensorflow.profiler.StepProfile#traceRunOptions() tracing
+     * options}, the execution statistics of each node can be decoded from the metadata using
+     * {@link org.tensorflow.profiler.StepProfile#parse(byte[], Graph)}.
      */
     public Run runAndFetchMetadata() {
       return runHelper(true);
@@ -339,7 +355,14 @@ public final class Session implements AutoCloseable {
         targetOpHandles[idx++] = op.getUnsafeNativeHandle();
       }
       Reference runRef = new Reference();
+      MetricsListener metrics = Metrics.listener();
+      long startNanos = 0L;
+      if (metrics != null) {
+        metrics.onRunStart();
+        startNanos = System.nanoTime();
+      }
       byte[] metadata = null;
+      boolean succeeded = false;
       try {
         metadata =
             Session.run(
@@ -353,8 +376,12 @@ public final class Session implements AutoCloseable {
                 targetOpHandles,
                 wantMetadata,
                 outputTensorHandles);
+        succeeded = true;
       } finally {
         runRef.close();
+        if (metrics != null) {
+          metrics.onRunEnd(signature(), System.nanoTime() - startNanos, succeeded);
+        }
       }
       List<Tensor<?>> outputs = new ArrayList<>();
       for (TF_Tensor h : outputTensorHandles) {
@@ -374,27 +401,25 @@ public final class Session implements AutoCloseable {
       return ret;
     }
 
-    private class Reference implements AutoCloseable {
-      public Reference() {
-        synchronized (nativeHandleLock) {
-          if (nativeHandle == null || nativeHandle.isNull()) {
-            throw new IllegalStateException("run() cannot be called on the Session after close()");
-          }
-          ++numActiveRuns;
-        }
+    /**
+     * Describes the feeds, fetches and targets of this run, to group its metrics with similar runs.
+     */
+    private String signature() {
+      StringBuilder sb = new StringBuilder("feeds=[");
+      for (int i = 0; i < inputs.size(); ++i) {
+        Output<?> o = inputs.get(i);
+        sb.append(i > 0 ? ", " : "").append(o.op().name()).append(':').append(o.index());
       }
-
-      @Override
-      public void close() {
-        synchronized (nativeHandleLock) {
-          if (nativeHandle == null || nativeHandle.isNull()) {
-            return;
-          }
-          if (--numActiveRuns == 0) {
-            nativeHandleLock.notifyAll();
-          }
-        }
+      sb.append("] fetches=[");
+      for (int i = 0; i < outputs.size(); ++i) {
+        Output<?> o = outputs.get(i);
+        sb.append(i > 0 ? ", " : "").append(o.op().name()).append(':').append(o.index());
       }
+      sb.append("] targets=[");
+      for (int i = 0; i < targets.size(); ++i) {
+        sb.append(i > 0 ? ", " : "").append(targets.get(i).name());
+      }
+      return sb.append(']').toString();
     }
 
     private GraphOperation operationByName(String opName) {
@@ -432,6 +457,175 @@ public final class Session implements AutoCloseable {
     return new Runner();
   }
 
+  /**
+   * Prepare a sequence of partial runs, feeding and fetching {@link Tensor Tensors} incrementally.
+   *
+   * <p>A partial run executes a single step of the graph in several calls to {@link
+   * PartialRun#run(Map, List)}, each feeding some of the declared {@code feeds} and fetching some
+   * of the declared {@code fetches}. Intermediate values remain in the session between the calls
+   * instead of being recomputed, which is useful when some inputs depend on outputs already
+   * computed in the same step. For example:
+   *
+   * <pre>{@code
+   * try (Session.PartialRun step = session.partialRunSetup(asList(a, b), asList(c, d), emptyList())) {
+   *   Tensor<?> cValue = step.run(singletonMap(a, aValue), singletonList(c)).get(0);
+   *   // ... compute bValue from cValue
+   *   Tensor<?> dValue = step.run(singletonMap(b, bValue), singletonList(d)).get(0);
+   * }
+   * }</pre>
+   *
+   * <p>Each feed must be fed and each fetch must be fetched exactly once during the partial run.
+   *
+   * @param feeds all outputs that will be fed during the partial run
+   * @param fetches all outputs that will be fetched during the partial run
+   * @param targets operations that must be executed during the partial run, without returning any
+   *     value
+   * @return handle of the partial run, which must be closed when no longer needed
+   * @throws IllegalArgumentException if a target is not a {@link GraphOperation}
+   * @throws IllegalStateException if this session has been closed
+   */
+  public PartialRun partialRunSetup(
+      List<? extends Operand<?>> feeds,
+      List<? extends Operand<?>> fetches,
+      List<? extends Operation> targets) {
+    TF_Operation[] inputOpHandles = new TF_Operation[feeds.size()];
+    int[] inputOpIndices = new int[feeds.size()];
+    TF_Operation[] outputOpHandles = new TF_Operation[fetches.size()];
+    int[] outputOpIndices = new int[fetches.size()];
+    TF_Operation[] targetOpHandles = new TF_Operation[targets.size()];
+    resolveOperands(feeds, inputOpHandles, inputOpIndices);
+    resolveOperands(fetches, outputOpHandles, outputOpIndices);
+    resolveTargets(targets, targetOpHandles);
+
+    Reference runRef = new Reference();
+    try {
+      return new PartialRun(
+          partialRunSetup(
+              nativeHandle,
+              inputOpHandles,
+              inputOpIndices,
+              outputOpHandles,
+              outputOpIndices,
+              targetOpHandles));
+    } finally {
+      runRef.close();
+    }
+  }
+
+  /**
+   * A sequence of partial runs over the same step of a graph.
+   *
+   * <p>See {@link Session#partialRunSetup(List, List, List)}
+   *
+   * <p><b>WARNING:</b> A {@code PartialRun} owns a native handle that <b>must</b> be explicitly
+   * freed by invoking {@link #close()}. Instances of this class are not thread-safe.
+   */
+  public final class PartialRun implements AutoCloseable {
+
+    /**
+     * Continue the partial run with additional feeds and fetches.
+     *
+     * <p><b>WARNING:</b> The caller assumes ownership of all returned {@link Tensor Tensors}.
+     *
+     * @param feeds values to feed, each key being one of the feeds declared at setup
+     * @param fetches outputs to evaluate, each being one of the fetches declared at setup
+     * @return the evaluated tensors, in the order of {@code fetches}
+     * @throws IllegalStateException if this partial run or its session has been closed
+     */
+    public List<Tensor<?>> run(
+        Map<? extends Operand<?>, ? extends Tensor<?>> feeds, List<? extends Operand<?>> fetches) {
+      return run(feeds, fetches, Collections.<Operation>emptyList());
+    }
+
+    /**
+     * Continue the partial run with additional feeds, fetches and targets.
+     *
+     * <p><b>WARNING:</b> The caller assumes ownership of all returned {@link Tensor Tensors}.
+     *
+     * @param feeds values to feed, each key being one of the feeds declared at setup
+     * @param fetches outputs to evaluate, each being one of the fetches declared at setup
+     * @param targets operations to execute, each being one of the targets declared at setup
+     * @return the evaluated tensors, in the order of {@code fetches}
+     * @throws IllegalArgumentException if a target is not a {@link GraphOperation}
+     * @throws IllegalStateException if this partial run or its session has been closed
+     */
+    public List<Tensor<?>> run(
+        Map<? extends Operand<?>, ? extends Tensor<?>> feeds,
+        List<? extends Operand<?>> fetches,
+        List<? extends Operation> targets) {
+      if (handle == null) {
+        throw new IllegalStateException("close() has been called on the PartialRun");
+      }
+      TF_Tensor[] inputTensorHandles = new TF_Tensor[feeds.size()];
+      TF_Operation[] inputOpHandles = new TF_Operation[feeds.size()];
+      int[] inputOpIndices = new int[feeds.size()];
+      TF_Operation[] outputOpHandles = new TF_Operation[fetches.size()];
+      int[] outputOpIndices = new int[fetches.size()];
+      TF_Operation[] targetOpHandles = new TF_Operation[targets.size()];
+      TF_Tensor[] outputTensorHandles = new TF_Tensor[fetches.size()];
+
+      int idx = 0;
+      for (Map.Entry<? extends Operand<?>, ? extends Tensor<?>> feed : feeds.entrySet()) {
+        Output<?> o = feed.getKey().asOutput();
+        inputOpHandles[idx] = (TF_Operation)o.getUnsafeNativeHandle();
+        inputOpIndices[idx] = o.index();
+        inputTensorHandles[idx] = feed.getValue().getNativeHandle();
+        idx++;
+      }
+      resolveOperands(fetches, outputOpHandles, outputOpIndices);
+      resolveTargets(targets, targetOpHandles);
+
+      Reference runRef = new Reference();
+      try {
+        partialRun(
+            nativeHandle,
+            handle,
+            inputTensorHandles,
+            inputOpHandles,
+            inputOpIndices,
+            outputOpHandles,
+            outputOpIndices,
+            targetOpHandles,
+            outputTensorHandles);
+      } finally {
+        runRef.close();
+      }
+      List<Tensor<?>> outputs = new ArrayList<>();
+      for (TF_Tensor h : outputTensorHandles) {
+        try {
+          outputs.add(Tensor.fromHandle(h));
+        } catch (Exception e) {
+          for (Tensor<?> t : outputs) {
+            t.close();
+          }
+          outputs.clear();
+          throw e;
+        }
+      }
+      return outputs;
+    }
+
+    /**
+     * Release the handle of this partial run.
+     *
+     * <p>Values computed by the partial run but not fetched are discarded. This method has no
+     * effect if the partial run is already closed.
+     */
+    @Override
+    public void close() {
+      if (handle != null) {
+        TF_DeletePRunHandle(handle);
+        handle = null;
+      }
+    }
+
+    private BytePointer handle;
+
+    private PartialRun(BytePointer handle) {
+      this.handle = handle;
+    }
+  }
+
   /**
    * Output tensors and metadata obtained when executing a session.
    *
@@ -462,12 +656,59 @@ public final class Session implements AutoCloseable {
   private TF_Session nativeHandle;
   private int numActiveRuns;
 
+  private class Reference implements AutoCloseable {
+    public Reference() {
+      synchronized (nativeHandleLock) {
+        if (nativeHandle == null || nativeHandle.isNull()) {
+          throw new IllegalStateException("run() cannot be called on the Session after close()");
+        }
+        ++numActiveRuns;
+      }
+    }
+
+    @Override
+    public void close() {
+      synchronized (nativeHandleLock) {
+        if (nativeHandle == null || nativeHandle.isNull()) {
+          return;
+        }
+        if (--numActiveRuns == 0) {
+          nativeHandleLock.notifyAll();
+        }
+      }
+    }
+  }
+
   private static void requireHandle(Pointer handle) {
     if (handle == null || handle.isNull()) {
       throw new IllegalStateException("close() has been called on the Session");
     }
   }
 
+  private static void resolveOperands(
+      List<? extends Operand<?>> operands, TF_Operation[] opHandles, int[] opIndices) {
+    int idx = 0;
+    for (Operand<?> operand : operands) {
+      Output<?> o = operand.asOutput();
+      opHandles[idx] = (TF_Operation)o.getUnsafeNativeHandle();
+      opIndices[idx] = o.index();
+      idx++;
+    }
+  }
+
+  private static void resolveTargets(List<? extends Operation> targets, TF_Operation[] opHandles) {
+    int idx = 0;
+    for (Operation operation : targets) {
+      if (!(operation instanceof GraphOperation)) {
+        throw new IllegalArgumentException(
+            "Operation of type "
+                + operation.getClass().getName()
+                + " is not supported in graph sessions");
+      }
+      opHandles[idx++] = ((GraphOperation)operation).getUnsafeNativeHandle();
+    }
+  }
+
   private static void resolveHandles(String type, Pointer[] src, PointerPointer dst, int n) {
     if (src.length != n) {
       throw new IllegalArgumentException("expected " + n + ", got " + src.length + " " + type);
@@ -589,4 +830,75 @@ public final class Session implements AutoCloseable {
       return runMetadata != null ? runMetadata.get() : null;
     }
   }
+
+  private static BytePointer partialRunSetup(
+      TF_Session handle,
+      TF_Operation[] inputOpHandles,
+      int[] inputOpIndices,
+      TF_Operation[] outputOpHandles,
+      int[] outputOpIndices,
+      TF_Operation[] targetOpHandles) {
+    requireHandle(handle);
+
+    int ninputs = inputOpHandles.length;
+    int noutputs = outputOpHandles.length;
+    int ntargets = targetOpHandles.length;
+
+    try (PointerScope scope = new PointerScope()) {
+      TF_Output inputs = new TF_Output(ninputs);
+      TF_Output outputs = new TF_Output(noutputs);
+      PointerPointer<TF_Operation> targets = new PointerPointer<TF_Operation>(ntargets);
+      PointerPointer<BytePointer> prunHandle = new PointerPointer<BytePointer>(1);
+
+      resolveOutputs("input", inputOpHandles, inputOpIndices, inputs, ninputs);
+      resolveOutputs("output", outputOpHandles, outputOpIndices, outputs, noutputs);
+      resolveHandles("target Operations", targetOpHandles, targets, ntargets);
+
+      TF_Status status = TF_Status.newStatus();
+      TF_SessionPRunSetup(handle, inputs, ninputs, outputs, noutputs, targets, ntargets,
+                          prunHandle, status);
+      status.throwExceptionIfNotOK();
+
+      return prunHandle.get(BytePointer.class, 0);
+    }
+  }
+
+  private static void partialRun(
+      TF_Session handle,
+      BytePointer prunHandle,
+      TF_Tensor[] inputTensorHandles,
+      TF_Operation[] inputOpHandles,
+      int[] inputOpIndices,
+      TF_Operation[] outputOpHandles,
+      int[] outputOpIndices,
+      TF_Operation[] targetOpHandles,
+      TF_Tensor[] outputTensorHandles) {
+    requireHandle(handle);
+
+    int ninputs = inputTensorHandles.length;
+    int noutputs = outputTensorHandles.length;
+    int ntargets = targetOpHandles.length;
+
+    try (PointerScope scope = new PointerScope()) {
+      TF_Output inputs = new TF_Output(ninputs);
+      PointerPointer<TF_Tensor> inputValues = new PointerPointer<TF_Tensor>(ninputs);
+      TF_Output outputs = new TF_Output(noutputs);
+      PointerPointer<TF_Tensor> outputValues = new PointerPointer<TF_Tensor>(noutputs);
+      PointerPointer<TF_Operation> targets = new PointerPointer<TF_Operation>(ntargets);
+
+      resolveHandles("input Tensors", inputTensorHandles, inputValues, ninputs);
+      resolveOutputs("input", inputOpHandles, inputOpIndices, inputs, ninputs);
+      resolveOutputs("output", outputOpHandles, outputOpIndices, outputs, noutputs);
+      resolveHandles("target Operations", targetOpHandles, targets, ntargets);
+
+      TF_Status status = TF_Status.newStatus();
+      TF_SessionPRun(handle, prunHandle, inputs, inputValues, ninputs,
+                     outputs, outputValues, noutputs, targets, ntargets, status);
+      status.throwExceptionIfNotOK();
+
+      for (int i = 0; i < noutputs; ++i) {
+        outputTensorHandles[i] = outputValues.get(TF_Tensor.class, i);
+      }
+    }
+  }
 }
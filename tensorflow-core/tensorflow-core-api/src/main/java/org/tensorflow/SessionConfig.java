@@ -0,0 +1,418 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.tensorflow.tools.proto.ProtoWriter;
+
+/**
+ * Builds the configuration of a session, without depending on the Java classes generated for the
+ * TensorFlow protocol buffers.
+ *
+ * <p>This class encodes the subset of the <a
+ * href="https://www.tensorflow.org/code/tensorflow/core/protobuf/config.proto">ConfigProto</a>
+ * protocol buffer that is relevant for tuning performance: thread pools, device placement, GPU
+ * memory, graph optimizations and XLA. The result can be passed to any method accepting a
+ * serialized {@code ConfigProto}, for example:
+ *
+ * <pre>{@code
+ * byte[] config = SessionConfig.builder()
+ *     .intraOpParallelismThreads(4)
+ *     .interOpParallelismThreads(2)
+ *     .globalJitLevel(SessionConfig.GlobalJitLevel.ON_1)
+ *     .build();
+ * try (Session s = new Session(graph, config)) {
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>Fields that are not explicitly set are not serialized, leaving TensorFlow pick their default
+ * value.
+ *
+ * @see Session#Session(Graph, byte[])
+ * @see EagerSession.Options#config(byte[])
+ * @see SavedModelBundle.Loader#withConfigProto(byte[])
+ */
+public final class SessionConfig {
+
+  /** Level of optimization applied to graphs by the classic graph optimizer. */
+  public enum OptimizerLevel {
+    /** Common subexpression elimination and constant folding (default) */
+    L1(0),
+    /** No optimization */
+    L0(-1);
+
+    private final int value;
+
+    OptimizerLevel(int value) {
+      this.value = value;
+    }
+  }
+
+  /** Level of XLA just-in-time compilation applied to graphs. */
+  public enum GlobalJitLevel {
+    /** Let TensorFlow decide (default) */
+    DEFAULT(0),
+    /** No compilation */
+    OFF(-1),
+    /** Compile clusters of operations conservatively */
+    ON_1(1),
+    /** Compile clusters of operations aggressively */
+    ON_2(2);
+
+    private final int value;
+
+    GlobalJitLevel(int value) {
+      this.value = value;
+    }
+  }
+
+  /** State of a Grappler optimizer. */
+  public enum Toggle {
+    /** Let TensorFlow decide (default) */
+    DEFAULT(0),
+    ON(1),
+    OFF(2),
+    AGGRESSIVE(3);
+
+    private final int value;
+
+    Toggle(int value) {
+      this.value = value;
+    }
+  }
+
+  /** Builds a serialized {@code ConfigProto}. */
+  public static final class Builder {
+
+    /**
+     * Sets the number of threads used to parallelize the execution of a single operation, like a
+     * matrix multiplication.
+     *
+     * @param value number of threads, or 0 to let TensorFlow pick a value
+     */
+    public Builder intraOpParallelismThreads(int value) {
+      intraOpParallelismThreads = checkThreads(value);
+      return this;
+    }
+
+    /**
+     * Sets the number of threads used to run independent operations concurrently.
+     *
+     * @param value number of threads, or 0 to let TensorFlow pick a value
+     */
+    public Builder interOpParallelismThreads(int value) {
+      interOpParallelismThreads = checkThreads(value);
+      return this;
+    }
+
+    /**
+     * Sizes the intra-op and inter-op thread pools from the number of processors available to the
+     * JVM.
+     *
+     * <p>TensorFlow sizes its thread pools from the number of cores of the host, which
+     * oversubscribes the CPU when running in a container limited to a fraction of them. Recent
+     * JVMs report the number of processors allowed by the container instead, so this method uses
+     * all of them for intra-op parallelism and half of them for inter-op parallelism.
+     */
+    public Builder parallelismFromAvailableProcessors() {
+      int numProcessors = Runtime.getRuntime().availableProcessors();
+      intraOpParallelismThreads = numProcessors;
+      interOpParallelismThreads = Math.max(1, numProcessors / 2);
+      return this;
+    }
+
+    /**
+     * Sets if the session should create its own thread pools instead of sharing the global ones.
+     *
+     * @param value true to use per-session thread pools
+     */
+    public Builder usePerSessionThreads(boolean value) {
+      usePerSessionThreads = value;
+      return this;
+    }
+
+    /**
+     * Adds a thread pool for running operations, selectable per run with {@link
+     * RunOptions.Builder#interOpThreadPool(int)}.
+     *
+     * <p>The first pool added is used by default.
+     *
+     * @param numThreads number of threads in the pool, or 0 to let TensorFlow pick a value
+     * @param globalName if not null, the pool is shared with all sessions that declare a pool with
+     *     the same name
+     */
+    public Builder addSessionInterOpThreadPool(int numThreads, String globalName) {
+      ProtoWriter pool = new ProtoWriter();
+      if (checkThreads(numThreads) > 0) {
+        pool.writeInt32(THREAD_POOL_NUM_THREADS, numThreads);
+      }
+      if (globalName != null) {
+        pool.writeString(THREAD_POOL_GLOBAL_NAME, globalName);
+      }
+      sessionInterOpThreadPools.add(pool);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of devices of a given type to use.
+     *
+     * @param deviceType type of device, like {@code "CPU"} or {@code "GPU"}
+     * @param count maximum number of devices, 0 to disable this type of device
+     */
+    public Builder deviceCount(String deviceType, int count) {
+      deviceCount.put(deviceType, count);
+      return this;
+    }
+
+    /**
+     * Sets if operations can be placed on another device when they are not supported by the one
+     * requested.
+     */
+    public Builder allowSoftPlacement(boolean value) {
+      allowSoftPlacement = value;
+      return this;
+    }
+
+    /** Sets if the device on which each operation is placed should be logged. */
+    public Builder logDevicePlacement(boolean value) {
+      logDevicePlacement = value;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time an operation can block, in milliseconds.
+     *
+     * @param value timeout, or 0 for no timeout
+     */
+    public Builder operationTimeoutMillis(long value) {
+      operationTimeoutMillis = value;
+      return this;
+    }
+
+    /**
+     * Sets if GPU memory should be allocated as needed instead of reserving it upfront.
+     */
+    public Builder gpuAllowGrowth(boolean value) {
+      gpuAllowGrowth = value;
+      return this;
+    }
+
+    /**
+     * Sets the fraction of the memory of each GPU to reserve for this process.
+     *
+     * @param value fraction between 0 and 1
+     */
+    public Builder gpuMemoryFraction(double value) {
+      if (value < 0.0 || value > 1.0) {
+        throw new IllegalArgumentException("GPU memory fraction must be between 0 and 1");
+      }
+      gpuMemoryFraction = value;
+      return this;
+    }
+
+    /**
+     * Sets the level of optimization of the classic graph optimizer.
+     */
+    public Builder optimizerLevel(OptimizerLevel value) {
+      optimizerLevel = value;
+      return this;
+    }
+
+    /**
+     * Sets the level of XLA just-in-time compilation for the whole graph.
+     */
+    public Builder globalJitLevel(GlobalJitLevel value) {
+      globalJitLevel = value;
+      return this;
+    }
+
+    /**
+     * Disables all Grappler optimizations.
+     *
+     * <p>This reduces the time spent in the first run of a graph, at the expense of the time spent
+     * in the following ones.
+     */
+    public Builder disableGrappler(boolean value) {
+      disableMetaOptimizer = value;
+      return this;
+    }
+
+    /** Sets the state of the Grappler layout optimizer. */
+    public Builder layoutOptimizer(Toggle value) {
+      return rewriterToggle(REWRITER_LAYOUT_OPTIMIZER, value);
+    }
+
+    /** Sets the state of the Grappler constant folding optimizer. */
+    public Builder constantFolding(Toggle value) {
+      return rewriterToggle(REWRITER_CONSTANT_FOLDING, value);
+    }
+
+    /** Sets the state of the Grappler arithmetic optimizer. */
+    public Builder arithmeticOptimization(Toggle value) {
+      return rewriterToggle(REWRITER_ARITHMETIC_OPTIMIZATION, value);
+    }
+
+    /** Sets the state of the Grappler remapper, which fuses operations into more efficient ones. */
+    public Builder remapping(Toggle value) {
+      return rewriterToggle(REWRITER_REMAPPING, value);
+    }
+
+    /** Sets the state of the Grappler automatic mixed precision optimizer (GPU only). */
+    public Builder autoMixedPrecision(Toggle value) {
+      return rewriterToggle(REWRITER_AUTO_MIXED_PRECISION, value);
+    }
+
+    /**
+     * Returns the serialized {@code ConfigProto} with the selected options.
+     */
+    public byte[] build() {
+      ProtoWriter config = new ProtoWriter();
+      for (Map.Entry<String, Integer> entry : deviceCount.entrySet()) {
+        config.writeMessage(CONFIG_DEVICE_COUNT, new ProtoWriter()
+            .writeString(MAP_ENTRY_KEY, entry.getKey())
+            .writeInt32(MAP_ENTRY_VALUE, entry.getValue()));
+      }
+      if (intraOpParallelismThreads != null) {
+        config.writeInt32(CONFIG_INTRA_OP_PARALLELISM_THREADS, intraOpParallelismThreads);
+      }
+      if (interOpParallelismThreads != null) {
+        config.writeInt32(CONFIG_INTER_OP_PARALLELISM_THREADS, interOpParallelismThreads);
+      }
+      if (gpuAllowGrowth != null || gpuMemoryFraction != null) {
+        ProtoWriter gpuOptions = new ProtoWriter();
+        if (gpuMemoryFraction != null) {
+          gpuOptions.writeDouble(GPU_PER_PROCESS_MEMORY_FRACTION, gpuMemoryFraction);
+        }
+        if (gpuAllowGrowth != null) {
+          gpuOptions.writeBool(GPU_ALLOW_GROWTH, gpuAllowGrowth);
+        }
+        config.writeMessage(CONFIG_GPU_OPTIONS, gpuOptions);
+      }
+      if (allowSoftPlacement != null) {
+        config.writeBool(CONFIG_ALLOW_SOFT_PLACEMENT, allowSoftPlacement);
+      }
+      if (logDevicePlacement != null) {
+        config.writeBool(CONFIG_LOG_DEVICE_PLACEMENT, logDevicePlacement);
+      }
+      if (usePerSessionThreads != null) {
+        config.writeBool(CONFIG_USE_PER_SESSION_THREADS, usePerSessionThreads);
+      }
+      ProtoWriter graphOptions = graphOptions();
+      if (graphOptions.size() > 0) {
+        config.writeMessage(CONFIG_GRAPH_OPTIONS, graphOptions);
+      }
+      if (operationTimeoutMillis != null) {
+        config.writeInt64(CONFIG_OPERATION_TIMEOUT_IN_MS, operationTimeoutMillis);
+      }
+      for (ProtoWriter pool : sessionInterOpThreadPools) {
+        config.writeMessage(CONFIG_SESSION_INTER_OP_THREAD_POOL, pool);
+      }
+      return config.toByteArray();
+    }
+
+    private Integer intraOpParallelismThreads;
+    private Integer interOpParallelismThreads;
+    private Boolean usePerSessionThreads;
+    private final List<ProtoWriter> sessionInterOpThreadPools = new ArrayList<>();
+    private final Map<String, Integer> deviceCount = new LinkedHashMap<>();
+    private Boolean allowSoftPlacement;
+    private Boolean logDevicePlacement;
+    private Long operationTimeoutMillis;
+    private Boolean gpuAllowGrowth;
+    private Double gpuMemoryFraction;
+    private OptimizerLevel optimizerLevel;
+    private GlobalJitLevel globalJitLevel;
+    private Boolean disableMetaOptimizer;
+    private final Map<Integer, Toggle> rewriterToggles = new LinkedHashMap<>();
+
+    private Builder() {}
+
+    private Builder rewriterToggle(int fieldNumber, Toggle value) {
+      rewriterToggles.put(fieldNumber, value);
+      return this;
+    }
+
+    private ProtoWriter graphOptions() {
+      ProtoWriter graphOptions = new ProtoWriter();
+      if (optimizerLevel != null || globalJitLevel != null) {
+        ProtoWriter optimizerOptions = new ProtoWriter();
+        if (optimizerLevel != null) {
+          optimizerOptions.writeInt32(OPTIMIZER_OPT_LEVEL, optimizerLevel.value);
+        }
+        if (globalJitLevel != null) {
+          optimizerOptions.writeInt32(OPTIMIZER_GLOBAL_JIT_LEVEL, globalJitLevel.value);
+        }
+        graphOptions.writeMessage(GRAPH_OPTIMIZER_OPTIONS, optimizerOptions);
+      }
+      if (disableMetaOptimizer != null || !rewriterToggles.isEmpty()) {
+        ProtoWriter rewriterConfig = new ProtoWriter();
+        for (Map.Entry<Integer, Toggle> toggle : rewriterToggles.entrySet()) {
+          rewriterConfig.writeInt32(toggle.getKey(), toggle.getValue().value);
+        }
+        if (disableMetaOptimizer != null) {
+          rewriterConfig.writeBool(REWRITER_DISABLE_META_OPTIMIZER, disableMetaOptimizer);
+        }
+        graphOptions.writeMessage(GRAPH_REWRITE_OPTIONS, rewriterConfig);
+      }
+      return graphOptions;
+    }
+
+    private static int checkThreads(int numThreads) {
+      if (numThreads < 0) {
+        throw new IllegalArgumentException("Number of threads cannot be negative");
+      }
+      return numThreads;
+    }
+  }
+
+  /** Starts building a new session configuration. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private static final int CONFIG_DEVICE_COUNT = 1;
+  private static final int CONFIG_INTRA_OP_PARALLELISM_THREADS = 2;
+  private static final int CONFIG_INTER_OP_PARALLELISM_THREADS = 5;
+  private static final int CONFIG_GPU_OPTIONS = 6;
+  private static final int CONFIG_ALLOW_SOFT_PLACEMENT = 7;
+  private static final int CONFIG_LOG_DEVICE_PLACEMENT = 8;
+  private static final int CONFIG_USE_PER_SESSION_THREADS = 9;
+  private static final int CONFIG_GRAPH_OPTIONS = 10;
+  private static final int CONFIG_OPERATION_TIMEOUT_IN_MS = 11;
+  private static final int CONFIG_SESSION_INTER_OP_THREAD_POOL = 12;
+  private static final int MAP_ENTRY_KEY = 1;
+  private static final int MAP_ENTRY_VALUE = 2;
+  private static final int THREAD_POOL_NUM_THREADS = 1;
+  private static final int THREAD_POOL_GLOBAL_NAME = 2;
+  private static final int GPU_PER_PROCESS_MEMORY_FRACTION = 1;
+  private static final int GPU_ALLOW_GROWTH = 4;
+  private static final int GRAPH_OPTIMIZER_OPTIONS = 3;
+  private static final int GRAPH_REWRITE_OPTIONS = 10;
+  private static final int OPTIMIZER_OPT_LEVEL = 3;
+  private static final int OPTIMIZER_GLOBAL_JIT_LEVEL = 5;
+  private static final int REWRITER_LAYOUT_OPTIMIZER = 1;
+  private static final int REWRITER_CONSTANT_FOLDING = 3;
+  private static final int REWRITER_ARITHMETIC_OPTIMIZATION = 7;
+  private static final int REWRITER_REMAPPING = 14;
+  private static final int REWRITER_DISABLE_META_OPTIMIZER = 19;
+  private static final int REWRITER_AUTO_MIXED_PRECISION = 23;
+
+  private SessionConfig() {}
+}
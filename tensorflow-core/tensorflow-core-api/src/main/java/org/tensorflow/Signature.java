@@ -0,0 +1,375 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.proto.ProtoReader;
+
+/**
+ * Describes the inputs and outputs of a function exported in a saved model.
+ *
+ * <p>This is the Java counterpart of the <a
+ * href="https://www.tensorflow.org/code/tensorflow/core/protobuf/meta_graph.proto">SignatureDef
+ * protocol buffer</a>, which maps the logical names of the inputs and outputs of a function, like
+ * {@code "images"}, to the tensors of the graph that implement them, like
+ * {@code "serving_default_images:0"}.
+ *
+ * @see SavedModelBundle#signatures()
+ * @see SavedModelBundle#function(String)
+ */
+public final class Signature {
+
+  /** Key of the signature exported by default in a saved model. */
+  public static final String DEFAULT_KEY = "serving_default";
+
+  /** Describes a tensor fed to or fetched from a signature. */
+  public static final class TensorDescription {
+
+    /** Returns the name of the tensor in the graph, in the {@code operation_name:index} format. */
+    public String name() {
+      return name;
+    }
+
+    /** Returns the native code of the data type of the tensor. */
+    public int dataTypeCode() {
+      return dataTypeCode;
+    }
+
+    /**
+     * Returns the data type of the tensor.
+     *
+     * @throws IllegalArgumentException if this data type is not supported in Java
+     */
+    public DataType<?> dataType() {
+      return DataTypes.fromNativeCode(dataTypeCode);
+    }
+
+    /** Returns the shape of the tensor, which may be partially or completely unknown. */
+    public Shape shape() {
+      return shape;
+    }
+
+    @Override
+    public String toString() {
+      return name + " (dtype=" + dataTypeCode + ", shape=" + shape + ")";
+    }
+
+    private final String name;
+    private final int dataTypeCode;
+    private final Shape shape;
+
+    TensorDescription(String name, int dataTypeCode, Shape shape) {
+      this.name = name;
+      this.dataTypeCode = dataTypeCode;
+      this.shape = shape;
+    }
+  }
+
+  /**
+   * Builds the signature of a function.
+   *
+   * <p>To trace a function, only its inputs are described by the builder, the outputs being known
+   * only once the function has been traced. To convert a subgraph into a function, its inputs and
+   * outputs are the operands of the graph delimiting this subgraph.
+   *
+   * @see ConcreteFunction#trace(Signature, ConcreteFunction.Body)
+   * @see ConcreteFunction#create(Signature, Graph)
+   */
+  public static final class Builder {
+
+    /**
+     * Sets the key of the signature, {@link #DEFAULT_KEY} by default.
+     *
+     * @param key signature key
+     * @return this builder
+     */
+    public Builder key(String key) {
+      this.key = key;
+      return this;
+    }
+
+    /**
+     * Sets the method name of the signature, empty by default.
+     *
+     * @param methodName method name
+     * @return this builder
+     */
+    public Builder methodName(String methodName) {
+      this.methodName = methodName;
+      return this;
+    }
+
+    /**
+     * Adds an input to the signature.
+     *
+     * <p>Inputs are fed to placeholders named after their logical name, so this name must also be
+     * a valid operation name.
+     *
+     * @param name logical name of the input
+     * @param dataType data type of the input
+     * @param shape shape of the input, which may be partially or completely unknown
+     * @return this builder
+     * @throws IllegalArgumentException if an input of this name has already been added
+     */
+    public Builder input(String name, DataType<?> dataType, Shape shape) {
+      if (inputs.containsKey(name)) {
+        throw new IllegalArgumentException("Input \"" + name + "\" is already in the signature");
+      }
+      inputs.put(name, new TensorDescription(name + ":0", dataType.nativeCode(), shape));
+      return this;
+    }
+
+    /**
+     * Adds an input to the signature, fed to an existing operand of a graph.
+     *
+     * @param name logical name of the input
+     * @param operand operand to feed
+     * @return this builder
+     * @throws IllegalArgumentException if an input of this name has already been added
+     */
+    public Builder input(String name, Operand<?> operand) {
+      if (inputs.containsKey(name)) {
+        throw new IllegalArgumentException("Input \"" + name + "\" is already in the signature");
+      }
+      inputs.put(name, describe(operand.asOutput()));
+      return this;
+    }
+
+    /**
+     * Adds an output to the signature, fetched from an existing operand of a graph.
+     *
+     * @param name logical name of the output
+     * @param operand operand to fetch
+     * @return this builder
+     * @throws IllegalArgumentException if an output of this name has already been added
+     */
+    public Builder output(String name, Operand<?> operand) {
+      if (outputs.containsKey(name)) {
+        throw new IllegalArgumentException("Output \"" + name + "\" is already in the signature");
+      }
+      outputs.put(name, describe(operand.asOutput()));
+      return this;
+    }
+
+    /** Builds the signature. */
+    public Signature build() {
+      return new Signature(key, methodName, new LinkedHashMap<>(inputs),
+          new LinkedHashMap<>(outputs));
+    }
+
+    private final Map<String, TensorDescription> inputs = new LinkedHashMap<>();
+    private final Map<String, TensorDescription> outputs = new LinkedHashMap<>();
+    private String key = DEFAULT_KEY;
+    private String methodName = "";
+
+    private Builder() {
+    }
+  }
+
+  /** Returns the description of a tensor produced by an operation. */
+  static TensorDescription describe(Output<?> output) {
+    return new TensorDescription(output.op().name() + ":" + output.index(),
+        output.dataType().nativeCode(), output.shape());
+  }
+
+  /** Returns a builder of a signature. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** Returns the key identifying this signature in its saved model. */
+  public String key() {
+    return key;
+  }
+
+  /** Returns the method name of this signature, like {@code "tensorflow/serving/predict"}. */
+  public String methodName() {
+    return methodName;
+  }
+
+  /** Returns the inputs of this signature, by logical name, in the order they were exported. */
+  public Map<String, TensorDescription> inputs() {
+    return inputs;
+  }
+
+  /** Returns the outputs of this signature, by logical name, in the order they were exported. */
+  public Map<String, TensorDescription> outputs() {
+    return outputs;
+  }
+
+  @Override
+  public String toString() {
+    return "Signature \"" + key + "\" (" + methodName + "): inputs=" + inputs.keySet()
+        + ", outputs=" + outputs.keySet();
+  }
+
+  /**
+   * Parses all signatures found in a {@code MetaGraphDef}.
+   *
+   * <p>Only inputs and outputs referring to dense tensors by name are retained, since sparse and
+   * composite tensors cannot be fed directly to a session.
+   *
+   * @param metaGraphDef serialized {@code MetaGraphDef} protocol buffer
+   * @return signatures by key, in the order they were serialized
+   * @throws IllegalArgumentException if the message is malformed
+   */
+  static Map<String, Signature> parseAll(byte[] metaGraphDef) {
+    Map<String, Signature> signatures = new LinkedHashMap<>();
+    ProtoReader metaGraph = ProtoReader.of(metaGraphDef);
+    while (metaGraph.next()) {
+      if (metaGraph.fieldNumber() == META_GRAPH_DEF_SIGNATURE_DEF) {
+        ProtoReader entry = metaGraph.readMessage();
+        String key = "";
+        ProtoReader value = null;
+        while (entry.next()) {
+          if (entry.fieldNumber() == MAP_ENTRY_KEY) {
+            key = entry.readString();
+          } else if (entry.fieldNumber() == MAP_ENTRY_VALUE) {
+            value = entry.readMessage();
+          }
+        }
+        signatures.put(key, parse(key, value));
+      }
+    }
+    return Collections.unmodifiableMap(signatures);
+  }
+
+  /**
+   * Creates a signature from the description of its inputs and outputs.
+   *
+   * @param key signature key
+   * @param methodName method name
+   * @param inputs description of the inputs, by logical name
+   * @param outputs description of the outputs, by logical name
+   * @return new signature
+   */
+  static Signature create(String key, String methodName, Map<String, TensorDescription> inputs,
+      Map<String, TensorDescription> outputs) {
+    return new Signature(key, methodName, inputs, outputs);
+  }
+
+  private static final int META_GRAPH_DEF_SIGNATURE_DEF = 5;
+  private static final int MAP_ENTRY_KEY = 1;
+  private static final int MAP_ENTRY_VALUE = 2;
+  private static final int SIGNATURE_DEF_INPUTS = 1;
+  private static final int SIGNATURE_DEF_OUTPUTS = 2;
+  private static final int SIGNATURE_DEF_METHOD_NAME = 3;
+  private static final int TENSOR_INFO_NAME = 1;
+  private static final int TENSOR_INFO_DTYPE = 2;
+  private static final int TENSOR_INFO_TENSOR_SHAPE = 3;
+  private static final int TENSOR_SHAPE_DIM = 2;
+  private static final int TENSOR_SHAPE_UNKNOWN_RANK = 3;
+  private static final int TENSOR_SHAPE_DIM_SIZE = 1;
+
+  private final String key;
+  private final String methodName;
+  private final Map<String, TensorDescription> inputs;
+  private final Map<String, TensorDescription> outputs;
+
+  private Signature(String key, String methodName, Map<String, TensorDescription> inputs,
+      Map<String, TensorDescription> outputs) {
+    this.key = key;
+    this.methodName = methodName;
+    this.inputs = Collections.unmodifiableMap(inputs);
+    this.outputs = Collections.unmodifiableMap(outputs);
+  }
+
+  private static Signature parse(String key, ProtoReader signatureDef) {
+    String methodName = "";
+    Map<String, TensorDescription> inputs = new LinkedHashMap<>();
+    Map<String, TensorDescription> outputs = new LinkedHashMap<>();
+    while (signatureDef != null && signatureDef.next()) {
+      switch (signatureDef.fieldNumber()) {
+        case SIGNATURE_DEF_INPUTS:
+          parseTensorInfoEntry(signatureDef.readMessage(), inputs);
+          break;
+        case SIGNATURE_DEF_OUTPUTS:
+          parseTensorInfoEntry(signatureDef.readMessage(), outputs);
+          break;
+        case SIGNATURE_DEF_METHOD_NAME:
+          methodName = signatureDef.readString();
+          break;
+        default:
+          break;
+      }
+    }
+    return new Signature(key, methodName, inputs, outputs);
+  }
+
+  private static void parseTensorInfoEntry(ProtoReader entry, Map<String, TensorDescription> tensors) {
+    String key = "";
+    String name = null;
+    int dataTypeCode = 0;
+    Shape shape = Shape.unknown();
+    while (entry.next()) {
+      if (entry.fieldNumber() == MAP_ENTRY_KEY) {
+        key = entry.readString();
+      } else if (entry.fieldNumber() == MAP_ENTRY_VALUE) {
+        ProtoReader tensorInfo = entry.readMessage();
+        while (tensorInfo.next()) {
+          switch (tensorInfo.fieldNumber()) {
+            case TENSOR_INFO_NAME:
+              name = tensorInfo.readString();
+              break;
+            case TENSOR_INFO_DTYPE:
+              dataTypeCode = tensorInfo.readInt32();
+              break;
+            case TENSOR_INFO_TENSOR_SHAPE:
+              shape = parseShape(tensorInfo.readMessage());
+              break;
+            default:
+              break;
+          }
+        }
+      }
+    }
+    if (name != null) {
+      tensors.put(key, new TensorDescription(name, dataTypeCode, shape));
+    }
+  }
+
+  private static Shape parseShape(ProtoReader tensorShape) {
+    List<Long> dimSizes = new ArrayList<>();
+    boolean unknownRank = false;
+    while (tensorShape.next()) {
+      if (tensorShape.fieldNumber() == TENSOR_SHAPE_DIM) {
+        ProtoReader dim = tensorShape.readMessage();
+        long size = 0;
+        while (dim.next()) {
+          if (dim.fieldNumber() == TENSOR_SHAPE_DIM_SIZE) {
+            size = dim.readInt64();
+          }
+        }
+        dimSizes.add(size);
+      } else if (tensorShape.fieldNumber() == TENSOR_SHAPE_UNKNOWN_RANK) {
+        unknownRank = tensorShape.readBool();
+      }
+    }
+    if (unknownRank) {
+      return Shape.unknown();
+    }
+    long[] sizes = new long[dimSizes.size()];
+    for (int i = 0; i < sizes.length; ++i) {
+      sizes[i] = dimSizes.get(i);
+    }
+    return Shape.make(sizes);
+  }
+}
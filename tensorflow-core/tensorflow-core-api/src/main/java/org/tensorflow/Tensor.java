@@ -62,6 +62,8 @@ import org.bytedeco.javacpp.PointerScope;
 import org.bytedeco.javacpp.SizeTPointer;
 import org.tensorflow.internal.c_api.TF_Status;
 import org.tensorflow.internal.c_api.TF_Tensor;
+import org.tensorflow.metrics.Metrics;
+import org.tensorflow.metrics.MetricsListener;
 import org.tensorflow.tools.Shape;
 import org.tensorflow.types.TBool;
 import org.tensorflow.types.TFloat64;
@@ -86,6 +88,8 @@ import org.tensorflow.types.family.TType;
  *   doSomethingWith(t);
  * }
  * }</pre>
+ *
+ * <p>Tensors that are not closed can be tracked down using the {@link TensorLeakDetector}.
  */
 public final class Tensor<T extends TType> implements AutoCloseable {
 
@@ -169,7 +173,7 @@ public final class Tensor<T extends TType> implements AutoCloseable {
     } else {
       nativeHandle = allocateScalarBytes((byte[]) obj);
     }
-    t.nativeRef = new NativeReference(nativeHandle);
+    t.setNativeHandle(nativeHandle);
     return t;
   }
 
@@ -297,7 +301,7 @@ public final class Tensor<T extends TType> implements AutoCloseable {
   public static <T extends TType> Tensor<T> allocate(DataType<T> dtype, Shape shape, long size) {
     Tensor<T> t = new Tensor<>(dtype, shape);
     TF_Tensor nativeHandle = allocate(t.dtype.nativeCode(), shape.asArray(), size);
-    t.nativeRef = new NativeReference(nativeHandle);
+    t.setNativeHandle(nativeHandle);
     return t;
   }
 
@@ -352,7 +356,7 @@ public final class Tensor<T extends TType> implements AutoCloseable {
     }
     Tensor<T> t = new Tensor<>(dataType, Shape.make(dimSizes));
     TF_Tensor nativeHandle = allocate(t.dtype.nativeCode(), dimSizes, nbytes);
-    t.nativeRef = new NativeReference(nativeHandle);
+    t.setNativeHandle(nativeHandle);
     return t;
   }
 
@@ -366,6 +370,10 @@ public final class Tensor<T extends TType> implements AutoCloseable {
    */
   @Override
   public void close() {
+    if (leakTracker != null) {
+      leakTracker.close();
+      leakTracker = null;
+    }
     nativeRef.release();
   }
 
@@ -583,7 +591,7 @@ public final class Tensor<T extends TType> implements AutoCloseable {
    */
   static Tensor<?> fromHandle(TF_Tensor handle) {
     Tensor<?> t = new Tensor<>(DataTypes.fromNativeCode(dtype(handle)), Shape.make(shape(handle)));
-    t.nativeRef = new NativeReference(handle);
+    t.setNativeHandle(handle);
     return t;
   }
 
@@ -595,6 +603,11 @@ public final class Tensor<T extends TType> implements AutoCloseable {
   static Tensor<?> fromHandle(TF_Tensor handle, EagerSession session) {
     Tensor<?> t = fromHandle(handle);
     t.nativeRef.eager(session, t);
+    if (t.leakTracker != null) {
+      // the eager session is responsible of releasing this tensor
+      t.leakTracker.close();
+      t.leakTracker = null;
+    }
     return t;
   }
 
@@ -602,7 +615,15 @@ public final class Tensor<T extends TType> implements AutoCloseable {
     return nativeRef.tensorHandle;
   }
 
+  private void setNativeHandle(TF_Tensor handle) {
+    nativeRef = new NativeReference(handle);
+    if (TensorLeakDetector.shouldTrack()) {
+      leakTracker = TensorLeakDetector.track(this, nativeRef::release);
+    }
+  }
+
   private NativeReference nativeRef = null;
+  private TensorLeakDetector.Tracker leakTracker = null;
   private final DataType<T> dtype;
   private final Shape shape;
   private T data = null;
@@ -680,6 +701,12 @@ public final class Tensor<T extends TType> implements AutoCloseable {
 
     NativeReference(TF_Tensor tensorHandle) {
       setTensorHandle(tensorHandle);
+      MetricsListener metrics = Metrics.listener();
+      if (metrics != null && tensorHandle != null && !tensorHandle.isNull()) {
+        trackedBytes = TF_TensorByteSize(tensorHandle);
+        metrics.onTensorAllocated(trackedBytes);
+        this.metrics = metrics;
+      }
     }
 
     void eager(EagerSession session, Tensor<?> tensor) {
@@ -698,11 +725,18 @@ public final class Tensor<T extends TType> implements AutoCloseable {
         }
         Tensor.delete(tensorHandle);
         setTensorHandle(null);
+        if (metrics != null) {
+          // released even if metrics have been disabled since, to keep the gauges consistent
+          metrics.onTensorReleased(trackedBytes);
+          metrics = null;
+        }
       }
     }
 
     private TF_Tensor tensorHandle;
     private EagerReference eagerRef;
+    private MetricsListener metrics;  // listener notified of the allocation, or null if not tracked
+    private long trackedBytes;
 
     private void setTensorHandle(TF_Tensor tensorHandle) {
       this.tensorHandle = tensorHandle;
@@ -0,0 +1,276 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Detects tensors that are garbage collected without being {@link Tensor#close() closed}, leaking
+ * their native memory.
+ *
+ * <p>The detector can run at one of the following levels:
+ * <ul>
+ *   <li>{@link Level#OFF}: no tensor is tracked (default)</li>
+ *   <li>{@link Level#SAMPLED}: one tensor out of {@link #samplingInterval()} is tracked, which is
+ *   cheap enough to remain enabled in production and still find leaks happening repeatedly</li>
+ *   <li>{@link Level#PARANOID}: all tensors are tracked, for tests and debugging</li>
+ * </ul>
+ *
+ * <p>For each tracked tensor, the stack trace of its allocation is recorded. When a tracked tensor
+ * becomes unreachable without being closed, a {@link Leak} describing where it was allocated is
+ * sent to the reporter, which prints it to the standard error by default. Leaks are detected
+ * whenever a new tensor is tracked or when {@link #sweep()} is called explicitly.
+ *
+ * <p>Tensors attached to an eager session are not tracked, since their resources are released by
+ * the session.
+ *
+ * <p>The detector can be configured at startup with the following system properties:
+ * <ul>
+ *   <li>{@code org.tensorflow.TensorLeakDetector.level}: name of the {@link Level}</li>
+ *   <li>{@code org.tensorflow.TensorLeakDetector.samplingInterval}: sampling interval</li>
+ *   <li>{@code org.tensorflow.TensorLeakDetector.reclaim}: true to reclaim leaked memory</li>
+ * </ul>
+ */
+public final class TensorLeakDetector {
+
+  /** Level of leak detection */
+  public enum Level {
+    /** Leak detection is disabled */
+    OFF,
+    /** A sample of tensors is tracked */
+    SAMPLED,
+    /** All tensors are tracked */
+    PARANOID
+  }
+
+  /** A tensor that has been garbage collected without being closed. */
+  public static final class Leak {
+
+    /** Returns a description of the tensor, including its data type and shape. */
+    public String tensor() {
+      return tensor;
+    }
+
+    /** Returns the stack trace of the thread that allocated the tensor. */
+    public StackTraceElement[] allocationStackTrace() {
+      return allocationSite.getStackTrace();
+    }
+
+    /** Returns true if the native memory of the tensor has been released by the detector. */
+    public boolean isReclaimed() {
+      return reclaimed;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("Tensor ")
+          .append(tensor)
+          .append(" was not closed before being garbage collected")
+          .append(reclaimed ? " (memory reclaimed)" : "")
+          .append(". Allocated at:");
+      for (StackTraceElement element : allocationSite.getStackTrace()) {
+        sb.append(System.lineSeparator()).append("\tat ").append(element);
+      }
+      return sb.toString();
+    }
+
+    private final String tensor;
+    private final Throwable allocationSite;
+    private final boolean reclaimed;
+
+    private Leak(String tensor, Throwable allocationSite, boolean reclaimed) {
+      this.tensor = tensor;
+      this.allocationSite = allocationSite;
+      this.reclaimed = reclaimed;
+    }
+  }
+
+  /** Returns the current level of leak detection. */
+  public static Level level() {
+    return level;
+  }
+
+  /**
+   * Sets the level of leak detection.
+   *
+   * <p>Only tensors allocated after this call are affected by the new level.
+   *
+   * @param level level of leak detection
+   */
+  public static void setLevel(Level level) {
+    if (level == null) {
+      throw new IllegalArgumentException("Leak detection level cannot be null");
+    }
+    TensorLeakDetector.level = level;
+  }
+
+  /** Returns the average number of tensors allocated for each tensor tracked in sampled mode. */
+  public static int samplingInterval() {
+    return samplingInterval;
+  }
+
+  /**
+   * Sets the sampling interval used in {@link Level#SAMPLED} mode.
+   *
+   * @param samplingInterval average number of tensors allocated for each tensor tracked
+   * @throws IllegalArgumentException if the interval is not strictly positive
+   */
+  public static void setSamplingInterval(int samplingInterval) {
+    if (samplingInterval <= 0) {
+      throw new IllegalArgumentException("Sampling interval must be strictly positive");
+    }
+    TensorLeakDetector.samplingInterval = samplingInterval;
+  }
+
+  /** Returns true if the native memory of leaked tensors is released when detected. */
+  public static boolean isReclaimEnabled() {
+    return reclaim;
+  }
+
+  /**
+   * Enables or disables the release of the native memory of leaked tensors.
+   *
+   * <p>Reclaiming is disabled by default: while it prevents the leak from exhausting the memory,
+   * data previously obtained from a leaked tensor, such as its {@link Tensor#data()} array, must
+   * not be accessed once the tensor has been reclaimed.
+   *
+   * @param reclaim true to reclaim leaked memory
+   */
+  public static void setReclaimEnabled(boolean reclaim) {
+    TensorLeakDetector.reclaim = reclaim;
+  }
+
+  /**
+   * Sets the consumer of the leaks detected.
+   *
+   * <p>The reporter is invoked by the thread that detected the leak, so it should return quickly.
+   *
+   * @param reporter leak reporter, or null to print leaks to the standard error
+   */
+  public static void setReporter(Consumer<Leak> reporter) {
+    TensorLeakDetector.reporter = reporter != null ? reporter : DEFAULT_REPORTER;
+  }
+
+  /**
+   * Reports all tracked tensors that have been garbage collected without being closed.
+   *
+   * @return number of leaks reported
+   */
+  public static int sweep() {
+    int numLeaks = 0;
+    Tracker tracker;
+    while ((tracker = (Tracker)GARBAGE_QUEUE.poll()) != null) {
+      if (TRACKERS.remove(tracker)) {
+        boolean reclaimed = reclaim;
+        if (reclaimed) {
+          tracker.release.run();
+        }
+        reporter.accept(new Leak(tracker.tensor, tracker.allocationSite, reclaimed));
+        ++numLeaks;
+      }
+    }
+    return numLeaks;
+  }
+
+  /** Returns the number of tensors currently tracked for leaks. */
+  public static int numTracked() {
+    return TRACKERS.size();
+  }
+
+  /**
+   * Returns true if the next tensor allocated should be tracked.
+   *
+   * <p>This check is done before calling {@link #track(Tensor, Runnable)} so that untracked tensors
+   * do not pay for anything else than reading the detection level.
+   */
+  static boolean shouldTrack() {
+    switch (level) {
+      case OFF:
+        return false;
+      case SAMPLED:
+        return ThreadLocalRandom.current().nextInt(samplingInterval) == 0;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Starts tracking a tensor.
+   *
+   * @param tensor tensor to track
+   * @param release releases the native memory of the tensor, must not refer to the tensor itself
+   * @return a tracker to close when the tensor is closed
+   */
+  static Tracker track(Tensor<?> tensor, Runnable release) {
+    sweep();
+    Tracker tracker = new Tracker(tensor, release);
+    TRACKERS.add(tracker);
+    return tracker;
+  }
+
+  /** Phantom reference to a tracked tensor, retaining what is needed to report its leak. */
+  static final class Tracker extends PhantomReference<Tensor<?>> {
+
+    /** Stops tracking the tensor, which has been properly closed. */
+    void close() {
+      TRACKERS.remove(this);
+      clear();
+    }
+
+    private final String tensor;
+    private final Throwable allocationSite;
+    private final Runnable release;
+
+    private Tracker(Tensor<?> tensor, Runnable release) {
+      super(tensor, GARBAGE_QUEUE);
+      this.tensor = tensor.dataType().name() + tensor.shape();
+      this.allocationSite = new Throwable();
+      this.release = release;
+    }
+  }
+
+  private static final Consumer<Leak> DEFAULT_REPORTER = leak -> System.err.println(leak);
+  private static final Set<Tracker> TRACKERS = ConcurrentHashMap.newKeySet();
+  private static final ReferenceQueue<Tensor<?>> GARBAGE_QUEUE = new ReferenceQueue<>();
+
+  private static volatile Level level = initialLevel();
+  private static volatile int samplingInterval =
+      Integer.getInteger("org.tensorflow.TensorLeakDetector.samplingInterval", 128);
+  private static volatile boolean reclaim =
+      Boolean.getBoolean("org.tensorflow.TensorLeakDetector.reclaim");
+  private static volatile Consumer<Leak> reporter = DEFAULT_REPORTER;
+
+  private TensorLeakDetector() {}
+
+  /** Parses the level set by system property, falling back to OFF if it is invalid. */
+  private static Level initialLevel() {
+    String value = System.getProperty("org.tensorflow.TensorLeakDetector.level", "OFF");
+    try {
+      return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      // failing here would prevent the Tensor class from being loaded
+      System.err.println("Warning: invalid value \"" + value
+          + "\" for org.tensorflow.TensorLeakDetector.level, leak detection is disabled");
+      return Level.OFF;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.tensorflow.op.Scope;
+
+/**
+ * A function traced once for each signature of the arguments it is invoked with.
+ *
+ * <p>When invoked with arguments of data types or shapes it has not seen before, the body of the
+ * function is traced into a new {@link ConcreteFunction}, which is cached and reused by all
+ * following invocations with arguments of the same signature. This allows to write the body of a
+ * function once, in an eager style, while paying the cost of building a graph only once per
+ * signature. For example:
+ *
+ * <pre>{@code
+ * try (TracedFunction square = TracedFunction.of((tf, inputs) ->
+ *     Collections.singletonMap("y", tf.math.square((Operand<TFloat32>)inputs.get("x"))))) {
+ *   for (Operand<TFloat32> x : batches) {
+ *     Operand<?> y = square.call(tf.scope(), Collections.singletonMap("x", x)).get("y");
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Instances of this class are thread-safe.
+ */
+public final class TracedFunction implements AutoCloseable {
+
+  /**
+   * Creates a function from its body.
+   *
+   * @param body builder of the function body, invoked for each new signature
+   * @return a new function
+   */
+  public static TracedFunction of(ConcreteFunction.Body body) {
+    return new TracedFunction(body);
+  }
+
+  /**
+   * Invokes the function with tensors, tracing it first if needed.
+   *
+   * <p>The caller is responsible of closing all returned tensors.
+   *
+   * @param arguments tensors to feed, by logical input name
+   * @return output tensors, by logical output name
+   * @see ConcreteFunction#call(Map)
+   */
+  public Map<String, Tensor<?>> call(Map<String, Tensor<?>> arguments) {
+    Signature.Builder signature = Signature.builder();
+    for (Map.Entry<String, Tensor<?>> argument : new TreeMap<>(arguments).entrySet()) {
+      Tensor<?> tensor = argument.getValue();
+      signature.input(argument.getKey(), tensor.dataType(), tensor.shape());
+    }
+    return concreteFunction(signature.build()).call(arguments);
+  }
+
+  /**
+   * Invokes the function as a single operation of an execution environment, tracing it first if
+   * needed.
+   *
+   * @param scope current scope
+   * @param arguments operands to pass to the function, by logical input name
+   * @return output operands, by logical output name
+   * @see ConcreteFunction#call(Scope, Map)
+   */
+  public Map<String, Operand<?>> call(Scope scope, Map<String, Operand<?>> arguments) {
+    Signature.Builder signature = Signature.builder();
+    for (Map.Entry<String, Operand<?>> argument : new TreeMap<>(arguments).entrySet()) {
+      Output<?> output = argument.getValue().asOutput();
+      signature.input(argument.getKey(), output.dataType(), output.shape());
+    }
+    return concreteFunction(signature.build()).call(scope, arguments);
+  }
+
+  /**
+   * Returns the concrete function matching a signature, tracing it if needed.
+   *
+   * <p>Only the inputs of the signature are used to look up a function that has already been
+   * traced.
+   *
+   * @param signature signature describing the inputs of the function
+   * @return concrete function, owned by this function
+   * @throws IllegalStateException if this function has been closed
+   */
+  public ConcreteFunction concreteFunction(Signature signature) {
+    String key = cacheKey(signature);
+    synchronized (concreteFunctions) {
+      if (closed) {
+        throw new IllegalStateException("Function has been closed");
+      }
+      ConcreteFunction function = concreteFunctions.get(key);
+      if (function == null) {
+        function = ConcreteFunction.trace(signature, body);
+        concreteFunctions.put(key, function);
+      }
+      return function;
+    }
+  }
+
+  /** Returns all concrete functions traced so far, in the order they were traced. */
+  public Collection<ConcreteFunction> concreteFunctions() {
+    synchronized (concreteFunctions) {
+      return new ArrayList<>(concreteFunctions.values());
+    }
+  }
+
+  /** Releases all concrete functions traced by this function. */
+  @Override
+  public void close() {
+    synchronized (concreteFunctions) {
+      for (ConcreteFunction function : concreteFunctions.values()) {
+        function.close();
+      }
+      concreteFunctions.clear();
+      closed = true;
+    }
+  }
+
+  private final ConcreteFunction.Body body;
+  private final Map<String, ConcreteFunction> concreteFunctions = new LinkedHashMap<>();
+  private boolean closed = false;
+
+  private TracedFunction(ConcreteFunction.Body body) {
+    this.body = body;
+  }
+
+  private static String cacheKey(Signature signature) {
+    StringBuilder key = new StringBuilder();
+    for (Map.Entry<String, Signature.TensorDescription> input : signature.inputs().entrySet()) {
+      Signature.TensorDescription description = input.getValue();
+      key.append(input.getKey())
+          .append(':')
+          .append(description.dataTypeCode())
+          .append(description.shape())
+          .append(';');
+    }
+    return key.toString();
+  }
+}
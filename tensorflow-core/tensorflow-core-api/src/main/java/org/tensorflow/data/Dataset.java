@@ -0,0 +1,409 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.tensorflow.DataType;
+import org.tensorflow.Operand;
+import org.tensorflow.Output;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.data.BatchDataset;
+import org.tensorflow.op.data.CacheDataset;
+import org.tensorflow.op.data.ConcatenateDataset;
+import org.tensorflow.op.data.MaxIntraOpParallelismDataset;
+import org.tensorflow.op.data.PrefetchDataset;
+import org.tensorflow.op.data.PrivateThreadPoolDataset;
+import org.tensorflow.op.data.RangeDataset;
+import org.tensorflow.op.data.RepeatDataset;
+import org.tensorflow.op.data.ShuffleAndRepeatDataset;
+import org.tensorflow.op.data.SkipDataset;
+import org.tensorflow.op.data.TakeDataset;
+import org.tensorflow.op.data.TensorSliceDataset;
+import org.tensorflow.op.data.TextLineDataset;
+import org.tensorflow.op.data.TfRecordDataset;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.TInt64;
+import org.tensorflow.types.TString;
+
+/**
+ * A sequence of elements produced by an input pipeline running in the TensorFlow runtime.
+ *
+ * <p>Each method of this class adds dataset operations to the graph of the {@link Ops} instance
+ * used to create the dataset, and returns a new dataset wrapping the result. The elements are then
+ * produced in-graph by a {@link DatasetIterator}, so that reading, batching and shuffling run on
+ * the threads of the runtime and overlap with the computations consuming them, without copying
+ * each batch through Java. For example:
+ *
+ * <pre>{@code
+ * Ops tf = Ops.create(graph);
+ * DatasetIterator iterator = Dataset.tfRecord(tf, "/data/train-0.tfrecord", "/data/train-1.tfrecord")
+ *     .shuffle(10000)
+ *     .batch(128)
+ *     .prefetch(Dataset.AUTOTUNE)
+ *     .makeIterator();
+ * Operand<?> records = iterator.getNext().get(0);
+ * // ... build the training step from records
+ * }</pre>
+ *
+ * <p>Each element is made of one or more components, whose data types and shapes are known when
+ * the dataset is built.
+ */
+public final class Dataset {
+
+  /** Buffer size letting the runtime tune it dynamically, for {@link #prefetch(long)}. */
+  public static final long AUTOTUNE = -1L;
+
+  /**
+   * Creates a dataset whose elements are the slices of the given tensors along their first
+   * dimension.
+   *
+   * @param tf ops used to build the dataset
+   * @param components tensors to slice, which must all have the same size in their first
+   *     dimension
+   * @return new dataset
+   * @throws IllegalArgumentException if a component is a scalar
+   */
+  public static Dataset fromTensorSlices(Ops tf, List<Operand<?>> components) {
+    List<DataType<?>> outputTypes = new ArrayList<>();
+    List<Shape> outputShapes = new ArrayList<>();
+    for (Operand<?> component : components) {
+      Output<?> output = component.asOutput();
+      Shape shape = output.shape();
+      if (shape.numDimensions() == 0) {
+        throw new IllegalArgumentException("Cannot slice scalar component " + output);
+      }
+      outputTypes.add(output.dataType());
+      outputShapes.add(dropFirstDimension(shape));
+    }
+    return new Dataset(tf, TensorSliceDataset.create(tf.scope(), components, outputShapes),
+        outputTypes, outputShapes);
+  }
+
+  /**
+   * Creates a dataset of the {@code int64} values from {@code start} (inclusive) to {@code stop}
+   * (exclusive) by increments of {@code step}.
+   *
+   * @param tf ops used to build the dataset
+   * @param start first value
+   * @param stop upper bound of the values, excluded
+   * @param step increment between two values
+   * @return new dataset
+   */
+  public static Dataset range(Ops tf, long start, long stop, long step) {
+    List<DataType<?>> outputTypes = Collections.singletonList(TInt64.DTYPE);
+    List<Shape> outputShapes = Collections.singletonList(Shape.scalar());
+    return new Dataset(tf, RangeDataset.create(tf.scope(), tf.constant(start), tf.constant(stop),
+        tf.constant(step), outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Creates a dataset of the records found in uncompressed TFRecord files.
+   *
+   * @param tf ops used to build the dataset
+   * @param filenames paths of the files, read in order
+   * @return new dataset of scalar strings
+   */
+  public static Dataset tfRecord(Ops tf, String... filenames) {
+    return tfRecord(tf, Arrays.asList(filenames), "", 0L);
+  }
+
+  /**
+   * Creates a dataset of the records found in TFRecord files.
+   *
+   * @param tf ops used to build the dataset
+   * @param filenames paths of the files, read in order
+   * @param compressionType compression of the files, either {@code ""}, {@code "ZLIB"} or
+   *     {@code "GZIP"}
+   * @param bufferSize number of bytes buffered per file, or 0 for the default size
+   * @return new dataset of scalar strings
+   */
+  public static Dataset tfRecord(Ops tf, List<String> filenames, String compressionType,
+      long bufferSize) {
+    return stringDataset(tf, TfRecordDataset.create(tf.scope(), stringVector(tf, filenames),
+        tf.constant(compressionType), tf.constant(bufferSize)));
+  }
+
+  /**
+   * Creates a dataset of the lines found in text files.
+   *
+   * @param tf ops used to build the dataset
+   * @param filenames paths of the files, read in order
+   * @param compressionType compression of the files, either {@code ""}, {@code "ZLIB"} or
+   *     {@code "GZIP"}
+   * @param bufferSize number of bytes buffered per file, or 0 for the default size
+   * @return new dataset of scalar strings
+   */
+  public static Dataset textLine(Ops tf, List<String> filenames, String compressionType,
+      long bufferSize) {
+    return stringDataset(tf, TextLineDataset.create(tf.scope(), stringVector(tf, filenames),
+        tf.constant(compressionType), tf.constant(bufferSize)));
+  }
+
+  /**
+   * Combines consecutive elements of this dataset into batches.
+   *
+   * <p>The last batch is smaller if the number of elements is not a multiple of the batch size.
+   *
+   * @param batchSize number of elements per batch
+   * @return new dataset, whose components have an additional first dimension of unknown size
+   */
+  public Dataset batch(long batchSize) {
+    return batch(batchSize, false);
+  }
+
+  /**
+   * Combines consecutive elements of this dataset into batches.
+   *
+   * @param batchSize number of elements per batch
+   * @param dropRemainder drop the last batch if it is smaller than {@code batchSize}
+   * @return new dataset, whose components have an additional first dimension, of size
+   *     {@code batchSize} if {@code dropRemainder} is true
+   */
+  public Dataset batch(long batchSize, boolean dropRemainder) {
+    List<Shape> batchShapes = new ArrayList<>();
+    for (Shape shape : outputShapes) {
+      batchShapes.add(prependDimension(dropRemainder ? batchSize : Shape.UNKNOWN_SIZE, shape));
+    }
+    return new Dataset(tf, BatchDataset.create(tf.scope(), variant, tf.constant(batchSize),
+        tf.constant(dropRemainder), outputTypes, batchShapes), outputTypes, batchShapes);
+  }
+
+  /**
+   * Shuffles the elements of this dataset.
+   *
+   * <p>Elements are drawn randomly from a buffer of {@code bufferSize} elements, which is refilled
+   * as it is consumed. A buffer at least as large as the dataset produces a uniform shuffle.
+   *
+   * @param bufferSize number of elements to shuffle from
+   * @return new dataset
+   */
+  public Dataset shuffle(long bufferSize) {
+    return shuffleAndRepeat(bufferSize, 0L, 1L);
+  }
+
+  /**
+   * Shuffles the elements of this dataset and repeats them, reshuffling them on every epoch.
+   *
+   * @param bufferSize number of elements to shuffle from
+   * @param seed seed of the random generator, or 0 for a random seed
+   * @param count number of epochs, or -1 to repeat indefinitely
+   * @return new dataset
+   */
+  public Dataset shuffleAndRepeat(long bufferSize, long seed, long count) {
+    return new Dataset(tf, ShuffleAndRepeatDataset.create(tf.scope(), variant,
+        tf.constant(bufferSize), tf.constant(seed), tf.constant(seed), tf.constant(count),
+        outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Repeats the elements of this dataset indefinitely.
+   *
+   * @return new dataset
+   */
+  public Dataset repeat() {
+    return repeat(-1L);
+  }
+
+  /**
+   * Repeats the elements of this dataset.
+   *
+   * @param count number of repetitions, or -1 to repeat indefinitely
+   * @return new dataset
+   */
+  public Dataset repeat(long count) {
+    return new Dataset(tf, RepeatDataset.create(tf.scope(), variant, tf.constant(count),
+        outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Keeps at most the first {@code count} elements of this dataset.
+   *
+   * @param count number of elements to keep, or -1 to keep all of them
+   * @return new dataset
+   */
+  public Dataset take(long count) {
+    return new Dataset(tf, TakeDataset.create(tf.scope(), variant, tf.constant(count),
+        outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Skips the first {@code count} elements of this dataset.
+   *
+   * @param count number of elements to skip, or -1 to skip all of them
+   * @return new dataset
+   */
+  public Dataset skip(long count) {
+    return new Dataset(tf, SkipDataset.create(tf.scope(), variant, tf.constant(count),
+        outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Produces the elements of this dataset ahead of their consumption, in the background.
+   *
+   * @param bufferSize maximum number of elements produced in advance, or {@link #AUTOTUNE}
+   * @return new dataset
+   */
+  public Dataset prefetch(long bufferSize) {
+    return new Dataset(tf, PrefetchDataset.create(tf.scope(), variant, tf.constant(bufferSize),
+        outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Caches the elements of this dataset in memory.
+   *
+   * <p>The first epoch produces the elements from the input and fills the cache, while the
+   * following epochs read them directly from the cache.
+   *
+   * @return new dataset
+   */
+  public Dataset cache() {
+    return cache("");
+  }
+
+  /**
+   * Caches the elements of this dataset in files.
+   *
+   * @param filename prefix of the cache files, or an empty string to cache in memory
+   * @return new dataset
+   */
+  public Dataset cache(String filename) {
+    return new Dataset(tf, CacheDataset.create(tf.scope(), variant, tf.constant(filename),
+        outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Appends the elements of another dataset to the ones of this dataset.
+   *
+   * @param other dataset to append, whose elements must have the same data types
+   * @return new dataset
+   * @throws IllegalArgumentException if the data types of the elements do not match
+   */
+  public Dataset concatenate(Dataset other) {
+    if (!outputTypes.equals(other.outputTypes)) {
+      throw new IllegalArgumentException("Cannot concatenate datasets of types " + outputTypes
+          + " and " + other.outputTypes);
+    }
+    List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < outputShapes.size(); ++i) {
+      Shape shape = outputShapes.get(i);
+      shapes.add(shape.equals(other.outputShapes.get(i)) ? shape : Shape.unknown());
+    }
+    return new Dataset(tf, ConcatenateDataset.create(tf.scope(), variant, other.variant,
+        outputTypes, shapes), outputTypes, shapes);
+  }
+
+  /**
+   * Produces the elements of this dataset using a thread pool dedicated to this pipeline.
+   *
+   * <p>This isolates the input processing from the thread pool running the operations of the
+   * session, which may otherwise be starved by the computations of the training step.
+   *
+   * @param numThreads number of threads in the pool
+   * @return new dataset
+   */
+  public Dataset withPrivateThreadPool(int numThreads) {
+    return new Dataset(tf, PrivateThreadPoolDataset.create(tf.scope(), variant,
+        tf.constant((long)numThreads), outputTypes, outputShapes), outputTypes, outputShapes);
+  }
+
+  /**
+   * Limits the number of threads used by each operation producing the elements of this dataset.
+   *
+   * @param maxIntraOpParallelism maximum number of threads per operation
+   * @return new dataset
+   */
+  public Dataset withMaxIntraOpParallelism(int maxIntraOpParallelism) {
+    return new Dataset(tf, MaxIntraOpParallelismDataset.create(tf.scope(), variant,
+        tf.constant((long)maxIntraOpParallelism), outputTypes, outputShapes), outputTypes,
+        outputShapes);
+  }
+
+  /**
+   * Creates an iterator producing the elements of this dataset in the graph.
+   *
+   * @return new iterator, which must be initialized before its first element is read
+   */
+  public DatasetIterator makeIterator() {
+    return DatasetIterator.create(this);
+  }
+
+  /** Returns the handle of this dataset in the graph. */
+  public Operand<?> variant() {
+    return variant;
+  }
+
+  /** Returns the data type of each component of the elements. */
+  public List<DataType<?>> outputTypes() {
+    return outputTypes;
+  }
+
+  /** Returns the shape of each component of the elements, which may be partially unknown. */
+  public List<Shape> outputShapes() {
+    return outputShapes;
+  }
+
+  Ops tf() {
+    return tf;
+  }
+
+  private final Ops tf;
+  private final Operand<?> variant;
+  private final List<DataType<?>> outputTypes;
+  private final List<Shape> outputShapes;
+
+  private Dataset(Ops tf, Operand<?> variant, List<DataType<?>> outputTypes,
+      List<Shape> outputShapes) {
+    this.tf = tf;
+    this.variant = variant;
+    this.outputTypes = Collections.unmodifiableList(outputTypes);
+    this.outputShapes = Collections.unmodifiableList(outputShapes);
+  }
+
+  private static Dataset stringDataset(Ops tf, Operand<?> variant) {
+    return new Dataset(tf, variant, Collections.<DataType<?>>singletonList(TString.DTYPE),
+        Collections.singletonList(Shape.scalar()));
+  }
+
+  private static Operand<TString> stringVector(Ops tf, List<String> values) {
+    byte[][] bytes = new byte[values.size()][];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+    }
+    return tf.constant(bytes);
+  }
+
+  private static Shape dropFirstDimension(Shape shape) {
+    if (shape.numDimensions() < 0) {
+      return shape;
+    }
+    return Shape.make(Arrays.copyOfRange(shape.asArray(), 1, shape.numDimensions()));
+  }
+
+  private static Shape prependDimension(long size, Shape shape) {
+    if (shape.numDimensions() < 0) {
+      return shape;
+    }
+    long[] dimSizes = new long[shape.numDimensions() + 1];
+    dimSizes[0] = size;
+    System.arraycopy(shape.asArray(), 0, dimSizes, 1, shape.numDimensions());
+    return Shape.make(dimSizes);
+  }
+}
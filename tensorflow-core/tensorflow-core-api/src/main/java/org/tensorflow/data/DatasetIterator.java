@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.data;
+
+import java.util.List;
+import org.tensorflow.DataType;
+import org.tensorflow.Operand;
+import org.tensorflow.Operation;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.data.Iterator;
+import org.tensorflow.op.data.IteratorGetNext;
+import org.tensorflow.op.data.MakeIterator;
+import org.tensorflow.tools.Shape;
+
+/**
+ * Produces the elements of a {@link Dataset} in the graph.
+ *
+ * <p>The components returned by {@link #getNext()} are regular operands that can be used as inputs
+ * of the computations of a step, instead of placeholders fed from Java. Every time a session runs
+ * a step depending on them, the iterator moves to the next element of the dataset. For example:
+ *
+ * <pre>{@code
+ * DatasetIterator iterator = dataset.makeIterator();
+ * List<Output<?>> batch = iterator.getNext();
+ * Operand<?> loss = buildModel(tf, batch.get(0), batch.get(1));
+ * try (Session session = new Session(graph)) {
+ *   iterator.initialize(session);
+ *   try {
+ *     while (true) {
+ *       session.runner().addTarget(trainOp).run();
+ *     }
+ *   } catch (IndexOutOfBoundsException e) {
+ *     // end of dataset
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Running a step after the last element of the dataset has been produced throws an
+ * {@link IndexOutOfBoundsException}. The iterator can then be initialized again to restart from the
+ * first element.
+ */
+public final class DatasetIterator {
+
+  /**
+   * Returns the operation initializing this iterator, to run as a target of a session.
+   *
+   * <p>Running it again restarts the iterator from the first element of the dataset.
+   */
+  public Operation initializer() {
+    return initializer.op();
+  }
+
+  /**
+   * Initializes this iterator in a session.
+   *
+   * @param session session in which the elements of the dataset will be produced
+   */
+  public void initialize(Session session) {
+    session.runner().addTarget(initializer.op()).run();
+  }
+
+  /**
+   * Returns the components of the next element of the dataset.
+   *
+   * <p>Each call adds a new operation to the graph, so that evaluating the components returned by
+   * two different calls in the same step consumes two elements.
+   *
+   * @return next element, one output per component of the dataset
+   */
+  public List<Output<?>> getNext() {
+    return IteratorGetNext.create(tf.scope(), handle, outputTypes, outputShapes).components();
+  }
+
+  /** Returns the handle of this iterator in the graph. */
+  public Operand<?> handle() {
+    return handle;
+  }
+
+  /** Returns the data type of each component of the elements. */
+  public List<DataType<?>> outputTypes() {
+    return outputTypes;
+  }
+
+  /** Returns the shape of each component of the elements, which may be partially unknown. */
+  public List<Shape> outputShapes() {
+    return outputShapes;
+  }
+
+  static DatasetIterator create(Dataset dataset) {
+    Ops tf = dataset.tf();
+    Iterator handle =
+        Iterator.create(tf.scope(), "", "", dataset.outputTypes(), dataset.outputShapes());
+    MakeIterator initializer = MakeIterator.create(tf.scope(), dataset.variant(), handle);
+    return new DatasetIterator(tf, handle, initializer, dataset.outputTypes(),
+        dataset.outputShapes());
+  }
+
+  private final Ops tf;
+  private final Operand<?> handle;
+  private final MakeIterator initializer;
+  private final List<DataType<?>> outputTypes;
+  private final List<Shape> outputShapes;
+
+  private DatasetIterator(Ops tf, Operand<?> handle, MakeIterator initializer,
+      List<DataType<?>> outputTypes, List<Shape> outputShapes) {
+    this.tf = tf;
+    this.handle = handle;
+    this.initializer = initializer;
+    this.outputTypes = outputTypes;
+    this.outputShapes = outputShapes;
+  }
+}
@@ -0,0 +1,422 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.tensorflow.Operand;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.family.TType;
+
+/**
+ * Assembles the batches fed to a session in background threads, while the current step executes.
+ *
+ * <p>When the input data must come from Java, building the tensors of a batch, running the step
+ * and closing the tensors are usually serialized in the same loop. A feeder runs one or more
+ * producer threads filling the next batches ahead of time, so that the latency of the producers is
+ * hidden by the execution of the steps. For example:
+ *
+ * <pre>{@code
+ * try (PrefetchingFeeder feeder = PrefetchingFeeder.builder(batch -> {
+ *       Example[] examples = featureStore.nextExamples(128);
+ *       if (examples == null) {
+ *         return false;  // end of data
+ *       }
+ *       Tensor<TFloat32> features = batch.tensor(featuresPlaceholder, Shape.make(128, 32));
+ *       // ... write the examples to features.data()
+ *       return true;
+ *     }).numThreads(2).capacity(4).build()) {
+ *   PrefetchingFeeder.Batch batch;
+ *   while ((batch = feeder.next()) != null) {
+ *     try (PrefetchingFeeder.Batch b = batch) {
+ *       b.feed(session.runner()).addTarget(trainOp).run();
+ *     }
+ *   }
+ * }
+ * }</pre>
+ *
+ * <p>Batches and their tensors are pooled: closing a batch gives it back to the producers, which
+ * may overwrite the same tensors instead of allocating new ones. The number of batches is bounded,
+ * so producers block when the consumer falls behind.
+ */
+public final class PrefetchingFeeder implements AutoCloseable {
+
+  /** Fills the tensors of a batch, in a producer thread. */
+  @FunctionalInterface
+  public interface Producer {
+
+    /**
+     * Fills a batch with the next input data.
+     *
+     * <p>The batch may hold the tensors that were filled when it was produced previously. This
+     * method is invoked concurrently when the feeder has multiple producer threads.
+     *
+     * @param batch batch to fill
+     * @return true if the batch has been filled, false if there is no more data
+     * @throws Exception if the data cannot be produced, which stops the feeder
+     */
+    boolean produce(Batch batch) throws Exception;
+  }
+
+  /**
+   * Tensors to feed to a single step.
+   *
+   * <p>A batch must be closed once the step has been executed, to give it back to the producers.
+   */
+  public static final class Batch implements AutoCloseable {
+
+    /**
+     * Returns the tensor to fill for a given feed.
+     *
+     * <p>The tensor of the previous use of this batch is returned if it has the requested shape,
+     * otherwise a new tensor is allocated. Only data types of fixed size are supported.
+     *
+     * @param feed output fed with the tensor, usually a placeholder
+     * @param shape shape of the tensor
+     * @param <T> the type of the tensor
+     * @return the tensor to fill
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends TType> Tensor<T> tensor(Operand<T> feed, Shape shape) {
+      Output<T> output = feed.asOutput();
+      Tensor<?> tensor = tensors.get(output);
+      if (tensor != null && tensor.shape().equals(shape)) {
+        return (Tensor<T>)tensor;
+      }
+      Tensor<T> allocated = Tensor.allocate(output.dataType(), shape);
+      put(output, allocated);
+      return allocated;
+    }
+
+    /**
+     * Sets the tensor for a given feed.
+     *
+     * <p>The batch takes ownership of the tensor, and closes the tensor it replaces, if any.
+     *
+     * @param feed output fed with the tensor
+     * @param tensor tensor to feed
+     */
+    public void put(Operand<?> feed, Tensor<?> tensor) {
+      Tensor<?> previous = tensors.put(feed.asOutput(), tensor);
+      if (previous != null && previous != tensor) {
+        previous.close();
+      }
+    }
+
+    /** Returns the tensors of this batch, by feed. */
+    public Map<Output<?>, Tensor<?>> tensors() {
+      return Collections.unmodifiableMap(tensors);
+    }
+
+    /**
+     * Feeds all the tensors of this batch to a runner.
+     *
+     * @param runner runner of the step
+     * @return the runner
+     */
+    public Session.Runner feed(Session.Runner runner) {
+      for (Map.Entry<Output<?>, Tensor<?>> entry : tensors.entrySet()) {
+        runner.feed(entry.getKey(), entry.getValue());
+      }
+      return runner;
+    }
+
+    /** Gives this batch back to the producers of the feeder. */
+    @Override
+    public void close() {
+      feeder.recycle(this);
+    }
+
+    private final PrefetchingFeeder feeder;
+    private final Map<Output<?>, Tensor<?>> tensors = new LinkedHashMap<>();
+
+    private Batch(PrefetchingFeeder feeder) {
+      this.feeder = feeder;
+    }
+
+    private void release() {
+      for (Tensor<?> tensor : tensors.values()) {
+        tensor.close();
+      }
+      tensors.clear();
+    }
+  }
+
+  /** Timing statistics of a feeder, accumulated since it was built. */
+  public static final class Stats {
+
+    /** Returns the number of batches produced. */
+    public long numBatches() {
+      return numBatches;
+    }
+
+    /** Returns the total time spent by producers filling batches, in nanoseconds. */
+    public long produceNanos() {
+      return produceNanos;
+    }
+
+    /**
+     * Returns the total time producers were blocked waiting for a free batch, in nanoseconds.
+     *
+     * <p>A high value means that the producers are faster than the consumer.
+     */
+    public long producerWaitNanos() {
+      return producerWaitNanos;
+    }
+
+    /**
+     * Returns the total time the consumer was blocked waiting for a batch, in nanoseconds.
+     *
+     * <p>This is the input latency that has not been hidden by the feeder, which could be reduced
+     * by adding producer threads.
+     */
+    public long consumerWaitNanos() {
+      return consumerWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "batches=" + numBatches + ", produce=" + TimeUnit.NANOSECONDS.toMillis(produceNanos)
+          + "ms, producerWait=" + TimeUnit.NANOSECONDS.toMillis(producerWaitNanos)
+          + "ms, consumerWait=" + TimeUnit.NANOSECONDS.toMillis(consumerWaitNanos) + "ms";
+    }
+
+    private final long numBatches;
+    private final long produceNanos;
+    private final long producerWaitNanos;
+    private final long consumerWaitNanos;
+
+    private Stats(long numBatches, long produceNanos, long producerWaitNanos,
+        long consumerWaitNanos) {
+      this.numBatches = numBatches;
+      this.produceNanos = produceNanos;
+      this.producerWaitNanos = producerWaitNanos;
+      this.consumerWaitNanos = consumerWaitNanos;
+    }
+  }
+
+  /** Options for building a {@link PrefetchingFeeder}. */
+  public static final class Builder {
+
+    /**
+     * Sets the number of producer threads, 1 by default.
+     *
+     * @param numThreads number of threads
+     * @throws IllegalArgumentException if {@code numThreads} is not positive
+     */
+    public Builder numThreads(int numThreads) {
+      if (numThreads <= 0) {
+        throw new IllegalArgumentException("Number of threads must be positive, got " + numThreads);
+      }
+      this.numThreads = numThreads;
+      return this;
+    }
+
+    /**
+     * Sets the number of batches produced ahead of the consumer, 2 by default.
+     *
+     * @param capacity number of batches
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public Builder capacity(int capacity) {
+      if (capacity <= 0) {
+        throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+      }
+      this.capacity = capacity;
+      return this;
+    }
+
+    /** Builds the feeder and starts its producer threads. */
+    public PrefetchingFeeder build() {
+      return new PrefetchingFeeder(this);
+    }
+
+    private final Producer producer;
+    private int numThreads = 1;
+    private int capacity = 2;
+
+    private Builder(Producer producer) {
+      this.producer = producer;
+    }
+  }
+
+  /**
+   * Returns a builder of feeders.
+   *
+   * @param producer producer of the batches
+   */
+  public static Builder builder(Producer producer) {
+    return new Builder(producer);
+  }
+
+  /**
+   * Returns the next batch to feed, waiting for it to be produced if necessary.
+   *
+   * @return the next batch, or null if there is no more data
+   * @throws IllegalStateException if a producer has failed, after all batches produced before the
+   *     failure have been returned, or if the feeder has been closed
+   * @throws InterruptedException if the current thread has been interrupted while waiting
+   */
+  public Batch next() throws InterruptedException {
+    if (closed) {
+      throw new IllegalStateException("close() has been called on the feeder");
+    }
+    long startNanos = System.nanoTime();
+    Batch batch = ready.take();
+    consumerWaitNanos.add(System.nanoTime() - startNanos);
+    if (batch == END) {
+      ready.add(END);  // for the next calls
+      if (failure != null) {
+        throw new IllegalStateException("Failed to produce a batch", failure);
+      }
+      return null;
+    }
+    return batch;
+  }
+
+  /** Returns the timing statistics of this feeder. */
+  public Stats stats() {
+    return new Stats(numBatches.sum(), produceNanos.sum(), producerWaitNanos.sum(),
+        consumerWaitNanos.sum());
+  }
+
+  /**
+   * Stops the producers and releases the tensors of all batches.
+   *
+   * <p>Blocks until the producers have returned. Batches returned by {@link #next()} must not be
+   * used after this method is called.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    producers.shutdownNow();
+    boolean interrupted = false;
+    while (!producers.isTerminated()) {
+      try {
+        producers.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    synchronized (this) {
+      for (Batch batch : batches) {
+        batch.release();
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static final Batch END = new Batch(null);
+
+  private final Producer producer;
+  private final List<Batch> batches = new ArrayList<>();
+  private final BlockingQueue<Batch> free = new LinkedBlockingQueue<>();
+  private final BlockingQueue<Batch> ready = new LinkedBlockingQueue<>();
+  private final ExecutorService producers;
+  private final AtomicInteger activeProducers;
+  private final LongAdder numBatches = new LongAdder();
+  private final LongAdder produceNanos = new LongAdder();
+  private final LongAdder producerWaitNanos = new LongAdder();
+  private final LongAdder consumerWaitNanos = new LongAdder();
+  private volatile boolean exhausted = false;
+  private volatile boolean closed = false;
+  private volatile Throwable failure = null;
+
+  private PrefetchingFeeder(Builder options) {
+    producer = options.producer;
+    // Enough batches for the ones produced ahead, the ones being produced and the one being fed
+    int poolSize = options.capacity + options.numThreads + 1;
+    for (int i = 0; i < poolSize; ++i) {
+      Batch batch = new Batch(this);
+      batches.add(batch);
+      free.add(batch);
+    }
+    activeProducers = new AtomicInteger(options.numThreads);
+    producers = Executors.newFixedThreadPool(options.numThreads, r -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(r);
+      thread.setDaemon(true);
+      thread.setName("tensorflow-feeder-" + thread.getId());
+      return thread;
+    });
+    for (int i = 0; i < options.numThreads; ++i) {
+      producers.execute(this::produce);
+    }
+  }
+
+  private void produce() {
+    try {
+      while (!exhausted && !closed) {
+        long startNanos = System.nanoTime();
+        Batch batch = free.take();
+        long producingNanos = System.nanoTime();
+        producerWaitNanos.add(producingNanos - startNanos);
+        boolean produced;
+        try {
+          produced = !exhausted && producer.produce(batch);
+        } catch (Throwable e) {
+          if (failure == null) {
+            failure = e;
+          }
+          produced = false;
+        }
+        produceNanos.add(System.nanoTime() - producingNanos);
+        if (!produced) {
+          exhausted = true;
+          free.add(batch);
+          break;
+        }
+        numBatches.increment();
+        ready.add(batch);
+      }
+    } catch (InterruptedException e) {
+      // the feeder is closing
+    } finally {
+      if (activeProducers.decrementAndGet() == 0) {
+        ready.add(END);
+      }
+    }
+  }
+
+  private void recycle(Batch batch) {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      free.add(batch);
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations, with exponential buckets.
+ *
+ * <p>Durations are counted in buckets of microseconds whose upper bounds are powers of two, so
+ * recording a value only requires a couple of atomic increments and percentiles are estimated
+ * with a relative error of at most 2x. This is sufficient to spot latency regressions without
+ * the cost of keeping track of every value.
+ *
+ * <p>Instances of this class are thread-safe.
+ */
+public final class LatencyHistogram {
+
+  /**
+   * Records a duration.
+   *
+   * @param durationNanos duration, in nanoseconds
+   */
+  public void record(long durationNanos) {
+    long micros = Math.max(0L, durationNanos / 1000L);
+    buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(micros));
+    count.increment();
+    totalNanos.add(durationNanos);
+    long max;
+    while ((max = maxNanos.get()) < durationNanos && !maxNanos.compareAndSet(max, durationNanos)) {
+      // retry
+    }
+  }
+
+  /**
+   * @return number of durations recorded
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * @return sum of all durations recorded, in nanoseconds
+   */
+  public long totalNanos() {
+    return totalNanos.sum();
+  }
+
+  /**
+   * @return average duration, in nanoseconds, or 0 if nothing has been recorded
+   */
+  public double meanNanos() {
+    long n = count();
+    return n > 0 ? (double)totalNanos() / n : 0.0;
+  }
+
+  /**
+   * @return longest duration recorded, in nanoseconds
+   */
+  public long maxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Estimates a percentile of the recorded durations.
+   *
+   * <p>The returned value is the upper bound of the bucket containing the requested percentile,
+   * capped to the longest duration recorded.
+   *
+   * @param percentile percentile to estimate, between 0 and 100
+   * @return estimated duration, in nanoseconds, or 0 if nothing has been recorded
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public long percentileNanos(double percentile) {
+    if (percentile < 0.0 || percentile > 100.0) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    long n = 0;
+    long[] counts = new long[buckets.length()];
+    for (int i = 0; i < counts.length; ++i) {
+      counts[i] = buckets.get(i);
+      n += counts[i];
+    }
+    if (n == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long)Math.ceil(percentile / 100.0 * n));
+    long seen = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      seen += counts[i];
+      if (seen >= rank) {
+        long upperBoundNanos = i < 63 ? (1L << i) * 1000L : Long.MAX_VALUE;
+        return Math.min(upperBoundNanos, maxNanos());
+      }
+    }
+    return maxNanos();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms", count(),
+        meanNanos() / 1e6, percentileNanos(50) / 1e6, percentileNanos(99) / 1e6, maxNanos() / 1e6);
+  }
+
+  private final AtomicLongArray buckets = new AtomicLongArray(65);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+}
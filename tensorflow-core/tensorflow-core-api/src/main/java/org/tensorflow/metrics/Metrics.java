@@ -0,0 +1,271 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Entry point for collecting metrics on the usage of TensorFlow native resources.
+ *
+ * <p>Metrics are disabled by default. They can be enabled programmatically with {@link #enable()}
+ * or by setting the system property {@value #ENABLED_PROPERTY} to {@code true}. While disabled,
+ * instrumented code paths only pay for a single volatile read.
+ *
+ * <p>Once enabled, the following events are reported to the {@link #collector() collector} and to
+ * all registered {@link MetricsListener listeners}:
+ * <ul>
+ *   <li>start and end of session runs, with their latency</li>
+ *   <li>allocation and release of native tensors</li>
+ *   <li>native resources attached to and released from eager sessions</li>
+ *   <li>loading of saved models</li>
+ * </ul>
+ *
+ * <p>Resources are only accounted if they were acquired while metrics were enabled, so that gauges
+ * remain consistent when metrics are toggled at runtime. Metrics can also be exported through JMX
+ * by calling {@link #registerMBean()}, for example:
+ * <pre>{@code
+ *    Metrics.enable();
+ *    Metrics.registerMBean();  // visible under "org.tensorflow:type=Metrics"
+ *    Metrics.addListener(new MetricsListener() {
+ *      @Override
+ *      public void onRunEnd(String signature, long durationNanos, boolean succeeded) {
+ *        myRegistry.timer("tf.session.run", "signature", signature).record(durationNanos, NANOSECONDS);
+ *      }
+ *    });
+ * }</pre>
+ */
+public final class Metrics {
+
+  /**
+   * System property enabling metrics at startup.
+   */
+  public static final String ENABLED_PROPERTY = "org.tensorflow.metrics.enabled";
+
+  /**
+   * Object name under which the {@link MetricsMXBean} is registered.
+   */
+  public static final String OBJECT_NAME = "org.tensorflow:type=Metrics";
+
+  /**
+   * Enables the collection of metrics.
+   */
+  public static void enable() {
+    active = DISPATCHER;
+  }
+
+  /**
+   * Disables the collection of metrics.
+   *
+   * <p>Values already collected are preserved and will continue to be aggregated if metrics are
+   * enabled back.
+   */
+  public static void disable() {
+    active = null;
+  }
+
+  /**
+   * @return true if metrics are currently enabled
+   */
+  public static boolean isEnabled() {
+    return active != null;
+  }
+
+  /**
+   * Returns the listener to notify of new events, if metrics are enabled.
+   *
+   * <p>This method is intended for instrumented code paths, which should retrieve the listener only
+   * once per event and skip any additional work when it is null.
+   *
+   * @return a listener dispatching events to all registered listeners, or null if metrics are
+   *         disabled
+   */
+  public static MetricsListener listener() {
+    return active;
+  }
+
+  /**
+   * @return the collector aggregating all events reported while metrics are enabled
+   */
+  public static MetricsCollector collector() {
+    return COLLECTOR;
+  }
+
+  /**
+   * Registers a listener to notify of events reported while metrics are enabled.
+   *
+   * @param listener listener to add
+   */
+  public static void addListener(MetricsListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    LISTENERS.add(listener);
+  }
+
+  /**
+   * Unregisters a listener previously added with {@link #addListener(MetricsListener)}.
+   *
+   * @param listener listener to remove
+   */
+  public static void removeListener(MetricsListener listener) {
+    LISTENERS.remove(listener);
+  }
+
+  /**
+   * Registers the {@link #collector() collector} in the platform MBean server, under the name
+   * {@value #OBJECT_NAME}.
+   *
+   * <p>This method does nothing if the bean is already registered.
+   *
+   * @throws IllegalStateException if the bean cannot be registered
+   */
+  public static void registerMBean() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(COLLECTOR, new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // already registered
+    } catch (JMException e) {
+      throw new IllegalStateException("Failed to register TensorFlow metrics bean", e);
+    }
+  }
+
+  /**
+   * Unregisters the {@link #collector() collector} from the platform MBean server.
+   *
+   * <p>This method does nothing if the bean is not registered.
+   *
+   * @throws IllegalStateException if the bean cannot be unregistered
+   */
+  public static void unregisterMBean() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.unregisterMBean(new ObjectName(OBJECT_NAME));
+    } catch (InstanceNotFoundException e) {
+      // not registered
+    } catch (JMException e) {
+      throw new IllegalStateException("Failed to unregister TensorFlow metrics bean", e);
+    }
+  }
+
+  private static final MetricsCollector COLLECTOR = new MetricsCollector();
+  private static final List<MetricsListener> LISTENERS = new CopyOnWriteArrayList<>();
+  private static final MetricsListener DISPATCHER = new Dispatcher();
+
+  private static volatile MetricsListener active =
+      Boolean.getBoolean(ENABLED_PROPERTY) ? DISPATCHER : null;
+
+  private Metrics() {}
+
+  /**
+   * Forwards events to the collector and to all registered listeners, ignoring their failures so
+   * that metrics never interfere with the resources being instrumented.
+   */
+  private static final class Dispatcher implements MetricsListener {
+
+    @Override
+    public void onRunStart() {
+      COLLECTOR.onRunStart();
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onRunStart();
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onRunEnd(String signature, long durationNanos, boolean succeeded) {
+      COLLECTOR.onRunEnd(signature, durationNanos, succeeded);
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onRunEnd(signature, durationNanos, succeeded);
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onTensorAllocated(long numBytes) {
+      COLLECTOR.onTensorAllocated(numBytes);
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onTensorAllocated(numBytes);
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onTensorReleased(long numBytes) {
+      COLLECTOR.onTensorReleased(numBytes);
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onTensorReleased(numBytes);
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onEagerHandleAttached() {
+      COLLECTOR.onEagerHandleAttached();
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onEagerHandleAttached();
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onEagerHandleReleased() {
+      COLLECTOR.onEagerHandleReleased();
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onEagerHandleReleased();
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+
+    @Override
+    public void onSavedModelLoaded(String exportDir, long durationNanos) {
+      COLLECTOR.onSavedModelLoaded(exportDir, durationNanos);
+      for (MetricsListener listener : LISTENERS) {
+        try {
+          listener.onSavedModelLoaded(exportDir, durationNanos);
+        } catch (RuntimeException e) {
+          // ignore
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Aggregates events received as a {@link MetricsListener} into counters, gauges and latency
+ * histograms.
+ *
+ * <p>An instance of this class is always registered while metrics are enabled and can be
+ * retrieved with {@link Metrics#collector()}. It also implements the {@link MetricsMXBean}
+ * interface, for exporting its values through JMX.
+ */
+public final class MetricsCollector implements MetricsListener, MetricsMXBean {
+
+  @Override
+  public void onRunStart() {
+    activeRuns.increment();
+  }
+
+  @Override
+  public void onRunEnd(String signature, long durationNanos, boolean succeeded) {
+    activeRuns.decrement();
+    if (succeeded) {
+      runLatencies.computeIfAbsent(signature, s -> new LatencyHistogram()).record(durationNanos);
+    } else {
+      failedRuns.increment();
+    }
+  }
+
+  @Override
+  public void onTensorAllocated(long numBytes) {
+    liveTensors.increment();
+    liveTensorBytes.add(numBytes);
+    totalTensorsAllocated.increment();
+  }
+
+  @Override
+  public void onTensorReleased(long numBytes) {
+    liveTensors.decrement();
+    liveTensorBytes.add(-numBytes);
+  }
+
+  @Override
+  public void onEagerHandleAttached() {
+    eagerHandles.increment();
+  }
+
+  @Override
+  public void onEagerHandleReleased() {
+    eagerHandles.decrement();
+  }
+
+  @Override
+  public void onSavedModelLoaded(String exportDir, long durationNanos) {
+    savedModelLoads.record(durationNanos);
+  }
+
+  /**
+   * Returns the latency histograms of successful session runs.
+   *
+   * <p>Runs are grouped by signature, which enumerates the names of the feeds, fetches and targets
+   * of a run, so that different kind of runs on the same session can be told apart.
+   *
+   * @return read-only map of histograms, sorted by run signature
+   */
+  public Map<String, LatencyHistogram> runLatencies() {
+    return Collections.unmodifiableMap(new TreeMap<>(runLatencies));
+  }
+
+  /**
+   * @return latency histogram of saved model loads
+   */
+  public LatencyHistogram savedModelLoadLatency() {
+    return savedModelLoads;
+  }
+
+  @Override
+  public long getActiveRuns() {
+    return activeRuns.sum();
+  }
+
+  @Override
+  public long getFailedRuns() {
+    return failedRuns.sum();
+  }
+
+  @Override
+  public Map<String, Long> getRunCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    runLatencies.forEach((s, h) -> counts.put(s, h.count()));
+    return counts;
+  }
+
+  @Override
+  public Map<String, Double> getMeanRunLatencyMillis() {
+    return mapRunLatencies(h -> h.meanNanos() / 1e6);
+  }
+
+  @Override
+  public Map<String, Double> getP99RunLatencyMillis() {
+    return mapRunLatencies(h -> h.percentileNanos(99) / 1e6);
+  }
+
+  @Override
+  public long getLiveTensors() {
+    return liveTensors.sum();
+  }
+
+  @Override
+  public long getLiveTensorBytes() {
+    return liveTensorBytes.sum();
+  }
+
+  @Override
+  public long getTotalTensorsAllocated() {
+    return totalTensorsAllocated.sum();
+  }
+
+  @Override
+  public long getEagerHandles() {
+    return eagerHandles.sum();
+  }
+
+  @Override
+  public long getSavedModelLoads() {
+    return savedModelLoads.count();
+  }
+
+  @Override
+  public double getSavedModelLoadMillis() {
+    return savedModelLoads.totalNanos() / 1e6;
+  }
+
+  @Override
+  public void reset() {
+    failedRuns.reset();
+    runLatencies.clear();
+    totalTensorsAllocated.reset();
+    savedModelLoads = new LatencyHistogram();
+  }
+
+  MetricsCollector() {}
+
+  private final LongAdder activeRuns = new LongAdder();
+  private final LongAdder failedRuns = new LongAdder();
+  private final ConcurrentMap<String, LatencyHistogram> runLatencies = new ConcurrentHashMap<>();
+  private final LongAdder liveTensors = new LongAdder();
+  private final LongAdder liveTensorBytes = new LongAdder();
+  private final LongAdder totalTensorsAllocated = new LongAdder();
+  private final LongAdder eagerHandles = new LongAdder();
+  private volatile LatencyHistogram savedModelLoads = new LatencyHistogram();
+
+  private Map<String, Double> mapRunLatencies(ToDoubleFunction<LatencyHistogram> mapper) {
+    Map<String, Double> values = new TreeMap<>();
+    runLatencies.forEach((s, h) -> values.put(s, mapper.applyAsDouble(h)));
+    return values;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.metrics;
+
+/**
+ * Receives events about the usage of TensorFlow native resources.
+ *
+ * <p>Listeners are registered with {@link Metrics#addListener(MetricsListener)} and are only
+ * notified while metrics are {@link Metrics#enable() enabled}. They are invoked synchronously, by
+ * the thread that triggered the event, so implementations must be thread-safe and return quickly.
+ * Exceptions thrown by a listener are ignored.
+ *
+ * <p>All methods have an empty default implementation, so a listener only needs to override the
+ * events it is interested in.
+ */
+public interface MetricsListener {
+
+  /**
+   * Invoked when a session starts running a graph.
+   */
+  default void onRunStart() {}
+
+  /**
+   * Invoked when a session run completes, successfully or not.
+   *
+   * @param signature describes the feeds, fetches and targets of the run
+   * @param durationNanos time elapsed since the run started
+   * @param succeeded true if the run completed without error
+   */
+  default void onRunEnd(String signature, long durationNanos, boolean succeeded) {}
+
+  /**
+   * Invoked when a native tensor is allocated or when the ownership of a native tensor is
+   * transferred to a Java {@link org.tensorflow.Tensor Tensor}.
+   *
+   * @param numBytes size of the tensor data, in bytes
+   */
+  default void onTensorAllocated(long numBytes) {}
+
+  /**
+   * Invoked when a native tensor is released.
+   *
+   * @param numBytes size of the tensor data, in bytes
+   */
+  default void onTensorReleased(long numBytes) {}
+
+  /**
+   * Invoked when a native resource is attached to an eager session.
+   */
+  default void onEagerHandleAttached() {}
+
+  /**
+   * Invoked when a native resource is detached from its eager session or released.
+   */
+  default void onEagerHandleReleased() {}
+
+  /**
+   * Invoked when a saved model has been loaded.
+   *
+   * @param exportDir directory of the saved model
+   * @param durationNanos time spent loading the model
+   */
+  default void onSavedModelLoaded(String exportDir, long durationNanos) {}
+}
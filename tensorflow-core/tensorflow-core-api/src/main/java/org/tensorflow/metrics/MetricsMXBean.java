@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the metrics collected by TensorFlow through JMX.
+ *
+ * <p>The bean is registered under the name {@value Metrics#OBJECT_NAME} by
+ * {@link Metrics#registerMBean()}.
+ */
+public interface MetricsMXBean {
+
+  /**
+   * @return number of session runs currently in progress
+   */
+  long getActiveRuns();
+
+  /**
+   * @return number of session runs that completed with an error
+   */
+  long getFailedRuns();
+
+  /**
+   * @return number of completed session runs, per run signature
+   */
+  Map<String, Long> getRunCounts();
+
+  /**
+   * @return average latency of session runs, in milliseconds, per run signature
+   */
+  Map<String, Double> getMeanRunLatencyMillis();
+
+  /**
+   * @return 99th percentile of the latency of session runs, in milliseconds, per run signature
+   */
+  Map<String, Double> getP99RunLatencyMillis();
+
+  /**
+   * @return number of native tensors currently owned by Java tensors
+   */
+  long getLiveTensors();
+
+  /**
+   * @return total size, in bytes, of the native tensors currently owned by Java tensors
+   */
+  long getLiveTensorBytes();
+
+  /**
+   * @return number of native tensors owned by Java tensors since metrics were enabled
+   */
+  long getTotalTensorsAllocated();
+
+  /**
+   * @return number of native resources currently attached to eager sessions
+   */
+  long getEagerHandles();
+
+  /**
+   * @return number of saved models loaded
+   */
+  long getSavedModelLoads();
+
+  /**
+   * @return total time spent loading saved models, in milliseconds
+   */
+  double getSavedModelLoadMillis();
+
+  /**
+   * Resets all cumulative counters and histograms.
+   *
+   * <p>Gauges of resources currently in use, like the number of live tensors, are preserved.
+   */
+  void reset();
+}
@@ -0,0 +1,28 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+
+/**
+ * Defines classes to monitor the usage of TensorFlow native resources.
+ *
+ * <p>Session runs, native tensors, eager resources and saved model loads are instrumented to
+ * report events to {@link org.tensorflow.metrics.Metrics}, which aggregates them into counters and
+ * latency histograms that can be read programmatically, exported through JMX or forwarded to
+ * any other monitoring system via a {@link org.tensorflow.metrics.MetricsListener}.
+ *
+ * <p>Metrics are disabled by default and cost a single volatile read per event until enabled.
+ */
+package org.tensorflow.metrics;
@@ -47,6 +47,9 @@ import org.tensorflow.types.family.TType;
  * ApplyGradientDescent.create(scope, w, alpha, gradients.<Float>dy(0));
  * ApplyGradientDescent.create(scope, b, alpha, gradients.<Float>dy(1));
  * }</pre>
+ * <p>
+ * Gradients can only be added to a graph. In an eager session, they are computed with a
+ * {@link org.tensorflow.GradientTape}.
  */
 @Operator
 public class Gradients implements Op, Iterable<Operand<?>> {
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.profiler;
+
+/**
+ * Execution statistics of a single node during a traced run.
+ *
+ * <p>All times are expressed in microseconds. Start times are relative to the beginning of the
+ * step, i.e. the earliest start time of all nodes in the same {@link StepProfile}.
+ */
+public final class NodeStats {
+
+  /**
+   * @return name of the node in the graph
+   */
+  public String nodeName() {
+    return nodeName;
+  }
+
+  /**
+   * @return type of the operation executed by this node, or {@code "unknown"} if it could not be
+   * resolved
+   */
+  public String opType() {
+    return opType;
+  }
+
+  /**
+   * @return name of the device on which this node has been executed
+   */
+  public String device() {
+    return device;
+  }
+
+  /**
+   * @return identifier of the thread that executed this node
+   */
+  public int threadId() {
+    return threadId;
+  }
+
+  /**
+   * @return time at which the node started, relative to the beginning of the step
+   */
+  public long startMicros() {
+    return startMicros;
+  }
+
+  /**
+   * @return total time spent by this node, from its scheduling to its completion
+   */
+  public long wallTimeMicros() {
+    return wallTimeMicros;
+  }
+
+  /**
+   * @return time spent computing the operation itself
+   */
+  public long opTimeMicros() {
+    return opTimeMicros;
+  }
+
+  /**
+   * @return bytes allocated by this node, summed over all allocators
+   */
+  public long allocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @return peak of memory used by this node, summed over all allocators
+   */
+  public long peakBytes() {
+    return peakBytes;
+  }
+
+  @Override
+  public String toString() {
+    return nodeName + " (" + opType + ") on " + device + ": " + wallTimeMicros + "us, " +
+        allocatedBytes + " bytes";
+  }
+
+  NodeStats(String nodeName, String opType, String device, int threadId, long startMicros,
+      long wallTimeMicros, long opTimeMicros, long allocatedBytes, long peakBytes) {
+    this.nodeName = nodeName;
+    this.opType = opType;
+    this.device = device;
+    this.threadId = threadId;
+    this.startMicros = startMicros;
+    this.wallTimeMicros = wallTimeMicros;
+    this.opTimeMicros = opTimeMicros;
+    this.allocatedBytes = allocatedBytes;
+    this.peakBytes = peakBytes;
+  }
+
+  private final String nodeName;
+  private final String opType;
+  private final String device;
+  private final int threadId;
+  private final long startMicros;
+  private final long wallTimeMicros;
+  private final long opTimeMicros;
+  private final long allocatedBytes;
+  private final long peakBytes;
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.profiler;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Statistics of a node or a type of operation, aggregated over all of its executions.
+ *
+ * <p>All times are expressed in microseconds.
+ */
+public final class OpStats {
+
+  /**
+   * @return the node name or the operation type these statistics are grouped by
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return number of executions
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * @return sum of the wall time of all executions
+   */
+  public long totalWallTimeMicros() {
+    return totalWallTimeMicros;
+  }
+
+  /**
+   * @return average wall time of an execution
+   */
+  public double meanWallTimeMicros() {
+    return count > 0 ? (double)totalWallTimeMicros / count : 0.0;
+  }
+
+  /**
+   * @return shortest wall time of an execution
+   */
+  public long minWallTimeMicros() {
+    return minWallTimeMicros;
+  }
+
+  /**
+   * @return longest wall time of an execution
+   */
+  public long maxWallTimeMicros() {
+    return maxWallTimeMicros;
+  }
+
+  /**
+   * @return sum of the time spent computing the operation in all executions
+   */
+  public long totalOpTimeMicros() {
+    return totalOpTimeMicros;
+  }
+
+  /**
+   * @return sum of the bytes allocated by all executions
+   */
+  public long totalAllocatedBytes() {
+    return totalAllocatedBytes;
+  }
+
+  /**
+   * @return highest memory peak of an execution
+   */
+  public long maxPeakBytes() {
+    return maxPeakBytes;
+  }
+
+  /**
+   * @return names of the devices on which executions took place
+   */
+  public Set<String> devices() {
+    return Collections.unmodifiableSet(devices);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: %d calls, total %dus, mean %.1fus, max %dus, %d bytes allocated",
+        name, count, totalWallTimeMicros, meanWallTimeMicros(), maxWallTimeMicros, totalAllocatedBytes);
+  }
+
+  OpStats(String name) {
+    this.name = name;
+  }
+
+  OpStats(OpStats other) {
+    this.name = other.name;
+    this.count = other.count;
+    this.totalWallTimeMicros = other.totalWallTimeMicros;
+    this.minWallTimeMicros = other.minWallTimeMicros;
+    this.maxWallTimeMicros = other.maxWallTimeMicros;
+    this.totalOpTimeMicros = other.totalOpTimeMicros;
+    this.totalAllocatedBytes = other.totalAllocatedBytes;
+    this.maxPeakBytes = other.maxPeakBytes;
+    this.devices.addAll(other.devices);
+  }
+
+  void add(NodeStats node) {
+    minWallTimeMicros = count > 0 ? Math.min(minWallTimeMicros, node.wallTimeMicros()) : node.wallTimeMicros();
+    maxWallTimeMicros = Math.max(maxWallTimeMicros, node.wallTimeMicros());
+    totalWallTimeMicros += node.wallTimeMicros();
+    totalOpTimeMicros += node.opTimeMicros();
+    totalAllocatedBytes += node.allocatedBytes();
+    maxPeakBytes = Math.max(maxPeakBytes, node.peakBytes());
+    devices.add(node.device());
+    ++count;
+  }
+
+  private final String name;
+  private final Set<String> devices = new TreeSet<>();
+  private long count;
+  private long totalWallTimeMicros;
+  private long minWallTimeMicros;
+  private long maxWallTimeMicros;
+  private long totalOpTimeMicros;
+  private long totalAllocatedBytes;
+  private long maxPeakBytes;
+}
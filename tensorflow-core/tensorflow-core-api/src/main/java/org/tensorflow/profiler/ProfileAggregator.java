@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.profiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates the statistics of many traced steps, to identify the nodes and the types of
+ * operation that dominate the execution time of a graph.
+ *
+ * <p>Instances of this class are thread-safe, so profiles of concurrent session runs can be added
+ * to the same aggregator.
+ */
+public final class ProfileAggregator {
+
+  /**
+   * Adds the statistics of a step to this aggregator.
+   *
+   * @param profile profile of a step
+   * @return this aggregator
+   */
+  public synchronized ProfileAggregator add(StepProfile profile) {
+    for (NodeStats node : profile.nodes()) {
+      byNode.computeIfAbsent(node.nodeName(), OpStats::new).add(node);
+      byOpType.computeIfAbsent(node.opType(), OpStats::new).add(node);
+    }
+    totalDurationMicros += profile.durationMicros();
+    ++numSteps;
+    return this;
+  }
+
+  /**
+   * @return number of steps added to this aggregator
+   */
+  public synchronized long numSteps() {
+    return numSteps;
+  }
+
+  /**
+   * @return sum of the duration of all steps added to this aggregator
+   */
+  public synchronized long totalDurationMicros() {
+    return totalDurationMicros;
+  }
+
+  /**
+   * Returns a snapshot of the statistics accumulated per node name.
+   *
+   * @return statistics per node name, sorted by decreasing total wall time
+   */
+  public synchronized Map<String, OpStats> statsByNode() {
+    return snapshot(byNode);
+  }
+
+  /**
+   * Returns a snapshot of the statistics accumulated per operation type.
+   *
+   * @return statistics per operation type, sorted by decreasing total wall time
+   */
+  public synchronized Map<String, OpStats> statsByOpType() {
+    return snapshot(byOpType);
+  }
+
+  /**
+   * Discards all statistics accumulated so far.
+   */
+  public synchronized void reset() {
+    byNode.clear();
+    byOpType.clear();
+    totalDurationMicros = 0L;
+    numSteps = 0L;
+  }
+
+  private final Map<String, OpStats> byNode = new HashMap<>();
+  private final Map<String, OpStats> byOpType = new HashMap<>();
+  private long totalDurationMicros;
+  private long numSteps;
+
+  private static Map<String, OpStats> snapshot(Map<String, OpStats> stats) {
+    List<OpStats> copies = new ArrayList<>(stats.size());
+    for (OpStats s : stats.values()) {
+      copies.add(new OpStats(s));
+    }
+    return StepProfile.sortByTotalWallTime(copies);
+  }
+}
@@ -0,0 +1,370 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.profiler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.tensorflow.Graph;
+import org.tensorflow.GraphOperation;
+import org.tensorflow.tools.proto.ProtoReader;
+import org.tensorflow.tools.proto.ProtoWriter;
+
+/**
+ * Execution statistics of all nodes that ran during a single traced step.
+ *
+ * <p>A profile is obtained by parsing the {@code RunMetadata} returned by a session run executed
+ * with {@link #traceRunOptions()}:
+ * <pre>{@code
+ * Session.Run run = session.runner()
+ *     .fetch("y")
+ *     .setOptions(StepProfile.traceRunOptions())
+ *     .runAndFetchMetadata();
+ * StepProfile profile = StepProfile.parse(run.metadata, graph);
+ * }</pre>
+ *
+ * <p>Only the step statistics of the metadata are decoded, other fields are ignored.
+ */
+public final class StepProfile {
+
+  /**
+   * Returns serialized {@code RunOptions} enabling full tracing of a session run.
+   *
+   * @return options to pass to {@link org.tensorflow.Session.Runner#setOptions(byte[])}
+   */
+  public static byte[] traceRunOptions() {
+    return new ProtoWriter().writeVarint(RUN_OPTIONS_TRACE_LEVEL, FULL_TRACE).toByteArray();
+  }
+
+  /**
+   * Parses the step statistics found in serialized run metadata.
+   *
+   * <p>Operation types are extracted from the timeline labels reported by the runtime, which
+   * might not be available for all nodes. Use {@link #parse(byte[], Graph)} to resolve them from
+   * the graph instead.
+   *
+   * @param runMetadata serialized {@code RunMetadata} protocol buffer
+   * @return profile of the step
+   * @throws IllegalArgumentException if the metadata is malformed
+   */
+  public static StepProfile parse(byte[] runMetadata) {
+    return parse(runMetadata, null);
+  }
+
+  /**
+   * Parses the step statistics found in serialized run metadata, resolving operation types from
+   * the graph that has been executed.
+   *
+   * @param runMetadata serialized {@code RunMetadata} protocol buffer
+   * @param graph graph executed by the session, or null to only rely on timeline labels
+   * @return profile of the step
+   * @throws IllegalArgumentException if the metadata is malformed
+   */
+  public static StepProfile parse(byte[] runMetadata, Graph graph) {
+    List<RawNodeStats> rawNodes = new ArrayList<>();
+    ProtoReader metadata = ProtoReader.of(runMetadata);
+    while (metadata.next()) {
+      if (metadata.fieldNumber() == RUN_METADATA_STEP_STATS) {
+        ProtoReader stepStats = metadata.readMessage();
+        while (stepStats.next()) {
+          if (stepStats.fieldNumber() == STEP_STATS_DEV_STATS) {
+            parseDeviceStats(stepStats.readMessage(), rawNodes);
+          }
+        }
+      }
+    }
+    long stepStart = Long.MAX_VALUE;
+    long stepEnd = Long.MIN_VALUE;
+    for (RawNodeStats raw : rawNodes) {
+      stepStart = Math.min(stepStart, raw.startMicros);
+      stepEnd = Math.max(stepEnd, raw.startMicros + raw.wallTimeMicros);
+    }
+    List<NodeStats> nodes = new ArrayList<>(rawNodes.size());
+    for (RawNodeStats raw : rawNodes) {
+      nodes.add(new NodeStats(
+          raw.nodeName,
+          opTypeOf(raw, graph),
+          raw.device,
+          raw.threadId,
+          raw.startMicros - stepStart,
+          raw.wallTimeMicros,
+          raw.opTimeMicros,
+          raw.allocatedBytes,
+          raw.peakBytes
+      ));
+    }
+    nodes.sort(Comparator.comparingLong(NodeStats::startMicros));
+    return new StepProfile(nodes, rawNodes.isEmpty() ? 0L : stepEnd - stepStart);
+  }
+
+  /**
+   * @return statistics of each node executed during the step, sorted by start time
+   */
+  public List<NodeStats> nodes() {
+    return nodes;
+  }
+
+  /**
+   * @return time elapsed between the start of the first node and the end of the last one
+   */
+  public long durationMicros() {
+    return durationMicros;
+  }
+
+  /**
+   * Groups the statistics of this step by node name.
+   *
+   * <p>A node appears more than once in a step when it runs on multiple devices or within a loop.
+   *
+   * @return statistics per node name, sorted by decreasing total wall time
+   */
+  public Map<String, OpStats> statsByNode() {
+    return groupBy(nodes, NodeStats::nodeName);
+  }
+
+  /**
+   * Groups the statistics of this step by operation type.
+   *
+   * @return statistics per operation type, sorted by decreasing total wall time
+   */
+  public Map<String, OpStats> statsByOpType() {
+    return groupBy(nodes, NodeStats::opType);
+  }
+
+  /**
+   * Exports this profile in the Chrome trace event format.
+   *
+   * <p>The output can be loaded in {@code chrome://tracing} or any compatible viewer, where each
+   * device appears as a process and each of its threads as a track.
+   *
+   * @param out destination of the JSON document
+   * @throws IOException if the document cannot be written
+   */
+  public void writeChromeTrace(Appendable out) throws IOException {
+    Map<String, Integer> deviceIds = new LinkedHashMap<>();
+    for (NodeStats node : nodes) {
+      deviceIds.putIfAbsent(node.device(), deviceIds.size());
+    }
+    out.append("{\"traceEvents\":[");
+    boolean first = true;
+    for (Map.Entry<String, Integer> device : deviceIds.entrySet()) {
+      if (!first) {
+        out.append(',');
+      }
+      first = false;
+      out.append("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":").append(device.getValue().toString())
+          .append(",\"args\":{\"name\":").append(quote(device.getKey())).append("}}");
+    }
+    for (NodeStats node : nodes) {
+      if (!first) {
+        out.append(',');
+      }
+      first = false;
+      out.append("{\"name\":").append(quote(node.opType()))
+          .append(",\"cat\":\"Op\",\"ph\":\"X\",\"ts\":").append(Long.toString(node.startMicros()))
+          .append(",\"dur\":").append(Long.toString(node.wallTimeMicros()))
+          .append(",\"pid\":").append(deviceIds.get(node.device()).toString())
+          .append(",\"tid\":").append(Integer.toString(node.threadId()))
+          .append(",\"args\":{\"name\":").append(quote(node.nodeName()))
+          .append(",\"op\":").append(quote(node.opType()))
+          .append(",\"allocated_bytes\":").append(Long.toString(node.allocatedBytes()))
+          .append(",\"peak_bytes\":").append(Long.toString(node.peakBytes()))
+          .append("}}");
+    }
+    out.append("]}");
+  }
+
+  /**
+   * @return this profile as a Chrome trace JSON document
+   * @see #writeChromeTrace(Appendable)
+   */
+  public String toChromeTrace() {
+    StringBuilder sb = new StringBuilder();
+    try {
+      writeChromeTrace(sb);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);  // never happens with a StringBuilder
+    }
+    return sb.toString();
+  }
+
+  static Map<String, OpStats> sortByTotalWallTime(Collection<OpStats> stats) {
+    List<OpStats> sorted = new ArrayList<>(stats);
+    sorted.sort(Comparator.comparingLong(OpStats::totalWallTimeMicros).reversed());
+    Map<String, OpStats> result = new LinkedHashMap<>();
+    for (OpStats s : sorted) {
+      result.put(s.name(), s);
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  // Field numbers, as defined in tensorflow/core/protobuf/config.proto and
+  // tensorflow/core/framework/step_stats.proto
+  private static final int RUN_OPTIONS_TRACE_LEVEL = 1;
+  private static final int FULL_TRACE = 3;
+  private static final int RUN_METADATA_STEP_STATS = 1;
+  private static final int STEP_STATS_DEV_STATS = 1;
+  private static final int DEVICE_STEP_STATS_DEVICE = 1;
+  private static final int DEVICE_STEP_STATS_NODE_STATS = 2;
+  private static final int NODE_EXEC_STATS_NODE_NAME = 1;
+  private static final int NODE_EXEC_STATS_ALL_START_MICROS = 2;
+  private static final int NODE_EXEC_STATS_OP_START_REL_MICROS = 3;
+  private static final int NODE_EXEC_STATS_OP_END_REL_MICROS = 4;
+  private static final int NODE_EXEC_STATS_ALL_END_REL_MICROS = 5;
+  private static final int NODE_EXEC_STATS_MEMORY = 6;
+  private static final int NODE_EXEC_STATS_TIMELINE_LABEL = 8;
+  private static final int NODE_EXEC_STATS_THREAD_ID = 10;
+  private static final int ALLOCATOR_MEMORY_USED_TOTAL_BYTES = 2;
+  private static final int ALLOCATOR_MEMORY_USED_PEAK_BYTES = 3;
+
+  private static final String UNKNOWN_OP_TYPE = "unknown";
+
+  private static class RawNodeStats {
+    String nodeName = "";
+    String device = "";
+    String timelineLabel = "";
+    int threadId;
+    long startMicros;
+    long wallTimeMicros;
+    long opTimeMicros;
+    long allocatedBytes;
+    long peakBytes;
+  }
+
+  private final List<NodeStats> nodes;
+  private final long durationMicros;
+
+  private StepProfile(List<NodeStats> nodes, long durationMicros) {
+    this.nodes = Collections.unmodifiableList(nodes);
+    this.durationMicros = durationMicros;
+  }
+
+  private static void parseDeviceStats(ProtoReader deviceStats, List<RawNodeStats> rawNodes) {
+    String device = "";
+    List<RawNodeStats> deviceNodes = new ArrayList<>();
+    while (deviceStats.next()) {
+      switch (deviceStats.fieldNumber()) {
+        case DEVICE_STEP_STATS_DEVICE:
+          device = deviceStats.readString();
+          break;
+        case DEVICE_STEP_STATS_NODE_STATS:
+          deviceNodes.add(parseNodeStats(deviceStats.readMessage()));
+          break;
+        default:
+          deviceStats.skip();
+      }
+    }
+    for (RawNodeStats node : deviceNodes) {
+      node.device = device;
+    }
+    rawNodes.addAll(deviceNodes);
+  }
+
+  private static RawNodeStats parseNodeStats(ProtoReader nodeStats) {
+    RawNodeStats node = new RawNodeStats();
+    long opStartRelMicros = 0L;
+    long opEndRelMicros = 0L;
+    while (nodeStats.next()) {
+      switch (nodeStats.fieldNumber()) {
+        case NODE_EXEC_STATS_NODE_NAME:
+          node.nodeName = nodeStats.readString();
+          break;
+        case NODE_EXEC_STATS_ALL_START_MICROS:
+          node.startMicros = nodeStats.readInt64();
+          break;
+        case NODE_EXEC_STATS_OP_START_REL_MICROS:
+          opStartRelMicros = nodeStats.readInt64();
+          break;
+        case NODE_EXEC_STATS_OP_END_REL_MICROS:
+          opEndRelMicros = nodeStats.readInt64();
+          break;
+        case NODE_EXEC_STATS_ALL_END_REL_MICROS:
+          node.wallTimeMicros = nodeStats.readInt64();
+          break;
+        case NODE_EXEC_STATS_MEMORY:
+          ProtoReader memory = nodeStats.readMessage();
+          while (memory.next()) {
+            if (memory.fieldNumber() == ALLOCATOR_MEMORY_USED_TOTAL_BYTES) {
+              node.allocatedBytes += memory.readInt64();
+            } else if (memory.fieldNumber() == ALLOCATOR_MEMORY_USED_PEAK_BYTES) {
+              node.peakBytes += memory.readInt64();
+            }
+          }
+          break;
+        case NODE_EXEC_STATS_TIMELINE_LABEL:
+          node.timelineLabel = nodeStats.readString();
+          break;
+        case NODE_EXEC_STATS_THREAD_ID:
+          node.threadId = nodeStats.readInt32();
+          break;
+        default:
+          nodeStats.skip();
+      }
+    }
+    node.opTimeMicros = opEndRelMicros - opStartRelMicros;
+    return node;
+  }
+
+  private static String opTypeOf(RawNodeStats node, Graph graph) {
+    if (graph != null) {
+      GraphOperation op = graph.operation(node.nodeName);
+      if (op != null) {
+        return op.type();
+      }
+    }
+    // Timeline labels are formatted as "node_name = OpType(inputs...)"
+    int start = node.timelineLabel.indexOf(" = ");
+    if (start >= 0) {
+      int end = node.timelineLabel.indexOf('(', start);
+      if (end > start + 3) {
+        return node.timelineLabel.substring(start + 3, end);
+      }
+    }
+    return UNKNOWN_OP_TYPE;
+  }
+
+  private static Map<String, OpStats> groupBy(List<NodeStats> nodes, Function<NodeStats, String> key) {
+    Map<String, OpStats> stats = new HashMap<>();
+    for (NodeStats node : nodes) {
+      stats.computeIfAbsent(key.apply(node), OpStats::new).add(node);
+    }
+    return sortByTotalWallTime(stats.values());
+  }
+
+  private static String quote(String value) {
+    StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+    for (int i = 0; i < value.length(); ++i) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20) {
+        sb.append(String.format("\\u%04x", (int)c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.append('"').toString();
+  }
+}
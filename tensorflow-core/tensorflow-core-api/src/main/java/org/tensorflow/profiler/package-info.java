@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+
+/**
+ * Defines classes to profile the execution of graphs.
+ *
+ * <p>When a session is run with tracing enabled, TensorFlow reports statistics about each
+ * operation executed, such as its duration, the memory it allocated and the device it ran on.
+ * The classes of this package decode these statistics from the {@code RunMetadata} returned by
+ * {@link org.tensorflow.Session.Runner#runAndFetchMetadata()}, aggregate them across multiple runs
+ * and export them in a format that can be visualized with the Chrome trace viewer.
+ *
+ * <pre>{@code
+ * ProfileAggregator aggregator = new ProfileAggregator();
+ * for (int i = 0; i < 100; ++i) {
+ *   Session.Run run = session.runner()
+ *       .feed("x", x)
+ *       .fetch("y")
+ *       .setOptions(StepProfile.traceRunOptions())
+ *       .runAndFetchMetadata();
+ *   aggregator.add(StepProfile.parse(run.metadata, graph));
+ *   // ... close output tensors
+ * }
+ * aggregator.statsByOpType().values().stream().limit(10).forEach(System.out::println);
+ * }</pre>
+ */
+package org.tensorflow.profiler;
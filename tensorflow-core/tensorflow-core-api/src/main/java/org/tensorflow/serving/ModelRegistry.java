@@ -0,0 +1,376 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.serving;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.tensorflow.ConcreteFunction;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.SavedModelWarmup;
+
+/**
+ * Serves the latest version of a saved model, reloading it without downtime when a new version is
+ * exported.
+ *
+ * <p>Versions are exported in numbered subdirectories of a base directory, following the layout
+ * used by TensorFlow Serving:
+ * <pre>
+ *   /models/my_model/1/saved_model.pb
+ *   /models/my_model/2/saved_model.pb
+ * </pre>
+ *
+ * <p>The registry polls the base directory and loads, and optionally warms up, new versions in the
+ * background while the current version keeps serving requests. Once ready, the new version
+ * atomically replaces the current one. Since requests acquire a reference-counted {@link Model}
+ * for their whole duration, the previous version is only closed after its last in-flight request
+ * completed, so no request ever races with the closing of its session.
+ *
+ * <p>To bound memory usage, at most two versions are kept in memory: a new version is not loaded
+ * until the version it replaced previously has been closed.
+ *
+ * <pre>{@code
+ * try (ModelRegistry registry = ModelRegistry.builder("/models/my_model")
+ *     .withTags("serve")
+ *     .withWarmup(SavedModelWarmup.syntheticRequests(10))
+ *     .build()) {
+ *   ...
+ *   try (ModelRegistry.Model model = registry.acquire()) {
+ *     Map<String, Tensor<?>> outputs = model.function("serving_default").call(inputs);
+ *     ...
+ *   }
+ * }
+ * }</pre>
+ */
+public final class ModelRegistry implements AutoCloseable {
+
+  /** Options for creating a registry. */
+  public static final class Builder {
+
+    /**
+     * Sets the set of tags that identify the specific graph to load in each version.
+     *
+     * @param tags the tags identifying the specific MetaGraphDef to load.
+     */
+    public Builder withTags(String... tags) {
+      this.tags = tags;
+      return this;
+    }
+
+    /**
+     * Sets the configuration of the sessions created when loading each version.
+     *
+     * @param configProto Serialized <a
+     *     href="https://www.tensorflow.org/code/tensorflow/core/protobuf/config.proto">ConfigProto
+     *     protocol buffer</a>.
+     */
+    public Builder withConfigProto(byte[] configProto) {
+      this.configProto = configProto;
+      return this;
+    }
+
+    /**
+     * Warms up each version after it has been loaded and before it starts serving requests.
+     *
+     * @param warmup requests to replay
+     */
+    public Builder withWarmup(SavedModelWarmup warmup) {
+      this.warmup = warmup;
+      return this;
+    }
+
+    /**
+     * Sets how often the base directory is checked for new versions (default: 30 seconds).
+     *
+     * @param interval polling interval, or 0 to disable polling and only check for new versions
+     *     when {@link ModelRegistry#refresh()} is called
+     * @param unit unit of the interval
+     */
+    public Builder withPollInterval(long interval, TimeUnit unit) {
+      if (interval < 0) {
+        throw new IllegalArgumentException("Poll interval cannot be negative");
+      }
+      this.pollIntervalMillis = unit.toMillis(interval);
+      return this;
+    }
+
+    /**
+     * Creates the registry, loading the latest version found in the base directory.
+     *
+     * @return new registry
+     * @throws IllegalArgumentException if no version is found in the base directory
+     * @throws org.tensorflow.TensorFlowException if the latest version cannot be loaded
+     */
+    public ModelRegistry build() {
+      return new ModelRegistry(this);
+    }
+
+    private Builder(String baseDir) {
+      this.baseDir = baseDir;
+    }
+
+    private final String baseDir;
+    private String[] tags = { "serve" };
+    private byte[] configProto = null;
+    private SavedModelWarmup warmup = null;
+    private long pollIntervalMillis = TimeUnit.SECONDS.toMillis(30);
+  }
+
+  /**
+   * A version of the model acquired for serving requests.
+   *
+   * <p>The version remains open until this object is closed, even if a newer version has replaced
+   * it in the registry in the meantime. Models must therefore be closed as soon as a request
+   * completes, preferably in a try-with-resources block.
+   */
+  public static final class Model implements AutoCloseable {
+
+    /** Returns the version number of this model. */
+    public long version() {
+      return version.number;
+    }
+
+    /** Returns the bundle of this version of the model. */
+    public SavedModelBundle bundle() {
+      return version.bundle;
+    }
+
+    /**
+     * Returns a function running one of the signatures of this version of the model.
+     *
+     * @param signatureKey key of the signature
+     * @see SavedModelBundle#function(String)
+     */
+    public ConcreteFunction function(String signatureKey) {
+      return version.bundle.function(signatureKey);
+    }
+
+    /** Releases this model, closing its version if it has been replaced and is no longer used. */
+    @Override
+    public void close() {
+      if (!released.getAndSet(true)) {
+        version.release();
+      }
+    }
+
+    private final Version version;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Model(Version version) {
+      this.version = version;
+    }
+  }
+
+  /**
+   * Starts building a registry serving the versions of a model exported in a base directory.
+   *
+   * @param baseDir directory containing one numbered subdirectory per version
+   * @return registry builder
+   */
+  public static Builder builder(String baseDir) {
+    return new Builder(baseDir);
+  }
+
+  /**
+   * Acquires the current version of the model.
+   *
+   * <p>The returned model must be closed once the request has been served.
+   *
+   * @return current version of the model
+   * @throws IllegalStateException if the registry has been closed
+   */
+  public Model acquire() {
+    while (true) {
+      if (closed) {
+        throw new IllegalStateException("Model registry has been closed");
+      }
+      Version version = current;
+      if (version.retain()) {
+        return new Model(version);
+      }
+      // the version has been replaced and closed concurrently, retry with the new one
+    }
+  }
+
+  /** Returns the number of the version currently serving requests. */
+  public long currentVersion() {
+    return current.number;
+  }
+
+  /**
+   * Checks the base directory for a new version and, if any, loads it and switches traffic to it.
+   *
+   * <p>This method is invoked periodically in the background, unless polling has been disabled. A
+   * version that failed to load is not retried.
+   *
+   * @return true if a new version is now serving requests
+   */
+  public synchronized boolean refresh() {
+    if (closed) {
+      return false;
+    }
+    long latest = latestVersion(new File(options.baseDir));
+    if (latest <= current.number || latest == failedVersion) {
+      return false;
+    }
+    if (retired != null && !retired.isClosed()) {
+      return false;  // still draining the previous version, wait for next refresh
+    }
+    Version version;
+    try {
+      version = load(latest);
+    } catch (RuntimeException e) {
+      failedVersion = latest;
+      lastLoadFailure = e;
+      return false;
+    }
+    retired = current;
+    current = version;
+    retired.release();
+    return true;
+  }
+
+  /**
+   * Returns the error that occurred while loading the last version that failed to load.
+   *
+   * @return last failure, or null if all versions have been loaded successfully
+   */
+  public RuntimeException lastLoadFailure() {
+    return lastLoadFailure;
+  }
+
+  /**
+   * Stops polling for new versions and releases the current version.
+   *
+   * <p>Versions still acquired by in-flight requests are closed once released.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    if (poller != null) {
+      poller.shutdownNow();
+    }
+    current.release();
+  }
+
+  private final Builder options;
+  private final ScheduledExecutorService poller;
+  private volatile Version current;
+  private volatile boolean closed = false;
+  private Version retired = null;
+  private long failedVersion = -1;
+  private volatile RuntimeException lastLoadFailure = null;
+
+  private ModelRegistry(Builder options) {
+    this.options = options;
+    long latest = latestVersion(new File(options.baseDir));
+    if (latest < 0) {
+      throw new IllegalArgumentException("No version of the model found in " + options.baseDir);
+    }
+    current = load(latest);
+    if (options.pollIntervalMillis > 0) {
+      poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = Executors.defaultThreadFactory().newThread(r);
+        thread.setDaemon(true);
+        thread.setName("tensorflow-model-registry-" + thread.getId());
+        return thread;
+      });
+      poller.scheduleWithFixedDelay(this::refresh, options.pollIntervalMillis,
+          options.pollIntervalMillis, TimeUnit.MILLISECONDS);
+    } else {
+      poller = null;
+    }
+  }
+
+  private Version load(long number) {
+    SavedModelBundle.Loader loader =
+        SavedModelBundle.loader(new File(options.baseDir, Long.toString(number)).getPath())
+            .withTags(options.tags);
+    if (options.configProto != null) {
+      loader.withConfigProto(options.configProto);
+    }
+    if (options.warmup != null) {
+      loader.withWarmup(options.warmup);
+    }
+    return new Version(number, loader.load());
+  }
+
+  private static long latestVersion(File baseDir) {
+    long latest = -1;
+    File[] versionDirs = baseDir.listFiles(File::isDirectory);
+    if (versionDirs != null) {
+      for (File versionDir : versionDirs) {
+        long number;
+        try {
+          number = Long.parseLong(versionDir.getName());
+        } catch (NumberFormatException e) {
+          continue;  // not a version
+        }
+        if (number > latest && (new File(versionDir, "saved_model.pb").isFile()
+            || new File(versionDir, "saved_model.pbtxt").isFile())) {
+          latest = number;
+        }
+      }
+    }
+    return latest;
+  }
+
+  /**
+   * A loaded version of the model, closed once released by the registry and by all models
+   * acquired from it.
+   */
+  private static final class Version {
+
+    boolean retain() {
+      int count;
+      do {
+        count = refCount.get();
+        if (count == 0) {
+          return false;
+        }
+      } while (!refCount.compareAndSet(count, count + 1));
+      return true;
+    }
+
+    void release() {
+      if (refCount.decrementAndGet() == 0) {
+        bundle.close();
+      }
+    }
+
+    boolean isClosed() {
+      return refCount.get() == 0;
+    }
+
+    final long number;
+    final SavedModelBundle bundle;
+    private final AtomicInteger refCount = new AtomicInteger(1);  // reference of the registry
+
+    Version(long number, SavedModelBundle bundle) {
+      this.number = number;
+      this.bundle = bundle;
+    }
+  }
+}
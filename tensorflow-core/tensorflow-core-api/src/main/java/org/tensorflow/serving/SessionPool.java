@@ -0,0 +1,281 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.serving;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import org.tensorflow.ConcreteFunction;
+import org.tensorflow.Graph;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+import org.tensorflow.SessionConfig;
+
+/**
+ * A pool of replicas of the same model, each running in its own session.
+ *
+ * <p>A single session sharing a large thread pool scales poorly on hosts with many cores, especially
+ * when they are spread across multiple sockets. Running multiple replicas, each with its own
+ * smaller thread pools, and balancing requests between them usually provides a throughput that
+ * scales much better with the number of cores.
+ *
+ * <p>Requests are sent to the replica with the fewest requests in progress. For example:
+ *
+ * <pre>{@code
+ * try (SessionPool pool = SessionPool.loadSavedModel("/path/to/model", new String[] {"serve"},
+ *     2, SessionPool.splitProcessors(2))) {
+ *   Map<String, Tensor<?>> outputs = pool.call(replica -> replica.function("serving_default").call(inputs));
+ * }
+ * }</pre>
+ */
+public final class SessionPool implements AutoCloseable {
+
+  /**
+   * A replica acquired for running a request.
+   *
+   * <p>A new instance is returned on each acquisition and must be closed once the request
+   * completes, so that the pool can balance the following requests accordingly.
+   */
+  public static final class Replica implements AutoCloseable {
+
+    /** Returns the index of this replica in the pool. */
+    public int index() {
+      return member.index;
+    }
+
+    /** Returns the session of this replica. */
+    public Session session() {
+      return member.session;
+    }
+
+    /**
+     * Returns a function running one of the signatures of the model.
+     *
+     * @param signatureKey key of the signature
+     * @throws IllegalStateException if the pool has not been created from a saved model
+     * @see SavedModelBundle#function(String)
+     */
+    public ConcreteFunction function(String signatureKey) {
+      if (member.bundle == null) {
+        throw new IllegalStateException("Functions are only available for saved model replicas");
+      }
+      return member.bundle.function(signatureKey);
+    }
+
+    /** Returns the number of requests currently in progress on this replica. */
+    public int outstandingRequests() {
+      return member.outstanding.get();
+    }
+
+    /** Releases this replica after a request completes, closing it more than once has no effect. */
+    @Override
+    public void close() {
+      if (!released.getAndSet(true)) {
+        member.outstanding.decrementAndGet();
+      }
+    }
+
+    private final Member member;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Replica(Member member) {
+      this.member = member;
+    }
+  }
+
+  /**
+   * Loads multiple replicas of a saved model.
+   *
+   * @param exportDir the directory path containing a saved model
+   * @param tags the tags identifying the specific MetaGraphDef to load
+   * @param numReplicas number of replicas to load
+   * @param replicaConfig returns the serialized {@code ConfigProto} of the replica at a given
+   *     index, or null to use the default configuration
+   * @return new pool
+   * @throws org.tensorflow.TensorFlowException if a replica fails to load
+   * @see #splitProcessors(int)
+   */
+  public static SessionPool loadSavedModel(String exportDir, String[] tags, int numReplicas,
+      IntFunction<byte[]> replicaConfig) {
+    checkReplicas(numReplicas);
+    List<Member> members = new ArrayList<>(numReplicas);
+    List<Runnable> resources = new ArrayList<>(numReplicas);
+    try {
+      for (int i = 0; i < numReplicas; ++i) {
+        SavedModelBundle.Loader loader = SavedModelBundle.loader(exportDir).withTags(tags);
+        byte[] config = replicaConfig != null ? replicaConfig.apply(i) : null;
+        if (config != null) {
+          loader.withConfigProto(config);
+        }
+        SavedModelBundle bundle = loader.load();
+        resources.add(bundle::close);
+        members.add(new Member(i, bundle.session(), bundle));
+      }
+    } catch (RuntimeException e) {
+      closeAll(resources);
+      throw e;
+    }
+    return new SessionPool(members, resources);
+  }
+
+  /**
+   * Creates multiple sessions running the same graph.
+   *
+   * <p>The graph remains owned by the caller and must be closed after the pool.
+   *
+   * @param graph graph to run
+   * @param numReplicas number of sessions to create
+   * @param replicaConfig returns the serialized {@code ConfigProto} of the session at a given
+   *     index, or null to use the default configuration
+   * @return new pool
+   * @see #splitProcessors(int)
+   */
+  public static SessionPool create(Graph graph, int numReplicas, IntFunction<byte[]> replicaConfig) {
+    checkReplicas(numReplicas);
+    List<Member> members = new ArrayList<>(numReplicas);
+    List<Runnable> resources = new ArrayList<>(numReplicas);
+    try {
+      for (int i = 0; i < numReplicas; ++i) {
+        byte[] config = replicaConfig != null ? replicaConfig.apply(i) : null;
+        Session session = config != null ? new Session(graph, config) : new Session(graph);
+        resources.add(session::close);
+        members.add(new Member(i, session, null));
+      }
+    } catch (RuntimeException e) {
+      closeAll(resources);
+      throw e;
+    }
+    return new SessionPool(members, resources);
+  }
+
+  /**
+   * Returns a configuration sharing the processors available to the JVM evenly between replicas.
+   *
+   * <p>Each replica gets its own thread pools, with as many intra-op threads as its share of
+   * processors and half as many inter-op threads.
+   *
+   * @param numReplicas number of replicas in the pool
+   * @return configuration of each replica
+   */
+  public static IntFunction<byte[]> splitProcessors(int numReplicas) {
+    checkReplicas(numReplicas);
+    int numProcessors = Math.max(1, Runtime.getRuntime().availableProcessors() / numReplicas);
+    byte[] config = SessionConfig.builder()
+        .usePerSessionThreads(true)
+        .intraOpParallelismThreads(numProcessors)
+        .interOpParallelismThreads(Math.max(1, numProcessors / 2))
+        .build();
+    return i -> config;
+  }
+
+  /** Returns the number of replicas in this pool. */
+  public int numReplicas() {
+    return members.length;
+  }
+
+  /**
+   * Acquires the replica with the fewest requests in progress.
+   *
+   * <p>The returned replica must be closed once the request completes.
+   *
+   * @return least loaded replica
+   * @throws IllegalStateException if the pool has been closed
+   */
+  public Replica acquire() {
+    if (closed.get()) {
+      throw new IllegalStateException("Session pool has been closed");
+    }
+    // Start scanning at a rotating offset, so that ties are spread evenly between replicas
+    int offset = Math.floorMod(nextOffset.getAndIncrement(), members.length);
+    Member selected = members[offset];
+    for (int i = 1; i < members.length && selected.outstanding.get() > 0; ++i) {
+      Member member = members[(offset + i) % members.length];
+      if (member.outstanding.get() < selected.outstanding.get()) {
+        selected = member;
+      }
+    }
+    selected.outstanding.incrementAndGet();
+    return new Replica(selected);
+  }
+
+  /**
+   * Runs a request on the least loaded replica.
+   *
+   * @param request request to run
+   * @param <R> type of result
+   * @return result of the request
+   */
+  public <R> R call(Function<Replica, R> request) {
+    try (Replica replica = acquire()) {
+      return request.apply(replica);
+    }
+  }
+
+  /**
+   * Closes all replicas of this pool.
+   *
+   * <p>This method blocks until the requests already running in a session complete. Replicas that
+   * have been acquired but have not started running their request yet must not be used after the
+   * pool is closed.
+   */
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      closeAll(resources);
+    }
+  }
+
+  private final Member[] members;
+  private final List<Runnable> resources;
+  private final AtomicInteger nextOffset = new AtomicInteger();
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  private SessionPool(List<Member> members, List<Runnable> resources) {
+    this.members = members.toArray(new Member[0]);
+    this.resources = resources;
+  }
+
+  private static void checkReplicas(int numReplicas) {
+    if (numReplicas <= 0) {
+      throw new IllegalArgumentException("Number of replicas must be strictly positive");
+    }
+  }
+
+  private static void closeAll(List<Runnable> resources) {
+    for (Runnable resource : resources) {
+      resource.run();
+    }
+  }
+
+  /** A replica of the pool, shared by all the requests it has been acquired for. */
+  private static final class Member {
+
+    final int index;
+    final Session session;
+    final SavedModelBundle bundle;
+    final AtomicInteger outstanding = new AtomicInteger();
+
+    Member(int index, Session session, SavedModelBundle bundle) {
+      this.index = index;
+      this.session = session;
+      this.bundle = bundle;
+    }
+  }
+}
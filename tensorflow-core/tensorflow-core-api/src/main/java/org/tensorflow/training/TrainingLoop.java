@@ -0,0 +1,390 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.training;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.tensorflow.DataType;
+import org.tensorflow.Graph;
+import org.tensorflow.Operand;
+import org.tensorflow.Operation;
+import org.tensorflow.OperationBuilder;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.Tensors;
+import org.tensorflow.data.DatasetIterator;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.core.Placeholder;
+import org.tensorflow.op.data.IteratorGetNext;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.TFloat32;
+import org.tensorflow.types.TInt32;
+import org.tensorflow.types.family.TType;
+
+/**
+ * Runs many training steps in a single session run.
+ *
+ * <p>Each run of a session crosses the JNI boundary, marshals tensors and does some bookkeeping in
+ * Java, which can take longer than the step itself for small models. A training loop wraps the
+ * operations of a step into a {@link Graph#whileLoop while loop} of the graph, so that a single
+ * run executes as many steps as requested. The inputs of each step are pulled from an in-graph
+ * {@link DatasetIterator} and its metrics are averaged over all the steps of a run. For example:
+ *
+ * <pre>{@code
+ * TrainingLoop loop = TrainingLoop.builder(tf)
+ *     .input(iterator)
+ *     .capture(weights)
+ *     .metric("loss")
+ *     .build(step -> {
+ *       Ops tf = step.tf();
+ *       Operand<?> w = step.captured(weights);
+ *       Operand<TFloat32> loss = buildLoss(tf, tf.readVariableOp(w, TFloat32.DTYPE), step.batch());
+ *       Gradients gradients = tf.gradients(loss, ...);
+ *       step.update(tf.train.resourceApplyGradientDescent(w, learningRate, gradients.dy(0)).op());
+ *       step.metric("loss", loss);
+ *     });
+ * try (Session session = new Session(graph)) {
+ *   iterator.initialize(session);
+ *   Map<String, Float> metrics = loop.run(session, 100);
+ * }
+ * }</pre>
+ *
+ * <p>The body of the loop is a graph of its own: operations of the step can only refer to the
+ * outer graph through the operands captured by the loop, like the handles of resource variables.
+ *
+ * <p>If the input dataset is exhausted in the middle of a run, an {@link
+ * IndexOutOfBoundsException} is thrown, after the updates of the completed steps have been applied.
+ */
+public final class TrainingLoop {
+
+  /** Builds the operations of a training step. */
+  @FunctionalInterface
+  public interface Body {
+
+    /**
+     * Builds a training step in the body of the loop.
+     *
+     * <p>This is invoked only once, when the loop is built.
+     *
+     * @param step step being built
+     */
+    void build(Step step);
+  }
+
+  /** A training step being built in the body of a loop. */
+  public static final class Step {
+
+    /** Returns the API building operations in the body of the loop. */
+    public Ops tf() {
+      return tf;
+    }
+
+    /**
+     * Returns the components of the next element of the input dataset, empty if the loop has no
+     * input.
+     */
+    public List<Output<?>> batch() {
+      return batch;
+    }
+
+    /**
+     * Returns the counterpart of a captured operand in the body of the loop.
+     *
+     * @param operand operand of the outer graph
+     * @return operand passing the same value in the body of the loop
+     * @throws IllegalArgumentException if this operand has not been captured by the loop
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends TType> Operand<T> captured(Operand<T> operand) {
+      int index = captures.indexOf(operand.asOutput());
+      if (index < 0) {
+        throw new IllegalArgumentException(operand + " has not been captured by the loop");
+      }
+      return (Operand<T>)capturedInputs.get(index);
+    }
+
+    /**
+     * Adds an operation to run at each step, like the update of a variable by an optimizer.
+     *
+     * <p>The next step starts only once all the operations added by this method have run.
+     *
+     * @param operation operation of the body of the loop
+     */
+    public void update(Operation operation) {
+      updates.add(operation);
+    }
+
+    /**
+     * Sets the value of a metric for this step.
+     *
+     * @param name name of a metric declared by the loop
+     * @param value scalar value of the metric
+     * @throws IllegalArgumentException if the metric has not been declared, or is already set
+     */
+    public void metric(String name, Operand<TFloat32> value) {
+      if (!metricNames.contains(name)) {
+        throw new IllegalArgumentException("Metric \"" + name + "\" is not declared by the loop");
+      }
+      if (metrics.putIfAbsent(name, value) != null) {
+        throw new IllegalArgumentException("Metric \"" + name + "\" is already set");
+      }
+    }
+
+    private final Ops tf;
+    private final List<Output<?>> batch;
+    private final List<Output<?>> captures;
+    private final List<Output<?>> capturedInputs;
+    private final List<String> metricNames;
+    private final List<Operation> updates = new ArrayList<>();
+    private final Map<String, Operand<TFloat32>> metrics = new LinkedHashMap<>();
+
+    private Step(Ops tf, List<Output<?>> batch, List<Output<?>> captures,
+        List<Output<?>> capturedInputs, List<String> metricNames) {
+      this.tf = tf;
+      this.batch = batch;
+      this.captures = captures;
+      this.capturedInputs = capturedInputs;
+      this.metricNames = metricNames;
+    }
+  }
+
+  /** Builds a training loop. */
+  public static final class Builder {
+
+    /**
+     * Sets the dataset iterator providing the inputs of each step.
+     *
+     * @param iterator iterator of the outer graph
+     * @return this builder
+     */
+    public Builder input(DatasetIterator iterator) {
+      this.iterator = iterator;
+      return this;
+    }
+
+    /**
+     * Captures an operand of the outer graph, so it can be used in the body of the loop.
+     *
+     * <p>The value of the operand is computed once per run, before the first step. Resource
+     * variables are captured by their handle, so their updates are visible to the next steps.
+     *
+     * @param operand operand to capture
+     * @return this builder
+     * @see Step#captured(Operand)
+     */
+    public Builder capture(Operand<?> operand) {
+      Output<?> output = operand.asOutput();
+      if (!captures.contains(output)) {
+        captures.add(output);
+      }
+      return this;
+    }
+
+    /**
+     * Declares a metric, whose value must be set by each step.
+     *
+     * @param name name of the metric
+     * @return this builder
+     * @throws IllegalArgumentException if a metric of this name is already declared
+     * @see Step#metric(String, Operand)
+     */
+    public Builder metric(String name) {
+      if (metricNames.contains(name)) {
+        throw new IllegalArgumentException("Metric \"" + name + "\" is already declared");
+      }
+      metricNames.add(name);
+      return this;
+    }
+
+    /**
+     * Builds the loop in the graph.
+     *
+     * @param body builder of the training step
+     * @return training loop
+     * @throws IllegalArgumentException if the loop is not built in a graph, or if a step does not
+     *                                  set all declared metrics
+     */
+    public TrainingLoop build(Body body) {
+      return TrainingLoop.create(tf, iterator, new ArrayList<>(captures),
+          new ArrayList<>(metricNames), body);
+    }
+
+    private final Ops tf;
+    private final List<Output<?>> captures = new ArrayList<>();
+    private final List<String> metricNames = new ArrayList<>();
+    private DatasetIterator iterator;
+
+    private Builder(Ops tf) {
+      this.tf = tf;
+    }
+  }
+
+  /**
+   * Returns a builder of a training loop.
+   *
+   * @param tf API to build the loop in a graph
+   */
+  public static Builder builder(Ops tf) {
+    return new Builder(tf);
+  }
+
+  /**
+   * Runs steps of this loop.
+   *
+   * @param session session of the graph of the loop
+   * @param numSteps number of steps to run
+   * @return mean value of each metric over the steps, by name, in the order they were declared
+   * @throws IllegalArgumentException if the number of steps is not positive
+   * @throws IndexOutOfBoundsException if the input dataset is exhausted during the run
+   */
+  public Map<String, Float> run(Session session, int numSteps) {
+    return run(session.runner(), numSteps);
+  }
+
+  /**
+   * Runs steps of this loop, with a runner that may feed other tensors, like placeholders
+   * captured by the loop.
+   *
+   * <p>Tensors already fetched by the runner are computed once, in the same run as the loop, and
+   * are not closed by this method. Since they are not returned either, runners should only be used
+   * to feed tensors or to add targets.
+   *
+   * @param runner runner of a session of the graph of the loop
+   * @param numSteps number of steps to run
+   * @return mean value of each metric over the steps, by name, in the order they were declared
+   * @throws IllegalArgumentException if the number of steps is not positive
+   * @throws IndexOutOfBoundsException if the input dataset is exhausted during the run
+   */
+  public Map<String, Float> run(Session.Runner runner, int numSteps) {
+    if (numSteps <= 0) {
+      throw new IllegalArgumentException("Number of steps must be positive, got " + numSteps);
+    }
+    List<Tensor<?>> results;
+    try (Tensor<TInt32> steps = Tensors.create(numSteps)) {
+      runner.feed(this.numSteps, steps).fetch(stepCount);
+      for (Output<?> sum : metricSums) {
+        runner.fetch(sum);
+      }
+      results = runner.run();
+    }
+    // Results of the loop follow any tensor fetched by the caller, which is left untouched
+    List<Tensor<?>> loopResults = results.subList(results.size() - metricSums.size() - 1,
+        results.size());
+    try {
+      Map<String, Float> metrics = new LinkedHashMap<>();
+      for (int i = 0; i < metricNames.size(); ++i) {
+        metrics.put(metricNames.get(i), loopResults.get(i + 1).floatValue() / numSteps);
+      }
+      return metrics;
+    } finally {
+      loopResults.forEach(Tensor::close);
+    }
+  }
+
+  private static TrainingLoop create(Ops tf, DatasetIterator iterator, List<Output<?>> captures,
+      List<String> metricNames, Body body) {
+    if (!(tf.scope().env() instanceof Graph)) {
+      throw new IllegalArgumentException("Training loops can only be built in a graph");
+    }
+    Graph graph = (Graph)tf.scope().env();
+    Placeholder<TInt32> numSteps = tf.placeholder(TInt32.DTYPE, Placeholder.shape(Shape.scalar()));
+
+    // Loop variables are: step counter, number of steps, iterator handle, captures, metric sums
+    List<Output<?>> inputs = new ArrayList<>();
+    inputs.add(tf.constant(0).asOutput());
+    inputs.add(numSteps.asOutput());
+    if (iterator != null) {
+      inputs.add(iterator.handle().asOutput());
+    }
+    final int firstCapture = inputs.size();
+    inputs.addAll(captures);
+    final int firstMetric = inputs.size();
+    for (int i = 0; i < metricNames.size(); ++i) {
+      inputs.add(tf.constant(0.0f).asOutput());
+    }
+
+    Output<?>[] outputs = graph.whileLoop(inputs.toArray(new Output<?>[0]),
+        (condGraph, condInputs, condOutputs) -> {
+          Ops condTf = Ops.create(condGraph);
+          condOutputs[0] = condTf.math.less(typed(condInputs[0], TInt32.DTYPE),
+              typed(condInputs[1], TInt32.DTYPE)).asOutput();
+        },
+        (bodyGraph, bodyInputs, bodyOutputs) -> {
+          Ops bodyTf = Ops.create(bodyGraph);
+          List<Output<?>> batch = Collections.emptyList();
+          if (iterator != null) {
+            batch = IteratorGetNext.create(bodyTf.scope(), bodyInputs[2], iterator.outputTypes(),
+                iterator.outputShapes()).components();
+          }
+          Step step = new Step(bodyTf, batch, captures,
+              Arrays.asList(bodyInputs).subList(firstCapture, firstMetric), metricNames);
+          body.build(step);
+
+          OperationBuilder counter = bodyGraph.opBuilder("Identity",
+              bodyTf.scope().makeOpName("Identity")).addInput(bodyInputs[0]);
+          for (Operation update : step.updates) {
+            counter.addControlInput(update);
+          }
+          Output<TInt32> current = counter.build().output(0);
+          // Every value carried to the next step waits for the updates, through the counter, so
+          // the next step cannot read variables or the iterator before they have run
+          Ops nextTf =
+              bodyTf.withControlDependencies(Collections.<Operand<?>>singletonList(current));
+          bodyOutputs[0] = bodyTf.math.add(current, bodyTf.constant(1)).asOutput();
+          for (int i = 1; i < firstMetric; ++i) {
+            bodyOutputs[i] = nextTf.identity(bodyInputs[i]).asOutput();
+          }
+          for (int i = 0; i < metricNames.size(); ++i) {
+            Operand<TFloat32> value = step.metrics.get(metricNames.get(i));
+            if (value == null) {
+              throw new IllegalArgumentException(
+                  "Metric \"" + metricNames.get(i) + "\" has not been set by the training step");
+            }
+            bodyOutputs[firstMetric + i] =
+                nextTf.math.add(typed(bodyInputs[firstMetric + i], TFloat32.DTYPE), value)
+                    .asOutput();
+          }
+        },
+        tf.scope().makeOpName("TrainingLoop"));
+
+    return new TrainingLoop(numSteps.asOutput(), typed(outputs[0], TInt32.DTYPE),
+        Arrays.asList(outputs).subList(firstMetric, outputs.length), metricNames);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends TType> Output<T> typed(Output<?> output, DataType<T> dataType) {
+    return (Output<T>)output;
+  }
+
+  private final Output<TInt32> numSteps;
+  private final Output<TInt32> stepCount;
+  private final List<Output<?>> metricSums;
+  private final List<String> metricNames;
+
+  private TrainingLoop(Output<TInt32> numSteps, Output<TInt32> stepCount,
+      List<Output<?>> metricSums, List<String> metricNames) {
+    this.numSteps = numSteps;
+    this.stepCount = stepCount;
+    this.metricSums = metricSums;
+    this.metricNames = metricNames;
+  }
+}
@@ -0,0 +1,190 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.op.Ops;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.TFloat32;
+
+/** Unit tests for {@link org.tensorflow.ConcreteFunction}. */
+@RunWith(JUnit4.class)
+public class ConcreteFunctionTest {
+
+  @Test
+  public void traceAndCallWithTensors() {
+    try (ConcreteFunction f = traceSquare();
+        Tensor<TFloat32> x = Tensors.create(3.0f)) {
+      assertEquals("y", f.signature().outputs().keySet().iterator().next());
+      try (Tensor<?> y = f.call(x)) {
+        assertEquals(9.0f, y.floatValue(), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void callFromGraph() {
+    try (ConcreteFunction f = traceSquare();
+        Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      Operand<?> y = f.call(tf.scope(), tf.math.add(tf.constant(1.0f), tf.constant(1.0f)));
+      try (Tensor<?> result = s.runner().fetch(y).run().get(0)) {
+        assertEquals(4.0f, result.floatValue(), 0.0f);
+      }
+      // calling twice must not register the function twice
+      Operand<?> z = f.call(tf.scope(), tf.constant(5.0f));
+      try (Tensor<?> result = s.runner().fetch(z).run().get(0)) {
+        assertEquals(25.0f, result.floatValue(), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void callFromEagerSession() {
+    try (ConcreteFunction f = traceSquare();
+        EagerSession session = EagerSession.create()) {
+      Ops tf = Ops.create(session);
+      Operand<?> y = f.call(tf.scope(), tf.constant(4.0f));
+      assertEquals(16.0f, y.asOutput().tensor().floatValue(), 0.0f);
+    }
+  }
+
+  @Test
+  public void duplicateSignatureInput() {
+    try {
+      Signature.builder()
+          .input("x", TFloat32.DTYPE, Shape.scalar())
+          .input("x", TFloat32.DTYPE, Shape.scalar());
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void createFromSubgraph() {
+    try (Graph g = new Graph()) {
+      Ops tf = Ops.create(g);
+      // only the operations between "x" and "y" are part of the function
+      Operand<TFloat32> x = tf.math.add(tf.constant(1.0f), tf.constant(2.0f));
+      Operand<TFloat32> y = tf.math.mul(x, tf.constant(10.0f));
+      Signature signature =
+          Signature.builder().key("times_ten").input("x", x).output("y", y).build();
+
+      try (ConcreteFunction f = ConcreteFunction.create(signature, g);
+          Tensor<TFloat32> arg = Tensors.create(2.0f)) {
+        try (Tensor<?> result = f.call(arg)) {
+          assertEquals(20.0f, result.floatValue(), 0.0f);
+        }
+        try (Graph other = new Graph();
+            Session s = new Session(other)) {
+          Ops otherTf = Ops.create(other);
+          Operand<?> z = f.call(otherTf.scope(), otherTf.constant(4.0f));
+          try (Tensor<?> result = s.runner().fetch(z).run().get(0)) {
+            assertEquals(40.0f, result.floatValue(), 0.0f);
+          }
+        }
+        try (EagerSession session = EagerSession.create()) {
+          Ops eagerTf = Ops.create(session);
+          Operand<?> z = f.call(eagerTf.scope(), eagerTf.constant(5.0f));
+          assertEquals(50.0f, z.asOutput().tensor().floatValue(), 0.0f);
+        }
+      }
+      // the graph is still usable once the function is closed
+      assertEquals("Mul", g.operation(y.asOutput().op().name()).type());
+    }
+  }
+
+  @Test
+  public void attachToGraph() {
+    try (ConcreteFunction f = traceSquare();
+        Graph g = new Graph();
+        Session s = new Session(g)) {
+      f.attachTo(g);
+      f.attachTo(g);
+      Ops tf = Ops.create(g);
+      Operand<?> y = g.opBuilder("StatefulPartitionedCall", "call")
+          .addInputList(new Output<?>[] {tf.constant(3.0f).asOutput()})
+          .setAttr("Tin", new DataType<?>[] {TFloat32.DTYPE})
+          .setAttr("Tout", new DataType<?>[] {TFloat32.DTYPE})
+          .setAttr("f", f)
+          .build()
+          .output(0);
+      assertTrue(f.functionName().startsWith("square"));
+      try (Tensor<?> result = s.runner().fetch(y).run().get(0)) {
+        assertEquals(9.0f, result.floatValue(), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void createFromSubgraphWithMissingInput() {
+    try (Graph g = new Graph()) {
+      Ops tf = Ops.create(g);
+      Operand<TFloat32> x = tf.placeholder(TFloat32.DTYPE);
+      Operand<TFloat32> z = tf.placeholder(TFloat32.DTYPE);
+      Operand<TFloat32> y = tf.math.add(x, z);
+      Signature signature = Signature.builder().input("x", x).output("y", y).build();
+      try {
+        ConcreteFunction.create(signature, g);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+
+  @Test
+  public void tracedFunctionCachesBySignature() {
+    try (TracedFunction f = TracedFunction.of(ConcreteFunctionTest::square);
+        Tensor<TFloat32> x1 = Tensors.create(2.0f);
+        Tensor<TFloat32> x2 = Tensors.create(3.0f);
+        Tensor<TFloat32> x3 = Tensors.create(new float[] {1.0f, 2.0f})) {
+      try (Tensor<?> y = f.call(Collections.singletonMap("x", x1)).get("y")) {
+        assertEquals(4.0f, y.floatValue(), 0.0f);
+      }
+      try (Tensor<?> y = f.call(Collections.singletonMap("x", x2)).get("y")) {
+        assertEquals(9.0f, y.floatValue(), 0.0f);
+      }
+      assertEquals(1, f.concreteFunctions().size());
+
+      try (Tensor<?> y = f.call(Collections.singletonMap("x", x3)).get("y")) {
+        assertEquals(2, y.shape().asArray()[0]);
+      }
+      assertEquals(2, f.concreteFunctions().size());
+    }
+  }
+
+  private static ConcreteFunction traceSquare() {
+    Signature signature =
+        Signature.builder().key("square").input("x", TFloat32.DTYPE, Shape.scalar()).build();
+    return ConcreteFunction.trace(signature, ConcreteFunctionTest::square);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Operand<?>> square(Ops tf, Map<String, Operand<?>> inputs) {
+    return Collections.singletonMap("y", tf.math.square((Operand<TFloat32>)inputs.get("x")));
+  }
+}
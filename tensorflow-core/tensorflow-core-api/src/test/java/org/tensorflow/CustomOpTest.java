@@ -0,0 +1,161 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.bytedeco.javacpp.PointerScope;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.op.Ops;
+import org.tensorflow.types.TFloat32;
+
+/** Unit tests for {@link org.tensorflow.CustomOp}. */
+@RunWith(JUnit4.class)
+public class CustomOpTest {
+
+  @BeforeClass
+  public static void registerOps() {
+    CustomOp.builder("JavaTimesTwo")
+        .input("x: float")
+        .output("y: float")
+        .kernel(context -> {
+          TFloat32 x = context.input(0, TFloat32.DTYPE);
+          TFloat32 y = context.allocateOutput(0, TFloat32.DTYPE, x.shape());
+          x.scalars().forEachIndexed((idx, value) -> y.setFloat(value.getFloat() * 2.0f, idx));
+        })
+        .register();
+    CustomOp.builder("JavaFailing")
+        .input("x: float")
+        .output("y: float")
+        .kernel(context -> {
+          throw new IllegalArgumentException("Invalid input");
+        })
+        .register();
+  }
+
+  @Test
+  public void computeInGraph() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      Output<?> y = g.opBuilder("JavaTimesTwo", "timesTwo")
+          .addInput(tf.constant(new float[] {1.0f, 2.0f, 3.0f}).asOutput())
+          .build()
+          .output(0);
+      try (Tensor<TFloat32> result = s.runner().fetch(y).run().get(0).expect(TFloat32.DTYPE)) {
+        TFloat32 data = result.data();
+        assertEquals(3, data.size());
+        assertEquals(2.0f, data.getFloat(0), 0.0f);
+        assertEquals(4.0f, data.getFloat(1), 0.0f);
+        assertEquals(6.0f, data.getFloat(2), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void kernelFailure() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      Output<?> y = g.opBuilder("JavaFailing", "failing")
+          .addInput(tf.constant(1.0f).asOutput())
+          .build()
+          .output(0);
+      try (Tensor<?> result = s.runner().fetch(y).run().get(0)) {
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+
+  @Test
+  public void registerWithoutKernel() {
+    try {
+      CustomOp.builder("JavaNoKernel").input("x: float").output("y: float").register();
+      fail();
+    } catch (IllegalStateException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void registerInPointerScope() {
+    try (PointerScope scope = new PointerScope()) {
+      CustomOp.builder("JavaIdentity")
+          .input("x: float")
+          .output("y: float")
+          .kernel(context -> {
+            TFloat32 x = context.input(0, TFloat32.DTYPE);
+            x.copyTo(context.allocateOutput(0, TFloat32.DTYPE, x.shape()));
+          })
+          .register();
+    }
+    // the kernel must still be callable once the scope of the caller is closed
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      Output<?> y = g.opBuilder("JavaIdentity", "identity")
+          .addInput(tf.constant(5.0f).asOutput())
+          .build()
+          .output(0);
+      try (Tensor<?> result = s.runner().fetch(y).run().get(0)) {
+        assertEquals(5.0f, result.floatValue(), 0.0f);
+      }
+    }
+  }
+
+  @Test
+  public void invalidTypeConstraint() {
+    CustomOp.Builder builder = CustomOp.builder("JavaConstrained")
+        .attr("T: {float, double}")
+        .input("x: T")
+        .output("y: T")
+        .kernel(context -> {});
+    try {
+      builder.typeConstraint("U", TFloat32.DTYPE).register();
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+    // the operation must not have been registered by the failed attempt
+    CustomOp.builder("JavaConstrained")
+        .attr("T: {float, double}")
+        .input("x: T")
+        .output("y: T")
+        .typeConstraint("T", TFloat32.DTYPE)
+        .kernel(context -> {})
+        .register();
+  }
+
+  @Test
+  public void registerTwice() {
+    try {
+      CustomOp.builder("JavaTimesTwo")
+          .input("x: float")
+          .output("y: float")
+          .kernel(context -> {})
+          .register();
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.op.Ops;
+import org.tensorflow.types.TFloat32;
+
+/** Unit tests for {@link org.tensorflow.GradientTape}. */
+@RunWith(JUnit4.class)
+public class GradientTapeTest {
+
+  @Test
+  public void gradientOfSquare() {
+    try (EagerSession session = EagerSession.create();
+        GradientTape tape = GradientTape.record(session)) {
+      Ops tf = Ops.create(session);
+      Operand<TFloat32> x = tf.constant(3.0f);
+      tape.watch(x);
+      Operand<TFloat32> y = tf.math.mul(x, x);
+
+      List<Operand<?>> gradients = tape.gradient(y, Arrays.asList(x));
+      assertEquals(1, gradients.size());
+      assertEquals(6.0f, gradients.get(0).asOutput().tensor().floatValue(), 0.0f);
+    }
+  }
+
+  @Test
+  public void recordOnlyWatchedComputations() {
+    try (EagerSession session = EagerSession.create();
+        GradientTape tape = GradientTape.record(session)) {
+      Ops tf = Ops.create(session);
+      Operand<TFloat32> x = tf.constant(2.0f);
+      Operand<TFloat32> w = tf.constant(5.0f);
+      tape.watch(x);
+      // "c" does not depend on "x" and is fed as a constant when replayed
+      Operand<TFloat32> c = tf.math.add(w, tf.constant(1.0f));
+      Operand<TFloat32> y = tf.math.add(tf.math.mul(x, c), c);
+      assertEquals(2, tape.numRecordedOperations());
+
+      List<Operand<?>> gradients = tape.gradient(y, Arrays.asList(x));
+      assertEquals(6.0f, gradients.get(0).asOutput().tensor().floatValue(), 0.0f);
+    }
+  }
+
+  @Test
+  public void nonPersistentTape() {
+    try (EagerSession session = EagerSession.create();
+        GradientTape tape = GradientTape.record(session)) {
+      Ops tf = Ops.create(session);
+      Operand<TFloat32> x = tf.constant(3.0f);
+      tape.watch(x);
+      Operand<TFloat32> y = tf.math.mul(x, x);
+      tape.gradient(y, Arrays.asList(x));
+      assertEquals(0, tape.numRecordedOperations());
+      try {
+        tape.gradient(y, Arrays.asList(x));
+        fail();
+      } catch (IllegalStateException e) {
+        // as expected
+      }
+    }
+  }
+
+  @Test
+  public void persistentTape() {
+    try (EagerSession session = EagerSession.create();
+        GradientTape tape = GradientTape.record(session, true)) {
+      Ops tf = Ops.create(session);
+      Operand<TFloat32> x = tf.constant(3.0f);
+      Operand<TFloat32> z = tf.constant(4.0f);
+      tape.watch(x);
+      tape.watch(z);
+      Operand<TFloat32> y = tf.math.mul(x, z);
+      Operand<TFloat32> y2 = tf.math.mul(y, y);
+
+      List<Operand<?>> gradients = tape.gradient(y, Arrays.asList(x, z));
+      assertEquals(4.0f, gradients.get(0).asOutput().tensor().floatValue(), 0.0f);
+      assertEquals(3.0f, gradients.get(1).asOutput().tensor().floatValue(), 0.0f);
+
+      // d(x^2 z^2)/dx = 2 x z^2
+      gradients = tape.gradient(y2, Arrays.asList(x));
+      assertEquals(96.0f, gradients.get(0).asOutput().tensor().floatValue(), 0.0f);
+
+      tape.close();
+      try {
+        tape.gradient(y, Arrays.asList(x));
+        fail();
+      } catch (IllegalStateException e) {
+        // as expected
+      }
+    }
+  }
+}
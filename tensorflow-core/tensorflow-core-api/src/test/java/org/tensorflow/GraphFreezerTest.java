@@ -0,0 +1,163 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.proto.ProtoReader;
+import org.tensorflow.tools.proto.ProtoWriter;
+import org.tensorflow.types.TFloat32;
+
+/** Unit tests for {@link org.tensorflow.GraphFreezer}. */
+@RunWith(JUnit4.class)
+public class GraphFreezerTest {
+
+  @Test
+  public void pruneGraph() {
+    byte[] graphDef = new ProtoWriter()
+        .writeMessage(1, node("x", "Placeholder"))
+        .writeMessage(1, node("w", "Const"))
+        .writeMessage(1, node("w/read", "Identity", "w"))
+        .writeMessage(1, node("w/check", "CheckNumerics", "w/read"))
+        .writeMessage(1, node("deps", "NoOp", "^x"))
+        .writeMessage(1, node("mul", "MatMul", "x", "w/check:0", "^deps"))
+        .writeMessage(1, node("y", "Identity", "mul"))
+        .writeMessage(1, node("grad", "MatMul", "y", "x"))
+        .writeMessage(1, node("train", "ApplyGradientDescent", "w", "grad"))
+        .writeMessage(4, new ProtoWriter().writeInt32(1, 175))
+        .toByteArray();
+
+    Map<String, List<String>> nodes = parseNodes(GraphFreezer.prune(graphDef, Arrays.asList("y:0")));
+    assertEquals(Arrays.asList("x", "w", "mul", "y"), new ArrayList<>(nodes.keySet()));
+    assertEquals(Arrays.asList("x", "w", "^x"), nodes.get("mul"));
+    assertEquals(Collections.singletonList("mul"), nodes.get("y"));
+  }
+
+  @Test
+  public void keepFetchedPassThroughNodes() {
+    byte[] graphDef = new ProtoWriter()
+        .writeMessage(1, node("x", "Placeholder"))
+        .writeMessage(1, node("y", "Identity", "x"))
+        .writeMessage(1, node("z", "Identity", "y"))
+        .toByteArray();
+
+    Map<String, List<String>> nodes =
+        parseNodes(GraphFreezer.prune(graphDef, Arrays.asList("y", "z")));
+    assertEquals(Arrays.asList("x", "y", "z"), new ArrayList<>(nodes.keySet()));
+    assertEquals(Collections.singletonList("y"), nodes.get("z"));
+  }
+
+  @Test
+  public void keepPassThroughNodesUsedAsControlInputs() {
+    byte[] graphDef = new ProtoWriter()
+        .writeMessage(1, node("pred", "Placeholder"))
+        .writeMessage(1, node("cond/Switch", "Switch", "pred", "pred"))
+        .writeMessage(1, node("cond/switch_t", "Identity", "cond/Switch:1"))
+        .writeMessage(1, node("cond/Const", "Const", "^cond/switch_t"))
+        .toByteArray();
+
+    Map<String, List<String>> nodes =
+        parseNodes(GraphFreezer.prune(graphDef, Arrays.asList("cond/Const")));
+    assertEquals(Arrays.asList("pred", "cond/Switch", "cond/switch_t", "cond/Const"),
+        new ArrayList<>(nodes.keySet()));
+    assertEquals(Collections.singletonList("^cond/switch_t"), nodes.get("cond/Const"));
+  }
+
+  @Test
+  public void pruneUnknownFetch() {
+    try {
+      GraphFreezer.prune(new ProtoWriter().writeMessage(1, node("x", "Placeholder")).toByteArray(),
+          Arrays.asList("y:0"));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void freezeVariables() {
+    byte[] frozen;
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Output<TFloat32> x = TestUtil.placeholder(g, "x", TFloat32.DTYPE);
+      Output<TFloat32> w = g.opBuilder("VariableV2", "w")
+          .setAttr("dtype", TFloat32.DTYPE)
+          .setAttr("shape", Shape.scalar())
+          .build()
+          .output(0);
+      Output<TFloat32> init = TestUtil.constant(g, "w/init", 3.0f);
+      g.opBuilder("Assign", "w/assign").addInput(w).addInput(init).build();
+      Output<TFloat32> read = g.opBuilder("Identity", "w/read").addInput(w).build().output(0);
+      g.opBuilder("Mul", "y").addInput(x).addInput(read).build();
+      s.runner().addTarget("w/assign").run();
+
+      frozen = GraphFreezer.freeze(s, Arrays.asList("y:0"));
+    }
+    Map<String, List<String>> nodes = parseNodes(frozen);
+    assertEquals(Arrays.asList("x", "w", "y"), new ArrayList<>(nodes.keySet()));
+
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      g.importGraphDef(frozen);
+      assertEquals("Const", g.operation("w").type());
+      try (Tensor<TFloat32> x = Tensors.create(2.0f);
+          Tensor<?> y = s.runner().feed("x", x).fetch("y").run().get(0)) {
+        assertEquals(6.0f, y.floatValue(), 0.0f);
+      }
+    }
+  }
+
+  private static ProtoWriter node(String name, String op, String... inputs) {
+    ProtoWriter node = new ProtoWriter().writeString(1, name).writeString(2, op);
+    for (String input : inputs) {
+      node.writeString(3, input);
+    }
+    return node;
+  }
+
+  /** Returns the inputs of each node, by node name in the order of the graph. */
+  private static Map<String, List<String>> parseNodes(byte[] graphDef) {
+    Map<String, List<String>> nodes = new LinkedHashMap<>();
+    ProtoReader graph = ProtoReader.of(graphDef);
+    while (graph.next()) {
+      if (graph.fieldNumber() == 1) {
+        ProtoReader node = graph.readMessage();
+        String name = null;
+        List<String> inputs = new ArrayList<>();
+        while (node.next()) {
+          if (node.fieldNumber() == 1) {
+            name = node.readString();
+          } else if (node.fieldNumber() == 3) {
+            inputs.add(node.readString());
+          }
+        }
+        nodes.put(name, inputs);
+      }
+    }
+    return nodes;
+  }
+}
@@ -15,15 +15,21 @@ limitations under the License.
 
 package org.tensorflow;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
+import org.tensorflow.types.TFloat32;
 
 /** Unit tests for {@link org.tensorflow.SavedModelBundle}. */
 @RunWith(JUnit4.class)
@@ -47,6 +53,56 @@ public class SavedModelBundleTest {
     }
   }
 
+  @Test
+  public void function() {
+    try (SavedModelBundle bundle = SavedModelBundle.load(SAVED_MODEL_PATH, "serve")) {
+      assertEquals(6, bundle.signatures().size());
+      ConcreteFunction function = bundle.function(Signature.DEFAULT_KEY);
+      assertSame(function, bundle.function(Signature.DEFAULT_KEY));
+      assertEquals("x:0", function.signature().inputs().get("x").name());
+
+      try (Tensor<TFloat32> x = TFloat32.ofShape(1, 1)) {
+        Map<String, Tensor<?>> outputs = function.call(Collections.singletonMap("x", x));
+        assertEquals(1, outputs.size());
+        try (Tensor<?> y = outputs.get("y")) {
+          assertArrayEquals(new long[] {1, 1}, y.shape().asArray());
+        }
+        try {
+          function.call(Collections.singletonMap("z", x));
+          fail();
+        } catch (IllegalArgumentException e) {
+          // as expected
+        }
+      }
+      try {
+        bundle.function("unknown");
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+
+  @Test
+  public void warmup() {
+    try (SavedModelBundle bundle = SavedModelBundle.loader(SAVED_MODEL_PATH)
+        .withTags("serve")
+        .withWarmup(SavedModelWarmup.syntheticRequests(5).threads(2).batchSize(4))
+        .load()) {
+      // signatures fed with serialized examples of unknown rank are not synthesized
+      assertEquals(15, bundle.warmupReport().numRequests());
+      assertTrue(bundle.warmupReport().elapsedNanos() > 0);
+    }
+    try (Tensor<TFloat32> x = TFloat32.ofShape(2, 1);
+        SavedModelBundle bundle = SavedModelBundle.loader(SAVED_MODEL_PATH)
+            .withTags("serve")
+            .withWarmup(SavedModelWarmup.requests("serving_default",
+                Collections.nCopies(3, Collections.singletonMap("x", x))))
+            .load()) {
+      assertEquals(3, bundle.warmupReport().numRequests());
+    }
+  }
+
   @Test
   public void loadNonExistentBundle() {
     try {
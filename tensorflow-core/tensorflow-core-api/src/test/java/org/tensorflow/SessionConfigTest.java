@@ -0,0 +1,99 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.tools.proto.ProtoReader;
+
+/** Unit tests for {@link org.tensorflow.SessionConfig} and {@link org.tensorflow.RunOptions}. */
+@RunWith(JUnit4.class)
+public class SessionConfigTest {
+
+  @Test
+  public void encodeThreadPools() {
+    byte[] config = SessionConfig.builder()
+        .intraOpParallelismThreads(1)
+        .interOpParallelismThreads(1)
+        .build();
+    assertArrayEquals(new byte[] {0x10, 0x01, 0x28, 0x01}, config);
+
+    config = SessionConfig.builder()
+        .usePerSessionThreads(true)
+        .addSessionInterOpThreadPool(4, "shared")
+        .build();
+    ProtoReader reader = ProtoReader.of(config);
+    assertTrue(reader.next());
+    assertEquals(9, reader.fieldNumber());
+    assertTrue(reader.readBool());
+    assertTrue(reader.next());
+    assertEquals(12, reader.fieldNumber());
+    ProtoReader pool = reader.readMessage();
+    assertTrue(pool.next());
+    assertEquals(4, pool.readInt32());
+    assertTrue(pool.next());
+    assertEquals("shared", pool.readString());
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void encodeGraphOptions() {
+    byte[] config = SessionConfig.builder()
+        .optimizerLevel(SessionConfig.OptimizerLevel.L0)
+        .globalJitLevel(SessionConfig.GlobalJitLevel.ON_1)
+        .remapping(SessionConfig.Toggle.OFF)
+        .build();
+    ProtoReader reader = ProtoReader.of(config);
+    assertTrue(reader.next());
+    assertEquals(10, reader.fieldNumber());
+    ProtoReader graphOptions = reader.readMessage();
+
+    assertTrue(graphOptions.next());
+    assertEquals(3, graphOptions.fieldNumber());
+    ProtoReader optimizerOptions = graphOptions.readMessage();
+    assertTrue(optimizerOptions.next());
+    assertEquals(3, optimizerOptions.fieldNumber());
+    assertEquals(-1, optimizerOptions.readInt32());
+    assertTrue(optimizerOptions.next());
+    assertEquals(5, optimizerOptions.fieldNumber());
+    assertEquals(1, optimizerOptions.readInt32());
+
+    assertTrue(graphOptions.next());
+    assertEquals(10, graphOptions.fieldNumber());
+    ProtoReader rewriterConfig = graphOptions.readMessage();
+    assertTrue(rewriterConfig.next());
+    assertEquals(14, rewriterConfig.fieldNumber());
+    assertEquals(2, rewriterConfig.readInt32());
+    assertFalse(graphOptions.next());
+  }
+
+  @Test
+  public void emptyConfig() {
+    assertEquals(0, SessionConfig.builder().build().length);
+  }
+
+  @Test
+  public void encodeRunOptions() {
+    byte[] options = RunOptions.builder().traceLevel(RunOptions.TraceLevel.FULL_TRACE).build();
+    assertArrayEquals(new byte[] {0x08, 0x03}, options);
+  }
+}
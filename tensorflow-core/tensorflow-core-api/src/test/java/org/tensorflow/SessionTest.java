@@ -20,6 +20,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+import java.util.Collections;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -143,6 +145,38 @@ public class SessionTest {
     }
   }
 
+  @Test
+  public void partialRun() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Output<TInt32> a = TestUtil.placeholder(g, "a", TInt32.DTYPE);
+      Output<TInt32> b = TestUtil.placeholder(g, "b", TInt32.DTYPE);
+      Output<TInt32> c = TestUtil.square(g, "c", a);
+      Output<TInt32> d = TestUtil.addN(g, c, b);
+      Session.PartialRun step =
+          s.partialRunSetup(Arrays.asList(a, b), Arrays.asList(c, d), Collections.emptyList());
+      try (Tensor<TInt32> aValue = Tensors.create(3);
+          Tensor<?> cValue =
+              step.run(Collections.singletonMap(a, aValue), Collections.singletonList(c)).get(0)) {
+        assertEquals(9, cValue.intValue());
+        try (Tensor<TInt32> bValue = Tensors.create(cValue.intValue() + 1);
+            Tensor<?> dValue =
+                step.run(Collections.singletonMap(b, bValue), Collections.singletonList(d))
+                    .get(0)) {
+          assertEquals(19, dValue.intValue());
+        }
+      }
+      step.close();
+      step.close();
+      try {
+        step.run(Collections.emptyMap(), Collections.singletonList(d));
+        fail("a partial run should fail after close() is called");
+      } catch (IllegalStateException e) {
+        // expected exception
+      }
+    }
+  }
+
   @Test
   public void failOnUseAfterClose() {
     try (Graph g = new Graph()) {
@@ -0,0 +1,98 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.proto.ProtoWriter;
+
+/** Unit tests for {@link org.tensorflow.Signature}. */
+@RunWith(JUnit4.class)
+public class SignatureTest {
+
+  @Test
+  public void parseSignatures() {
+    Map<String, Signature> signatures = Signature.parseAll(metaGraphDef());
+    assertEquals(2, signatures.size());
+    Iterator<String> keys = signatures.keySet().iterator();
+    assertEquals("serving_default", keys.next());
+    assertEquals("classify", keys.next());
+
+    Signature signature = signatures.get(Signature.DEFAULT_KEY);
+    assertEquals("serving_default", signature.key());
+    assertEquals("tensorflow/serving/predict", signature.methodName());
+
+    assertEquals(2, signature.inputs().size());
+    Signature.TensorDescription x = signature.inputs().get("x");
+    assertEquals("serving_default_x:0", x.name());
+    assertEquals(1, x.dataTypeCode());
+    assertArrayEquals(new long[] { -1, 784 }, x.shape().asArray());
+    Signature.TensorDescription training = signature.inputs().get("training");
+    assertEquals(0, training.shape().numDimensions());
+
+    assertEquals(1, signature.outputs().size());
+    Signature.TensorDescription y = signature.outputs().get("y");
+    assertEquals("StatefulPartitionedCall:1", y.name());
+    assertEquals(Shape.UNKNOWN_SIZE, y.shape().numDimensions());
+
+    // sparse tensors are not supported
+    assertTrue(signatures.get("classify").inputs().isEmpty());
+    assertEquals(1, signatures.get("classify").outputs().size());
+  }
+
+  private static byte[] metaGraphDef() {
+    ProtoWriter servingDefault = new ProtoWriter()
+        .writeMessage(1, tensorInfoEntry("x", "serving_default_x:0", 1,
+            new ProtoWriter().writeMessage(2, dim(-1)).writeMessage(2, dim(784))))
+        .writeMessage(1, tensorInfoEntry("training", "serving_default_training:0", 10,
+            new ProtoWriter()))
+        .writeMessage(2, tensorInfoEntry("y", "StatefulPartitionedCall:1", 1,
+            new ProtoWriter().writeBool(3, true)))
+        .writeString(3, "tensorflow/serving/predict");
+    ProtoWriter sparseInfo = new ProtoWriter()
+        .writeMessage(4, new ProtoWriter().writeString(1, "values:0"))
+        .writeInt32(2, 7);
+    ProtoWriter classify = new ProtoWriter()
+        .writeMessage(1, new ProtoWriter().writeString(1, "inputs").writeMessage(2, sparseInfo))
+        .writeMessage(2, tensorInfoEntry("scores", "scores:0", 1, new ProtoWriter()))
+        .writeString(3, "tensorflow/serving/classify");
+    return new ProtoWriter()
+        .writeBytes(2, new byte[] { 1, 2, 3 })  // graph def, ignored
+        .writeMessage(5, new ProtoWriter().writeString(1, "serving_default").writeMessage(2, servingDefault))
+        .writeMessage(5, new ProtoWriter().writeString(1, "classify").writeMessage(2, classify))
+        .toByteArray();
+  }
+
+  private static ProtoWriter tensorInfoEntry(String key, String name, int dtype, ProtoWriter shape) {
+    ProtoWriter tensorInfo = new ProtoWriter()
+        .writeString(1, name)
+        .writeInt32(2, dtype)
+        .writeMessage(3, shape);
+    return new ProtoWriter().writeString(1, key).writeMessage(2, tensorInfo);
+  }
+
+  private static ProtoWriter dim(long size) {
+    return new ProtoWriter().writeInt64(1, size);
+  }
+}
@@ -0,0 +1,80 @@
+/* Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+==============================================================================*/
+
+package org.tensorflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.types.TInt32;
+
+/** Unit tests for {@link org.tensorflow.TensorLeakDetector}. */
+@RunWith(JUnit4.class)
+public class TensorLeakDetectorTest {
+
+  @After
+  public void resetDetector() {
+    TensorLeakDetector.setLevel(TensorLeakDetector.Level.OFF);
+    TensorLeakDetector.setReclaimEnabled(false);
+    TensorLeakDetector.setReporter(null);
+  }
+
+  @Test
+  public void closedTensorsAreNotTracked() {
+    TensorLeakDetector.setLevel(TensorLeakDetector.Level.PARANOID);
+    int numTracked = TensorLeakDetector.numTracked();
+    try (Tensor<TInt32> t = TInt32.scalarOf(10)) {
+      assertEquals(numTracked + 1, TensorLeakDetector.numTracked());
+    }
+    assertEquals(numTracked, TensorLeakDetector.numTracked());
+  }
+
+  @Test
+  public void detectLeaks() throws InterruptedException {
+    List<TensorLeakDetector.Leak> leaks = new ArrayList<>();
+    TensorLeakDetector.setLevel(TensorLeakDetector.Level.PARANOID);
+    TensorLeakDetector.setReclaimEnabled(true);
+    TensorLeakDetector.setReporter(leaks::add);
+
+    allocateWithoutClosing();
+    for (int i = 0; i < 100 && leaks.isEmpty(); ++i) {
+      System.gc();
+      Thread.sleep(10);
+      TensorLeakDetector.sweep();
+    }
+    if (leaks.isEmpty()) {
+      fail("Leaked tensor was not detected");
+    }
+    TensorLeakDetector.Leak leak = leaks.get(0);
+    assertEquals("INT32[2]", leak.tensor());
+    assertTrue(leak.isReclaimed());
+    boolean allocationSiteFound = false;
+    for (StackTraceElement element : leak.allocationStackTrace()) {
+      allocationSiteFound |= element.getMethodName().equals("allocateWithoutClosing");
+    }
+    assertTrue(allocationSiteFound);
+  }
+
+  private static void allocateWithoutClosing() {
+    TInt32.vectorOf(1, 2);
+  }
+}
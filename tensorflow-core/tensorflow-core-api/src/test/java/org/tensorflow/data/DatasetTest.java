@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.Graph;
+import org.tensorflow.Operand;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.op.Ops;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.TInt32;
+import org.tensorflow.types.TInt64;
+
+/** Unit tests for {@link org.tensorflow.data.Dataset}. */
+@RunWith(JUnit4.class)
+public class DatasetTest {
+
+  @Test
+  public void batchTensorSlices() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      List<Operand<?>> components = Arrays.asList(
+          tf.constant(new int[][] {{1, 2}, {3, 4}, {5, 6}}),
+          tf.constant(new long[] {10L, 20L, 30L}));
+      Dataset dataset = Dataset.fromTensorSlices(tf, components).batch(2);
+      assertEquals(Arrays.asList(TInt32.DTYPE, TInt64.DTYPE), dataset.outputTypes());
+      assertEquals(Arrays.asList(Shape.make(-1, 2), Shape.make(-1)), dataset.outputShapes());
+
+      DatasetIterator iterator = dataset.makeIterator();
+      List<Output<?>> next = iterator.getNext();
+      iterator.initialize(s);
+
+      List<Tensor<?>> batch = s.runner().fetch(next.get(0)).fetch(next.get(1)).run();
+      assertArrayEquals(new int[][] {{1, 2}, {3, 4}}, batch.get(0).copyTo(new int[2][2]));
+      assertArrayEquals(new long[] {10L, 20L}, batch.get(1).copyTo(new long[2]));
+      batch.forEach(Tensor::close);
+
+      batch = s.runner().fetch(next.get(0)).fetch(next.get(1)).run();
+      assertArrayEquals(new long[] {30L}, batch.get(1).copyTo(new long[1]));
+      batch.forEach(Tensor::close);
+
+      try {
+        s.runner().fetch(next.get(0)).run();
+        fail();
+      } catch (IndexOutOfBoundsException e) {
+        // end of dataset
+      }
+    }
+  }
+
+  @Test
+  public void transformRange() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      Dataset dataset = Dataset.range(tf, 0L, 5L, 1L)
+          .skip(1L)
+          .take(2L)
+          .repeat(2L)
+          .cache()
+          .withPrivateThreadPool(2)
+          .prefetch(Dataset.AUTOTUNE)
+          .batch(4L, true);
+      assertEquals(Shape.make(4), dataset.outputShapes().get(0));
+
+      DatasetIterator iterator = dataset.makeIterator();
+      Output<?> next = iterator.getNext().get(0);
+      iterator.initialize(s);
+      try (Tensor<?> batch = s.runner().fetch(next).run().get(0)) {
+        assertArrayEquals(new long[] {1L, 2L, 1L, 2L}, batch.copyTo(new long[4]));
+      }
+
+      // initializing again restarts from the first element
+      iterator.initialize(s);
+      try (Tensor<?> batch = s.runner().fetch(next).run().get(0)) {
+        assertArrayEquals(new long[] {1L, 2L, 1L, 2L}, batch.copyTo(new long[4]));
+      }
+    }
+  }
+}
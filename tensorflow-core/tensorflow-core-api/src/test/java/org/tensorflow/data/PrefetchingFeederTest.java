@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.Graph;
+import org.tensorflow.Output;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.op.Ops;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.TFloat32;
+
+/** Unit tests for {@link org.tensorflow.data.PrefetchingFeeder}. */
+@RunWith(JUnit4.class)
+public class PrefetchingFeederTest {
+
+  @Test
+  public void consumeAllBatches() throws InterruptedException {
+    AtomicInteger remaining = new AtomicInteger(20);
+    try (PrefetchingFeeder feeder = PrefetchingFeeder.builder(batch -> remaining.getAndDecrement() > 0)
+        .numThreads(3)
+        .capacity(2)
+        .build()) {
+      int numBatches = 0;
+      PrefetchingFeeder.Batch batch;
+      while ((batch = feeder.next()) != null) {
+        batch.close();
+        ++numBatches;
+      }
+      assertEquals(20, numBatches);
+      assertNull(feeder.next());
+      assertEquals(20, feeder.stats().numBatches());
+    }
+  }
+
+  @Test
+  public void reportProducerFailure() throws InterruptedException {
+    AtomicInteger remaining = new AtomicInteger(2);
+    try (PrefetchingFeeder feeder = PrefetchingFeeder.builder(batch -> {
+          if (remaining.getAndDecrement() <= 0) {
+            throw new IOException("unavailable");
+          }
+          return true;
+        }).build()) {
+      feeder.next().close();
+      feeder.next().close();
+      try {
+        feeder.next();
+        fail();
+      } catch (IllegalStateException e) {
+        assertTrue(e.getCause() instanceof IOException);
+      }
+    }
+  }
+
+  @Test
+  public void reportProducerError() throws InterruptedException {
+    try (PrefetchingFeeder feeder = PrefetchingFeeder.builder(batch -> {
+          throw new AssertionError("broken");
+        }).build()) {
+      try {
+        feeder.next();
+        fail();
+      } catch (IllegalStateException e) {
+        assertTrue(e.getCause() instanceof AssertionError);
+      }
+    }
+  }
+
+  @Test
+  public void closeBlockedProducers() throws InterruptedException {
+    PrefetchingFeeder feeder = PrefetchingFeeder.builder(batch -> true).numThreads(2).build();
+    PrefetchingFeeder.Batch batch = feeder.next();
+    feeder.close();
+    batch.close();
+    try {
+      feeder.next();
+      fail();
+    } catch (IllegalStateException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void reuseTensors() throws InterruptedException {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      Output<TFloat32> x = tf.placeholder(TFloat32.DTYPE).asOutput();
+      Output<TFloat32> y = tf.math.mul(x, tf.constant(2.0f)).asOutput();
+      AtomicInteger step = new AtomicInteger();
+      try (PrefetchingFeeder feeder = PrefetchingFeeder.builder(batch -> {
+            int i = step.incrementAndGet();
+            if (i > 5) {
+              return false;
+            }
+            batch.tensor(x, Shape.scalar()).data().setFloat(i);
+            return true;
+          }).capacity(1).build()) {
+        float sum = 0.0f;
+        Set<Tensor<?>> tensors = Collections.newSetFromMap(new IdentityHashMap<>());
+        PrefetchingFeeder.Batch batch;
+        while ((batch = feeder.next()) != null) {
+          try (PrefetchingFeeder.Batch b = batch;
+              Tensor<?> result = b.feed(s.runner()).fetch(y).run().get(0)) {
+            sum += result.floatValue();
+            tensors.add(b.tensors().get(x));
+          }
+        }
+        assertEquals(30.0f, sum, 0.0f);
+        // batches are recycled with their tensors
+        assertTrue(tensors.size() < 5);
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.Tensor;
+import org.tensorflow.Tensors;
+import org.tensorflow.types.TFloat32;
+
+/** Unit tests for {@link org.tensorflow.metrics.Metrics}. */
+@RunWith(JUnit4.class)
+public class MetricsTest {
+
+  @After
+  public void disableMetrics() {
+    Metrics.disable();
+  }
+
+  @Test
+  public void histogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0L, histogram.percentileNanos(50));
+
+    for (int i = 0; i < 99; ++i) {
+      histogram.record(3_000L);  // 3us, bucket [2us, 4us)
+    }
+    histogram.record(1_000_000L);  // 1ms
+    assertEquals(100L, histogram.count());
+    assertEquals(1_000_000L, histogram.maxNanos());
+    assertEquals(12_970.0, histogram.meanNanos(), 0.0);
+    assertEquals(4_000L, histogram.percentileNanos(50));
+    assertEquals(4_000L, histogram.percentileNanos(99));
+    assertEquals(1_000_000L, histogram.percentileNanos(100));
+  }
+
+  @Test
+  public void collectEvents() {
+    MetricsCollector collector = new MetricsCollector();
+    collector.onRunStart();
+    collector.onRunStart();
+    assertEquals(2L, collector.getActiveRuns());
+    collector.onRunEnd("feeds=[x:0] fetches=[y:0] targets=[]", 2_000_000L, true);
+    collector.onRunEnd("feeds=[x:0] fetches=[y:0] targets=[]", 1_000_000L, false);
+    assertEquals(0L, collector.getActiveRuns());
+    assertEquals(1L, collector.getFailedRuns());
+
+    Map<String, Long> runCounts = collector.getRunCounts();
+    assertEquals(1, runCounts.size());
+    assertEquals(Long.valueOf(1L), runCounts.get("feeds=[x:0] fetches=[y:0] targets=[]"));
+    assertEquals(2.0, collector.getMeanRunLatencyMillis().values().iterator().next(), 0.0);
+
+    collector.onTensorAllocated(16);
+    collector.onTensorAllocated(32);
+    collector.onTensorReleased(16);
+    assertEquals(1L, collector.getLiveTensors());
+    assertEquals(32L, collector.getLiveTensorBytes());
+    assertEquals(2L, collector.getTotalTensorsAllocated());
+
+    collector.onEagerHandleAttached();
+    assertEquals(1L, collector.getEagerHandles());
+
+    collector.reset();
+    assertTrue(collector.getRunCounts().isEmpty());
+    assertEquals(0L, collector.getTotalTensorsAllocated());
+    assertEquals(1L, collector.getLiveTensors());
+    assertEquals(1L, collector.getEagerHandles());
+  }
+
+  @Test
+  public void dispatchToListeners() {
+    AtomicLong allocated = new AtomicLong();
+    MetricsListener listener = new MetricsListener() {
+
+      @Override
+      public void onTensorAllocated(long numBytes) {
+        allocated.addAndGet(numBytes);
+      }
+
+      @Override
+      public void onTensorReleased(long numBytes) {
+        throw new IllegalStateException();  // must be ignored
+      }
+    };
+    Metrics.addListener(listener);
+    try {
+      assertFalse(Metrics.isEnabled());
+      assertNull(Metrics.listener());
+
+      Metrics.enable();
+      long liveTensors = Metrics.collector().getLiveTensors();
+      MetricsListener metrics = Metrics.listener();
+      metrics.onTensorAllocated(64);
+      metrics.onTensorReleased(64);
+      assertEquals(64L, allocated.get());
+      assertEquals(liveTensors, Metrics.collector().getLiveTensors());
+      assertSame(metrics, Metrics.listener());
+    } finally {
+      Metrics.removeListener(listener);
+    }
+  }
+
+  @Test
+  public void releaseTensorsAfterDisabling() {
+    MetricsCollector collector = Metrics.collector();
+    long liveTensors = collector.getLiveTensors();
+    Metrics.enable();
+    Tensor<TFloat32> tracked = Tensors.create(1.0f);
+    Metrics.disable();
+    Tensor<TFloat32> untracked = Tensors.create(2.0f);
+    assertEquals(liveTensors + 1, collector.getLiveTensors());
+
+    tracked.close();
+    assertEquals(liveTensors, collector.getLiveTensors());
+    Metrics.enable();
+    untracked.close();
+    assertEquals(liveTensors, collector.getLiveTensors());
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.tools.proto.ProtoReader;
+import org.tensorflow.tools.proto.ProtoWriter;
+
+/** Unit tests for {@link org.tensorflow.profiler.StepProfile}. */
+@RunWith(JUnit4.class)
+public class StepProfileTest {
+
+  @Test
+  public void parseStepStats() {
+    StepProfile profile = StepProfile.parse(runMetadata());
+
+    assertEquals(3, profile.nodes().size());
+    assertEquals(40L, profile.durationMicros());
+
+    NodeStats first = profile.nodes().get(0);
+    assertEquals("a", first.nodeName());
+    assertEquals("MatMul", first.opType());
+    assertEquals("/cpu:0", first.device());
+    assertEquals(0L, first.startMicros());
+    assertEquals(30L, first.wallTimeMicros());
+    assertEquals(25L, first.opTimeMicros());
+    assertEquals(1536L, first.allocatedBytes());
+    assertEquals(7, first.threadId());
+
+    NodeStats last = profile.nodes().get(2);
+    assertEquals("c", last.nodeName());
+    assertEquals("/gpu:0", last.device());
+    assertEquals(20L, last.startMicros());
+  }
+
+  @Test
+  public void groupAndAggregateStats() {
+    StepProfile profile = StepProfile.parse(runMetadata());
+
+    Map<String, OpStats> byOpType = profile.statsByOpType();
+    Iterator<OpStats> it = byOpType.values().iterator();
+    OpStats matMul = it.next();
+    assertEquals("MatMul", matMul.name());
+    assertEquals(2, matMul.count());
+    assertEquals(50L, matMul.totalWallTimeMicros());
+    assertEquals(2, matMul.devices().size());
+    assertEquals("Add", it.next().name());
+
+    ProfileAggregator aggregator = new ProfileAggregator().add(profile).add(profile);
+    assertEquals(2, aggregator.numSteps());
+    assertEquals(80L, aggregator.totalDurationMicros());
+    assertEquals(100L, aggregator.statsByOpType().get("MatMul").totalWallTimeMicros());
+    assertEquals(20.0, aggregator.statsByNode().get("c").meanWallTimeMicros(), 0.0);
+  }
+
+  @Test
+  public void exportChromeTrace() {
+    String trace = StepProfile.parse(runMetadata()).toChromeTrace();
+    assertTrue(trace.startsWith("{\"traceEvents\":["));
+    assertTrue(trace.contains("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"args\":{\"name\":\"/gpu:0\"}}"));
+    assertTrue(trace.contains("\"name\":\"MatMul\",\"cat\":\"Op\",\"ph\":\"X\",\"ts\":20,\"dur\":20,\"pid\":1"));
+  }
+
+  @Test
+  public void traceRunOptions() {
+    ProtoReader options = ProtoReader.of(StepProfile.traceRunOptions());
+    assertTrue(options.next());
+    assertEquals(1, options.fieldNumber());
+    assertEquals(3, options.readInt32());
+  }
+
+  private static byte[] runMetadata() {
+    ProtoWriter cpuStats = new ProtoWriter()
+        .writeString(1, "/cpu:0")
+        .writeMessage(2, nodeStats("a", "a = MatMul(x, y)", 1000L, 30L, 1024L))
+        .writeMessage(2, nodeStats("b", "b = Add(a, z)", 1010L, 5L, 0L));
+    ProtoWriter gpuStats = new ProtoWriter()
+        .writeString(1, "/gpu:0")
+        .writeMessage(2, nodeStats("c", "c = MatMul(b, y)", 1020L, 20L, 0L));
+    ProtoWriter stepStats = new ProtoWriter()
+        .writeMessage(1, cpuStats)
+        .writeMessage(1, gpuStats);
+    return new ProtoWriter()
+        .writeMessage(1, stepStats)
+        .writeBytes(2, new byte[] { 1, 2, 3 })  // cost graph, ignored
+        .toByteArray();
+  }
+
+  private static ProtoWriter nodeStats(String name, String label, long start, long duration, long bytes) {
+    ProtoWriter stats = new ProtoWriter()
+        .writeString(1, name)
+        .writeInt64(2, start)
+        .writeInt64(3, 2L)
+        .writeInt64(4, duration - 3L)
+        .writeInt64(5, duration)
+        .writeString(8, label)
+        .writeInt32(10, 7);
+    if (bytes > 0) {
+      stats.writeMessage(6, new ProtoWriter().writeString(1, "cpu").writeInt64(2, bytes).writeInt64(3, bytes));
+      stats.writeMessage(6, new ProtoWriter().writeString(1, "cpu_pinned").writeInt64(2, bytes / 2));
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.serving;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link org.tensorflow.serving.ModelRegistry}. */
+@RunWith(JUnit4.class)
+public class ModelRegistryTest {
+
+  @Rule
+  public TemporaryFolder baseDir = new TemporaryFolder();
+
+  @Test
+  public void switchToNewVersion() throws IOException {
+    exportVersion(1);
+    exportVersion("not_a_version");
+    try (ModelRegistry registry = ModelRegistry.builder(baseDir.getRoot().getPath())
+        .withPollInterval(0, TimeUnit.SECONDS)
+        .build()) {
+      assertEquals(1, registry.currentVersion());
+      assertFalse(registry.refresh());
+
+      ModelRegistry.Model inFlight = registry.acquire();
+      exportVersion(3);
+      Files.createDirectory(baseDir.getRoot().toPath().resolve("4"));  // incomplete export
+      assertTrue(registry.refresh());
+      assertEquals(3, registry.currentVersion());
+
+      // previous version is still usable until released
+      assertEquals(1, inFlight.version());
+      try (ModelRegistry.Model model = registry.acquire()) {
+        assertEquals(3, model.version());
+        assertNotSame(inFlight.bundle(), model.bundle());
+      }
+
+      // a new version is not loaded until the previous one has been drained
+      exportVersion(5);
+      assertFalse(registry.refresh());
+      inFlight.close();
+      assertTrue(registry.refresh());
+      assertEquals(5, registry.currentVersion());
+    }
+  }
+
+  @Test
+  public void cannotAcquireAfterClose() throws IOException {
+    exportVersion(1);
+    ModelRegistry registry = ModelRegistry.builder(baseDir.getRoot().getPath()).build();
+    registry.close();
+    try {
+      registry.acquire();
+      fail();
+    } catch (IllegalStateException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void failIfNoVersionFound() {
+    try {
+      ModelRegistry.builder(baseDir.getRoot().getPath()).build();
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  private void exportVersion(Object version) throws IOException {
+    Path source;
+    try {
+      source = Paths.get(ModelRegistryTest.class.getResource("/saved_model").toURI());
+    } catch (URISyntaxException e) {
+      throw new RuntimeException(e);
+    }
+    Path target = baseDir.getRoot().toPath().resolve(version.toString());
+    try (Stream<Path> files = Files.walk(source)) {
+      for (Path file : (Iterable<Path>)files::iterator) {
+        Files.copy(file, target.resolve(source.relativize(file).toString()));
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.serving;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.Graph;
+
+/** Unit tests for {@link org.tensorflow.serving.SessionPool}. */
+@RunWith(JUnit4.class)
+public class SessionPoolTest {
+
+  @Test
+  public void balanceRequests() {
+    try (Graph g = new Graph();
+        SessionPool pool = SessionPool.create(g, 3, SessionPool.splitProcessors(3))) {
+      assertEquals(3, pool.numReplicas());
+
+      SessionPool.Replica first = pool.acquire();
+      SessionPool.Replica second = pool.acquire();
+      SessionPool.Replica third = pool.acquire();
+      Set<Integer> indices = new HashSet<>();
+      indices.add(first.index());
+      indices.add(second.index());
+      indices.add(third.index());
+      assertEquals(3, indices.size());
+      assertNotSame(first.session(), second.session());
+
+      second.close();
+      try (SessionPool.Replica replica = pool.acquire()) {
+        assertEquals(second.index(), replica.index());
+        assertEquals(1, replica.outstandingRequests());
+      }
+      assertEquals(Integer.valueOf(second.index()), pool.call(SessionPool.Replica::index));
+      first.close();
+      third.close();
+    }
+  }
+
+  @Test
+  public void releaseReplicasOnlyOnce() {
+    try (Graph g = new Graph();
+        SessionPool pool = SessionPool.create(g, 2, null)) {
+      SessionPool.Replica first = pool.acquire();
+      SessionPool.Replica second = pool.acquire();
+      try (SessionPool.Replica replica = first) {
+        replica.close();
+      }
+      assertEquals(0, first.outstandingRequests());
+      first.close();
+      assertEquals(0, first.outstandingRequests());
+
+      // the replica released more than once must still be considered as idle, not as less loaded
+      SessionPool.Replica third = pool.acquire();
+      assertEquals(first.index(), third.index());
+      assertEquals(1, third.outstandingRequests());
+      assertEquals(1, second.outstandingRequests());
+      second.close();
+      third.close();
+    }
+  }
+
+  @Test
+  public void cannotAcquireAfterClose() {
+    try (Graph g = new Graph()) {
+      SessionPool pool = SessionPool.create(g, 2, null);
+      pool.close();
+      try {
+        pool.acquire();
+        fail();
+      } catch (IllegalStateException e) {
+        // as expected
+      }
+    }
+  }
+}
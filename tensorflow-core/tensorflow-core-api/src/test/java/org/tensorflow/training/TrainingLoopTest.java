@@ -0,0 +1,203 @@
+/*
+ *  Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *  =======================================================================
+ */
+package org.tensorflow.training;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.tensorflow.Graph;
+import org.tensorflow.Operand;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+import org.tensorflow.data.Dataset;
+import org.tensorflow.data.DatasetIterator;
+import org.tensorflow.op.Ops;
+import org.tensorflow.op.core.Gradients;
+import org.tensorflow.op.core.VarHandleOp;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.types.TFloat32;
+import org.tensorflow.types.TInt64;
+
+/** Unit tests for {@link org.tensorflow.training.TrainingLoop}. */
+@RunWith(JUnit4.class)
+public class TrainingLoopTest {
+
+  @Test
+  public void runStepsOverDataset() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      VarHandleOp steps = variable(tf, s, 0.0f);
+      DatasetIterator iterator = Dataset.range(tf, 0, 10, 1).makeIterator();
+
+      TrainingLoop loop = TrainingLoop.builder(tf)
+          .input(iterator)
+          .capture(steps)
+          .metric("value")
+          .build(step -> {
+            @SuppressWarnings("unchecked")
+            Operand<TInt64> value = (Operand<TInt64>)step.batch().get(0);
+            step.update(step.tf().assignAddVariableOp(step.captured(steps),
+                step.tf().constant(1.0f)).op());
+            step.metric("value", step.tf().dtypes.cast(value, TFloat32.DTYPE));
+          });
+      iterator.initialize(s);
+
+      Map<String, Float> metrics = loop.run(s, 4);
+      assertEquals(1, metrics.size());
+      assertEquals(1.5f, metrics.get("value"), 0.0f);
+      assertEquals(4.0f, read(tf, s, steps), 0.0f);
+
+      assertEquals(5.5f, loop.run(s, 4).get("value"), 0.0f);
+      assertEquals(8.0f, read(tf, s, steps), 0.0f);
+
+      try {
+        loop.run(s, 4);
+        fail();
+      } catch (IndexOutOfBoundsException e) {
+        // end of dataset
+      }
+      assertEquals(10.0f, read(tf, s, steps), 0.0f);
+    }
+  }
+
+  @Test
+  public void gradientDescent() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      VarHandleOp w = variable(tf, s, 0.0f);
+
+      TrainingLoop loop = TrainingLoop.builder(tf)
+          .capture(w)
+          .metric("loss")
+          .build(step -> {
+            Ops stepTf = step.tf();
+            Operand<?> handle = step.captured(w);
+            Operand<TFloat32> value = stepTf.readVariableOp(handle, TFloat32.DTYPE);
+            Operand<TFloat32> diff = stepTf.math.sub(value, stepTf.constant(3.0f));
+            Operand<TFloat32> loss = stepTf.math.mul(diff, diff);
+            Gradients gradients = stepTf.gradients(loss, Arrays.asList(value));
+            step.update(stepTf.train.resourceApplyGradientDescent(handle,
+                stepTf.constant(0.25f), gradients.<TFloat32>dy(0)).op());
+            step.metric("loss", loss);
+          });
+
+      // w goes through 0, 1.5, 2.25 then 2.625
+      assertEquals((9.0f + 2.25f + 0.5625f) / 3, loop.run(s, 3).get("loss"), 1e-6f);
+      assertEquals(2.625f, read(tf, s, w), 1e-6f);
+    }
+  }
+
+  @Test
+  public void readUpdatesOfPreviousSteps() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      VarHandleOp x = variable(tf, s, 1.0f);
+
+      TrainingLoop loop = TrainingLoop.builder(tf)
+          .capture(x)
+          .metric("value")
+          .build(step -> {
+            Ops stepTf = step.tf();
+            Operand<?> handle = step.captured(x);
+            Operand<TFloat32> value = stepTf.readVariableOp(handle, TFloat32.DTYPE);
+            step.update(stepTf.assignVariableOp(handle,
+                stepTf.math.mul(value, stepTf.constant(2.0f))).op());
+            step.metric("value", value);
+          });
+
+      // a step reading x before the previous one has doubled it would repeat a value
+      assertEquals(1023.0f / 10, loop.run(s, 10).get("value"), 1e-4f);
+      assertEquals(1024.0f, read(tf, s, x), 0.0f);
+    }
+  }
+
+  @Test
+  public void runWithFetchingRunner() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      TrainingLoop loop = TrainingLoop.builder(tf)
+          .metric("one")
+          .build(step -> step.metric("one", step.tf().constant(1.0f)));
+
+      // metrics must be read after the tensors fetched by the caller
+      Session.Runner runner = s.runner().fetch(tf.constant(42.0f));
+      assertEquals(1.0f, loop.run(runner, 2).get("one"), 0.0f);
+    }
+  }
+
+  @Test
+  public void invalidMetrics() {
+    try (Graph g = new Graph()) {
+      Ops tf = Ops.create(g);
+      try {
+        TrainingLoop.builder(tf).metric("loss").metric("loss");
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+      try {
+        TrainingLoop.builder(tf).build(step -> step.metric("loss", step.tf().constant(1.0f)));
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+      try {
+        TrainingLoop.builder(tf).metric("loss").build(step -> { });
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+
+  @Test
+  public void invalidNumberOfSteps() {
+    try (Graph g = new Graph();
+        Session s = new Session(g)) {
+      Ops tf = Ops.create(g);
+      TrainingLoop loop = TrainingLoop.builder(tf).build(step -> { });
+      try {
+        loop.run(s, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+
+  private static VarHandleOp variable(Ops tf, Session s, float initialValue) {
+    VarHandleOp handle = tf.varHandleOp(TFloat32.DTYPE, Shape.scalar());
+    s.runner().addTarget(tf.assignVariableOp(handle, tf.constant(initialValue)).op()).run();
+    return handle;
+  }
+
+  private static float read(Ops tf, Session s, VarHandleOp handle) {
+    Operand<TFloat32> read = tf.readVariableOp(handle, TFloat32.DTYPE);
+    try (Tensor<?> value = s.runner().fetch(read).run().get(0)) {
+      return value.floatValue();
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.checkpoint;
+
+import org.tensorflow.tools.Shape;
+
+/**
+ * Describes a tensor saved in a checkpoint.
+ *
+ * <p>Entries are parsed from the {@code BundleEntryProto} messages found in the index of a tensor
+ * bundle.
+ */
+public final class CheckpointEntry {
+
+  /**
+   * @return name of the tensor, usually the name of the variable it was saved from
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Returns the data type of the tensor, as a value of the {@code DataType} enumeration of
+   * TensorFlow protos (e.g. 1 for {@code DT_FLOAT}).
+   *
+   * @return data type
+   */
+  public int dataType() {
+    return dataType;
+  }
+
+  /**
+   * @return shape of the tensor
+   */
+  public Shape shape() {
+    return shape;
+  }
+
+  /**
+   * @return index of the data shard holding the tensor
+   */
+  public int shardId() {
+    return shardId;
+  }
+
+  /**
+   * @return offset of the tensor in its data shard, in bytes
+   */
+  public long offset() {
+    return offset;
+  }
+
+  /**
+   * @return size of the tensor in its data shard, in bytes
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Checks if the tensor has been saved as a set of slices.
+   *
+   * <p>The data of partitioned variables is not stored with their entry, and cannot be read
+   * directly.
+   *
+   * @return true if the tensor is partitioned
+   */
+  public boolean isPartitioned() {
+    return partitioned;
+  }
+
+  @Override
+  public String toString() {
+    return name + " (type " + dataType + ", shape " + shape + ")";
+  }
+
+  final int crc32c;
+
+  CheckpointEntry(String name, int dataType, Shape shape, int shardId, long offset, long size,
+      int crc32c, boolean partitioned) {
+    this.name = name;
+    this.dataType = dataType;
+    this.shape = shape;
+    this.shardId = shardId;
+    this.offset = offset;
+    this.size = size;
+    this.crc32c = crc32c;
+    this.partitioned = partitioned;
+  }
+
+  private final String name;
+  private final int dataType;
+  private final Shape shape;
+  private final int shardId;
+  private final long offset;
+  private final long size;
+  private final boolean partitioned;
+}
@@ -0,0 +1,532 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.checkpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.layout.DataLayouts;
+import org.tensorflow.tools.ndarray.BooleanNdArray;
+import org.tensorflow.tools.ndarray.ByteNdArray;
+import org.tensorflow.tools.ndarray.DoubleNdArray;
+import org.tensorflow.tools.ndarray.FloatNdArray;
+import org.tensorflow.tools.ndarray.IntNdArray;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.ShortNdArray;
+import org.tensorflow.tools.proto.ProtoReader;
+import org.tensorflow.tools.tfrecord.Crc32c;
+
+/**
+ * Reads tensors saved in a TensorFlow checkpoint, without loading the TensorFlow runtime.
+ *
+ * <p>A checkpoint (or tensor bundle) is made of an index file, {@code <prefix>.index}, and of one
+ * or more data shards, {@code <prefix>.data-<shard>-of-<numShards>}. For example, the variables
+ * of a saved model are found under the {@code variables/variables} prefix of the model directory.
+ *
+ * <p>The index is read entirely when the checkpoint is opened. Tensors are then read on demand by
+ * mapping their region of the data shard in memory, so that numeric tensors are returned as
+ * read-only arrays backed directly by the file, without copy. This allows the inspection of large
+ * checkpoints even when they do not fit in memory.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    Path prefix = modelDir.resolve("variables/variables");
+ *    try (CheckpointReader checkpoint = CheckpointReader.open(prefix)) {
+ *      FloatNdArray embeddings = checkpoint.readFloats("embeddings");
+ *      FloatNdArray vector = embeddings.get(wordId);
+ *    }
+ * }</pre>
+ *
+ * <p>Arrays returned by this reader must not be accessed after it has been closed. Instances of
+ * this class are thread-safe.
+ */
+public final class CheckpointReader implements Closeable {
+
+  /**
+   * Opens a checkpoint, verifying the checksum of its index.
+   *
+   * @param prefix path prefix of the checkpoint files
+   * @return a new reader
+   * @throws IOException if the index cannot be read or is corrupted
+   * @see #open(Path, boolean)
+   */
+  public static CheckpointReader open(Path prefix) throws IOException {
+    return open(prefix, true);
+  }
+
+  /**
+   * Opens a checkpoint.
+   *
+   * <p>When checksums are verified, each tensor is also validated against its checksum when it is
+   * read, which requires to scan all of its data once.
+   *
+   * @param prefix path prefix of the checkpoint files
+   * @param verifyChecksums true if the checksums of the index and of the tensors must be verified
+   * @return a new reader
+   * @throws IOException if the index cannot be read or is corrupted
+   */
+  public static CheckpointReader open(Path prefix, boolean verifyChecksums) throws IOException {
+    byte[] index = Files.readAllBytes(Paths.get(prefix + ".index"));
+    CheckpointReader reader = new CheckpointReader(prefix, verifyChecksums);
+    TableReader.forEach(ByteBuffer.wrap(index), verifyChecksums, reader::addEntry);
+    if (reader.dataChannels == null) {
+      throw new IOException("Checkpoint index has no header");
+    }
+    return reader;
+  }
+
+  /**
+   * @return entries of all tensors in the checkpoint, sorted by name
+   */
+  public Collection<CheckpointEntry> entries() {
+    return Collections.unmodifiableCollection(entries.values());
+  }
+
+  /**
+   * @param name name of a tensor
+   * @return true if the checkpoint has a tensor of this name
+   */
+  public boolean contains(String name) {
+    return entries.containsKey(name);
+  }
+
+  /**
+   * Returns the entry of a tensor.
+   *
+   * @param name name of the tensor
+   * @return entry of the tensor
+   * @throws IllegalArgumentException if there is no tensor of this name
+   */
+  public CheckpointEntry entry(String name) {
+    CheckpointEntry entry = entries.get(name);
+    if (entry == null) {
+      throw new IllegalArgumentException("No tensor named \"" + name + "\" in checkpoint");
+    }
+    return entry;
+  }
+
+  /**
+   * Reads a tensor, whatever its type.
+   *
+   * @param name name of the tensor
+   * @return array of tensor values
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name
+   * @throws UnsupportedOperationException if the tensor is partitioned or of an unsupported type
+   */
+  public NdArray<?> read(String name) throws IOException {
+    switch (entry(name).dataType()) {
+      case DT_FLOAT:
+      case DT_HALF:
+      case DT_BFLOAT16:
+        return readFloats(name);
+      case DT_DOUBLE:
+        return readDoubles(name);
+      case DT_INT32:
+        return readInts(name);
+      case DT_INT64:
+        return readLongs(name);
+      case DT_INT16:
+        return readShorts(name);
+      case DT_INT8:
+      case DT_UINT8:
+        return readBytes(name);
+      case DT_BOOL:
+        return readBooleans(name);
+      case DT_STRING:
+        return readStrings(name);
+      default:
+        throw new UnsupportedOperationException("Tensor \"" + name + "\" has unsupported type "
+            + entry(name).dataType());
+    }
+  }
+
+  /**
+   * Reads a tensor of floats, also accepting half-precision and bfloat16 tensors.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public FloatNdArray readFloats(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_FLOAT, DT_HALF, DT_BFLOAT16);
+    ByteBuffer data = map(entry);
+    switch (entry.dataType()) {
+      case DT_HALF:
+        return NdArrays.wrap(
+            DataLayouts.FLOAT16.applyTo(DataBuffers.from(data.asShortBuffer())), entry.shape());
+      case DT_BFLOAT16:
+        return NdArrays.wrap(
+            DataLayouts.BFLOAT16.applyTo(DataBuffers.from(data.asShortBuffer())), entry.shape());
+      default:
+        return NdArrays.wrap(DataBuffers.from(data.asFloatBuffer()), entry.shape());
+    }
+  }
+
+  /**
+   * Reads a tensor of doubles.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public DoubleNdArray readDoubles(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_DOUBLE);
+    return NdArrays.wrap(DataBuffers.from(map(entry).asDoubleBuffer()), entry.shape());
+  }
+
+  /**
+   * Reads a tensor of 32-bit integers.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public IntNdArray readInts(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_INT32);
+    return NdArrays.wrap(DataBuffers.from(map(entry).asIntBuffer()), entry.shape());
+  }
+
+  /**
+   * Reads a tensor of 64-bit integers.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public LongNdArray readLongs(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_INT64);
+    return NdArrays.wrap(DataBuffers.from(map(entry).asLongBuffer()), entry.shape());
+  }
+
+  /**
+   * Reads a tensor of 16-bit integers.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public ShortNdArray readShorts(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_INT16);
+    return NdArrays.wrap(DataBuffers.from(map(entry).asShortBuffer()), entry.shape());
+  }
+
+  /**
+   * Reads a tensor of signed or unsigned 8-bit integers.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public ByteNdArray readBytes(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_INT8, DT_UINT8);
+    return NdArrays.wrap(DataBuffers.from(map(entry)), entry.shape());
+  }
+
+  /**
+   * Reads a tensor of booleans.
+   *
+   * @param name name of the tensor
+   * @return read-only array mapped to the tensor data
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public BooleanNdArray readBooleans(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_BOOL);
+    return NdArrays.wrap(DataLayouts.BOOL.applyTo(DataBuffers.from(map(entry))), entry.shape());
+  }
+
+  /**
+   * Reads a tensor of strings.
+   *
+   * <p>Unlike numeric tensors, the values of string tensors are copied in memory.
+   *
+   * @param name name of the tensor
+   * @return array of the raw bytes of each string
+   * @throws IOException if the tensor cannot be read or is corrupted
+   * @throws IllegalArgumentException if there is no tensor of this name and type
+   * @throws UnsupportedOperationException if the tensor is partitioned
+   */
+  public NdArray<byte[]> readStrings(String name) throws IOException {
+    CheckpointEntry entry = checkType(name, DT_STRING);
+    // The checksum of a string tensor does not cover its raw data but each string length as a
+    // 32-bit integer (or 64-bit if it does not fit), followed by the masked checksum of these
+    // lengths and by the strings
+    ByteBuffer data = map(entry, false);
+    long numElements = entry.shape().size();
+    if (numElements < 0) {
+      throw new IOException("Tensor \"" + name + "\" has an unknown shape");
+    }
+    Crc32c crc = new Crc32c();
+    ByteBuffer lengthBytes = ByteBuffer.allocate(8).order(byteOrder);
+    long[] lengths = new long[(int)numElements];
+    long totalLength = 0;
+    for (int i = 0; i < lengths.length; ++i) {
+      lengths[i] = TableReader.readVarint(data);
+      totalLength += lengths[i];
+      if (lengths[i] <= 0xFFFFFFFFL) {
+        crc.update(lengthBytes.putInt(0, (int)lengths[i]).array(), 0, 4);
+      } else {
+        crc.update(lengthBytes.putLong(0, lengths[i]).array(), 0, 8);
+      }
+    }
+    if (data.remaining() < 4 || totalLength < 0 || totalLength > data.remaining() - 4) {
+      throw new IOException("Tensor \"" + name + "\" is corrupted");
+    }
+    int lengthChecksum = data.getInt(data.position());
+    if (verifyChecksums && Crc32c.unmask(lengthChecksum) != (int)crc.getValue()) {
+      throw new IOException("Checksum mismatch for the lengths of tensor \"" + name + "\"");
+    }
+    ByteBuffer lengthChecksumBytes = data.duplicate();
+    lengthChecksumBytes.limit(data.position() + 4);
+    crc.update(lengthChecksumBytes);
+    data.position(data.position() + 4);
+    DataBuffer<byte[]> values = DataBuffers.ofObjects(byte[].class, lengths.length);
+    for (int i = 0; i < lengths.length; ++i) {
+      byte[] value = new byte[(int)lengths[i]];
+      data.get(value);
+      crc.update(value, 0, value.length);
+      values.setObject(value, i);
+    }
+    if (verifyChecksums && (int)crc.getValue() != Crc32c.unmask(entry.crc32c)) {
+      throw new IOException("Checksum mismatch for tensor \"" + name + "\"");
+    }
+    return NdArrays.wrap(values, entry.shape());
+  }
+
+  /**
+   * Closes the data shards of the checkpoint.
+   *
+   * @throws IOException if a shard failed to close
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    IOException failure = null;
+    for (int i = 0; i < dataChannels.length; ++i) {
+      if (dataChannels[i] != null) {
+        try {
+          dataChannels[i].close();
+        } catch (IOException e) {
+          failure = e;
+        }
+        dataChannels[i] = null;
+      }
+    }
+    closed = true;
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  // Values of the DataType proto enumeration
+  private static final int DT_FLOAT = 1;
+  private static final int DT_DOUBLE = 2;
+  private static final int DT_INT32 = 3;
+  private static final int DT_UINT8 = 4;
+  private static final int DT_INT16 = 5;
+  private static final int DT_INT8 = 6;
+  private static final int DT_STRING = 7;
+  private static final int DT_INT64 = 9;
+  private static final int DT_BOOL = 10;
+  private static final int DT_BFLOAT16 = 14;
+  private static final int DT_HALF = 19;
+
+  private final Path prefix;
+  private final boolean verifyChecksums;
+  private final Map<String, CheckpointEntry> entries = new LinkedHashMap<>();
+  private ByteOrder byteOrder = ByteOrder.LITTLE_ENDIAN;
+  private FileChannel[] dataChannels;
+  private boolean closed = false;
+
+  private CheckpointReader(Path prefix, boolean verifyChecksums) {
+    this.prefix = prefix;
+    this.verifyChecksums = verifyChecksums;
+  }
+
+  private void addEntry(byte[] key, ByteBuffer value) throws IOException {
+    try {
+      if (key.length == 0) {
+        parseHeader(ProtoReader.of(value));
+      } else {
+        String name = new String(key, StandardCharsets.UTF_8);
+        entries.put(name, parseEntry(name, ProtoReader.of(value)));
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Checkpoint index is corrupted", e);
+    }
+  }
+
+  private void parseHeader(ProtoReader header) throws IOException {
+    // BundleHeaderProto
+    int numShards = 0;
+    while (header.next()) {
+      switch (header.fieldNumber()) {
+        case 1:  // num_shards
+          numShards = header.readInt32();
+          break;
+        case 2:  // endianness
+          byteOrder = header.readInt32() == 1 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+          break;
+        default:
+          header.skip();
+      }
+    }
+    if (numShards < 0) {
+      throw new IOException("Invalid number of shards: " + numShards);
+    }
+    dataChannels = new FileChannel[numShards];
+  }
+
+  private static CheckpointEntry parseEntry(String name, ProtoReader entry) {
+    // BundleEntryProto
+    int dataType = 0;
+    Shape shape = Shape.scalar();
+    int shardId = 0;
+    long offset = 0;
+    long size = 0;
+    int crc32c = 0;
+    boolean partitioned = false;
+    while (entry.next()) {
+      switch (entry.fieldNumber()) {
+        case 1:  // dtype
+          dataType = entry.readInt32();
+          break;
+        case 2:  // shape
+          shape = parseShape(entry.readMessage());
+          break;
+        case 3:  // shard_id
+          shardId = entry.readInt32();
+          break;
+        case 4:  // offset
+          offset = entry.readInt64();
+          break;
+        case 5:  // size
+          size = entry.readInt64();
+          break;
+        case 6:  // crc32c
+          crc32c = entry.readFixed32();
+          break;
+        case 7:  // slices
+          partitioned = true;
+          entry.skip();
+          break;
+        default:
+          entry.skip();
+      }
+    }
+    return new CheckpointEntry(name, dataType, shape, shardId, offset, size, crc32c, partitioned);
+  }
+
+  private static Shape parseShape(ProtoReader shape) {
+    // TensorShapeProto
+    List<Long> dimensions = new ArrayList<>();
+    while (shape.next()) {
+      if (shape.fieldNumber() == 2) {  // dim
+        ProtoReader dimension = shape.readMessage();
+        long size = 0;
+        while (dimension.next()) {
+          if (dimension.fieldNumber() == 1) {  // size
+            size = dimension.readInt64();
+          }
+        }
+        dimensions.add(size);
+      } else if (shape.fieldNumber() == 3 && shape.readBool()) {  // unknown_rank
+        return Shape.unknown();
+      }
+    }
+    long[] dimensionSizes = new long[dimensions.size()];
+    for (int i = 0; i < dimensionSizes.length; ++i) {
+      dimensionSizes[i] = dimensions.get(i);
+    }
+    return Shape.make(dimensionSizes);
+  }
+
+  private CheckpointEntry checkType(String name, int... dataTypes) {
+    CheckpointEntry entry = entry(name);
+    for (int dataType : dataTypes) {
+      if (entry.dataType() == dataType) {
+        if (entry.isPartitioned()) {
+          throw new UnsupportedOperationException("Tensor \"" + name + "\" is partitioned");
+        }
+        return entry;
+      }
+    }
+    throw new IllegalArgumentException("Tensor \"" + name + "\" has type " + entry.dataType());
+  }
+
+  private ByteBuffer map(CheckpointEntry entry) throws IOException {
+    return map(entry, verifyChecksums);
+  }
+
+  private ByteBuffer map(CheckpointEntry entry, boolean verifyChecksum) throws IOException {
+    if (entry.size() > Integer.MAX_VALUE) {
+      throw new IOException("Tensor \"" + entry.name() + "\" is too large to be mapped");
+    }
+    ByteBuffer data = dataChannel(entry.shardId())
+        .map(FileChannel.MapMode.READ_ONLY, entry.offset(), entry.size());
+    if (verifyChecksum && Crc32c.mask(Crc32c.compute(data)) != entry.crc32c) {
+      throw new IOException("Checksum mismatch for tensor \"" + entry.name() + "\"");
+    }
+    return data.order(byteOrder);
+  }
+
+  private synchronized FileChannel dataChannel(int shardId) throws IOException {
+    if (closed) {
+      throw new IllegalStateException("Checkpoint reader has been closed");
+    }
+    if (shardId < 0 || shardId >= dataChannels.length) {
+      throw new IOException("Invalid data shard " + shardId);
+    }
+    if (dataChannels[shardId] == null) {
+      Path shard = Paths.get(String.format("%s.data-%05d-of-%05d", prefix, shardId,
+          dataChannels.length));
+      dataChannels[shardId] = FileChannel.open(shard, StandardOpenOption.READ);
+    }
+    return dataChannels[shardId];
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.checkpoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.tensorflow.tools.tfrecord.Crc32c;
+
+/**
+ * Reads the entries of an immutable sorted table, as written by TensorFlow (and LevelDB) table
+ * builders.
+ *
+ * <p>A table ends with a fixed-size footer pointing to an index block, whose entries point to the
+ * data blocks holding the actual key-value pairs. Each block ends with a trailer made of its
+ * compression type and a masked CRC32C checksum. Only uncompressed tables, like the ones used to
+ * index tensor bundles, are supported.
+ */
+final class TableReader {
+
+  /** Visits the entries of a table. */
+  interface EntryVisitor {
+
+    /**
+     * Visits an entry.
+     *
+     * @param key key of the entry
+     * @param value value of the entry, only valid for the duration of this call
+     * @throws IOException if the entry cannot be processed
+     */
+    void visit(byte[] key, ByteBuffer value) throws IOException;
+  }
+
+  /**
+   * Visits all entries of a table, in the order of their keys.
+   *
+   * @param table content of the table file, from its current position to its limit
+   * @param verifyChecksums true if the checksum of each block must be verified
+   * @param visitor visitor of the entries
+   * @throws IOException if the table is corrupted or compressed
+   */
+  static void forEach(ByteBuffer table, boolean verifyChecksums, EntryVisitor visitor)
+      throws IOException {
+    ByteBuffer file = table.slice().order(ByteOrder.LITTLE_ENDIAN);
+    if (file.remaining() < FOOTER_SIZE
+        || file.getLong(file.limit() - 8) != MAGIC_NUMBER) {
+      throw new IOException("Not a valid table file");
+    }
+    ByteBuffer footer = file.duplicate();
+    footer.position(file.limit() - FOOTER_SIZE);
+    readVarint(footer);  // metaindex block offset
+    readVarint(footer);  // metaindex block size
+    long indexOffset = readVarint(footer);
+    long indexSize = readVarint(footer);
+
+    ByteBuffer index = block(file, indexOffset, indexSize, verifyChecksums);
+    forEachInBlock(index, (key, value) -> {
+      long offset = readVarint(value);
+      long size = readVarint(value);
+      forEachInBlock(block(file, offset, size, verifyChecksums), visitor);
+    });
+  }
+
+  /**
+   * Reads a variable-length integer at the current position of a buffer.
+   *
+   * @param buffer buffer to read from
+   * @return integer value
+   * @throws IOException if the varint is malformed
+   */
+  static long readVarint(ByteBuffer buffer) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (!buffer.hasRemaining()) {
+        throw malformed();
+      }
+      byte b = buffer.get();
+      value |= (long)(b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw malformed();
+  }
+
+  private static final int FOOTER_SIZE = 48;
+  private static final int TRAILER_SIZE = 5;
+  private static final long MAGIC_NUMBER = 0xdb4775248b80fb57L;
+  private static final byte NO_COMPRESSION = 0;
+
+  private static ByteBuffer block(ByteBuffer table, long offset, long size,
+      boolean verifyChecksums) throws IOException {
+    if (offset < 0 || size < 0 || offset + size + TRAILER_SIZE > table.limit()) {
+      throw new IOException("Block at offset " + offset + " exceeds the size of the table");
+    }
+    int trailerPosition = (int)(offset + size);
+    if (table.get(trailerPosition) != NO_COMPRESSION) {
+      throw new IOException("Compressed tables are not supported");
+    }
+    ByteBuffer block = table.duplicate();
+    block.position((int)offset).limit(trailerPosition + 1);
+    if (verifyChecksums) {
+      int crc = Crc32c.compute(block);
+      if (Crc32c.mask(crc) != table.getInt(trailerPosition + 1)) {
+        throw new IOException("Checksum mismatch for block at offset " + offset);
+      }
+    }
+    block.limit(trailerPosition);
+    return block.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static void forEachInBlock(ByteBuffer block, EntryVisitor visitor) throws IOException {
+    // Entries are followed by the offsets of the restart points, then by the number of them
+    if (block.limit() < 4) {
+      throw malformed();
+    }
+    int numRestarts = block.getInt(block.limit() - 4);
+    long entriesEnd = block.limit() - 4 * (numRestarts + 1L);
+    if (numRestarts < 0 || entriesEnd < 0) {
+      throw malformed();
+    }
+    ByteBuffer entries = block.duplicate();
+    entries.position(0).limit((int)entriesEnd);
+    byte[] key = new byte[0];
+    while (entries.hasRemaining()) {
+      // Keys share a prefix with the key of the previous entry
+      long shared = readVarint(entries);
+      long nonShared = readVarint(entries);
+      long valueLength = readVarint(entries);
+      if (shared > key.length || nonShared + valueLength > entries.remaining()) {
+        throw malformed();
+      }
+      byte[] nextKey = new byte[(int)(shared + nonShared)];
+      System.arraycopy(key, 0, nextKey, 0, (int)shared);
+      entries.get(nextKey, (int)shared, (int)nonShared);
+      key = nextKey;
+      ByteBuffer value = entries.slice();
+      value.limit((int)valueLength);
+      visitor.visit(key, value.order(ByteOrder.LITTLE_ENDIAN));
+      entries.position(entries.position() + (int)valueLength);
+    }
+  }
+
+  private static IOException malformed() {
+    return new IOException("Malformed table block");
+  }
+}
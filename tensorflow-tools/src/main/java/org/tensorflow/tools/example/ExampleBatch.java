@@ -0,0 +1,154 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.example;
+
+import java.util.Map;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.FloatDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+
+/**
+ * Columnar buffers holding the features decoded from a batch of examples.
+ *
+ * <p>Each feature is stored in its own buffer, in row-major order. The values of a feature of
+ * length {@code n} for the example at index {@code i} are found at indices {@code [i * n, (i + 1)
+ * * n)}. Sequence features are padded to the maximum number of steps supported by the decoder,
+ * each example occupying {@code maxSteps * n} values, and the actual number of steps of each
+ * example is returned by {@link #sequenceLengths(String)}.
+ *
+ * <p>Batches are allocated by {@link ExampleDecoder#newBatch(int)} and can be reused to decode
+ * multiple batches of examples, since decoding an example overwrites all its values.
+ */
+public final class ExampleBatch {
+
+  /**
+   * @return number of examples in the batch
+   */
+  public int batchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the values of a feature of type {@link FeatureSpec.Type#FLOAT}.
+   *
+   * @param name name of the feature
+   * @return buffer of the feature values
+   * @throws IllegalArgumentException if there is no feature of this name and type
+   */
+  public FloatDataBuffer floats(String name) {
+    return (FloatDataBuffer)buffer(name, FeatureSpec.Type.FLOAT);
+  }
+
+  /**
+   * Returns the values of a feature of type {@link FeatureSpec.Type#INT64}.
+   *
+   * @param name name of the feature
+   * @return buffer of the feature values
+   * @throws IllegalArgumentException if there is no feature of this name and type
+   */
+  public LongDataBuffer longs(String name) {
+    return (LongDataBuffer)buffer(name, FeatureSpec.Type.INT64);
+  }
+
+  /**
+   * Returns the values of a feature of type {@link FeatureSpec.Type#BYTES}.
+   *
+   * @param name name of the feature
+   * @return buffer of the feature values
+   * @throws IllegalArgumentException if there is no feature of this name and type
+   */
+  @SuppressWarnings("unchecked")
+  public DataBuffer<byte[]> bytes(String name) {
+    return (DataBuffer<byte[]>)buffer(name, FeatureSpec.Type.BYTES);
+  }
+
+  /**
+   * Returns the number of steps found for a sequence feature in each example of the batch.
+   *
+   * @param name name of the sequence feature
+   * @return buffer of {@link #batchSize()} step counts
+   * @throws IllegalArgumentException if there is no sequence feature of this name
+   */
+  public LongDataBuffer sequenceLengths(String name) {
+    Integer index = decoder.sequenceIndices.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException("No sequence feature named \"" + name + "\"");
+    }
+    return sequenceLengths[index];
+  }
+
+  /**
+   * Returns the shape of the values of a feature for the whole batch.
+   *
+   * <p>This is {@code [batchSize, length]} for context features and {@code [batchSize, maxSteps,
+   * length]} for sequence features.
+   *
+   * @param name name of the feature
+   * @return shape of the feature values
+   * @throws IllegalArgumentException if there is no feature of this name
+   */
+  public Shape shape(String name) {
+    Integer index = decoder.contextIndices.get(name);
+    if (index != null) {
+      return Shape.make(batchSize, decoder.contextFeatures[index].length());
+    }
+    index = decoder.sequenceIndices.get(name);
+    if (index != null) {
+      return Shape.make(batchSize, decoder.maxSteps, decoder.sequenceFeatures[index].length());
+    }
+    throw new IllegalArgumentException("No feature named \"" + name + "\"");
+  }
+
+  final ExampleDecoder decoder;
+  final DataBuffer<?>[] contextBuffers;
+  final DataBuffer<?>[] sequenceBuffers;
+  final LongDataBuffer[] sequenceLengths;
+
+  ExampleBatch(ExampleDecoder decoder, int batchSize, DataBuffer<?>[] contextBuffers,
+      DataBuffer<?>[] sequenceBuffers, LongDataBuffer[] sequenceLengths) {
+    this.decoder = decoder;
+    this.batchSize = batchSize;
+    this.contextBuffers = contextBuffers;
+    this.sequenceBuffers = sequenceBuffers;
+    this.sequenceLengths = sequenceLengths;
+  }
+
+  private final int batchSize;
+
+  private DataBuffer<?> buffer(String name, FeatureSpec.Type type) {
+    DataBuffer<?> buffer = find(name, type, decoder.contextIndices, decoder.contextFeatures,
+        contextBuffers);
+    if (buffer == null) {
+      buffer = find(name, type, decoder.sequenceIndices, decoder.sequenceFeatures,
+          sequenceBuffers);
+    }
+    if (buffer == null) {
+      throw new IllegalArgumentException("No feature named \"" + name + "\" of type " + type);
+    }
+    return buffer;
+  }
+
+  private static DataBuffer<?> find(String name, FeatureSpec.Type type,
+      Map<String, Integer> indices, FeatureSpec[] features, DataBuffer<?>[] buffers) {
+    Integer index = indices.get(name);
+    if (index == null || features[index].type() != type) {
+      return null;
+    }
+    return buffers[index];
+  }
+}
@@ -0,0 +1,408 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.example;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.FloatDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.proto.ProtoReader;
+import org.tensorflow.tools.proto.WireType;
+
+/**
+ * Decodes serialized {@code tf.Example} and {@code tf.SequenceExample} messages into columnar
+ * buffers.
+ *
+ * <p>Messages are read directly from their wire format, without going through generated protocol
+ * buffer classes nor running a {@code ParseExample} operation in a graph. The values of each
+ * feature listed in the spec are written straight into the buffers of an {@link ExampleBatch},
+ * which can be reused from one batch to the other. Features that are not part of the spec are
+ * skipped without being decoded.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    ExampleDecoder decoder = ExampleDecoder.of(Arrays.asList(
+ *        FeatureSpec.floats("image", 784),
+ *        FeatureSpec.longs("label", 1, -1L)
+ *    ));
+ *    ExampleBatch batch = decoder.newBatch(batchSize);
+ *    for (int i = 0; i < batchSize; ++i) {
+ *      decoder.decode(records.next(), batch, i);
+ *    }
+ *    FloatDataBuffer images = batch.floats("image");
+ * }</pre>
+ *
+ * <p>Instances of this class are immutable and can be shared between threads, as long as each
+ * thread decodes different examples of a batch.
+ */
+public final class ExampleDecoder {
+
+  /**
+   * Creates a decoder of {@code tf.Example} messages.
+   *
+   * @param features features to decode
+   * @return a new decoder
+   * @throws IllegalArgumentException if multiple features have the same name
+   */
+  public static ExampleDecoder of(List<FeatureSpec> features) {
+    return new ExampleDecoder(features, Collections.emptyList(), 0, false);
+  }
+
+  /**
+   * Creates a decoder of {@code tf.SequenceExample} messages.
+   *
+   * <p>Sequences shorter than {@code maxSteps} are padded with the default value of their feature,
+   * or with zeros (or empty byte strings) if they have none. Missing sequence features are
+   * treated as sequences of zero steps.
+   *
+   * @param contextFeatures features to decode from the context of the examples
+   * @param sequenceFeatures features to decode from the feature lists of the examples
+   * @param maxSteps maximum number of steps of a sequence
+   * @return a new decoder
+   * @throws IllegalArgumentException if multiple features have the same name
+   */
+  public static ExampleDecoder ofSequence(List<FeatureSpec> contextFeatures,
+      List<FeatureSpec> sequenceFeatures, int maxSteps) {
+    if (maxSteps < 0) {
+      throw new IllegalArgumentException("Maximum number of steps cannot be negative");
+    }
+    return new ExampleDecoder(contextFeatures, sequenceFeatures, maxSteps, true);
+  }
+
+  /**
+   * Allocates buffers large enough to hold the features of a batch of examples.
+   *
+   * @param batchSize number of examples in the batch
+   * @return a new batch
+   */
+  public ExampleBatch newBatch(int batchSize) {
+    if (batchSize < 0) {
+      throw new IllegalArgumentException("Batch size cannot be negative");
+    }
+    DataBuffer<?>[] contextBuffers = new DataBuffer<?>[contextFeatures.length];
+    for (int i = 0; i < contextFeatures.length; ++i) {
+      FeatureSpec feature = contextFeatures[i];
+      contextBuffers[i] = allocate(feature, (long)batchSize * feature.length());
+    }
+    DataBuffer<?>[] sequenceBuffers = new DataBuffer<?>[sequenceFeatures.length];
+    LongDataBuffer[] sequenceLengths = new LongDataBuffer[sequenceFeatures.length];
+    for (int i = 0; i < sequenceFeatures.length; ++i) {
+      sequenceBuffers[i] = allocate(sequenceFeatures[i],
+          (long)batchSize * maxSteps * sequenceFeatures[i].length());
+      sequenceLengths[i] = DataBuffers.ofLongs(batchSize);
+    }
+    return new ExampleBatch(this, batchSize, contextBuffers, sequenceBuffers, sequenceLengths);
+  }
+
+  /**
+   * Decodes a batch of examples into newly allocated buffers.
+   *
+   * @param examples serialized examples
+   * @return decoded batch
+   * @throws IllegalArgumentException if an example is malformed or does not match the spec
+   */
+  public ExampleBatch decode(List<ByteBuffer> examples) {
+    ExampleBatch batch = newBatch(examples.size());
+    for (int i = 0; i < examples.size(); ++i) {
+      decode(examples.get(i), batch, i);
+    }
+    return batch;
+  }
+
+  /**
+   * Decodes an example into a batch.
+   *
+   * <p>The example is read from the current position of the buffer up to its limit. The position
+   * of the buffer itself is left untouched.
+   *
+   * @param example serialized example
+   * @param batch batch to decode the example into, allocated by this decoder
+   * @param index index of the example in the batch
+   * @throws IllegalArgumentException if the example is malformed or does not match the spec
+   */
+  public void decode(ByteBuffer example, ExampleBatch batch, int index) {
+    if (batch.decoder != this) {
+      throw new IllegalArgumentException("Batch has not been allocated by this decoder");
+    }
+    if (index < 0 || index >= batch.batchSize()) {
+      throw new IndexOutOfBoundsException("Index " + index + " is out of batch of size "
+          + batch.batchSize());
+    }
+    boolean[] found = new boolean[contextFeatures.length];
+    int[] numSteps = new int[sequenceFeatures.length];
+    ProtoReader reader = ProtoReader.of(example);
+    while (reader.next()) {
+      if (reader.fieldNumber() == 1) {
+        // Example.features or SequenceExample.context
+        decodeFeatures(reader.readMessage(), batch, index, found);
+      } else if (sequence && reader.fieldNumber() == 2) {
+        // SequenceExample.feature_lists
+        decodeFeatureLists(reader.readMessage(), batch, index, numSteps);
+      }
+    }
+    for (int i = 0; i < contextFeatures.length; ++i) {
+      if (!found[i]) {
+        FeatureSpec feature = contextFeatures[i];
+        if (feature.isRequired()) {
+          throw new IllegalArgumentException("Required feature \"" + feature.name()
+              + "\" is missing");
+        }
+        long offset = (long)index * feature.length();
+        fill(batch.contextBuffers[i], feature, offset, offset + feature.length(),
+            feature.defaultValue);
+      }
+    }
+    for (int i = 0; i < sequenceFeatures.length; ++i) {
+      FeatureSpec feature = sequenceFeatures[i];
+      long offset = (long)index * maxSteps * feature.length();
+      fill(batch.sequenceBuffers[i], feature, offset + (long)numSteps[i] * feature.length(),
+          offset + (long)maxSteps * feature.length(), padding(feature));
+      batch.sequenceLengths[i].setLong(numSteps[i], index);
+    }
+  }
+
+  final FeatureSpec[] contextFeatures;
+  final FeatureSpec[] sequenceFeatures;
+  final Map<String, Integer> contextIndices = new HashMap<>();
+  final Map<String, Integer> sequenceIndices = new HashMap<>();
+  final int maxSteps;
+
+  private static final byte[] EMPTY_BYTES = new byte[0];
+
+  private final boolean sequence;
+  private final Map<ByteBuffer, Integer> contextKeys = new HashMap<>();
+  private final Map<ByteBuffer, Integer> sequenceKeys = new HashMap<>();
+
+  private ExampleDecoder(List<FeatureSpec> contextFeatures, List<FeatureSpec> sequenceFeatures,
+      int maxSteps, boolean sequence) {
+    this.contextFeatures = contextFeatures.toArray(new FeatureSpec[0]);
+    this.sequenceFeatures = sequenceFeatures.toArray(new FeatureSpec[0]);
+    this.maxSteps = maxSteps;
+    this.sequence = sequence;
+    index(this.contextFeatures, contextIndices, contextKeys);
+    index(this.sequenceFeatures, sequenceIndices, sequenceKeys);
+  }
+
+  private void index(FeatureSpec[] features, Map<String, Integer> indices,
+      Map<ByteBuffer, Integer> keys) {
+    for (int i = 0; i < features.length; ++i) {
+      String name = features[i].name();
+      if (contextIndices.containsKey(name) || sequenceIndices.containsKey(name)) {
+        throw new IllegalArgumentException("Feature \"" + name + "\" is specified more than once");
+      }
+      indices.put(name, i);
+      keys.put(ByteBuffer.wrap(features[i].nameBytes), i);
+    }
+  }
+
+  private void decodeFeatures(ProtoReader features, ExampleBatch batch, int index,
+      boolean[] found) {
+    // Features: map<string, Feature> feature = 1
+    while (features.next()) {
+      if (features.fieldNumber() != 1) {
+        continue;
+      }
+      ProtoReader entry = features.readMessage();
+      Integer featureIndex = null;
+      ProtoReader value = null;
+      while (entry.next()) {
+        if (entry.fieldNumber() == 1) {
+          featureIndex = contextKeys.get(entry.readByteBuffer());
+        } else if (entry.fieldNumber() == 2) {
+          value = entry.readMessage();
+        }
+      }
+      if (featureIndex != null) {
+        FeatureSpec feature = contextFeatures[featureIndex];
+        int numValues = decodeValues(value, feature, batch.contextBuffers[featureIndex],
+            (long)index * feature.length());
+        if (numValues != feature.length()) {
+          throw new IllegalArgumentException("Feature \"" + feature.name() + "\" has "
+              + numValues + " values, expected " + feature.length());
+        }
+        found[featureIndex] = true;
+      }
+    }
+  }
+
+  private void decodeFeatureLists(ProtoReader featureLists, ExampleBatch batch, int index,
+      int[] numSteps) {
+    // FeatureLists: map<string, FeatureList> feature_list = 1
+    while (featureLists.next()) {
+      if (featureLists.fieldNumber() != 1) {
+        continue;
+      }
+      ProtoReader entry = featureLists.readMessage();
+      Integer featureIndex = null;
+      ProtoReader value = null;
+      while (entry.next()) {
+        if (entry.fieldNumber() == 1) {
+          featureIndex = sequenceKeys.get(entry.readByteBuffer());
+        } else if (entry.fieldNumber() == 2) {
+          value = entry.readMessage();
+        }
+      }
+      if (featureIndex == null) {
+        continue;
+      }
+      FeatureSpec feature = sequenceFeatures[featureIndex];
+      long offset = (long)index * maxSteps * feature.length();
+      int step = 0;
+      // FeatureList: repeated Feature feature = 1
+      while (value != null && value.next()) {
+        if (value.fieldNumber() != 1) {
+          continue;
+        }
+        if (step == maxSteps) {
+          throw new IllegalArgumentException("Sequence feature \"" + feature.name()
+              + "\" has more than " + maxSteps + " steps");
+        }
+        int numValues = decodeValues(value.readMessage(), feature,
+            batch.sequenceBuffers[featureIndex], offset + (long)step * feature.length());
+        if (numValues != feature.length()) {
+          throw new IllegalArgumentException("Step " + step + " of sequence feature \""
+              + feature.name() + "\" has " + numValues + " values, expected " + feature.length());
+        }
+        ++step;
+      }
+      numSteps[featureIndex] = step;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static int decodeValues(ProtoReader value, FeatureSpec feature, DataBuffer<?> buffer,
+      long offset) {
+    // Feature: oneof kind { bytes_list = 1; float_list = 2; int64_list = 3 }
+    int numValues = 0;
+    while (value != null && value.next()) {
+      if (value.fieldNumber() > 3) {
+        continue;
+      }
+      if (value.fieldNumber() != feature.type().fieldNumber) {
+        throw new IllegalArgumentException("Feature \"" + feature.name()
+            + "\" does not have values of type " + feature.type());
+      }
+      // BytesList, FloatList, Int64List: repeated values = 1, packed for numeric types
+      ProtoReader list = value.readMessage();
+      while (list.next()) {
+        if (list.fieldNumber() != 1) {
+          continue;
+        }
+        switch (feature.type()) {
+          case FLOAT:
+            FloatDataBuffer floats = (FloatDataBuffer)buffer;
+            if (list.wireType() == WireType.LENGTH_DELIMITED) {
+              ProtoReader packed = list.readMessage();
+              while (packed.hasRemaining()) {
+                checkNumValues(feature, numValues);
+                float floatValue = Float.intBitsToFloat(packed.readRawFixed32());
+                floats.setFloat(floatValue, offset + numValues++);
+              }
+            } else {
+              checkNumValues(feature, numValues);
+              floats.setFloat(list.readFloat(), offset + numValues++);
+            }
+            break;
+
+          case INT64:
+            LongDataBuffer longs = (LongDataBuffer)buffer;
+            if (list.wireType() == WireType.LENGTH_DELIMITED) {
+              ProtoReader packed = list.readMessage();
+              while (packed.hasRemaining()) {
+                checkNumValues(feature, numValues);
+                longs.setLong(packed.readRawVarint(), offset + numValues++);
+              }
+            } else {
+              checkNumValues(feature, numValues);
+              longs.setLong(list.readInt64(), offset + numValues++);
+            }
+            break;
+
+          default:
+            checkNumValues(feature, numValues);
+            ((DataBuffer<byte[]>)buffer).setObject(list.readBytes(), offset + numValues++);
+        }
+      }
+    }
+    return numValues;
+  }
+
+  private static void checkNumValues(FeatureSpec feature, int numValues) {
+    if (numValues == feature.length()) {
+      throw new IllegalArgumentException("Feature \"" + feature.name()
+          + "\" has more than " + feature.length() + " values");
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void fill(DataBuffer<?> buffer, FeatureSpec feature, long from, long to,
+      Object value) {
+    switch (feature.type()) {
+      case FLOAT:
+        FloatDataBuffer floats = (FloatDataBuffer)buffer;
+        float floatValue = (Float)value;
+        for (long i = from; i < to; ++i) {
+          floats.setFloat(floatValue, i);
+        }
+        break;
+
+      case INT64:
+        LongDataBuffer longs = (LongDataBuffer)buffer;
+        long longValue = (Long)value;
+        for (long i = from; i < to; ++i) {
+          longs.setLong(longValue, i);
+        }
+        break;
+
+      default:
+        DataBuffer<byte[]> bytes = (DataBuffer<byte[]>)buffer;
+        for (long i = from; i < to; ++i) {
+          bytes.setObject((byte[])value, i);
+        }
+    }
+  }
+
+  private static Object padding(FeatureSpec feature) {
+    if (!feature.isRequired()) {
+      return feature.defaultValue;
+    }
+    switch (feature.type()) {
+      case FLOAT:
+        return 0.0f;
+      case INT64:
+        return 0L;
+      default:
+        return EMPTY_BYTES;
+    }
+  }
+
+  private static DataBuffer<?> allocate(FeatureSpec feature, long size) {
+    switch (feature.type()) {
+      case FLOAT:
+        return DataBuffers.ofFloats(size);
+      case INT64:
+        return DataBuffers.ofLongs(size);
+      default:
+        return DataBuffers.ofObjects(byte[].class, size);
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.example;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Describes a feature to decode from serialized {@code tf.Example} or {@code tf.SequenceExample}
+ * messages.
+ *
+ * <p>Each feature has a fixed number of values per example, or per step for the features of a
+ * sequence. If a default value is provided, it is used to fill the feature when it is missing from
+ * an example. Otherwise, the feature is required. For sequence features, the default value is
+ * instead used to pad the sequences shorter than the maximum number of steps.
+ */
+public final class FeatureSpec {
+
+  /** Type of the values of a feature. */
+  public enum Type {
+
+    /** Values are read from a {@code bytes_list} */
+    BYTES(1),
+
+    /** Values are read from a {@code float_list} */
+    FLOAT(2),
+
+    /** Values are read from an {@code int64_list} */
+    INT64(3);
+
+    /** Number of the field in the {@code Feature} message holding the values of this type */
+    final int fieldNumber;
+
+    Type(int fieldNumber) {
+      this.fieldNumber = fieldNumber;
+    }
+  }
+
+  /**
+   * Creates a required feature of float values.
+   *
+   * @param name name of the feature
+   * @param length number of values of the feature
+   * @return feature spec
+   */
+  public static FeatureSpec floats(String name, int length) {
+    return new FeatureSpec(name, Type.FLOAT, length, null);
+  }
+
+  /**
+   * Creates an optional feature of float values.
+   *
+   * @param name name of the feature
+   * @param length number of values of the feature
+   * @param defaultValue value of each element of the feature when it is missing
+   * @return feature spec
+   */
+  public static FeatureSpec floats(String name, int length, float defaultValue) {
+    return new FeatureSpec(name, Type.FLOAT, length, defaultValue);
+  }
+
+  /**
+   * Creates a required feature of 64-bit integer values.
+   *
+   * @param name name of the feature
+   * @param length number of values of the feature
+   * @return feature spec
+   */
+  public static FeatureSpec longs(String name, int length) {
+    return new FeatureSpec(name, Type.INT64, length, null);
+  }
+
+  /**
+   * Creates an optional feature of 64-bit integer values.
+   *
+   * @param name name of the feature
+   * @param length number of values of the feature
+   * @param defaultValue value of each element of the feature when it is missing
+   * @return feature spec
+   */
+  public static FeatureSpec longs(String name, int length, long defaultValue) {
+    return new FeatureSpec(name, Type.INT64, length, defaultValue);
+  }
+
+  /**
+   * Creates a required feature of byte string values.
+   *
+   * @param name name of the feature
+   * @param length number of values of the feature
+   * @return feature spec
+   */
+  public static FeatureSpec bytes(String name, int length) {
+    return new FeatureSpec(name, Type.BYTES, length, null);
+  }
+
+  /**
+   * Creates an optional feature of byte string values.
+   *
+   * @param name name of the feature
+   * @param length number of values of the feature
+   * @param defaultValue value of each element of the feature when it is missing
+   * @return feature spec
+   */
+  public static FeatureSpec bytes(String name, int length, byte[] defaultValue) {
+    if (defaultValue == null) {
+      throw new IllegalArgumentException("Default value of feature \"" + name
+          + "\" cannot be null");
+    }
+    return new FeatureSpec(name, Type.BYTES, length, defaultValue.clone());
+  }
+
+  /**
+   * @return name of the feature
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return type of the values of the feature
+   */
+  public Type type() {
+    return type;
+  }
+
+  /**
+   * @return number of values of the feature, per example or per step
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * @return true if the feature must be present in all examples
+   */
+  public boolean isRequired() {
+    return defaultValue == null;
+  }
+
+  @Override
+  public String toString() {
+    return name + ":" + type + "[" + length + "]";
+  }
+
+  final byte[] nameBytes;
+  final Object defaultValue;
+
+  private final String name;
+  private final Type type;
+  private final int length;
+
+  private FeatureSpec(String name, Type type, int length, Object defaultValue) {
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("Feature name cannot be empty");
+    }
+    if (length < 0) {
+      throw new IllegalArgumentException("Length of feature \"" + name + "\" cannot be negative");
+    }
+    this.name = name;
+    this.type = type;
+    this.length = length;
+    this.defaultValue = defaultValue;
+    nameBytes = name.getBytes(StandardCharsets.UTF_8);
+  }
+}
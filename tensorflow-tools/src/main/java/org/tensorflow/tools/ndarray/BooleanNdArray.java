@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.BooleanDataBuffer;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface BooleanNdArray extends NdArray<Boolean> {
   @Override
   BooleanNdArray slice(Index... indices);
 
+  @Override
+  BooleanNdArray permute(int... axes);
+
+  @Override
+  BooleanNdArray transpose();
+
+  @Override
+  BooleanNdArray reshape(Shape shape);
+
+  @Override
+  BooleanNdArray broadcastTo(Shape shape);
+
   @Override
   BooleanNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface BooleanNdArray extends NdArray<Boolean> {
   @Override
   BooleanNdArray copyTo(NdArray<Boolean> dst);
 
+  @Override
+  BooleanNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Boolean> dst);
+
+  @Override
+  BooleanNdArray scatter(NdArray<Boolean> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   BooleanNdArray read(DataBuffer<Boolean> dst);
 
@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.ByteDataBuffer;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface ByteNdArray extends NdArray<Byte> {
   @Override
   ByteNdArray slice(Index... indices);
 
+  @Override
+  ByteNdArray permute(int... axes);
+
+  @Override
+  ByteNdArray transpose();
+
+  @Override
+  ByteNdArray reshape(Shape shape);
+
+  @Override
+  ByteNdArray broadcastTo(Shape shape);
+
   @Override
   ByteNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface ByteNdArray extends NdArray<Byte> {
   @Override
   ByteNdArray copyTo(NdArray<Byte> dst);
 
+  @Override
+  ByteNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Byte> dst);
+
+  @Override
+  ByteNdArray scatter(NdArray<Byte> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   ByteNdArray read(DataBuffer<Byte> dst);
 
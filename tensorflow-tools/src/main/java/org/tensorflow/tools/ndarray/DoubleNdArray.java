@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.buffer.DoubleDataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface DoubleNdArray extends NdArray<Double> {
   @Override
   DoubleNdArray slice(Index... indices);
 
+  @Override
+  DoubleNdArray permute(int... axes);
+
+  @Override
+  DoubleNdArray transpose();
+
+  @Override
+  DoubleNdArray reshape(Shape shape);
+
+  @Override
+  DoubleNdArray broadcastTo(Shape shape);
+
   @Override
   DoubleNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface DoubleNdArray extends NdArray<Double> {
   @Override
   DoubleNdArray copyTo(NdArray<Double> dst);
 
+  @Override
+  DoubleNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Double> dst);
+
+  @Override
+  DoubleNdArray scatter(NdArray<Double> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   DoubleNdArray read(DataBuffer<Double> dst);
 
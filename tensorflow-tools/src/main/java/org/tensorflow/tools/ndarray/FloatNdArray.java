@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.buffer.FloatDataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface FloatNdArray extends NdArray<Float> {
   @Override
   FloatNdArray slice(Index... coordinates);
 
+  @Override
+  FloatNdArray permute(int... axes);
+
+  @Override
+  FloatNdArray transpose();
+
+  @Override
+  FloatNdArray reshape(Shape shape);
+
+  @Override
+  FloatNdArray broadcastTo(Shape shape);
+
   @Override
   FloatNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface FloatNdArray extends NdArray<Float> {
   @Override
   FloatNdArray copyTo(NdArray<Float> dst);
 
+  @Override
+  FloatNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Float> dst);
+
+  @Override
+  FloatNdArray scatter(NdArray<Float> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   FloatNdArray read(DataBuffer<Float> dst);
 
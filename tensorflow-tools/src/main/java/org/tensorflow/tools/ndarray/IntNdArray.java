@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.buffer.IntDataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface IntNdArray extends NdArray<Integer> {
   @Override
   IntNdArray slice(Index... indices);
 
+  @Override
+  IntNdArray permute(int... axes);
+
+  @Override
+  IntNdArray transpose();
+
+  @Override
+  IntNdArray reshape(Shape shape);
+
+  @Override
+  IntNdArray broadcastTo(Shape shape);
+
   @Override
   IntNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface IntNdArray extends NdArray<Integer> {
   @Override
   IntNdArray copyTo(NdArray<Integer> dst);
 
+  @Override
+  IntNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Integer> dst);
+
+  @Override
+  IntNdArray scatter(NdArray<Integer> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   IntNdArray read(DataBuffer<Integer> dst);
 
@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.buffer.LongDataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface LongNdArray extends NdArray<Long> {
   @Override
   LongNdArray slice(Index... indices);
 
+  @Override
+  LongNdArray permute(int... axes);
+
+  @Override
+  LongNdArray transpose();
+
+  @Override
+  LongNdArray reshape(Shape shape);
+
+  @Override
+  LongNdArray broadcastTo(Shape shape);
+
   @Override
   LongNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface LongNdArray extends NdArray<Long> {
   @Override
   LongNdArray copyTo(NdArray<Long> dst);
 
+  @Override
+  LongNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Long> dst);
+
+  @Override
+  LongNdArray scatter(NdArray<Long> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   LongNdArray read(DataBuffer<Long> dst);
 
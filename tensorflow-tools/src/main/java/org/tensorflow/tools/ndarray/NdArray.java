@@ -161,6 +161,85 @@ public interface NdArray<T> {
    */
   NdArray<T> slice(Index... indices);
 
+  /**
+   * Creates a view of this array where the dimensions are reordered.
+   *
+   * <p>The {@code i}th dimension of the returned array is the dimension {@code axes[i]} of this
+   * array. For example, permuting a {@code [h, w, c]} image with {@code permute(2, 0, 1)} returns
+   * a {@code [c, h, w]} view of the same pixels.
+   *
+   * <p>Any changes applied to the returned view affect the data of this array as well, as there
+   * is no copy involved. To materialize the permuted data in a new continuous array, copy the
+   * view explicitly using {@link #copyTo(NdArray)}.
+   *
+   * <p>Example of usage:
+   * <pre>{@code
+   *    FloatNdArray hwc = NdArrays.ofFloats(shape(480, 640, 3));
+   *    FloatNdArray chw = hwc.permute(2, 0, 1);
+   *    assertEquals(shape(3, 480, 640), chw.shape());
+   *    assertEquals(hwc.getFloat(10, 20, 1), chw.getFloat(1, 10, 20));
+   * }</pre>
+   *
+   * @param axes new order of the dimensions of this array, must contain each dimension once
+   * @return a permuted view of this array
+   * @throws IllegalArgumentException if {@code axes} is not a valid permutation of the dimensions
+   * of this array
+   */
+  NdArray<T> permute(int... axes);
+
+  /**
+   * Creates a view of this array where the order of the dimensions is reversed.
+   *
+   * <p>This is equivalent to {@code permute(rank() - 1, ..., 1, 0)}, so for a matrix, rows and
+   * columns are swapped. No data is copied.
+   *
+   * @return a transposed view of this array
+   * @see #permute(int...)
+   */
+  NdArray<T> transpose();
+
+  /**
+   * Creates a view of this array with a new shape.
+   *
+   * <p>Values are mapped to the new shape in the same order as they are returned by
+   * {@link #scalars()}. The new shape must have the same size as this array.
+   *
+   * <p>Reshaping requires the values of this array to be continuous in memory, so no data is
+   * copied. Views that are not, like permuted or sliced ones, must first be copied explicitly
+   * to a new array.
+   *
+   * @param shape new shape of the array
+   * @return a reshaped view of this array
+   * @throws IllegalArgumentException if the size of {@code shape} is not equal to the size of this
+   * array, or if this array is not continuous in memory
+   */
+  NdArray<T> reshape(Shape shape);
+
+  /**
+   * Creates a read-only view of this array broadcast to a larger shape.
+   *
+   * <p>Dimensions are aligned starting from the last one. Each dimension of this array must
+   * either be equal to the corresponding dimension of {@code shape} or be of size 1, in which case
+   * its single element is repeated along that dimension. Missing leading dimensions are added the
+   * same way.
+   *
+   * <p>No data is copied: all coordinates of an expanded dimension map to the same values of this
+   * array. For this reason, the returned view cannot be modified. Copying it to a new array will
+   * materialize the broadcast values.
+   *
+   * <p>Example of usage:
+   * <pre>{@code
+   *    FloatNdArray mean = NdArrays.vectorOf(0.485f, 0.456f, 0.406f);
+   *    FloatNdArray batchMean = mean.broadcastTo(shape(32, 224, 224, 3));
+   *    assertEquals(0.456f, batchMean.getFloat(10, 100, 50, 1));
+   * }</pre>
+   *
+   * @param shape shape to broadcast this array to
+   * @return a read-only broadcast view of this array
+   * @throws IllegalArgumentException if this array cannot be broadcast to {@code shape}
+   */
+  NdArray<T> broadcastTo(Shape shape);
+
   /**
    * Returns the N-dimensional element of this array at the given coordinates.
    *
@@ -265,6 +344,52 @@ public interface NdArray<T> {
    */
   NdArray<T> copyTo(NdArray<T> dst);
 
+  /**
+   * Copies to the destination array the elements of this array found at the given indices of an
+   * axis.
+   *
+   * <p>The shape of {@code dst} must be the shape of this array where dimension {@code axis} is
+   * replaced by the shape of {@code indices}. For example, gathering a vector of {@code n} row
+   * indices on axis 0 of a {@code [r, c]} matrix fills a {@code [n, c]} matrix.
+   *
+   * <p>Each selected element is copied as a whole, using bulk copies when it is continuous in
+   * memory. Large selections may be copied in parallel.
+   *
+   * <p>Example of usage:
+   * <pre>{@code
+   *    FloatNdArray features = NdArrays.ofFloats(shape(1000, 128));
+   *    FloatNdArray batch = NdArrays.ofFloats(shape(3, 128));
+   *    features.gather(NdArrays.vectorOf(12L, 500L, 7L), 0, batch);
+   * }</pre>
+   *
+   * @param indices coordinates on {@code axis} of the elements to copy
+   * @param axis dimension to gather elements from
+   * @param dst array receiving the gathered elements
+   * @return this array
+   * @throws IllegalArgumentException if the axis is out of range or if the shape of {@code dst}
+   * is not compatible with the gathered elements
+   * @throws IndexOutOfBoundsException if some indices are outside the limits of {@code axis}
+   */
+  NdArray<T> gather(NdArray<? extends Number> indices, int axis, NdArray<T> dst);
+
+  /**
+   * Copies elements of the updates array to this array at the given indices of an axis.
+   *
+   * <p>This is the inverse of {@link #gather(NdArray, int, NdArray)}: the shape of
+   * {@code updates} must be the shape of this array where dimension {@code axis} is replaced by
+   * the shape of {@code indices}. If an index appears more than once, which of its updates is
+   * kept is unspecified.
+   *
+   * @param updates elements to copy into this array
+   * @param indices coordinates on {@code axis} where to copy the elements
+   * @param axis dimension to scatter elements to
+   * @return this array
+   * @throws IllegalArgumentException if the axis is out of range or if the shape of
+   * {@code updates} is not compatible with the scattered elements
+   * @throws IndexOutOfBoundsException if some indices are outside the limits of {@code axis}
+   */
+  NdArray<T> scatter(NdArray<T> updates, NdArray<? extends Number> indices, int axis);
+
   /**
    * Read the content of this N-dimensional array into the destination buffer.
    *
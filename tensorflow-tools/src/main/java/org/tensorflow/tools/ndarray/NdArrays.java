@@ -34,6 +34,13 @@ import org.tensorflow.tools.ndarray.impl.dense.FloatDenseNdArray;
 import org.tensorflow.tools.ndarray.impl.dense.IntDenseNdArray;
 import org.tensorflow.tools.ndarray.impl.dense.LongDenseNdArray;
 import org.tensorflow.tools.ndarray.impl.dense.ShortDenseNdArray;
+import org.tensorflow.tools.ndarray.impl.sparse.BooleanSparseNdArrayImpl;
+import org.tensorflow.tools.ndarray.impl.sparse.ByteSparseNdArrayImpl;
+import org.tensorflow.tools.ndarray.impl.sparse.DoubleSparseNdArrayImpl;
+import org.tensorflow.tools.ndarray.impl.sparse.FloatSparseNdArrayImpl;
+import org.tensorflow.tools.ndarray.impl.sparse.IntSparseNdArrayImpl;
+import org.tensorflow.tools.ndarray.impl.sparse.LongSparseNdArrayImpl;
+import org.tensorflow.tools.ndarray.impl.sparse.ShortSparseNdArrayImpl;
 
 /**
  * Helper class for instantiating {@link NdArray} objects.
@@ -95,6 +102,61 @@ public final class NdArrays {
     return ByteDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse byte N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse byte N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static ByteSparseNdArray sparseOf(LongDataBuffer indices, ByteDataBuffer values, Shape shape) {
+    return ByteSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse byte matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse byte matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static ByteSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, ByteDataBuffer values, Shape shape) {
+    return ByteSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of byte rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Byte, ByteNdArray> raggedOf(ByteDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // LONG ARRAYS
 
   /**
@@ -147,6 +209,61 @@ public final class NdArrays {
     return LongDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse long N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse long N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static LongSparseNdArray sparseOf(LongDataBuffer indices, LongDataBuffer values, Shape shape) {
+    return LongSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse long matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse long matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static LongSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, LongDataBuffer values, Shape shape) {
+    return LongSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of long rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Long, LongNdArray> raggedOf(LongDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // INT ARRAYS
 
   /**
@@ -199,6 +316,61 @@ public final class NdArrays {
     return IntDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse int N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse int N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static IntSparseNdArray sparseOf(LongDataBuffer indices, IntDataBuffer values, Shape shape) {
+    return IntSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse int matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse int matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static IntSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, IntDataBuffer values, Shape shape) {
+    return IntSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of int rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Integer, IntNdArray> raggedOf(IntDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // SHORT ARRAYS
 
   /**
@@ -251,6 +423,61 @@ public final class NdArrays {
     return ShortDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse short N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse short N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static ShortSparseNdArray sparseOf(LongDataBuffer indices, ShortDataBuffer values, Shape shape) {
+    return ShortSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse short matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse short matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static ShortSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, ShortDataBuffer values, Shape shape) {
+    return ShortSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of short rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Short, ShortNdArray> raggedOf(ShortDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // FLOAT ARRAYS
 
   /**
@@ -303,6 +530,61 @@ public final class NdArrays {
     return FloatDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse float N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse float N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static FloatSparseNdArray sparseOf(LongDataBuffer indices, FloatDataBuffer values, Shape shape) {
+    return FloatSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse float matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse float matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static FloatSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, FloatDataBuffer values, Shape shape) {
+    return FloatSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of float rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Float, FloatNdArray> raggedOf(FloatDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // DOUBLE ARRAYS
 
   /**
@@ -355,6 +637,61 @@ public final class NdArrays {
     return DoubleDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse double N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse double N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static DoubleSparseNdArray sparseOf(LongDataBuffer indices, DoubleDataBuffer values, Shape shape) {
+    return DoubleSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse double matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse double matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static DoubleSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, DoubleDataBuffer values, Shape shape) {
+    return DoubleSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of double rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Double, DoubleNdArray> raggedOf(DoubleDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // BOOLEAN ARRAYS
 
   /**
@@ -407,6 +744,61 @@ public final class NdArrays {
     return BooleanDenseNdArray.create(buffer, shape);
   }
 
+  /**
+   * Creates a read-only sparse boolean N-dimensional array from coordinates in COO format.
+   *
+   * <p>{@code indices} holds the coordinates of each non-zero value as a flat sequence of
+   * {@code values.size() * shape.numDimensions()} longs, sorted in row-major order. Neither
+   * buffer is copied, all other elements of the array read as zero.
+   *
+   * @param indices coordinates of the values
+   * @param values non-zero values of the array
+   * @param shape dense shape of the array
+   * @return new sparse boolean N-dimensional array
+   * @throws IllegalArgumentException if shape is null or has unknown dimensions, or if indices
+   *                                  are not unique and sorted
+   * @throws IndexOutOfBoundsException if some coordinates are outside the limits of the shape
+   */
+  public static BooleanSparseNdArray sparseOf(LongDataBuffer indices, BooleanDataBuffer values, Shape shape) {
+    return BooleanSparseNdArrayImpl.create(indices, values, shape);
+  }
+
+  /**
+   * Creates a read-only sparse boolean matrix in CSR format.
+   *
+   * <p>Values of row {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in
+   * {@code values}, with their column index at the same position in {@code columns}. Neither
+   * buffer is copied, all other elements of the matrix read as zero.
+   *
+   * @param rowSplits {@code shape.size(0) + 1} offsets delimiting each row
+   * @param columns column index of each value, sorted within a row
+   * @param values non-zero values of the matrix
+   * @param shape dense shape of the matrix
+   * @return new sparse boolean matrix
+   * @throws IllegalArgumentException if shape is not a known matrix shape or if row splits or
+   *                                  columns are invalid
+   * @throws IndexOutOfBoundsException if some columns are outside the limits of the shape
+   */
+  public static BooleanSparseNdArray sparseCsrOf(LongDataBuffer rowSplits, LongDataBuffer columns, BooleanDataBuffer values, Shape shape) {
+    return BooleanSparseNdArrayImpl.createCsr(rowSplits, columns, values, shape);
+  }
+
+  /**
+   * Wraps buffers in a ragged vector of boolean rows.
+   *
+   * <p>Row {@code i} is made of the values found at {@code [rowSplits[i], rowSplits[i + 1])}
+   * in {@code values}. None of the buffers are copied.
+   *
+   * @param values values of all rows, concatenated
+   * @param rowSplits {@code numRows + 1} offsets delimiting each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if row splits do not start at 0, are not sorted or are
+   *                                  referring to values out of range
+   */
+  public static RaggedNdArray<Boolean, BooleanNdArray> raggedOf(BooleanDataBuffer values, LongDataBuffer rowSplits) {
+    return RaggedNdArray.create(wrap(values, Shape.make(values.size())), wrap(rowSplits, Shape.make(rowSplits.size())));
+  }
+
   // OBJECT ARRAYS
 
   /**
@@ -0,0 +1,219 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.ndarray.impl.AbstractNdArray;
+import org.tensorflow.tools.ndarray.impl.Validator;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+import org.tensorflow.tools.ndarray.index.Indices;
+
+/**
+ * An array of rows of variable length, stored without padding.
+ *
+ * <p>A ragged array is made of two arrays, following the same layout as the ragged tensors of
+ * TensorFlow:
+ * <ul>
+ *   <li>{@code values}, where all the rows are concatenated along the first dimension</li>
+ *   <li>{@code rowSplits}, a vector of {@code numRows + 1} offsets, where the elements of row
+ *   {@code i} are found at {@code [rowSplits[i], rowSplits[i + 1])} in {@code values}</li>
+ * </ul>
+ *
+ * <p>For example, the ragged array {@code [[a, b, c], [], [d, e]]} has the values
+ * {@code [a, b, c, d, e]} and the row splits {@code [0, 3, 3, 5]}.
+ *
+ * <p>Both arrays are referenced as-is, so rows returned by this class are views that can be
+ * read or written without copying data. By wrapping the data of tensors allocated for the values
+ * and the row splits, a ragged array can be filled directly in the memory that will be fed to the
+ * {@code org.tensorflow.op.ragged} operations:
+ * <pre>{@code
+ *    Tensor<TInt32> tokens = TInt32.ofShape(numTokens);
+ *    Tensor<TInt64> splits = TInt64.vectorOf(0, 3, 3, 5);
+ *    RaggedNdArray<Integer, IntNdArray> sentences = RaggedNdArray.create(tokens.data(), splits.data());
+ *    sentences.row(0).write(new int[] { 12, 7, 42 });
+ * }</pre>
+ *
+ * @param <T> the type of values in this array
+ * @param <U> the type of array returned for each row
+ */
+public final class RaggedNdArray<T, U extends NdArray<T>> {
+
+  /**
+   * Creates a ragged array from its values and row splits.
+   *
+   * @param values values of all rows, concatenated along the first dimension
+   * @param rowSplits vector of {@code numRows + 1} offsets in {@code values}
+   * @param <T> the type of values in this array
+   * @param <U> the type of array returned for each row
+   * @return new ragged array
+   * @throws IllegalArgumentException if values is a scalar or if row splits do not start at 0,
+   *                                  are not sorted or are referring to values out of range
+   */
+  public static <T, U extends NdArray<T>> RaggedNdArray<T, U> create(U values, LongNdArray rowSplits) {
+    Validator.raggedArgs(values, rowSplits);
+    return new RaggedNdArray<>(values, rowSplits);
+  }
+
+  /**
+   * Returns the shape of this ragged array.
+   *
+   * <p>The second dimension has an unknown size ({@link Shape#UNKNOWN_SIZE}) since it varies
+   * between rows, while the remaining dimensions are the ones of the values.
+   *
+   * @return shape of this array
+   */
+  public Shape shape() {
+    Shape valuesShape = values.shape();
+    long[] dimSizes = new long[valuesShape.numDimensions() + 1];
+    dimSizes[0] = numRows();
+    dimSizes[1] = Shape.UNKNOWN_SIZE;
+    for (int i = 1; i < valuesShape.numDimensions(); ++i) {
+      dimSizes[i + 1] = valuesShape.size(i);
+    }
+    return Shape.make(dimSizes);
+  }
+
+  /**
+   * @return number of rows in this array
+   */
+  public long numRows() {
+    return rowSplits.size() - 1;
+  }
+
+  /**
+   * @return total number of elements found in all rows
+   */
+  public long numValues() {
+    return rowSplits.getLong(numRows());
+  }
+
+  /**
+   * Returns the number of elements in a given row.
+   *
+   * @param rowIdx index of the row
+   * @return length of the row
+   * @throws IndexOutOfBoundsException if the row index is out of range
+   */
+  public long rowLength(long rowIdx) {
+    return rowSplits.getLong(rowIdx + 1) - rowSplits.getLong(rowIdx);
+  }
+
+  /**
+   * Returns the largest row length of this array.
+   *
+   * <p>This is the size that the second dimension would have if the rows were padded into a dense
+   * array.
+   *
+   * @return length of the longest row, or 0 if there are no rows
+   */
+  public long maxRowLength() {
+    long max = 0;
+    for (long i = 0; i < numRows(); ++i) {
+      max = Math.max(max, rowLength(i));
+    }
+    return max;
+  }
+
+  /**
+   * Returns a view of the elements of a given row.
+   *
+   * <p>The returned array shares the memory of the values, the first dimension being the length of
+   * the row.
+   *
+   * @param rowIdx index of the row
+   * @return row elements
+   * @throws IndexOutOfBoundsException if the row index is out of range
+   */
+  @SuppressWarnings("unchecked")
+  public U row(long rowIdx) {
+    long start = rowSplits.getLong(rowIdx);
+    long end = rowSplits.getLong(rowIdx + 1);
+    if (values instanceof AbstractNdArray) {
+      AbstractNdArray<T, U> array = (AbstractNdArray<T, U>)values;
+      DimensionalSpace dimensions = array.dimensions();
+      if (!dimensions.isSegmented() && !dimensions.isBroadcast()) {
+        // Slicing by range would produce a segmented dimension, forcing element-by-element copies
+        // of the row, while its values are actually continuous in memory
+        long[] rowDimSizes = values.shape().asArray();
+        rowDimSizes[0] = end - start;
+        return array.slice(start * dimensions.get(0).elementSize(),
+            DimensionalSpace.create(Shape.make(rowDimSizes)));
+      }
+    }
+    return (U)values.slice(Indices.range(start, end));
+  }
+
+  /**
+   * Iterates through the rows of this array.
+   *
+   * @return an iterable returning views of each row, in order
+   * @see #row(long)
+   */
+  public Iterable<U> rows() {
+    return () -> new Iterator<U>() {
+
+      @Override
+      public boolean hasNext() {
+        return rowIdx < numRows();
+      }
+
+      @Override
+      public U next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return row(rowIdx++);
+      }
+
+      private long rowIdx = 0;
+    };
+  }
+
+  /**
+   * Returns the values of this array, in which all rows are concatenated.
+   *
+   * <p>This is the same array that was used to create this ragged array, and the one to pass as
+   * the {@code values} of a ragged tensor.
+   *
+   * @return ragged values
+   */
+  public U values() {
+    return values;
+  }
+
+  /**
+   * Returns the offsets of each row in the values of this array.
+   *
+   * <p>This is the same array that was used to create this ragged array, and the one to pass as
+   * the {@code row_splits} of a ragged tensor.
+   *
+   * @return row splits
+   */
+  public LongNdArray rowSplits() {
+    return rowSplits;
+  }
+
+  private final U values;
+  private final LongNdArray rowSplits;
+
+  private RaggedNdArray(U values, LongNdArray rowSplits) {
+    this.values = values;
+    this.rowSplits = rowSplits;
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.tensorflow.tools.ndarray;
 
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
 import org.tensorflow.tools.buffer.ShortDataBuffer;
 import org.tensorflow.tools.ndarray.index.Index;
@@ -130,6 +131,18 @@ public interface ShortNdArray extends NdArray<Short> {
   @Override
   ShortNdArray slice(Index... coordinates);
 
+  @Override
+  ShortNdArray permute(int... axes);
+
+  @Override
+  ShortNdArray transpose();
+
+  @Override
+  ShortNdArray reshape(Shape shape);
+
+  @Override
+  ShortNdArray broadcastTo(Shape shape);
+
   @Override
   ShortNdArray get(long... coordinates);
 
@@ -155,6 +168,12 @@ public interface ShortNdArray extends NdArray<Short> {
   @Override
   ShortNdArray copyTo(NdArray<Short> dst);
 
+  @Override
+  ShortNdArray gather(NdArray<? extends Number> indices, int axis, NdArray<Short> dst);
+
+  @Override
+  ShortNdArray scatter(NdArray<Short> updates, NdArray<? extends Number> indices, int axis);
+
   @Override
   ShortNdArray read(DataBuffer<Short> dst);
 
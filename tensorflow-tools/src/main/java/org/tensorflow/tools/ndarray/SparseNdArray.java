@@ -0,0 +1,65 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray;
+
+/**
+ * An {@link NdArray} storing explicitly only its non-zero values.
+ *
+ * <p>Sparse arrays keep the coordinates of the values they store in an index, in the same format
+ * as the sparse tensors of TensorFlow, while all other values implicitly read as zero. They are
+ * read-only and their views, like slices or permutations, are sparse arrays as well.
+ *
+ * @param <T> the type of values in this array
+ * @param <U> the type of array returned for the stored values
+ */
+public interface SparseNdArray<T, U extends NdArray<T>> extends NdArray<T> {
+
+  /**
+   * Returns the number of values explicitly stored in this array.
+   *
+   * @return number of non-zero values
+   */
+  long numValues();
+
+  /**
+   * Returns the coordinates of the values explicitly stored in this array.
+   *
+   * <p>Coordinates are returned in a matrix of shape {@code [numValues, rank]}, where each row
+   * is a coordinate, in row-major order. This is the same format as the {@code indices} of a
+   * sparse tensor.
+   *
+   * <p>For arrays in coordinate list (COO) format, the returned matrix is a view of the original
+   * indices. Otherwise, coordinates are copied to a new matrix.
+   *
+   * @return coordinates of non-zero values
+   */
+  LongNdArray indices();
+
+  /**
+   * Returns the values explicitly stored in this array.
+   *
+   * <p>Values are returned in a vector of {@link #numValues()} elements, in the same order as
+   * their coordinates returned by {@link #indices()}. This is the same format as the {@code values}
+   * of a sparse tensor.
+   *
+   * <p>If this array is not a view, the returned vector is backed by the original values.
+   * Otherwise, values are copied to a new vector.
+   *
+   * @return non-zero values
+   */
+  U values();
+}
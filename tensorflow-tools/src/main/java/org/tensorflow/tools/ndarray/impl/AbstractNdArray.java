@@ -18,10 +18,13 @@ package org.tensorflow.tools.ndarray.impl;
 
 import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.ndarray.IllegalRankException;
 import org.tensorflow.tools.ndarray.NdArray;
 import org.tensorflow.tools.ndarray.NdArraySequence;
 import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+import org.tensorflow.tools.ndarray.impl.dimension.RelativeDimensionalSpace;
 import org.tensorflow.tools.ndarray.impl.sequence.ElementSequence;
+import org.tensorflow.tools.ndarray.index.Index;
 
 @SuppressWarnings("unchecked")
 public abstract class AbstractNdArray<T, U extends NdArray<T>> implements NdArray<T> {
@@ -51,6 +54,65 @@ public abstract class AbstractNdArray<T, U extends NdArray<T>> implements NdArra
     return ElementSequence.create(this, shape().numDimensions() - 1);  // negative if this array is a scalar
   }
 
+  @Override
+  public U slice(Index... indices) {
+    if (indices == null) {
+      throw new IllegalArgumentException("Slicing requires at least one index");
+    }
+    RelativeDimensionalSpace sliceDimensions = dimensions().mapTo(indices);
+    return slice(sliceDimensions.position(), sliceDimensions);
+  }
+
+  @Override
+  public U get(long... coords) {
+    return slice(positionOf(coords, false), dimensions().from(coords.length));
+  }
+
+  @Override
+  public U permute(int... axes) {
+    Validator.permuteArgs(this, axes);
+    return slice(0L, dimensions().permute(axes));
+  }
+
+  @Override
+  public U transpose() {
+    int[] axes = new int[rank()];
+    for (int i = 0; i < axes.length; ++i) {
+      axes[i] = axes.length - i - 1;
+    }
+    return permute(axes);
+  }
+
+  @Override
+  public U reshape(Shape shape) {
+    Validator.reshapeArgs(this, shape);
+    if (dimensions().isSegmented()) {
+      throw new IllegalArgumentException("Cannot reshape a view that is not continuous in memory, " +
+          "copy it to a new array first");
+    }
+    return slice(0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public U broadcastTo(Shape shape) {
+    Validator.broadcastArgs(this, shape);
+    return slice(0L, dimensions().broadcastTo(shape));
+  }
+
+  @Override
+  public U gather(NdArray<? extends Number> indices, int axis, NdArray<T> dst) {
+    Validator.gatherArgs(this, indices, axis, dst);
+    copyIndexed(dst, IndexedCopy.create(shape(), indices, axis), true);
+    return (U)this;
+  }
+
+  @Override
+  public U scatter(NdArray<T> updates, NdArray<? extends Number> indices, int axis) {
+    Validator.gatherArgs(this, indices, axis, updates);
+    copyIndexed(updates, IndexedCopy.create(shape(), indices, axis), false);
+    return (U)this;
+  }
+
   @Override
   public U read(T[] dst) {
     return (U)read(DataBuffers.from(dst, false, false));
@@ -75,6 +137,31 @@ public abstract class AbstractNdArray<T, U extends NdArray<T>> implements NdArra
     this.dimensions = dimensions;
   }
 
+  protected long positionOf(long[] coords, boolean isValue) {
+    if (coords == null || coords.length == 0) {
+      return 0;
+    }
+    if (coords.length > dimensions().numDimensions()) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (isValue && coords.length != dimensions().numDimensions()) {
+      throw new IllegalRankException("Not a scalar value");
+    }
+    return dimensions().positionOf(coords);
+  }
+
+  protected void copyIndexed(NdArray<T> other, IndexedCopy copy, boolean toOther) {
+    for (long i = 0; i < copy.numCopies(); ++i) {
+      NdArray<T> element = get(copy.coordinates(i));
+      NdArray<T> otherElement = other.get(copy.otherCoordinates(i));
+      if (toOther) {
+        element.copyTo(otherElement);
+      } else {
+        otherElement.copyTo(element);
+      }
+    }
+  }
+
   protected void slowCopyTo(NdArray<T> array) {
     scalars().forEachIndexed((coords, e) -> array.setObject(e.getObject(), coords));
   }
@@ -0,0 +1,140 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl;
+
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.ndarray.IntNdArray;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+
+/**
+ * Maps the copies of a gather or scatter between an array indexed on one of its axis and another
+ * array where this axis is replaced by the dimensions of the indices.
+ *
+ * <p>Copies are numbered from 0 to {@link #numCopies()}, iterating first over the coordinates that
+ * precedes the indexed axis and then over the indices, in row-major order. The coordinates of a
+ * copy can be computed independently, allowing copies to be executed in any order.
+ */
+public final class IndexedCopy {
+
+  public static IndexedCopy create(Shape shape, NdArray<? extends Number> indices, int axis) {
+    if (indices.size() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many indices");
+    }
+    long[] indexValues = new long[(int)indices.size()];
+    if (indices instanceof LongNdArray) {
+      ((LongNdArray)indices).read(indexValues);
+    } else if (indices instanceof IntNdArray) {
+      int[] intValues = new int[indexValues.length];
+      ((IntNdArray)indices).read(intValues);
+      for (int i = 0; i < intValues.length; ++i) {
+        indexValues[i] = intValues[i];
+      }
+    } else {
+      int i = 0;
+      for (NdArray<? extends Number> scalar : indices.scalars()) {
+        indexValues[i++] = scalar.getObject().longValue();
+      }
+    }
+    long axisSize = shape.size(axis);
+    for (long index : indexValues) {
+      if (index < 0 || index >= axisSize) {
+        throw new IndexOutOfBoundsException("Index " + index + " is outside the limits of axis " +
+            axis + " (size " + axisSize + ")");
+      }
+    }
+    return new IndexedCopy(shape, indexValues, indices.shape(), axis);
+  }
+
+  /**
+   * @return total number of elements to copy
+   */
+  public long numCopies() {
+    return numOuterElements * indices.length;
+  }
+
+  /**
+   * @return index of the first dimension of an element being copied in the indexed array
+   */
+  public int elementStart() {
+    return axis + 1;
+  }
+
+  /**
+   * @return index of the first dimension of an element being copied in the other array
+   */
+  public int otherElementStart() {
+    return axis + indicesShape.numDimensions();
+  }
+
+  /**
+   * Returns the coordinates of an element in the indexed array.
+   *
+   * @param copyIdx index of the copy
+   * @return new array of coordinates
+   */
+  public long[] coordinates(long copyIdx) {
+    long[] coords = new long[elementStart()];
+    outerCoordinates(copyIdx / indices.length, coords);
+    coords[axis] = indices[(int)(copyIdx % indices.length)];
+    return coords;
+  }
+
+  /**
+   * Returns the coordinates of an element in the other array.
+   *
+   * @param copyIdx index of the copy
+   * @return new array of coordinates
+   */
+  public long[] otherCoordinates(long copyIdx) {
+    long[] coords = new long[otherElementStart()];
+    outerCoordinates(copyIdx / indices.length, coords);
+    long i = copyIdx % indices.length;
+    for (int d = indicesShape.numDimensions() - 1; d >= 0; --d) {
+      long dimSize = indicesShape.size(d);
+      coords[axis + d] = i % dimSize;
+      i /= dimSize;
+    }
+    return coords;
+  }
+
+  private final Shape shape;
+  private final long[] indices;
+  private final Shape indicesShape;
+  private final int axis;
+  private final long numOuterElements;
+
+  private IndexedCopy(Shape shape, long[] indices, Shape indicesShape, int axis) {
+    this.shape = shape;
+    this.indices = indices;
+    this.indicesShape = indicesShape;
+    this.axis = axis;
+    long outerSize = 1;
+    for (int i = 0; i < axis; ++i) {
+      outerSize *= shape.size(i);
+    }
+    this.numOuterElements = outerSize;
+  }
+
+  private void outerCoordinates(long outerIdx, long[] coords) {
+    for (int d = axis - 1; d >= 0; --d) {
+      long dimSize = shape.size(d);
+      coords[d] = outerIdx % dimSize;
+      outerIdx /= dimSize;
+    }
+  }
+}
@@ -18,7 +18,9 @@ package org.tensorflow.tools.ndarray.impl;
 
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
+import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.ndarray.LongNdArray;
 import org.tensorflow.tools.ndarray.NdArray;
 
 public class Validator {
@@ -56,6 +58,106 @@ public class Validator {
     }
   }
 
+  public static void permuteArgs(NdArray<?> ndArray, int[] axes) {
+    if (axes == null || axes.length != ndArray.rank()) {
+      throw new IllegalArgumentException("Permutation must provide exactly one axis per dimension of the array");
+    }
+    boolean[] visited = new boolean[axes.length];
+    for (int axis : axes) {
+      if (axis < 0 || axis >= axes.length) {
+        throw new IllegalArgumentException("Axis " + axis + " is out of range for array of rank " + axes.length);
+      }
+      if (visited[axis]) {
+        throw new IllegalArgumentException("Axis " + axis + " is present more than once in the permutation");
+      }
+      visited[axis] = true;
+    }
+  }
+
+  public static void reshapeArgs(NdArray<?> ndArray, Shape shape) {
+    if (shape == null) {
+      throw new IllegalArgumentException("Shape cannot be null");
+    }
+    if (shape.hasUnknownDimension()) {
+      throw new IllegalArgumentException("Cannot reshape to a shape with unknown dimension(s)");
+    }
+    if (shape.size() != ndArray.size()) {
+      throw new IllegalArgumentException("Cannot reshape array of shape " + ndArray.shape() +
+          " to " + shape + " (sizes differ)");
+    }
+  }
+
+  public static void broadcastArgs(NdArray<?> ndArray, Shape shape) {
+    if (shape == null) {
+      throw new IllegalArgumentException("Shape cannot be null");
+    }
+    if (shape.hasUnknownDimension()) {
+      throw new IllegalArgumentException("Cannot broadcast to a shape with unknown dimension(s)");
+    }
+    Shape arrayShape = ndArray.shape();
+    int rankDiff = shape.numDimensions() - arrayShape.numDimensions();
+    if (rankDiff < 0) {
+      throw new IllegalArgumentException("Cannot broadcast array of shape " + arrayShape +
+          " to " + shape + " (rank is smaller)");
+    }
+    for (int i = 0; i < arrayShape.numDimensions(); ++i) {
+      long dimSize = arrayShape.size(i);
+      if (dimSize != 1 && dimSize != shape.size(i + rankDiff)) {
+        throw new IllegalArgumentException("Cannot broadcast array of shape " + arrayShape +
+            " to " + shape + " (dimension " + i + " is incompatible)");
+      }
+    }
+  }
+
+  public static void gatherArgs(NdArray<?> ndArray, NdArray<?> indices, int axis, NdArray<?> otherNdArray) {
+    Shape shape = ndArray.shape();
+    if (axis < 0 || axis >= shape.numDimensions()) {
+      throw new IllegalArgumentException("Axis " + axis + " is out of range for array of shape " + shape);
+    }
+    Shape indicesShape = indices.shape();
+    long[] dimSizes = new long[shape.numDimensions() - 1 + indicesShape.numDimensions()];
+    for (int i = 0; i < axis; ++i) {
+      dimSizes[i] = shape.size(i);
+    }
+    for (int i = 0; i < indicesShape.numDimensions(); ++i) {
+      dimSizes[axis + i] = indicesShape.size(i);
+    }
+    for (int i = axis + 1; i < shape.numDimensions(); ++i) {
+      dimSizes[i - 1 + indicesShape.numDimensions()] = shape.size(i);
+    }
+    Shape expectedShape = Shape.make(dimSizes);
+    if (!expectedShape.equals(otherNdArray.shape())) {
+      throw new IllegalArgumentException("Indexing axis " + axis + " of array of shape " + shape +
+          " with indices of shape " + indicesShape + " requires an array of shape " + expectedShape +
+          " (got " + otherNdArray.shape() + ")");
+    }
+  }
+
+  public static void raggedArgs(NdArray<?> values, LongNdArray rowSplits) {
+    if (values == null || rowSplits == null) {
+      throw new IllegalArgumentException("Values and row splits cannot be null");
+    }
+    if (values.rank() < 1) {
+      throw new IllegalArgumentException("Ragged values must have at least one dimension");
+    }
+    if (rowSplits.rank() != 1 || rowSplits.size() < 1) {
+      throw new IllegalArgumentException("Row splits must be a non-empty vector");
+    }
+    if (rowSplits.getLong(0) != 0) {
+      throw new IllegalArgumentException("First row split must be 0");
+    }
+    long numRows = rowSplits.size() - 1;
+    for (long row = 0; row < numRows; ++row) {
+      if (rowSplits.getLong(row + 1) < rowSplits.getLong(row)) {
+        throw new IllegalArgumentException("Row splits must be sorted in ascending order");
+      }
+    }
+    if (rowSplits.getLong(numRows) > values.shape().size(0)) {
+      throw new IllegalArgumentException("Row splits are referring to more than " +
+          values.shape().size(0) + " values");
+    }
+  }
+
   private static void copyArrayArgs(int arrayLength, int arrayOffset) {
     if (arrayOffset < 0) {
       throw new IndexOutOfBoundsException("Offset must be non-negative");
@@ -16,13 +16,13 @@
  */
 package org.tensorflow.tools.ndarray.impl.dense;
 
+import java.util.stream.LongStream;
+import org.tensorflow.tools.buffer.BooleanDataBuffer;
 import org.tensorflow.tools.buffer.DataBuffer;
-import org.tensorflow.tools.ndarray.IllegalRankException;
 import org.tensorflow.tools.ndarray.NdArray;
 import org.tensorflow.tools.ndarray.impl.AbstractNdArray;
+import org.tensorflow.tools.ndarray.impl.IndexedCopy;
 import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
-import org.tensorflow.tools.ndarray.impl.dimension.RelativeDimensionalSpace;
-import org.tensorflow.tools.ndarray.index.Index;
 
 @SuppressWarnings("unchecked")
 public abstract class AbstractDenseNdArray<T, U extends NdArray<T>> extends AbstractNdArray<T, U> {
@@ -32,20 +32,6 @@ public abstract class AbstractDenseNdArray<T, U extends NdArray<T>> extends Abst
     return instantiate(buffer().offset(position), dimensions);
   }
 
-  @Override
-  public U slice(Index... indices) {
-    if (indices == null) {
-      throw new IllegalArgumentException("Slicing requires at least one index");
-    }
-    RelativeDimensionalSpace sliceDimensions = dimensions().mapTo(indices);
-    return slice(sliceDimensions.position(), sliceDimensions);
-  }
-
-  @Override
-  public U get(long... coords) {
-    return slice(positionOf(coords, false), dimensions().from(coords.length));
-  }
-
   @Override
   public T getObject(long... coords) {
     return buffer().getObject(positionOf(coords, true));
@@ -59,6 +45,7 @@ public abstract class AbstractDenseNdArray<T, U extends NdArray<T>> extends Abst
 
   @Override
   public U setObject(T value, long... coords) {
+    Validator.writableDimensions(dimensions());
     buffer().setObject(value, positionOf(coords, true));
     return (U)this;
   }
@@ -85,23 +72,41 @@ public abstract class AbstractDenseNdArray<T, U extends NdArray<T>> extends Abst
 
   abstract U instantiate(DataBuffer<T> buffer, DimensionalSpace dimensions);
 
-  long positionOf(long[] coords, boolean isValue) {
-    if (coords == null || coords.length == 0) {
-      return 0;
+  @Override
+  protected void copyIndexed(NdArray<T> other, IndexedCopy copy, boolean toOther) {
+    if (!(other instanceof AbstractDenseNdArray)) {
+      super.copyIndexed(other, copy, toOther);
+      return;
     }
-    if (coords.length > dimensions().numDimensions()) {
-      throw new IndexOutOfBoundsException();
+    AbstractDenseNdArray<T, ?> otherArray = (AbstractDenseNdArray<T, ?>)other;
+    if (dimensions().from(copy.elementStart()).isSegmented()
+        || otherArray.dimensions().from(copy.otherElementStart()).isSegmented()) {
+      super.copyIndexed(other, copy, toOther);
+      return;
     }
-    if (isValue && coords.length != dimensions().numDimensions()) {
-      throw new IllegalRankException("Not a scalar value");
+    Validator.writableDimensions(toOther ? otherArray.dimensions() : dimensions());
+    long elementSize = dimensions().get(copy.elementStart() - 1).elementSize();
+    DataBuffer<T> srcBuffer = toOther ? buffer() : otherArray.buffer();
+    DataBuffer<T> dstBuffer = toOther ? otherArray.buffer() : buffer();
+    LongStream copies = LongStream.range(0, copy.numCopies());
+    // Bits of a boolean buffer might be packed in shared words, which cannot be written concurrently
+    if (copy.numCopies() * elementSize >= PARALLEL_COPY_THRESHOLD && !(dstBuffer instanceof BooleanDataBuffer)) {
+      copies = copies.parallel();
     }
-    return dimensions().positionOf(coords);
+    copies.forEach(i -> {
+      long position = dimensions().positionOf(copy.coordinates(i));
+      long otherPosition = otherArray.dimensions().positionOf(copy.otherCoordinates(i));
+      long srcPosition = toOther ? position : otherPosition;
+      long dstPosition = toOther ? otherPosition : position;
+      srcBuffer.offset(srcPosition).copyTo(dstBuffer.offset(dstPosition), elementSize);
+    });
   }
 
   @Override
   protected void slowCopyTo(NdArray<T> array) {
     if (array instanceof AbstractDenseNdArray) {
       AbstractDenseNdArray<T, U> dst = (AbstractDenseNdArray)array;
+      Validator.writableDimensions(dst.dimensions());
       long offset = 0L;
       for (NdArray<T> s : scalars()) {
         dst.buffer().setObject(s.getObject(), offset++);
@@ -110,4 +115,7 @@ public abstract class AbstractDenseNdArray<T, U extends NdArray<T>> extends Abst
       super.slowCopyTo(array);
     }
   }
+
+  /** Minimum number of values to copy before gathering or scattering elements in parallel */
+  private static final long PARALLEL_COPY_THRESHOLD = 1L << 16;
 }
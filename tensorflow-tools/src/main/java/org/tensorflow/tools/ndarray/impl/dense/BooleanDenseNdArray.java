@@ -39,6 +39,7 @@ public class BooleanDenseNdArray extends AbstractDenseNdArray<Boolean, BooleanNd
 
   @Override
   public BooleanNdArray setBoolean(boolean value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setBoolean(value, positionOf(indices, true));
     return this;
   }
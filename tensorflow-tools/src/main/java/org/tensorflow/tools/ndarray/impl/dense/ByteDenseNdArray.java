@@ -39,6 +39,7 @@ public class ByteDenseNdArray extends AbstractDenseNdArray<Byte, ByteNdArray>
 
   @Override
   public ByteNdArray setByte(byte value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setByte(value, positionOf(indices, true));
     return this;
   }
@@ -68,6 +68,7 @@ final class DataTransfer {
   }
 
   static <T, B extends DataBuffer<T>> void execute(B srcBuffer, DimensionalSpace srcDimensions, B dstBuffer, DimensionalSpace dstDimensions, OfValue<B> valueTransfer) {
+    Validator.writableDimensions(dstDimensions);
     if (srcDimensions.isSegmented() || dstDimensions.isSegmented()) {
       int segmentationIdx = Math.max(srcDimensions.segmentationIdx(), dstDimensions.segmentationIdx());
       copyByElement(
@@ -84,6 +85,7 @@ final class DataTransfer {
   }
 
   static <T, B extends DataBuffer<T>> void execute(B srcBuffer, B dstBuffer, DimensionalSpace dstDimensions, OfValue<B> valueTransfer) {
+    Validator.writableDimensions(dstDimensions);
     if (dstDimensions.isSegmented()) {
       long elementSize = dstDimensions.get(dstDimensions.segmentationIdx()).elementSize();
       copyByElement(
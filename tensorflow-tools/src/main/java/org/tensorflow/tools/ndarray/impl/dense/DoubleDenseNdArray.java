@@ -39,6 +39,7 @@ public class DoubleDenseNdArray extends AbstractDenseNdArray<Double, DoubleNdArr
 
   @Override
   public DoubleNdArray setDouble(double value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setDouble(value, positionOf(indices, true));
     return this;
   }
@@ -39,6 +39,7 @@ public class FloatDenseNdArray extends AbstractDenseNdArray<Float, FloatNdArray>
 
   @Override
   public FloatNdArray setFloat(float value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setFloat(value, positionOf(indices, true));
     return this;
   }
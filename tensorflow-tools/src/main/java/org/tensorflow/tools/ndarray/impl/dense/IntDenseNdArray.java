@@ -39,6 +39,7 @@ public class IntDenseNdArray extends AbstractDenseNdArray<Integer, IntNdArray>
 
   @Override
   public IntNdArray setInt(int value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setInt(value, positionOf(indices, true));
     return this;
   }
@@ -39,6 +39,7 @@ public class LongDenseNdArray extends AbstractDenseNdArray<Long, LongNdArray>
 
   @Override
   public LongNdArray setLong(long value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setLong(value, positionOf(indices, true));
     return this;
   }
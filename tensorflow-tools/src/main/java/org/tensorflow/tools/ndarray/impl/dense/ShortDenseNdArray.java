@@ -39,6 +39,7 @@ public class ShortDenseNdArray extends AbstractDenseNdArray<Short, ShortNdArray>
 
   @Override
   public ShortNdArray setShort(short value, long... indices) {
+    Validator.writableDimensions(dimensions());
     buffer.setShort(value, positionOf(indices, true));
     return this;
   }
@@ -16,8 +16,10 @@
  */
 package org.tensorflow.tools.ndarray.impl.dense;
 
+import java.nio.ReadOnlyBufferException;
 import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
 
 final class Validator extends org.tensorflow.tools.ndarray.impl.Validator {
 
@@ -33,5 +35,11 @@ final class Validator extends org.tensorflow.tools.ndarray.impl.Validator {
     };
   }
 
+  static void writableDimensions(DimensionalSpace dimensions) {
+    if (dimensions.isBroadcast()) {
+      throw new ReadOnlyBufferException();  // broadcast views cannot be written
+    }
+  }
+
   private Validator() {}
 }
@@ -28,12 +28,13 @@ final class Axis extends AbstractDimension {
     if (coord >= numElements) {
       throw new IndexOutOfBoundsException();
     }
-    return elementSize * coord;
+    return stride * coord;
   }
 
   @Override
   public boolean isSegmented() {
-    return false;  // all axis are continuous
+    // An axis is continuous only if its elements are stored back-to-back in the buffer
+    return numElements > 1 && stride != elementSize;
   }
 
   @Override
@@ -46,11 +47,21 @@ final class Axis extends AbstractDimension {
     return String.valueOf(numElements);
   }
 
+  long stride() {
+    return stride;
+  }
+
   Axis(long numElements, long elementSize) {
+    this(numElements, elementSize, elementSize);
+  }
+
+  Axis(long numElements, long elementSize, long stride) {
     this.numElements = numElements;
     this.elementSize = elementSize;
+    this.stride = stride;
   }
 
   private final long numElements;
   private final long elementSize;
+  private final long stride;
 }
@@ -85,7 +85,56 @@ public class DimensionalSpace {
         segmentationIdx = newDimIdx;
       }
     }
-    return new RelativeDimensionalSpace(Arrays.copyOf(newDimensions, newDimIdx), segmentationIdx, initialOffset);
+    return new RelativeDimensionalSpace(Arrays.copyOf(newDimensions, newDimIdx), segmentationIdx, broadcast, initialOffset);
+  }
+
+  public DimensionalSpace permute(int[] axes) {
+    Dimension[] newDimensions = new Dimension[dimensions.length];
+    int newSegmentationIdx = -1;
+
+    // Start from the last dimension, where elements are the smallest, and recompute the size of
+    // the elements of each dimension in their new order. Strides are preserved, so any dimension
+    // whose stride does not match its new element size becomes segmented.
+    long elementSize = 1;
+    for (int i = dimensions.length - 1; i >= 0; --i) {
+      Dimension newDimension = resize(dimensions[axes[i]], elementSize);
+      if (newSegmentationIdx < 0 && newDimension.isSegmented()) {
+        newSegmentationIdx = i;
+      }
+      newDimensions[i] = newDimension;
+      elementSize *= newDimension.numElements();
+    }
+    return new DimensionalSpace(newDimensions, newSegmentationIdx, broadcast);
+  }
+
+  public DimensionalSpace broadcastTo(Shape shape) {
+    Dimension[] newDimensions = new Dimension[shape.numDimensions()];
+    int rankDiff = newDimensions.length - dimensions.length;
+    int newSegmentationIdx = -1;
+
+    // Dimensions are aligned on the right. Dimensions that are added or expanded have a stride of 0
+    // so all their elements are mapped to the same values in the original space.
+    long elementSize = 1;
+    for (int i = newDimensions.length - 1; i >= 0; --i) {
+      Dimension dim = i >= rankDiff ? dimensions[i - rankDiff] : null;
+      long numElements = shape.size(i);
+      Dimension newDimension;
+      if (dim != null && dim.numElements() == numElements) {
+        newDimension = resize(dim, elementSize);
+      } else {
+        newDimension = new Axis(numElements, elementSize, 0L);
+        long offset = dim != null ? dim.positionOf(0) : 0L;
+        if (offset != 0L) {
+          newDimension = new ReducedDimension(newDimension, offset, elementSize);
+        }
+      }
+      if (newSegmentationIdx < 0 && newDimension.isSegmented()) {
+        newSegmentationIdx = i;
+      }
+      newDimensions[i] = newDimension;
+      elementSize *= newDimension.numElements();
+    }
+    return new DimensionalSpace(newDimensions, newSegmentationIdx, true);
   }
 
   public DimensionalSpace from(int dimensionStart) {
@@ -93,10 +142,10 @@ public class DimensionalSpace {
       throw new IndexOutOfBoundsException();
     }
     Dimension[] newDimensions = Arrays.copyOfRange(dimensions, dimensionStart, dimensions.length);
-    if (segmentationIdx > dimensionStart) {
-      return new DimensionalSpace(newDimensions, segmentationIdx - dimensionStart);
+    if (segmentationIdx >= dimensionStart) {
+      return new DimensionalSpace(newDimensions, segmentationIdx - dimensionStart, broadcast);
     }
-    return new DimensionalSpace(newDimensions);
+    return new DimensionalSpace(newDimensions, -1, broadcast);
   }
 
   public Shape shape() {
@@ -126,6 +175,14 @@ public class DimensionalSpace {
     return segmentationIdx;
   }
 
+  /**
+   * Returns true if this space has been broadcast, meaning that some of its coordinates might
+   * point to the same position.
+   */
+  public boolean isBroadcast() {
+    return broadcast;
+  }
+
   public long positionOf(long[] coords) {
     long position = 0L;
     for (int i = 0; i < coords.length; ++i) {
@@ -140,24 +197,29 @@ public class DimensionalSpace {
     return Arrays.toString(dimensions);
   }
 
-  DimensionalSpace(Dimension[] dimensions, int segmentationIdx) {
+  DimensionalSpace(Dimension[] dimensions, int segmentationIdx, boolean broadcast) {
     this.dimensions = dimensions;
     this.segmentationIdx = segmentationIdx;
-  }
-
-  private DimensionalSpace(Dimension[] dimensions) {
-    this(dimensions, -1);
+    this.broadcast = broadcast;
   }
 
   private DimensionalSpace(Dimension[] dimensions, Shape shape) {
-    this(dimensions);
+    this(dimensions, -1, false);
     this.shape = shape;
   }
 
   private final Dimension[] dimensions;
   private final int segmentationIdx;
+  private final boolean broadcast;
   private Shape shape;
 
+  private static Dimension resize(Dimension dimension, long elementSize) {
+    if (dimension instanceof Axis) {
+      return new Axis(dimension.numElements(), elementSize, ((Axis)dimension).stride());
+    }
+    return new ReducedDimension(dimension, 0L, elementSize);
+  }
+
   private static Shape shape(Dimension[] dimensions) {
     long[] shapeDimSizes = new long[dimensions.length];
     int i = 0;
@@ -23,8 +23,8 @@ public class RelativeDimensionalSpace extends DimensionalSpace {
     return position;
   }
 
-  RelativeDimensionalSpace(Dimension[] dimensions, int segmentationIdx, long position) {
-    super(dimensions, segmentationIdx);
+  RelativeDimensionalSpace(Dimension[] dimensions, int segmentationIdx, boolean broadcast, long position) {
+    super(dimensions, segmentationIdx, broadcast);
     this.position = position;
   }
 
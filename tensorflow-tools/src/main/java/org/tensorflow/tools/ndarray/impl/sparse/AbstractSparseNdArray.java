@@ -0,0 +1,249 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.SparseNdArray;
+import org.tensorflow.tools.ndarray.impl.AbstractNdArray;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+import org.tensorflow.tools.ndarray.impl.sequence.PositionIterator;
+
+/**
+ * Base class of all sparse N-dimensional arrays.
+ *
+ * <p>Sparse arrays only store explicitly the values that are not equal to zero, in a
+ * {@link DataBuffer}, while a {@link SparseIndex} keeps track of their coordinates. All other
+ * values are implicitly zero.
+ *
+ * <p>Sparse arrays are read-only: any attempt to modify their values will throw a
+ * {@link ReadOnlyBufferException}. Like dense arrays, they can be sliced, permuted or iterated
+ * without copying their data.
+ */
+@SuppressWarnings("unchecked")
+public abstract class AbstractSparseNdArray<T, U extends NdArray<T>> extends AbstractNdArray<T, U>
+    implements SparseNdArray<T, U> {
+
+  @Override
+  public long numValues() {
+    if (isIndexRoot()) {
+      return index.numValues();
+    }
+    long[] count = new long[1];
+    forEachValue((position, valueIdx) -> ++count[0]);
+    return count[0];
+  }
+
+  @Override
+  public LongNdArray indices() {
+    if (isIndexRoot()) {
+      return index.indices();
+    }
+    int rank = rank();
+    long[] shape = shape().asArray();
+    long numValues = numValues();
+    LongDataBuffer indices = DataBuffers.ofLongs(numValues * rank);
+    long[] offset = new long[1];
+    forEachValue((position, valueIdx) -> {
+      for (int i = rank - 1; i >= 0; --i) {
+        indices.setLong(position % shape[i], offset[0] + i);
+        position /= shape[i];
+      }
+      offset[0] += rank;
+    });
+    return NdArrays.wrap(indices, Shape.make(numValues, rank));
+  }
+
+  @Override
+  public U values() {
+    if (isIndexRoot()) {
+      return wrap(buffer().narrow(index.numValues()), Shape.make(index.numValues()));
+    }
+    DataBuffer<T> values = allocate(numValues());
+    long[] offset = new long[1];
+    forEachValue((position, valueIdx) -> values.setObject(buffer().getObject(valueIdx), offset[0]++));
+    return wrap(values, Shape.make(values.size()));
+  }
+
+  @Override
+  public U slice(long position, DimensionalSpace dimensions) {
+    return instantiate(this.position + position, dimensions);
+  }
+
+  @Override
+  public T getObject(long... coords) {
+    long valueIdx = valueIndexOf(coords);
+    return valueIdx < 0 ? zero() : buffer().getObject(valueIdx);
+  }
+
+  @Override
+  public U set(NdArray<T> src, long... coordinates) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public U setObject(T value, long... coords) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public U copyTo(NdArray<T> dst) {
+    Validator.copyToNdArrayArgs(this, dst);
+    fillZeros(dst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        dst.setObject(buffer().getObject(valueIdx), coordinatesOf(position, coords)));
+    return (U)this;
+  }
+
+  @Override
+  public U read(DataBuffer<T> dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setObject(buffer().getObject(valueIdx), position));
+    return (U)this;
+  }
+
+  @Override
+  public U write(DataBuffer<T> src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  AbstractSparseNdArray(SparseIndex index, long position, DimensionalSpace dimensions) {
+    super(dimensions);
+    this.index = index;
+    this.position = position;
+  }
+
+  SparseIndex index() {
+    return index;
+  }
+
+  long valueIndexOf(long[] coords) {
+    return index.find(position + positionOf(coords, true));
+  }
+
+  /**
+   * Visits all values explicitly stored in this array, in row-major order.
+   *
+   * <p>The position passed to the consumer is the index of the value in this array when flatten,
+   * which could differ from its position in the index if this array is a view.
+   */
+  void forEachValue(SparseIndex.EntryConsumer consumer) {
+    DimensionalSpace dimensions = dimensions();
+    if (dimensions.numDimensions() == 0) {
+      long valueIdx = index.find(position);
+      if (valueIdx >= 0) {
+        consumer.consume(0L, valueIdx);
+      }
+    } else if (!dimensions.isSegmented()) {
+      // All values of this array are continuous in the dense space, so we can visit directly the
+      // range of values found in the index
+      index.forEach(position, position + size(), (p, valueIdx) -> consumer.consume(p - position, valueIdx));
+    } else if (size() > 0) {
+      // Visit the values stored in the range covered by this view and keep those that belong to
+      // it, instead of searching the index at each of its positions. Only views mapping the same
+      // position more than once, like broadcast arrays, cannot be visited this way.
+      ViewMapping mapping = ViewMapping.create(index.shape(), position, dimensions);
+      if (mapping != null) {
+        mapping.forEach(index, consumer);
+        return;
+      }
+      PositionIterator positions = PositionIterator.create(dimensions, dimensions.numDimensions() - 1);
+      for (long i = 0; positions.hasNext(); ++i) {
+        long valueIdx = index.find(position + positions.nextLong());
+        if (valueIdx >= 0) {
+          consumer.consume(i, valueIdx);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the first {@link #size()} values of a buffer to zero.
+   *
+   * <p>Newly allocated buffers are zeroed, so one of them is copied in bulk to the destination,
+   * instead of setting its values one by one.
+   */
+  void fillZeros(DataBuffer<T> dst) {
+    long size = size();
+    DataBuffer<T> zeros = allocate(Math.min(size, MAX_ZEROS_SIZE));
+    for (long i = 0; i < size; i += zeros.size()) {
+      zeros.copyTo(dst.offset(i), Math.min(zeros.size(), size - i));
+    }
+  }
+
+  /**
+   * Sets all values of an array of the same shape as this one to zero.
+   *
+   * <p>The array is zeroed by writing a zero buffer to each of its elements of the highest
+   * dimension that fit in that buffer, down to vectors.
+   */
+  void fillZeros(NdArray<T> dst) {
+    Shape shape = shape();
+    if (shape.numDimensions() == 0) {
+      dst.setObject(zero());
+      return;
+    }
+    long elementSize = size();
+    int dimensionIdx = -1;
+    while (elementSize > MAX_ZEROS_SIZE && dimensionIdx < shape.numDimensions() - 2) {
+      elementSize /= shape.size(++dimensionIdx);
+    }
+    DataBuffer<T> zeros = allocate(elementSize);
+    if (dimensionIdx < 0) {
+      dst.write(zeros);
+    } else {
+      dst.elements(dimensionIdx).forEach(element -> element.write(zeros));
+    }
+  }
+
+  /** Sets the coordinates of a value in this array from its position when flatten. */
+  long[] coordinatesOf(long position, long[] coords) {
+    for (int i = coords.length - 1; i >= 0; --i) {
+      long dimensionSize = shape().size(i);
+      coords[i] = position % dimensionSize;
+      position /= dimensionSize;
+    }
+    return coords;
+  }
+
+  abstract protected DataBuffer<T> buffer();
+
+  abstract protected T zero();
+
+  abstract protected DataBuffer<T> allocate(long size);
+
+  abstract protected U wrap(DataBuffer<T> buffer, Shape shape);
+
+  abstract U instantiate(long position, DimensionalSpace dimensions);
+
+  private static final long MAX_ZEROS_SIZE = 4096;
+
+  private final SparseIndex index;
+  private final long position;
+
+  private boolean isIndexRoot() {
+    return position == 0 && !dimensions().isSegmented() && shape().equals(index.shape());
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.BooleanDataBuffer;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.BooleanNdArray;
+import org.tensorflow.tools.ndarray.BooleanSparseNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class BooleanSparseNdArrayImpl extends AbstractSparseNdArray<Boolean, BooleanNdArray>
+    implements BooleanSparseNdArray {
+
+  public static BooleanSparseNdArrayImpl create(LongDataBuffer indices, BooleanDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new BooleanSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static BooleanSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, BooleanDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new BooleanSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public boolean getBoolean(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? false : buffer.getBoolean(valueIdx);
+  }
+
+  @Override
+  public BooleanNdArray setBoolean(boolean value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public BooleanNdArray read(boolean[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public BooleanNdArray write(boolean[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public BooleanNdArray copyTo(NdArray<Boolean> dst) {
+    if (!(dst instanceof BooleanNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    BooleanNdArray booleanDst = (BooleanNdArray)dst;
+    fillZeros(booleanDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        booleanDst.setBoolean(buffer.getBoolean(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public BooleanNdArray read(BooleanDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setBoolean(buffer.getBoolean(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public BooleanNdArray write(BooleanDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected BooleanDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Boolean zero() {
+    return false;
+  }
+
+  @Override
+  protected BooleanDataBuffer allocate(long size) {
+    return DataBuffers.ofBooleans(size);
+  }
+
+  @Override
+  protected BooleanNdArray wrap(DataBuffer<Boolean> buffer, Shape shape) {
+    return NdArrays.wrap((BooleanDataBuffer)buffer, shape);
+  }
+
+  @Override
+  BooleanSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new BooleanSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final BooleanDataBuffer buffer;
+
+  private BooleanSparseNdArrayImpl(SparseIndex index, BooleanDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.ByteDataBuffer;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.ByteNdArray;
+import org.tensorflow.tools.ndarray.ByteSparseNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class ByteSparseNdArrayImpl extends AbstractSparseNdArray<Byte, ByteNdArray>
+    implements ByteSparseNdArray {
+
+  public static ByteSparseNdArrayImpl create(LongDataBuffer indices, ByteDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new ByteSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static ByteSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, ByteDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new ByteSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public byte getByte(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? (byte)0 : buffer.getByte(valueIdx);
+  }
+
+  @Override
+  public ByteNdArray setByte(byte value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public ByteNdArray read(byte[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public ByteNdArray write(byte[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public ByteNdArray copyTo(NdArray<Byte> dst) {
+    if (!(dst instanceof ByteNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    ByteNdArray byteDst = (ByteNdArray)dst;
+    fillZeros(byteDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        byteDst.setByte(buffer.getByte(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public ByteNdArray read(ByteDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setByte(buffer.getByte(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public ByteNdArray write(ByteDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected ByteDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Byte zero() {
+    return (byte)0;
+  }
+
+  @Override
+  protected ByteDataBuffer allocate(long size) {
+    return DataBuffers.ofBytes(size);
+  }
+
+  @Override
+  protected ByteNdArray wrap(DataBuffer<Byte> buffer, Shape shape) {
+    return NdArrays.wrap((ByteDataBuffer)buffer, shape);
+  }
+
+  @Override
+  ByteSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new ByteSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final ByteDataBuffer buffer;
+
+  private ByteSparseNdArrayImpl(SparseIndex index, ByteDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
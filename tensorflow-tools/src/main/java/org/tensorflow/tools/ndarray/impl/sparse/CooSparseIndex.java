@@ -0,0 +1,117 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+
+/**
+ * A sparse index in coordinate list (COO) format.
+ *
+ * <p>Coordinates of the values are stored in a buffer of {@code numValues x rank} longs, sorted in
+ * row-major order.
+ */
+final class CooSparseIndex extends SparseIndex {
+
+  static CooSparseIndex create(LongDataBuffer indices, long numValues, Shape shape) {
+    Validator.cooIndexArgs(indices, numValues, shape);
+    CooSparseIndex index = new CooSparseIndex(indices, numValues, shape);
+    for (long valueIdx = 1; valueIdx < numValues; ++valueIdx) {
+      if (index.positionOf(valueIdx) <= index.positionOf(valueIdx - 1)) {
+        throw new IllegalArgumentException("Sparse indices must be unique and sorted in row-major order");
+      }
+    }
+    return index;
+  }
+
+  @Override
+  Shape shape() {
+    return shape;
+  }
+
+  @Override
+  long numValues() {
+    return numValues;
+  }
+
+  @Override
+  long find(long position) {
+    long valueIdx = lowerBound(position);
+    if (valueIdx < numValues && positionOf(valueIdx) == position) {
+      return valueIdx;
+    }
+    return -1;
+  }
+
+  @Override
+  void forEach(long from, long to, EntryConsumer consumer) {
+    for (long valueIdx = lowerBound(from); valueIdx < numValues; ++valueIdx) {
+      long position = positionOf(valueIdx);
+      if (position >= to) {
+        break;
+      }
+      consumer.consume(position, valueIdx);
+    }
+  }
+
+  @Override
+  LongNdArray indices() {
+    return NdArrays.wrap(indices, Shape.make(numValues, strides.length));
+  }
+
+  long positionOf(long valueIdx) {
+    long position = 0L;
+    long offset = valueIdx * strides.length;
+    for (int i = 0; i < strides.length; ++i) {
+      position += indices.getLong(offset + i) * strides[i];
+    }
+    return position;
+  }
+
+  private final LongDataBuffer indices;
+  private final long numValues;
+  private final long[] strides;
+  private final Shape shape;
+
+  private CooSparseIndex(LongDataBuffer indices, long numValues, Shape shape) {
+    this.indices = indices;
+    this.numValues = numValues;
+    this.shape = shape;
+    strides = new long[shape.numDimensions()];
+    long stride = 1L;
+    for (int i = strides.length - 1; i >= 0; --i) {
+      strides[i] = stride;
+      stride *= shape.size(i);
+    }
+  }
+
+  private long lowerBound(long position) {
+    long low = 0L;
+    long high = numValues;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (positionOf(mid) < position) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+
+/**
+ * A sparse index of a matrix in compressed sparse row (CSR) format.
+ *
+ * <p>Values of row {@code i} are found between indices {@code rowSplits[i]} (inclusive) and
+ * {@code rowSplits[i + 1]} (exclusive), where {@code columns} gives their column, in ascending
+ * order.
+ */
+final class CsrSparseIndex extends SparseIndex {
+
+  static CsrSparseIndex create(LongDataBuffer rowSplits, LongDataBuffer columns, Shape shape) {
+    Validator.csrIndexArgs(rowSplits, columns, shape);
+    return new CsrSparseIndex(rowSplits, columns, shape);
+  }
+
+  @Override
+  Shape shape() {
+    return shape;
+  }
+
+  @Override
+  long numValues() {
+    return rowSplits.getLong(numRows);
+  }
+
+  @Override
+  long find(long position) {
+    long row = position / numColumns;
+    long column = position % numColumns;
+    long end = rowSplits.getLong(row + 1);
+    long valueIdx = lowerBound(rowSplits.getLong(row), end, column);
+    if (valueIdx < end && columns.getLong(valueIdx) == column) {
+      return valueIdx;
+    }
+    return -1;
+  }
+
+  @Override
+  void forEach(long from, long to, EntryConsumer consumer) {
+    if (from >= to) {
+      return;
+    }
+    long lastRow = (to - 1) / numColumns;
+    for (long row = from / numColumns; row <= lastRow; ++row) {
+      long rowPosition = row * numColumns;
+      long end = rowSplits.getLong(row + 1);
+      long valueIdx = rowSplits.getLong(row);
+      if (rowPosition < from) {
+        valueIdx = lowerBound(valueIdx, end, from - rowPosition);
+      }
+      for (; valueIdx < end; ++valueIdx) {
+        long position = rowPosition + columns.getLong(valueIdx);
+        if (position >= to) {
+          return;
+        }
+        consumer.consume(position, valueIdx);
+      }
+    }
+  }
+
+  @Override
+  LongNdArray indices() {
+    long numValues = numValues();
+    LongDataBuffer indices = DataBuffers.ofLongs(numValues * 2);
+    for (long row = 0, valueIdx = 0; row < numRows; ++row) {
+      for (long end = rowSplits.getLong(row + 1); valueIdx < end; ++valueIdx) {
+        indices.setLong(row, valueIdx * 2);
+        indices.setLong(columns.getLong(valueIdx), valueIdx * 2 + 1);
+      }
+    }
+    return NdArrays.wrap(indices, Shape.make(numValues, 2));
+  }
+
+  private final LongDataBuffer rowSplits;
+  private final LongDataBuffer columns;
+  private final long numRows;
+  private final long numColumns;
+  private final Shape shape;
+
+  private CsrSparseIndex(LongDataBuffer rowSplits, LongDataBuffer columns, Shape shape) {
+    this.rowSplits = rowSplits;
+    this.columns = columns;
+    this.numRows = shape.size(0);
+    this.numColumns = shape.size(1);
+    this.shape = shape;
+  }
+
+  private long lowerBound(long start, long end, long column) {
+    long low = start;
+    long high = end;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (columns.getLong(mid) < column) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.DoubleDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.DoubleNdArray;
+import org.tensorflow.tools.ndarray.DoubleSparseNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class DoubleSparseNdArrayImpl extends AbstractSparseNdArray<Double, DoubleNdArray>
+    implements DoubleSparseNdArray {
+
+  public static DoubleSparseNdArrayImpl create(LongDataBuffer indices, DoubleDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new DoubleSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static DoubleSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, DoubleDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new DoubleSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public double getDouble(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? 0.0 : buffer.getDouble(valueIdx);
+  }
+
+  @Override
+  public DoubleNdArray setDouble(double value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public DoubleNdArray read(double[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public DoubleNdArray write(double[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public DoubleNdArray copyTo(NdArray<Double> dst) {
+    if (!(dst instanceof DoubleNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    DoubleNdArray doubleDst = (DoubleNdArray)dst;
+    fillZeros(doubleDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        doubleDst.setDouble(buffer.getDouble(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public DoubleNdArray read(DoubleDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setDouble(buffer.getDouble(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public DoubleNdArray write(DoubleDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected DoubleDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Double zero() {
+    return 0.0;
+  }
+
+  @Override
+  protected DoubleDataBuffer allocate(long size) {
+    return DataBuffers.ofDoubles(size);
+  }
+
+  @Override
+  protected DoubleNdArray wrap(DataBuffer<Double> buffer, Shape shape) {
+    return NdArrays.wrap((DoubleDataBuffer)buffer, shape);
+  }
+
+  @Override
+  DoubleSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new DoubleSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final DoubleDataBuffer buffer;
+
+  private DoubleSparseNdArrayImpl(SparseIndex index, DoubleDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
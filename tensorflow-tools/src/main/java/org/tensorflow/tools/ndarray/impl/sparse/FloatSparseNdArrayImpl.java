@@ -0,0 +1,127 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.FloatDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.FloatNdArray;
+import org.tensorflow.tools.ndarray.FloatSparseNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class FloatSparseNdArrayImpl extends AbstractSparseNdArray<Float, FloatNdArray>
+    implements FloatSparseNdArray {
+
+  public static FloatSparseNdArrayImpl create(LongDataBuffer indices, FloatDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new FloatSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static FloatSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, FloatDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new FloatSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public float getFloat(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? 0.0f : buffer.getFloat(valueIdx);
+  }
+
+  @Override
+  public FloatNdArray setFloat(float value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public FloatNdArray read(float[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public FloatNdArray write(float[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public FloatNdArray copyTo(NdArray<Float> dst) {
+    if (!(dst instanceof FloatNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    FloatNdArray floatDst = (FloatNdArray)dst;
+    fillZeros(floatDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        floatDst.setFloat(buffer.getFloat(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public FloatNdArray read(FloatDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setFloat(buffer.getFloat(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public FloatNdArray write(FloatDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected FloatDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Float zero() {
+    return 0.0f;
+  }
+
+  @Override
+  protected FloatDataBuffer allocate(long size) {
+    return DataBuffers.ofFloats(size);
+  }
+
+  @Override
+  protected FloatNdArray wrap(DataBuffer<Float> buffer, Shape shape) {
+    return NdArrays.wrap((FloatDataBuffer)buffer, shape);
+  }
+
+  @Override
+  FloatSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new FloatSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final FloatDataBuffer buffer;
+
+  private FloatSparseNdArrayImpl(SparseIndex index, FloatDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
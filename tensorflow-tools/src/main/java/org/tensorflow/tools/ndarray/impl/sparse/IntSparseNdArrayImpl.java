@@ -0,0 +1,127 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.IntDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.IntNdArray;
+import org.tensorflow.tools.ndarray.IntSparseNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class IntSparseNdArrayImpl extends AbstractSparseNdArray<Integer, IntNdArray>
+    implements IntSparseNdArray {
+
+  public static IntSparseNdArrayImpl create(LongDataBuffer indices, IntDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new IntSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static IntSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, IntDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new IntSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public int getInt(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? 0 : buffer.getInt(valueIdx);
+  }
+
+  @Override
+  public IntNdArray setInt(int value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public IntNdArray read(int[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public IntNdArray write(int[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public IntNdArray copyTo(NdArray<Integer> dst) {
+    if (!(dst instanceof IntNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    IntNdArray intDst = (IntNdArray)dst;
+    fillZeros(intDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        intDst.setInt(buffer.getInt(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public IntNdArray read(IntDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setInt(buffer.getInt(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public IntNdArray write(IntDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected IntDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Integer zero() {
+    return 0;
+  }
+
+  @Override
+  protected IntDataBuffer allocate(long size) {
+    return DataBuffers.ofInts(size);
+  }
+
+  @Override
+  protected IntNdArray wrap(DataBuffer<Integer> buffer, Shape shape) {
+    return NdArrays.wrap((IntDataBuffer)buffer, shape);
+  }
+
+  @Override
+  IntSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new IntSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final IntDataBuffer buffer;
+
+  private IntSparseNdArrayImpl(SparseIndex index, IntDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
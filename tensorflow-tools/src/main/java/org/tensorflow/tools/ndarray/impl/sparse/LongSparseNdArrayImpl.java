@@ -0,0 +1,126 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.LongSparseNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class LongSparseNdArrayImpl extends AbstractSparseNdArray<Long, LongNdArray>
+    implements LongSparseNdArray {
+
+  public static LongSparseNdArrayImpl create(LongDataBuffer indices, LongDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new LongSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static LongSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, LongDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new LongSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public long getLong(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? 0L : buffer.getLong(valueIdx);
+  }
+
+  @Override
+  public LongNdArray setLong(long value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public LongNdArray read(long[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public LongNdArray write(long[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public LongNdArray copyTo(NdArray<Long> dst) {
+    if (!(dst instanceof LongNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    LongNdArray longDst = (LongNdArray)dst;
+    fillZeros(longDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        longDst.setLong(buffer.getLong(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public LongNdArray read(LongDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setLong(buffer.getLong(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public LongNdArray write(LongDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected LongDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Long zero() {
+    return 0L;
+  }
+
+  @Override
+  protected LongDataBuffer allocate(long size) {
+    return DataBuffers.ofLongs(size);
+  }
+
+  @Override
+  protected LongNdArray wrap(DataBuffer<Long> buffer, Shape shape) {
+    return NdArrays.wrap((LongDataBuffer)buffer, shape);
+  }
+
+  @Override
+  LongSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new LongSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final LongDataBuffer buffer;
+
+  private LongSparseNdArrayImpl(SparseIndex index, LongDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
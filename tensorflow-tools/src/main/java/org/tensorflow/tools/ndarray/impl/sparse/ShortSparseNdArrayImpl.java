@@ -0,0 +1,127 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.nio.ReadOnlyBufferException;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.buffer.ShortDataBuffer;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.ShortNdArray;
+import org.tensorflow.tools.ndarray.ShortSparseNdArray;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+public class ShortSparseNdArrayImpl extends AbstractSparseNdArray<Short, ShortNdArray>
+    implements ShortSparseNdArray {
+
+  public static ShortSparseNdArrayImpl create(LongDataBuffer indices, ShortDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CooSparseIndex.create(indices, values.size(), shape);
+    return new ShortSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  public static ShortSparseNdArrayImpl createCsr(LongDataBuffer rowSplits, LongDataBuffer columns, ShortDataBuffer values, Shape shape) {
+    Validator.sparseValues(values);
+    SparseIndex index = CsrSparseIndex.create(rowSplits, columns, shape);
+    Validator.sparseValues(index, values);
+    return new ShortSparseNdArrayImpl(index, values, 0L, DimensionalSpace.create(shape));
+  }
+
+  @Override
+  public short getShort(long... indices) {
+    long valueIdx = valueIndexOf(indices);
+    return valueIdx < 0 ? (short)0 : buffer.getShort(valueIdx);
+  }
+
+  @Override
+  public ShortNdArray setShort(short value, long... indices) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public ShortNdArray read(short[] dst, int offset) {
+    Validator.getArrayArgs(this, dst.length, offset);
+    return read(DataBuffers.from(dst, false, false).offset(offset));
+  }
+
+  @Override
+  public ShortNdArray write(short[] src, int offset) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  public ShortNdArray copyTo(NdArray<Short> dst) {
+    if (!(dst instanceof ShortNdArray)) {
+      return super.copyTo(dst);
+    }
+    Validator.copyToNdArrayArgs(this, dst);
+    ShortNdArray shortDst = (ShortNdArray)dst;
+    fillZeros(shortDst);
+    long[] coords = new long[rank()];
+    forEachValue((position, valueIdx) ->
+        shortDst.setShort(buffer.getShort(valueIdx), coordinatesOf(position, coords)));
+    return this;
+  }
+
+  @Override
+  public ShortNdArray read(ShortDataBuffer dst) {
+    Validator.readToBufferArgs(this, dst);
+    fillZeros(dst);
+    forEachValue((position, valueIdx) -> dst.setShort(buffer.getShort(valueIdx), position));
+    return this;
+  }
+
+  @Override
+  public ShortNdArray write(ShortDataBuffer src) {
+    throw new ReadOnlyBufferException();
+  }
+
+  @Override
+  protected ShortDataBuffer buffer() {
+    return buffer;
+  }
+
+  @Override
+  protected Short zero() {
+    return (short)0;
+  }
+
+  @Override
+  protected ShortDataBuffer allocate(long size) {
+    return DataBuffers.ofShorts(size);
+  }
+
+  @Override
+  protected ShortNdArray wrap(DataBuffer<Short> buffer, Shape shape) {
+    return NdArrays.wrap((ShortDataBuffer)buffer, shape);
+  }
+
+  @Override
+  ShortSparseNdArrayImpl instantiate(long position, DimensionalSpace dimensions) {
+    return new ShortSparseNdArrayImpl(index(), buffer, position, dimensions);
+  }
+
+  private final ShortDataBuffer buffer;
+
+  private ShortSparseNdArrayImpl(SparseIndex index, ShortDataBuffer buffer, long position, DimensionalSpace dimensions) {
+    super(index, position, dimensions);
+    this.buffer = buffer;
+  }
+}
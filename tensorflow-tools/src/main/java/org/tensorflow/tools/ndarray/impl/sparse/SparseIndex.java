@@ -0,0 +1,66 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.ndarray.LongNdArray;
+
+/**
+ * Locates the values explicitly stored in a sparse array.
+ *
+ * <p>Values are addressed by their position in the dense space of the array, i.e. the index they
+ * would have if all values of the array were stored continuously in row-major order.
+ */
+abstract class SparseIndex {
+
+  @FunctionalInterface
+  interface EntryConsumer {
+    void consume(long position, long valueIdx);
+  }
+
+  /**
+   * @return the dense shape of the indexed array
+   */
+  abstract Shape shape();
+
+  /**
+   * @return the number of values stored in this index
+   */
+  abstract long numValues();
+
+  /**
+   * Returns the index of the value stored at the given position.
+   *
+   * @param position position in the dense space
+   * @return index of the value or -1 if no value is stored at this position
+   */
+  abstract long find(long position);
+
+  /**
+   * Visits in order all values stored between two positions.
+   *
+   * @param from first position to visit (inclusive)
+   * @param to last position to visit (exclusive)
+   * @param consumer method to invoke for each value found
+   */
+  abstract void forEach(long from, long to, EntryConsumer consumer);
+
+  /**
+   * Returns the coordinates of all stored values, as a matrix of shape {@code [numValues, rank]}.
+   */
+  abstract LongNdArray indices();
+}
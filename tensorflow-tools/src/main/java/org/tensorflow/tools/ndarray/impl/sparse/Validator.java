@@ -0,0 +1,100 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+
+final class Validator extends org.tensorflow.tools.ndarray.impl.Validator {
+
+  static void cooIndexArgs(LongDataBuffer indices, long numValues, Shape shape) {
+    sparseShape(shape);
+    if (indices == null) {
+      throw new IllegalArgumentException("Indices cannot be null");
+    }
+    int rank = shape.numDimensions();
+    if (indices.size() < numValues * rank) {
+      throw new IllegalArgumentException("Indices buffer is too small to store the coordinates of " +
+          numValues + " values of rank " + rank);
+    }
+    for (long i = 0; i < numValues * rank; ++i) {
+      long coord = indices.getLong(i);
+      if (coord < 0 || coord >= shape.size((int)(i % rank))) {
+        throw new IndexOutOfBoundsException("Coordinates of value " + (i / rank) +
+            " are outside the limits of shape " + shape);
+      }
+    }
+  }
+
+  static void csrIndexArgs(LongDataBuffer rowSplits, LongDataBuffer columns, Shape shape) {
+    sparseShape(shape);
+    if (shape.numDimensions() != 2) {
+      throw new IllegalArgumentException("Compressed sparse row format only applies to matrices");
+    }
+    if (rowSplits == null || columns == null) {
+      throw new IllegalArgumentException("Row splits and columns cannot be null");
+    }
+    long numRows = shape.size(0);
+    long numColumns = shape.size(1);
+    if (rowSplits.size() < numRows + 1) {
+      throw new IllegalArgumentException("Row splits buffer must have at least " + (numRows + 1) + " values");
+    }
+    if (rowSplits.getLong(0) != 0) {
+      throw new IllegalArgumentException("First row split must be 0");
+    }
+    for (long row = 0; row < numRows; ++row) {
+      long start = rowSplits.getLong(row);
+      long end = rowSplits.getLong(row + 1);
+      if (end < start || end > columns.size()) {
+        throw new IllegalArgumentException("Invalid splits for row " + row);
+      }
+      for (long i = start; i < end; ++i) {
+        long column = columns.getLong(i);
+        if (column < 0 || column >= numColumns) {
+          throw new IndexOutOfBoundsException("Column of value " + i + " is outside the limits of shape " + shape);
+        }
+        if (i > start && column <= columns.getLong(i - 1)) {
+          throw new IllegalArgumentException("Columns must be unique and sorted within each row");
+        }
+      }
+    }
+  }
+
+  static void sparseValues(DataBuffer<?> values) {
+    if (values == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+  }
+
+  static void sparseValues(SparseIndex index, DataBuffer<?> values) {
+    if (values.size() < index.numValues()) {
+      throw new IllegalArgumentException("Values buffer is smaller than the number of indexed values");
+    }
+  }
+
+  private static void sparseShape(Shape shape) {
+    if (shape == null) {
+      throw new IllegalArgumentException("Shape cannot be null");
+    }
+    if (shape.hasUnknownDimension()) {
+      throw new IllegalArgumentException("Sparse arrays cannot have unknown dimension(s)");
+    }
+  }
+
+  private Validator() {}
+}
@@ -0,0 +1,235 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.ndarray.impl.dimension.Dimension;
+import org.tensorflow.tools.ndarray.impl.dimension.DimensionalSpace;
+
+/**
+ * Maps the positions of the values stored in a sparse index to their position in a view of the
+ * indexed array, like a slice or a permutation.
+ *
+ * <p>Each dimension of a view walks a single axis of the indexed array, possibly in a different
+ * order or only through some of its elements, while the axes that are not part of the view are
+ * fixed at a single coordinate. A value stored in the index belongs to the view if its coordinate
+ * on each axis can be mapped back to a coordinate of the view.
+ */
+final class ViewMapping {
+
+  /**
+   * Creates the mapping of a non-empty view.
+   *
+   * @param shape dense shape of the indexed array
+   * @param position position of the view in the indexed array
+   * @param dimensions dimensions of the view
+   * @return the mapping or null if some positions of the view are mapped more than once, like in
+   *         a broadcast view
+   */
+  static ViewMapping create(Shape shape, long position, DimensionalSpace dimensions) {
+    ViewMapping mapping = new ViewMapping(shape, dimensions);
+    long origin = position;
+    for (int i = 0; i < mapping.numDimensions; ++i) {
+      origin += dimensions.get(i).positionOf(0);
+    }
+    for (int axis = 0; axis < mapping.axisStrides.length; ++axis) {
+      mapping.origin[axis] = mapping.coordinateOf(origin, axis);
+    }
+    mapping.from = origin;
+    mapping.to = origin;
+
+    int lastAxis = -1;
+    for (int i = 0; i < mapping.numDimensions; ++i) {
+      Dimension dimension = dimensions.get(i);
+      if (dimension.numElements() == 1) {
+        continue;
+      }
+      if (dimension.numElements() > Integer.MAX_VALUE) {
+        return null;
+      }
+      long first = dimension.positionOf(0);
+      long[] coords = new long[(int)dimension.numElements()];
+      int axis = -1;
+      long minOffset = 0L;
+      long maxOffset = 0L;
+      for (int c = 1; c < coords.length; ++c) {
+        long offset = dimension.positionOf(c) - first;
+        int movedAxis = mapping.movedAxisOf(origin + offset);
+        if (movedAxis < 0 || (axis >= 0 && movedAxis != axis)) {
+          return null;
+        }
+        axis = movedAxis;
+        coords[c] = mapping.coordinateOf(origin + offset, axis);
+        minOffset = Math.min(minOffset, offset);
+        maxOffset = Math.max(maxOffset, offset);
+      }
+      coords[0] = mapping.origin[axis];
+      boolean increasing = true;
+      for (int c = 1; c < coords.length; ++c) {
+        increasing &= coords[c] > coords[c - 1];
+      }
+      mapping.from += minOffset;
+      mapping.to += maxOffset;
+      if (mapping.dimensionOfAxis[axis] >= 0) {
+        return null;
+      }
+      mapping.dimensionOfAxis[axis] = i;
+      if (!mapping.setCoordinates(i, coords, increasing)) {
+        return null;
+      }
+      mapping.ordered &= increasing && axis > lastAxis;
+      lastAxis = axis;
+    }
+    return mapping;
+  }
+
+  /**
+   * Visits the values of the view, in row-major order.
+   *
+   * @param index index of the array
+   * @param consumer method to invoke for each value found, with its position in the view
+   */
+  void forEach(SparseIndex index, SparseIndex.EntryConsumer consumer) {
+    if (ordered) {
+      index.forEach(from, to + 1, (position, valueIdx) -> {
+        long viewPosition = viewPositionOf(position);
+        if (viewPosition >= 0) {
+          consumer.consume(viewPosition, valueIdx);
+        }
+      });
+      return;
+    }
+    // Values of permuted or reversed views are not visited in the same order as they are indexed
+    List<long[]> entries = new ArrayList<>();
+    index.forEach(from, to + 1, (position, valueIdx) -> {
+      long viewPosition = viewPositionOf(position);
+      if (viewPosition >= 0) {
+        entries.add(new long[] { viewPosition, valueIdx });
+      }
+    });
+    entries.sort(Comparator.comparingLong(entry -> entry[0]));
+    entries.forEach(entry -> consumer.consume(entry[0], entry[1]));
+  }
+
+  private final int numDimensions;
+  private final long[] viewStrides;
+  private final long[] axisSizes;
+  private final long[] axisStrides;
+  private final long[] origin;
+  private final int[] dimensionOfAxis;
+  private final long[][] sortedCoords;
+  private final int[][] sortedViewCoords;
+  private long from;
+  private long to;
+  private boolean ordered = true;
+
+  private ViewMapping(Shape shape, DimensionalSpace dimensions) {
+    numDimensions = dimensions.numDimensions();
+    viewStrides = new long[numDimensions];
+    long viewStride = 1L;
+    for (int i = numDimensions - 1; i >= 0; --i) {
+      viewStrides[i] = viewStride;
+      viewStride *= dimensions.numElements(i);
+    }
+    axisSizes = shape.asArray();
+    axisStrides = new long[axisSizes.length];
+    long axisStride = 1L;
+    for (int axis = axisSizes.length - 1; axis >= 0; --axis) {
+      axisStrides[axis] = axisStride;
+      axisStride *= axisSizes[axis];
+    }
+    origin = new long[axisSizes.length];
+    dimensionOfAxis = new int[axisSizes.length];
+    Arrays.fill(dimensionOfAxis, -1);
+    sortedCoords = new long[numDimensions][];
+    sortedViewCoords = new int[numDimensions][];
+  }
+
+  private long coordinateOf(long position, int axis) {
+    return (position / axisStrides[axis]) % axisSizes[axis];
+  }
+
+  /** Returns the only axis on which a position differs from the origin of the view, or -1. */
+  private int movedAxisOf(long position) {
+    int movedAxis = -1;
+    for (int axis = 0; axis < axisStrides.length; ++axis) {
+      if (coordinateOf(position, axis) != origin[axis]) {
+        if (movedAxis >= 0) {
+          return -1;
+        }
+        movedAxis = axis;
+      }
+    }
+    return movedAxis;
+  }
+
+  /**
+   * Keeps the coordinates walked by a dimension on its axis, sorted to map them back.
+   *
+   * @return false if the dimension walks some coordinates more than once
+   */
+  private boolean setCoordinates(int dimensionIdx, long[] coords, boolean increasing) {
+    if (increasing) {
+      sortedCoords[dimensionIdx] = coords;
+      return true;
+    }
+    Integer[] order = new Integer[coords.length];
+    for (int c = 0; c < order.length; ++c) {
+      order[c] = c;
+    }
+    Arrays.sort(order, Comparator.comparingLong(c -> coords[c]));
+    long[] sorted = new long[coords.length];
+    int[] viewCoords = new int[coords.length];
+    for (int c = 0; c < order.length; ++c) {
+      sorted[c] = coords[order[c]];
+      viewCoords[c] = order[c];
+      if (c > 0 && sorted[c] == sorted[c - 1]) {
+        return false;
+      }
+    }
+    sortedCoords[dimensionIdx] = sorted;
+    sortedViewCoords[dimensionIdx] = viewCoords;
+    return true;
+  }
+
+  private long viewPositionOf(long position) {
+    long viewPosition = 0L;
+    for (int axis = 0; axis < axisStrides.length; ++axis) {
+      long coord = coordinateOf(position, axis);
+      int dimensionIdx = dimensionOfAxis[axis];
+      if (dimensionIdx < 0) {
+        if (coord != origin[axis]) {
+          return -1;
+        }
+        continue;
+      }
+      int c = Arrays.binarySearch(sortedCoords[dimensionIdx], coord);
+      if (c < 0) {
+        return -1;
+      }
+      if (sortedViewCoords[dimensionIdx] != null) {
+        c = sortedViewCoords[dimensionIdx][c];
+      }
+      viewPosition += c * viewStrides[dimensionIdx];
+    }
+    return viewPosition;
+  }
+}
@@ -18,6 +18,7 @@ package org.tensorflow.tools.ndarray.index;
 
 import org.tensorflow.tools.Shape;
 import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.ndarray.BooleanNdArray;
 import org.tensorflow.tools.ndarray.IllegalRankException;
 import org.tensorflow.tools.ndarray.NdArray;
 import org.tensorflow.tools.ndarray.NdArrays;
@@ -109,6 +110,29 @@ public final class Indices {
     return new Sequence(coords);
   }
 
+  /**
+   * An index that returns only the elements selected by a boolean mask.
+   *
+   * <p>The mask must have the same number of elements as the indexed dimension. Only elements
+   * whose corresponding mask value is {@code true} are returned, in their original order.
+   *
+   * <p>For example, given a vector with 4 elements on the {@code x} axis,
+   * {@code mask(vectorOf(true, false, false, true))} returns x<sub>0</sub>, x<sub>3</sub>
+   *
+   * <p>The mask is evaluated when this index is created, so later changes to its values do not
+   * affect the selection.
+   *
+   * @param mask vector of flags telling which elements to select
+   * @return index
+   * @throws IllegalRankException if {@code mask} is not a vector (rank 1)
+   */
+  public static Index mask(BooleanNdArray mask) {
+    if (mask.rank() != 1) {
+      throw new IllegalRankException("Only vectors are accepted as a mask");
+    }
+    return new Mask(mask);
+  }
+
   /**
    * An index that returns only elements found at an even position in the
    * original dimension.
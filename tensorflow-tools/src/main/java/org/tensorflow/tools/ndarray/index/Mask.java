@@ -0,0 +1,61 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.index;
+
+import org.tensorflow.tools.ndarray.BooleanNdArray;
+import org.tensorflow.tools.ndarray.impl.dimension.Dimension;
+
+final class Mask implements Index {
+
+  @Override
+  public long numElements(Dimension dim) {
+    if (dim.numElements() != maskSize) {
+      throw new IllegalArgumentException("Mask of size " + maskSize +
+          " cannot be applied to a dimension of " + dim.numElements() + " elements");
+    }
+    return coords.length;
+  }
+
+  @Override
+  public long mapCoordinate(long coordinate, Dimension dim) {
+    return coords[(int)coordinate];
+  }
+
+  Mask(BooleanNdArray mask) {
+    if (mask.size() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Mask is too large");
+    }
+    boolean[] values = new boolean[(int)mask.size()];
+    mask.read(values);
+    int numSelected = 0;
+    for (boolean value : values) {
+      if (value) {
+        ++numSelected;
+      }
+    }
+    coords = new long[numSelected];
+    for (int i = 0, j = 0; i < values.length; ++i) {
+      if (values[i]) {
+        coords[j++] = i;
+      }
+    }
+    maskSize = values.length;
+  }
+
+  private final long[] coords;
+  private final long maskSize;
+}
@@ -0,0 +1,363 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.proto;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal reader of messages serialized with the protocol buffer wire format.
+ *
+ * <p>This reader does not know anything about the schema of the messages it decodes. It simply
+ * iterates through the fields of a message, leaving to the caller the responsibility of
+ * interpreting their values according to their number and type. Unknown fields should be skipped
+ * by calling {@link #skip()}.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    ProtoReader reader = ProtoReader.of(serializedMessage);
+ *    while (reader.next()) {
+ *      switch (reader.fieldNumber()) {
+ *        case 1:
+ *          name = reader.readString();
+ *          break;
+ *        case 2:
+ *          children.add(Child.parse(reader.readMessage()));
+ *          break;
+ *        default:
+ *          reader.skip();
+ *      }
+ *    }
+ * }</pre>
+ *
+ * <p>Length-delimited values are read from the original buffer without copy, when possible.
+ * Instances of this class are not thread-safe.
+ */
+public final class ProtoReader {
+
+  /**
+   * Creates a reader of a message serialized in a byte array.
+   *
+   * @param message serialized message
+   * @return a new reader
+   */
+  public static ProtoReader of(byte[] message) {
+    return new ProtoReader(ByteBuffer.wrap(message));
+  }
+
+  /**
+   * Creates a reader of a message serialized in a buffer.
+   *
+   * <p>The message is read from the current position of the buffer up to its limit. The position
+   * of the buffer itself is left untouched.
+   *
+   * @param message serialized message
+   * @return a new reader
+   */
+  public static ProtoReader of(ByteBuffer message) {
+    return new ProtoReader(message.slice());
+  }
+
+  /**
+   * Moves to the next field of the message.
+   *
+   * <p>If the value of the previous field has not been read, it is skipped.
+   *
+   * @return true if a field has been found, false if the end of the message has been reached
+   * @throws IllegalArgumentException if the message is malformed
+   */
+  public boolean next() {
+    if (valuePending) {
+      skip();
+    }
+    if (!buffer.hasRemaining()) {
+      return false;
+    }
+    long tag = readRawVarint();
+    fieldNumber = (int)(tag >>> 3);
+    wireType = (int)(tag & 0x7);
+    if (fieldNumber <= 0) {
+      throw malformed("invalid field number " + fieldNumber);
+    }
+    valuePending = true;
+    return true;
+  }
+
+  /**
+   * @return true if there are more bytes to read in this message
+   */
+  public boolean hasRemaining() {
+    return buffer.hasRemaining();
+  }
+
+  /**
+   * @return number of the current field
+   */
+  public int fieldNumber() {
+    return fieldNumber;
+  }
+
+  /**
+   * @return wire type of the current field, one of the constants of {@link WireType}
+   */
+  public int wireType() {
+    return wireType;
+  }
+
+  /**
+   * Reads the current field as a variable-length integer.
+   *
+   * <p>This applies to fields of type {@code int32}, {@code int64}, {@code uint32}, {@code uint64}
+   * and enumerations.
+   *
+   * @return field value
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public long readVarint() {
+    checkWireType(WireType.VARINT);
+    valuePending = false;
+    return readRawVarint();
+  }
+
+  /**
+   * @return value of the current {@code int32} or enumeration field
+   * @see #readVarint()
+   */
+  public int readInt32() {
+    return (int)readVarint();
+  }
+
+  /**
+   * @return value of the current {@code int64} field
+   * @see #readVarint()
+   */
+  public long readInt64() {
+    return readVarint();
+  }
+
+  /**
+   * @return value of the current {@code bool} field
+   * @see #readVarint()
+   */
+  public boolean readBool() {
+    return readVarint() != 0;
+  }
+
+  /**
+   * @return value of the current {@code sint64} field, decoded from its zig-zag representation
+   * @see #readVarint()
+   */
+  public long readSint64() {
+    long value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * @return value of the current {@code fixed32} or {@code sfixed32} field
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public int readFixed32() {
+    checkWireType(WireType.FIXED32);
+    valuePending = false;
+    return readRawFixed32();
+  }
+
+  /**
+   * @return value of the current {@code fixed64} or {@code sfixed64} field
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public long readFixed64() {
+    checkWireType(WireType.FIXED64);
+    valuePending = false;
+    return readRawFixed64();
+  }
+
+  /**
+   * @return value of the current {@code float} field
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public float readFloat() {
+    return Float.intBitsToFloat(readFixed32());
+  }
+
+  /**
+   * @return value of the current {@code double} field
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public double readDouble() {
+    return Double.longBitsToDouble(readFixed64());
+  }
+
+  /**
+   * Reads the current length-delimited field as a view of the underlying buffer.
+   *
+   * @return a read-only buffer with the bytes of the field, positioned at 0
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public ByteBuffer readByteBuffer() {
+    checkWireType(WireType.LENGTH_DELIMITED);
+    valuePending = false;
+    int length = readLength();
+    ByteBuffer value = buffer.slice();
+    value.limit(length);
+    buffer.position(buffer.position() + length);
+    return value.asReadOnlyBuffer();
+  }
+
+  /**
+   * @return a copy of the bytes of the current length-delimited field
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public byte[] readBytes() {
+    ByteBuffer value = readByteBuffer();
+    byte[] bytes = new byte[value.remaining()];
+    value.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * @return value of the current {@code string} field, decoded as UTF-8
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public String readString() {
+    return new String(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns a reader for the embedded message found in the current field.
+   *
+   * <p>This also applies to packed repeated fields, in which case values are read from the returned
+   * reader with {@link #readRawVarint()}, {@link #readRawFixed32()} or {@link #readRawFixed64()}
+   * until it has no more remaining bytes.
+   *
+   * @return a reader of the embedded message
+   * @throws IllegalArgumentException if the field has another wire type or is malformed
+   */
+  public ProtoReader readMessage() {
+    return new ProtoReader(readByteBuffer());
+  }
+
+  /**
+   * Skips the value of the current field.
+   *
+   * @throws IllegalArgumentException if the field is malformed or of an unsupported wire type
+   */
+  public void skip() {
+    valuePending = false;
+    switch (wireType) {
+      case WireType.VARINT:
+        readRawVarint();
+        break;
+      case WireType.FIXED64:
+        advance(8);
+        break;
+      case WireType.LENGTH_DELIMITED:
+        advance(readLength());
+        break;
+      case WireType.FIXED32:
+        advance(4);
+        break;
+      default:
+        throw malformed("unsupported wire type " + wireType);
+    }
+  }
+
+  /**
+   * Reads a variable-length integer at the current position, regardless of the current field.
+   *
+   * @return integer value
+   * @throws IllegalArgumentException if the varint is malformed
+   */
+  public long readRawVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (!buffer.hasRemaining()) {
+        throw malformed("truncated varint");
+      }
+      byte b = buffer.get();
+      value |= (long)(b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw malformed("varint is too long");
+  }
+
+  /**
+   * Reads a little-endian 32-bit integer at the current position, regardless of the current
+   * field.
+   *
+   * @return integer value
+   * @throws IllegalArgumentException if there are not enough bytes left
+   */
+  public int readRawFixed32() {
+    checkRemaining(4);
+    return buffer.getInt();
+  }
+
+  /**
+   * Reads a little-endian 64-bit integer at the current position, regardless of the current
+   * field.
+   *
+   * @return integer value
+   * @throws IllegalArgumentException if there are not enough bytes left
+   */
+  public long readRawFixed64() {
+    checkRemaining(8);
+    return buffer.getLong();
+  }
+
+  private final ByteBuffer buffer;
+  private int fieldNumber;
+  private int wireType;
+  private boolean valuePending;
+
+  private ProtoReader(ByteBuffer buffer) {
+    this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private int readLength() {
+    long length = readRawVarint();
+    if (length < 0 || length > buffer.remaining()) {
+      throw malformed("length " + length + " exceeds the remaining " + buffer.remaining() + " bytes");
+    }
+    return (int)length;
+  }
+
+  private void advance(int numBytes) {
+    checkRemaining(numBytes);
+    buffer.position(buffer.position() + numBytes);
+  }
+
+  private void checkRemaining(int numBytes) {
+    if (buffer.remaining() < numBytes) {
+      throw malformed("truncated value");
+    }
+  }
+
+  private void checkWireType(int expected) {
+    if (wireType != expected) {
+      throw new IllegalArgumentException("Field " + fieldNumber + " has wire type " + wireType +
+          ", expected " + expected);
+    }
+  }
+
+  private static IllegalArgumentException malformed(String reason) {
+    return new IllegalArgumentException("Malformed protocol buffer: " + reason);
+  }
+}
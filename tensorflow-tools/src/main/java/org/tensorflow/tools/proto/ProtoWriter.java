@@ -0,0 +1,268 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.proto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A minimal writer of messages serialized with the protocol buffer wire format.
+ *
+ * <p>Fields are appended in the order they are written. Like the official implementations, fields
+ * set to their default value should simply not be written by the caller.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    byte[] message = new ProtoWriter()
+ *        .writeString(1, name)
+ *        .writeMessage(2, new ProtoWriter().writeInt64(1, value))
+ *        .toByteArray();
+ * }</pre>
+ *
+ * <p>Instances of this class are not thread-safe.
+ */
+public final class ProtoWriter {
+
+  /**
+   * Writes a variable-length integer field.
+   *
+   * <p>This applies to fields of type {@code int64}, {@code uint32}, {@code uint64} and
+   * enumerations.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeVarint(int fieldNumber, long value) {
+    writeTag(fieldNumber, WireType.VARINT);
+    writeRawVarint(value);
+    return this;
+  }
+
+  /**
+   * Writes an {@code int32} field.
+   *
+   * <p>Negative values are sign-extended to 64 bits, as required by the format.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeInt32(int fieldNumber, int value) {
+    return writeVarint(fieldNumber, value);
+  }
+
+  /**
+   * Writes an {@code int64} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeInt64(int fieldNumber, long value) {
+    return writeVarint(fieldNumber, value);
+  }
+
+  /**
+   * Writes a {@code bool} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeBool(int fieldNumber, boolean value) {
+    return writeVarint(fieldNumber, value ? 1 : 0);
+  }
+
+  /**
+   * Writes a {@code sint64} field, using zig-zag encoding.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeSint64(int fieldNumber, long value) {
+    return writeVarint(fieldNumber, (value << 1) ^ (value >> 63));
+  }
+
+  /**
+   * Writes a {@code fixed32} or {@code sfixed32} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeFixed32(int fieldNumber, int value) {
+    writeTag(fieldNumber, WireType.FIXED32);
+    writeRawFixed32(value);
+    return this;
+  }
+
+  /**
+   * Writes a {@code fixed64} or {@code sfixed64} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeFixed64(int fieldNumber, long value) {
+    writeTag(fieldNumber, WireType.FIXED64);
+    writeRawFixed64(value);
+    return this;
+  }
+
+  /**
+   * Writes a {@code float} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeFloat(int fieldNumber, float value) {
+    return writeFixed32(fieldNumber, Float.floatToIntBits(value));
+  }
+
+  /**
+   * Writes a {@code double} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeDouble(int fieldNumber, double value) {
+    return writeFixed64(fieldNumber, Double.doubleToLongBits(value));
+  }
+
+  /**
+   * Writes a {@code bytes} field.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeBytes(int fieldNumber, byte[] value) {
+    writeTag(fieldNumber, WireType.LENGTH_DELIMITED);
+    writeRawVarint(value.length);
+    writeRawBytes(value, 0, value.length);
+    return this;
+  }
+
+  /**
+   * Writes a {@code string} field, encoded as UTF-8.
+   *
+   * @param fieldNumber number of the field
+   * @param value field value
+   * @return this writer
+   */
+  public ProtoWriter writeString(int fieldNumber, String value) {
+    return writeBytes(fieldNumber, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Writes an embedded message field.
+   *
+   * @param fieldNumber number of the field
+   * @param message writer of the embedded message
+   * @return this writer
+   */
+  public ProtoWriter writeMessage(int fieldNumber, ProtoWriter message) {
+    writeTag(fieldNumber, WireType.LENGTH_DELIMITED);
+    writeRawVarint(message.size);
+    writeRawBytes(message.bytes, 0, message.size);
+    return this;
+  }
+
+  /**
+   * @return number of bytes written so far
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return a copy of the serialized message
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(bytes, size);
+  }
+
+  /**
+   * Writes a variable-length integer, without any tag.
+   *
+   * @param value integer value
+   * @return this writer
+   */
+  public ProtoWriter writeRawVarint(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      bytes[size++] = (byte)((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[size++] = (byte)value;
+    return this;
+  }
+
+  /**
+   * Writes a little-endian 32-bit integer, without any tag.
+   *
+   * @param value integer value
+   * @return this writer
+   */
+  public ProtoWriter writeRawFixed32(int value) {
+    ensureCapacity(4);
+    for (int i = 0; i < 4; ++i) {
+      bytes[size++] = (byte)(value >>> (i * 8));
+    }
+    return this;
+  }
+
+  /**
+   * Writes a little-endian 64-bit integer, without any tag.
+   *
+   * @param value integer value
+   * @return this writer
+   */
+  public ProtoWriter writeRawFixed64(long value) {
+    ensureCapacity(8);
+    for (int i = 0; i < 8; ++i) {
+      bytes[size++] = (byte)(value >>> (i * 8));
+    }
+    return this;
+  }
+
+  private byte[] bytes = new byte[64];
+  private int size = 0;
+
+  private void writeTag(int fieldNumber, int wireType) {
+    if (fieldNumber <= 0) {
+      throw new IllegalArgumentException("Invalid field number " + fieldNumber);
+    }
+    writeRawVarint(((long)fieldNumber << 3) | wireType);
+  }
+
+  private void writeRawBytes(byte[] src, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(src, offset, bytes, size, length);
+    size += length;
+  }
+
+  private void ensureCapacity(int numBytes) {
+    if (size + numBytes > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + numBytes));
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.proto;
+
+/**
+ * Wire types of the fields encoded with the protocol buffer format.
+ */
+public final class WireType {
+
+  /** {@code int32}, {@code int64}, {@code uint32}, {@code uint64}, {@code sint*}, {@code bool}, enumerations */
+  public static final int VARINT = 0;
+
+  /** {@code fixed64}, {@code sfixed64}, {@code double} */
+  public static final int FIXED64 = 1;
+
+  /** {@code string}, {@code bytes}, embedded messages, packed repeated fields */
+  public static final int LENGTH_DELIMITED = 2;
+
+  /** {@code fixed32}, {@code sfixed32}, {@code float} */
+  public static final int FIXED32 = 5;
+
+  private WireType() {}
+}
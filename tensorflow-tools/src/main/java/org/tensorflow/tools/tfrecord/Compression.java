@@ -0,0 +1,91 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression applied to a whole TFRecord file.
+ */
+public enum Compression {
+
+  /** Records are not compressed, which allows files to be memory-mapped when read. */
+  NONE(""),
+
+  /** The file is compressed in the ZLIB format. */
+  ZLIB("ZLIB"),
+
+  /** The file is compressed in the GZIP format. */
+  GZIP("GZIP");
+
+  /**
+   * Returns the compression matching a compression type name of TensorFlow.
+   *
+   * @param name compression type, either {@code ""}, {@code "ZLIB"} or {@code "GZIP"}
+   * @return compression
+   * @throws IllegalArgumentException if the name is unknown
+   */
+  public static Compression fromName(String name) {
+    for (Compression compression : values()) {
+      if (compression.name.equals(name)) {
+        return compression;
+      }
+    }
+    throw new IllegalArgumentException("Unknown compression type \"" + name + "\"");
+  }
+
+  /**
+   * @return compression type name, as passed to the TFRecord operations of TensorFlow
+   */
+  public String typeName() {
+    return name;
+  }
+
+  InputStream decompress(InputStream in) throws IOException {
+    switch (this) {
+      case ZLIB:
+        return new InflaterInputStream(in);
+      case GZIP:
+        return new GZIPInputStream(in);
+      default:
+        return in;
+    }
+  }
+
+  OutputStream compress(OutputStream out) throws IOException {
+    switch (this) {
+      case ZLIB:
+        return new DeflaterOutputStream(out);
+      case GZIP:
+        return new GZIPOutputStream(out);
+      default:
+        return out;
+    }
+  }
+
+  private final String name;
+
+  Compression(String name) {
+    this.name = name;
+  }
+}
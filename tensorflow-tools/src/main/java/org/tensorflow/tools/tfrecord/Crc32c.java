@@ -0,0 +1,150 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.Checksum;
+
+/**
+ * Computes CRC-32C checksums, as used by the TFRecord format.
+ *
+ * <p>CRC-32C uses the Castagnoli polynomial, which differs from the one of {@link
+ * java.util.zip.CRC32}. The checksum is computed 8 bytes at a time, using the "slicing-by-8"
+ * algorithm.
+ *
+ * <p>TFRecord files store checksums in a masked form, obtained with {@link #mask(int)}, since
+ * computing the CRC of data that contains embedded CRCs is problematic.
+ *
+ * <p>Instances of this class are not thread-safe.
+ */
+public final class Crc32c implements Checksum {
+
+  /**
+   * Computes the checksum of a sequence of bytes.
+   *
+   * @param bytes array of bytes
+   * @param offset index of the first byte
+   * @param length number of bytes
+   * @return checksum value
+   */
+  public static int compute(byte[] bytes, int offset, int length) {
+    return ~update(~0, ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  /**
+   * Computes the checksum of the remaining bytes of a buffer.
+   *
+   * <p>The position of the buffer itself is left untouched.
+   *
+   * @param buffer buffer of bytes
+   * @return checksum value
+   */
+  public static int compute(ByteBuffer buffer) {
+    return ~update(~0, buffer.duplicate());
+  }
+
+  /**
+   * Masks a checksum before storing it in a TFRecord file.
+   *
+   * @param crc checksum value
+   * @return masked checksum
+   */
+  public static int mask(int crc) {
+    return ((crc >>> 15) | (crc << 17)) + MASK_DELTA;
+  }
+
+  /**
+   * Reverts {@link #mask(int)}.
+   *
+   * @param maskedCrc masked checksum
+   * @return checksum value
+   */
+  public static int unmask(int maskedCrc) {
+    int rotated = maskedCrc - MASK_DELTA;
+    return (rotated >>> 17) | (rotated << 15);
+  }
+
+  @Override
+  public void update(int b) {
+    crc = (crc >>> 8) ^ TABLE[0][(crc ^ b) & 0xFF];
+  }
+
+  @Override
+  public void update(byte[] bytes, int offset, int length) {
+    crc = update(crc, ByteBuffer.wrap(bytes, offset, length));
+  }
+
+  /**
+   * Updates the checksum with the remaining bytes of a buffer, moving its position to its limit.
+   *
+   * @param buffer buffer of bytes
+   */
+  public void update(ByteBuffer buffer) {
+    crc = update(crc, buffer);
+  }
+
+  @Override
+  public long getValue() {
+    return ~crc & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public void reset() {
+    crc = ~0;
+  }
+
+  private static final int POLYNOMIAL = 0x82F63B78;  // reversed Castagnoli polynomial
+  private static final int MASK_DELTA = 0xA282EAD8;
+  private static final int[][] TABLE = new int[8][256];
+
+  static {
+    for (int i = 0; i < 256; ++i) {
+      int c = i;
+      for (int k = 0; k < 8; ++k) {
+        c = (c & 1) != 0 ? (c >>> 1) ^ POLYNOMIAL : c >>> 1;
+      }
+      TABLE[0][i] = c;
+    }
+    for (int i = 0; i < 256; ++i) {
+      for (int t = 1; t < 8; ++t) {
+        int c = TABLE[t - 1][i];
+        TABLE[t][i] = (c >>> 8) ^ TABLE[0][c & 0xFF];
+      }
+    }
+  }
+
+  private int crc = ~0;
+
+  private static int update(int crc, ByteBuffer buffer) {
+    ByteOrder order = buffer.order();
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    int[][] t = TABLE;
+    while (buffer.remaining() >= 8) {
+      long word = buffer.getLong();
+      int lo = crc ^ (int)word;
+      int hi = (int)(word >>> 32);
+      crc = t[7][lo & 0xFF] ^ t[6][(lo >>> 8) & 0xFF] ^ t[5][(lo >>> 16) & 0xFF] ^ t[4][lo >>> 24]
+          ^ t[3][hi & 0xFF] ^ t[2][(hi >>> 8) & 0xFF] ^ t[1][(hi >>> 16) & 0xFF] ^ t[0][hi >>> 24];
+    }
+    while (buffer.hasRemaining()) {
+      crc = (crc >>> 8) ^ t[0][(crc ^ buffer.get()) & 0xFF];
+    }
+    buffer.order(order);
+    return crc;
+  }
+}
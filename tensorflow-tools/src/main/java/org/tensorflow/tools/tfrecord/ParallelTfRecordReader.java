@@ -0,0 +1,215 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads a set of TFRecord files in parallel.
+ *
+ * <p>Files are distributed dynamically between the reading threads, each thread reading whole
+ * files one after the other, so that the load stays balanced even when files have different
+ * sizes. When the same set of files is read by multiple processes, each of them can select its
+ * own shard of the files with {@link #shard(int, int)}.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    long numRecords = ParallelTfRecordReader.of(files)
+ *        .numThreads(8)
+ *        .shard(workerIndex, numWorkers)
+ *        .forEach(record -> process(record));
+ * }</pre>
+ */
+public final class ParallelTfRecordReader {
+
+  /** Consumes the records read by a {@link ParallelTfRecordReader}. */
+  @FunctionalInterface
+  public interface RecordConsumer {
+
+    /**
+     * Consumes a record.
+     *
+     * <p>This method is invoked concurrently by all reading threads. The record is only valid
+     * until this method returns.
+     *
+     * @param record data of the record
+     * @throws IOException to interrupt the reading of all files
+     */
+    void accept(ByteBuffer record) throws IOException;
+  }
+
+  /**
+   * Creates a reader of a set of files.
+   *
+   * @param files paths of the files to read
+   * @return a new reader
+   */
+  public static ParallelTfRecordReader of(List<Path> files) {
+    return new ParallelTfRecordReader(files);
+  }
+
+  /**
+   * Sets the compression of the files, {@link Compression#NONE} by default.
+   *
+   * @param compression compression of all files
+   * @return this reader
+   */
+  public ParallelTfRecordReader compression(Compression compression) {
+    this.compression = compression;
+    return this;
+  }
+
+  /**
+   * Sets whether checksums of the records should be verified, true by default.
+   *
+   * @param verifyChecksums true to verify checksums
+   * @return this reader
+   */
+  public ParallelTfRecordReader verifyChecksums(boolean verifyChecksums) {
+    this.verifyChecksums = verifyChecksums;
+    return this;
+  }
+
+  /**
+   * Sets the number of reading threads, the number of available processors by default.
+   *
+   * @param numThreads number of threads
+   * @return this reader
+   * @throws IllegalArgumentException if {@code numThreads} is not positive
+   */
+  public ParallelTfRecordReader numThreads(int numThreads) {
+    if (numThreads <= 0) {
+      throw new IllegalArgumentException("Number of threads must be positive, got " + numThreads);
+    }
+    this.numThreads = numThreads;
+    return this;
+  }
+
+  /**
+   * Reads only one shard of the files.
+   *
+   * <p>The files are split in {@code numShards} shards, file {@code i} belonging to shard
+   * {@code i % numShards}.
+   *
+   * @param shardIndex index of the shard to read
+   * @param numShards total number of shards
+   * @return this reader
+   * @throws IllegalArgumentException if {@code shardIndex} is not in {@code [0, numShards)}
+   */
+  public ParallelTfRecordReader shard(int shardIndex, int numShards) {
+    if (numShards <= 0 || shardIndex < 0 || shardIndex >= numShards) {
+      throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + numShards);
+    }
+    this.shardIndex = shardIndex;
+    this.numShards = numShards;
+    return this;
+  }
+
+  /**
+   * Reads all records of the selected files, blocking until they have all been consumed.
+   *
+   * <p>Records of the same file are consumed in order, while records of different files are
+   * consumed concurrently. The first failure interrupts the reading of all files.
+   *
+   * @param consumer consumer of the records
+   * @return number of records read
+   * @throws IOException if a file cannot be read or if the consumer failed
+   */
+  public long forEach(RecordConsumer consumer) throws IOException {
+    List<Path> shardFiles = new ArrayList<>();
+    for (int i = shardIndex; i < files.size(); i += numShards) {
+      shardFiles.add(files.get(i));
+    }
+    AtomicInteger nextFile = new AtomicInteger();
+    AtomicBoolean failed = new AtomicBoolean();
+    LongAdder numRecords = new LongAdder();
+    int threads = Math.min(numThreads, Math.max(shardFiles.size(), 1));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = Executors.defaultThreadFactory().newThread(r);
+      thread.setDaemon(true);
+      thread.setName("tensorflow-tfrecord-reader-" + thread.getId());
+      return thread;
+    });
+    try {
+      List<Future<Void>> tasks = new ArrayList<>(threads);
+      for (int t = 0; t < threads; ++t) {
+        tasks.add(executor.submit(() -> {
+          int fileIndex;
+          while (!failed.get() && (fileIndex = nextFile.getAndIncrement()) < shardFiles.size()) {
+            try (TfRecordReader reader =
+                TfRecordReader.open(shardFiles.get(fileIndex), compression, verifyChecksums)) {
+              ByteBuffer record;
+              while (!failed.get() && (record = reader.next()) != null) {
+                consumer.accept(record);
+                numRecords.increment();
+              }
+            } catch (IOException | RuntimeException e) {
+              failed.set(true);
+              throw e;
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<Void> task : tasks) {
+        task.get();
+      }
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException)cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error)cause;
+      }
+      throw new IOException(cause);
+    } catch (InterruptedException e) {
+      failed.set(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading records");
+    } finally {
+      executor.shutdownNow();
+    }
+    return numRecords.sum();
+  }
+
+  private final List<Path> files;
+  private Compression compression = Compression.NONE;
+  private boolean verifyChecksums = true;
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+  private int shardIndex = 0;
+  private int numShards = 1;
+
+  private ParallelTfRecordReader(List<Path> files) {
+    this.files = new ArrayList<>(files);
+  }
+}
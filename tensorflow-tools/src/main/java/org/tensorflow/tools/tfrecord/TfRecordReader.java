@@ -0,0 +1,275 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads records in the TFRecord format.
+ *
+ * <p>Uncompressed files are memory-mapped, and records are returned as read-only views of the
+ * mapped memory, without any copy. Compressed files and streams are decoded sequentially, records
+ * being returned as views of an internal buffer that is overwritten by the next read.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    try (TfRecordReader reader = TfRecordReader.open(path)) {
+ *      ByteBuffer record;
+ *      while ((record = reader.next()) != null) {
+ *        ProtoReader example = ProtoReader.of(record);
+ *        // ...
+ *      }
+ *    }
+ * }</pre>
+ *
+ * <p>Instances of this class are not thread-safe.
+ *
+ * @see TfRecordWriter
+ */
+public final class TfRecordReader implements Closeable {
+
+  /**
+   * Opens an uncompressed file of records, verifying their checksums.
+   *
+   * @param path path of the file
+   * @return a new reader
+   * @throws IOException if the file cannot be opened
+   */
+  public static TfRecordReader open(Path path) throws IOException {
+    return open(path, Compression.NONE, true);
+  }
+
+  /**
+   * Opens a file of records.
+   *
+   * <p>Skipping the verification of checksums speeds up reading when the integrity of the files is
+   * guaranteed by other means.
+   *
+   * @param path path of the file
+   * @param compression compression of the file
+   * @param verifyChecksums whether the checksums of the records should be verified
+   * @return a new reader
+   * @throws IOException if the file cannot be opened
+   */
+  public static TfRecordReader open(Path path, Compression compression, boolean verifyChecksums)
+      throws IOException {
+    if (compression == Compression.NONE) {
+      return new TfRecordReader(FileChannel.open(path, StandardOpenOption.READ), verifyChecksums);
+    }
+    return of(Files.newInputStream(path), compression, verifyChecksums);
+  }
+
+  /**
+   * Creates a reader of records from a stream.
+   *
+   * <p>The stream is closed when the reader is closed.
+   *
+   * @param in input stream
+   * @param compression compression of the stream
+   * @param verifyChecksums whether the checksums of the records should be verified
+   * @return a new reader
+   * @throws IOException if the compression header cannot be read
+   */
+  public static TfRecordReader of(InputStream in, Compression compression,
+      boolean verifyChecksums) throws IOException {
+    InputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+    if (compression != Compression.NONE) {
+      buffered = new BufferedInputStream(compression.decompress(buffered), BUFFER_SIZE);
+    }
+    return new TfRecordReader(buffered, verifyChecksums);
+  }
+
+  /**
+   * Reads the next record.
+   *
+   * <p>The returned buffer is read-only and positioned at the first byte of the record data, its
+   * limit being the end of the record. When reading a compressed file or a stream, its content is
+   * only valid until the next call to this method.
+   *
+   * @return the next record, or null if the end of the file has been reached
+   * @throws IOException if the record cannot be read, is truncated or if its checksums do not match
+   *                     its content
+   */
+  public ByteBuffer next() throws IOException {
+    ByteBuffer record = channel != null ? nextMapped() : nextStreamed();
+    if (record != null) {
+      ++numRecords;
+    }
+    return record;
+  }
+
+  /**
+   * @return number of records read so far
+   */
+  public long numRecords() {
+    return numRecords;
+  }
+
+  @Override
+  public void close() throws IOException {
+    window = null;
+    if (channel != null) {
+      channel.close();
+    } else {
+      in.close();
+    }
+  }
+
+  private static final int HEADER_SIZE = 12;
+  private static final int FOOTER_SIZE = 4;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final long WINDOW_SIZE = 1L << 30;
+
+  private final boolean verifyChecksums;
+  private long numRecords = 0;
+
+  // Memory-mapped files
+  private final FileChannel channel;
+  private final long fileSize;
+  private ByteBuffer window;
+  private long windowOffset;
+  private long offset = 0;
+
+  // Streams
+  private final InputStream in;
+  private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private byte[] data = new byte[0];
+
+  private TfRecordReader(FileChannel channel, boolean verifyChecksums) throws IOException {
+    this.channel = channel;
+    this.fileSize = channel.size();
+    this.in = null;
+    this.verifyChecksums = verifyChecksums;
+  }
+
+  private TfRecordReader(InputStream in, boolean verifyChecksums) {
+    this.channel = null;
+    this.fileSize = -1;
+    this.in = in;
+    this.verifyChecksums = verifyChecksums;
+  }
+
+  private ByteBuffer nextMapped() throws IOException {
+    if (offset == fileSize) {
+      return null;
+    }
+    if (fileSize - offset < HEADER_SIZE) {
+      throw truncated();
+    }
+    map(offset, HEADER_SIZE);
+    int headerPosition = (int)(offset - windowOffset);
+    long length = window.getLong(headerPosition);
+    if (verifyChecksums) {
+      ByteBuffer lengthBytes = window.duplicate();
+      lengthBytes.position(headerPosition).limit(headerPosition + 8);
+      verify(lengthBytes, window.getInt(headerPosition + 8), "length");
+    }
+    if (length < 0 || length > Integer.MAX_VALUE - HEADER_SIZE - FOOTER_SIZE) {
+      throw new IOException("Invalid record length " + length + " at offset " + offset);
+    }
+    if (fileSize - offset < HEADER_SIZE + length + FOOTER_SIZE) {
+      throw truncated();
+    }
+    map(offset, HEADER_SIZE + (int)length + FOOTER_SIZE);
+    int dataPosition = (int)(offset - windowOffset) + HEADER_SIZE;
+    ByteBuffer record = window.duplicate();
+    record.position(dataPosition).limit(dataPosition + (int)length);
+    record = record.slice().asReadOnlyBuffer();
+    if (verifyChecksums) {
+      verify(record, window.getInt(dataPosition + (int)length), "data");
+    }
+    offset += HEADER_SIZE + length + FOOTER_SIZE;
+    return record;
+  }
+
+  /** Maps a window of the file covering the given range, if the current one does not. */
+  private void map(long start, int size) throws IOException {
+    if (window != null && start >= windowOffset
+        && start + size <= windowOffset + window.capacity()) {
+      return;
+    }
+    long windowSize = Math.min(Math.max(WINDOW_SIZE, size), fileSize - start);
+    window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowSize)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    windowOffset = start;
+  }
+
+  private ByteBuffer nextStreamed() throws IOException {
+    header.clear();
+    int headerLength = readFully(header.array(), 0, HEADER_SIZE);
+    if (headerLength == 0) {
+      return null;
+    }
+    if (headerLength < HEADER_SIZE) {
+      throw truncated();
+    }
+    long length = header.getLong(0);
+    if (verifyChecksums) {
+      verify(ByteBuffer.wrap(header.array(), 0, 8), header.getInt(8), "length");
+    }
+    if (length < 0 || length > Integer.MAX_VALUE - FOOTER_SIZE) {
+      throw new IOException("Invalid record length " + length + " at record " + numRecords);
+    }
+    int totalLength = (int)length + FOOTER_SIZE;
+    if (data.length < totalLength) {
+      data = new byte[Math.max(totalLength, data.length * 2)];
+    }
+    if (readFully(data, 0, totalLength) < totalLength) {
+      throw truncated();
+    }
+    ByteBuffer record = ByteBuffer.wrap(data, 0, (int)length).slice();
+    if (verifyChecksums) {
+      int dataCrc = ByteBuffer.wrap(data, (int)length, FOOTER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN)
+          .getInt();
+      verify(record, dataCrc, "data");
+    }
+    return record.asReadOnlyBuffer();
+  }
+
+  private int readFully(byte[] bytes, int offset, int length) throws IOException {
+    int total = 0;
+    while (total < length) {
+      int count = in.read(bytes, offset + total, length - total);
+      if (count < 0) {
+        break;
+      }
+      total += count;
+    }
+    return total;
+  }
+
+  private void verify(ByteBuffer bytes, int maskedCrc, String what) throws IOException {
+    if (Crc32c.compute(bytes) != Crc32c.unmask(maskedCrc)) {
+      throw new IOException("Checksum mismatch in " + what + " of record " + numRecords);
+    }
+  }
+
+  private EOFException truncated() {
+    return new EOFException("Truncated record " + numRecords);
+  }
+}
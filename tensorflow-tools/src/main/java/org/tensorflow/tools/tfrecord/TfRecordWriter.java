@@ -0,0 +1,178 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes records in the TFRecord format.
+ *
+ * <p>Each record is stored as:
+ * <pre>
+ *    uint64 length
+ *    uint32 masked CRC-32C of length
+ *    byte   data[length]
+ *    uint32 masked CRC-32C of data
+ * </pre>
+ * where all integers are little-endian. Files written by this class can be read by
+ * {@link TfRecordReader} or by the TFRecord operations of TensorFlow.
+ *
+ * <p>Example of usage:
+ * <pre>{@code
+ *    try (TfRecordWriter writer = TfRecordWriter.create(path, Compression.GZIP)) {
+ *      for (byte[] example : examples) {
+ *        writer.write(example);
+ *      }
+ *    }
+ * }</pre>
+ *
+ * <p>Instances of this class are not thread-safe.
+ */
+public final class TfRecordWriter implements Closeable, Flushable {
+
+  /**
+   * Creates a file of records, replacing any existing file at the same path.
+   *
+   * @param path path of the file
+   * @param compression compression of the file
+   * @return a new writer
+   * @throws IOException if the file cannot be created
+   */
+  public static TfRecordWriter create(Path path, Compression compression) throws IOException {
+    return of(Files.newOutputStream(path), compression);
+  }
+
+  /**
+   * Creates a writer of records to a stream.
+   *
+   * <p>The stream is closed when the writer is closed.
+   *
+   * @param out output stream
+   * @param compression compression of the stream
+   * @return a new writer
+   * @throws IOException if the compression header cannot be written
+   */
+  public static TfRecordWriter of(OutputStream out, Compression compression) throws IOException {
+    OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+    if (compression != Compression.NONE) {
+      buffered = new BufferedOutputStream(compression.compress(buffered), BUFFER_SIZE);
+    }
+    return new TfRecordWriter(buffered);
+  }
+
+  /**
+   * Writes a record.
+   *
+   * @param record data of the record
+   * @return this writer
+   * @throws IOException if the record cannot be written
+   */
+  public TfRecordWriter write(byte[] record) throws IOException {
+    return write(record, 0, record.length);
+  }
+
+  /**
+   * Writes a record.
+   *
+   * @param bytes array containing the data of the record
+   * @param offset index of the first byte of the record
+   * @param length number of bytes in the record
+   * @return this writer
+   * @throws IOException if the record cannot be written
+   */
+  public TfRecordWriter write(byte[] bytes, int offset, int length) throws IOException {
+    writeHeader(length);
+    out.write(bytes, offset, length);
+    writeFooter(Crc32c.compute(bytes, offset, length));
+    return this;
+  }
+
+  /**
+   * Writes a record from the remaining bytes of a buffer.
+   *
+   * <p>The position of the buffer itself is left untouched.
+   *
+   * @param record data of the record
+   * @return this writer
+   * @throws IOException if the record cannot be written
+   */
+  public TfRecordWriter write(ByteBuffer record) throws IOException {
+    if (record.hasArray()) {
+      return write(record.array(), record.arrayOffset() + record.position(), record.remaining());
+    }
+    int length = record.remaining();
+    writeHeader(length);
+    ByteBuffer data = record.duplicate();
+    byte[] chunk = new byte[Math.min(length, BUFFER_SIZE)];
+    while (data.hasRemaining()) {
+      int chunkLength = Math.min(data.remaining(), chunk.length);
+      data.get(chunk, 0, chunkLength);
+      out.write(chunk, 0, chunkLength);
+    }
+    writeFooter(Crc32c.compute(record));
+    return this;
+  }
+
+  /**
+   * @return number of records written so far
+   */
+  public long numRecords() {
+    return numRecords;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final OutputStream out;
+  private final ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+  private long numRecords = 0;
+
+  private TfRecordWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  private void writeHeader(long length) throws IOException {
+    header.clear();
+    header.putLong(length);
+    header.putInt(Crc32c.mask(Crc32c.compute(header.array(), 0, 8)));
+    out.write(header.array(), 0, 12);
+  }
+
+  private void writeFooter(int dataCrc) throws IOException {
+    header.clear();
+    header.putInt(Crc32c.mask(dataCrc));
+    out.write(header.array(), 0, 4);
+    ++numRecords;
+  }
+}
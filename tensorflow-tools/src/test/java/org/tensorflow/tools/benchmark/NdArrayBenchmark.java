@@ -96,6 +96,12 @@ public class NdArrayBenchmark {
 	  firstBatch.set(channels);
 	}
 
+	@Benchmark
+	@Measurement(batchSize = BATCH_SIZE)
+	public void writeFirstBatchChannelsFromTransposedPixels() {
+		firstBatch.set(pixels.transpose());
+	}
+
 	@Benchmark
 	public void writeAllBatchChannels() {
 	  batches.elements(0).forEach(batch ->
@@ -0,0 +1,272 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.checkpoint;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.ndarray.FloatNdArray;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArray;
+import org.tensorflow.tools.proto.ProtoWriter;
+import org.tensorflow.tools.tfrecord.Crc32c;
+
+public class CheckpointReaderTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void readSavedModelVariables() throws IOException, URISyntaxException {
+    Path index = Paths.get(getClass().getClassLoader().getResource("checkpoint/variables.index")
+        .toURI());
+    try (CheckpointReader checkpoint =
+        CheckpointReader.open(index.resolveSibling("variables"))) {
+      List<String> names = new ArrayList<>();
+      checkpoint.entries().forEach(e -> names.add(e.name()));
+      assertEquals(Arrays.asList("a", "b", "c"), names);
+
+      CheckpointEntry b = checkpoint.entry("b");
+      assertEquals(1, b.dataType());
+      assertEquals(Shape.scalar(), b.shape());
+      assertEquals(4L, b.offset());
+
+      assertEquals(0.5f, checkpoint.readFloats("a").getFloat(), 0.0f);
+      assertEquals(2.0f, checkpoint.readFloats("b").getFloat(), 0.0f);
+      assertEquals(3.0f, ((FloatNdArray)checkpoint.read("c")).getFloat(), 0.0f);
+      assertFalse(checkpoint.contains("d"));
+    }
+  }
+
+  @Test
+  public void readTensorsOfAllShapes() throws IOException {
+    ByteBuffer matrix = ByteBuffer.allocate(48).order(ByteOrder.LITTLE_ENDIAN);
+    for (long i = 0; i < 6; ++i) {
+      matrix.putLong(i * 10);
+    }
+    Crc32c stringCrc = new Crc32c();
+    byte[] stringData = stringTensor(stringCrc, "abc", "");
+    byte[] matrixData = matrix.array();
+    Path prefix = writeCheckpoint(
+        new String[] { "matrix", "strings" },
+        new ProtoWriter[] {
+            entry(9, shape(2, 3), 0, matrixData),
+            entry(7, shape(2), matrixData.length, stringData.length,
+                Crc32c.mask((int)stringCrc.getValue()))
+        },
+        concat(matrixData, stringData)
+    );
+
+    try (CheckpointReader checkpoint = CheckpointReader.open(prefix)) {
+      LongNdArray longs = checkpoint.readLongs("matrix");
+      assertEquals(Shape.make(2, 3), longs.shape());
+      assertEquals(50L, longs.getLong(1, 2));
+      assertEquals(30L, longs.getLong(1, 0));
+      try {
+        longs.setLong(1L, 0, 0);
+        fail();
+      } catch (ReadOnlyBufferException e) {
+        // as expected
+      }
+
+      NdArray<byte[]> values = checkpoint.readStrings("strings");
+      assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), values.getObject(0));
+      assertEquals(0, values.getObject(1).length);
+
+      try {
+        checkpoint.readFloats("matrix");
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+
+  @Test
+  public void readStringsWrittenByBundleWriter() throws IOException, URISyntaxException {
+    Path index = Paths.get(getClass().getClassLoader().getResource("checkpoint/strings.index")
+        .toURI());
+    try (CheckpointReader checkpoint = CheckpointReader.open(index.resolveSibling("strings"))) {
+      assertEquals(14, checkpoint.readStrings("_CHECKPOINTABLE_OBJECT_GRAPH").getObject().length);
+      NdArray<byte[]> words = checkpoint.readStrings("words");
+      assertEquals(Shape.make(3), words.shape());
+      assertArrayEquals("hello".getBytes(StandardCharsets.UTF_8), words.getObject(0));
+      assertEquals(0, words.getObject(1).length);
+      assertArrayEquals("tensorflow".getBytes(StandardCharsets.UTF_8), words.getObject(2));
+    }
+  }
+
+  @Test
+  public void detectCorruptedStringLengths() throws IOException {
+    Crc32c crc = new Crc32c();
+    byte[] data = stringTensor(crc, "abc");
+    data[1] ^= 1;  // corrupts the checksum of the lengths
+    Path prefix = writeCheckpoint(new String[] { "x" },
+        new ProtoWriter[] { entry(7, shape(), 0, data.length, Crc32c.mask((int)crc.getValue())) },
+        data);
+    try (CheckpointReader checkpoint = CheckpointReader.open(prefix)) {
+      checkpoint.readStrings("x");
+      fail();
+    } catch (IOException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void detectCorruptedTensors() throws IOException {
+    byte[] data = new byte[] { 1, 2, 3, 4 };
+    Path prefix = writeCheckpoint(new String[] { "x" },
+        new ProtoWriter[] { entry(3, shape(), 0, data) }, new byte[] { 1, 2, 3, 5 });
+    try (CheckpointReader checkpoint = CheckpointReader.open(prefix)) {
+      checkpoint.readInts("x");
+      fail();
+    } catch (IOException e) {
+      // as expected
+    }
+    try (CheckpointReader checkpoint = CheckpointReader.open(prefix, false)) {
+      assertEquals(0x05030201, checkpoint.readInts("x").getInt());
+    }
+  }
+
+  private Path writeCheckpoint(String[] names, ProtoWriter[] entries, byte[] data)
+      throws IOException {
+    ByteArrayOutputStream table = new ByteArrayOutputStream();
+    ProtoWriter header = new ProtoWriter().writeInt32(1, 1);
+    ByteArrayOutputStream blockEntries = new ByteArrayOutputStream();
+    writeBlockEntry(blockEntries, new byte[0], header.toByteArray());
+    for (int i = 0; i < names.length; ++i) {
+      writeBlockEntry(blockEntries, names[i].getBytes(StandardCharsets.UTF_8),
+          entries[i].toByteArray());
+    }
+    long dataBlockSize = writeBlock(table, blockEntries.toByteArray());
+
+    long metaIndexOffset = table.size();
+    long metaIndexSize = writeBlock(table, new byte[0]);
+
+    ByteArrayOutputStream indexEntries = new ByteArrayOutputStream();
+    writeBlockEntry(indexEntries, names[names.length - 1].getBytes(StandardCharsets.UTF_8),
+        new ProtoWriter().writeRawVarint(0).writeRawVarint(dataBlockSize).toByteArray());
+    long indexOffset = table.size();
+    long indexSize = writeBlock(table, indexEntries.toByteArray());
+
+    byte[] handles = new ProtoWriter()
+        .writeRawVarint(metaIndexOffset)
+        .writeRawVarint(metaIndexSize)
+        .writeRawVarint(indexOffset)
+        .writeRawVarint(indexSize)
+        .toByteArray();
+    table.write(handles);
+    table.write(new byte[40 - handles.length]);
+    table.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+        .putLong(0xdb4775248b80fb57L).array());
+
+    Path prefix = tempFolder.getRoot().toPath().resolve("model.ckpt");
+    Files.write(Paths.get(prefix + ".index"), table.toByteArray());
+    Files.write(Paths.get(prefix + ".data-00000-of-00001"), data);
+    return prefix;
+  }
+
+  private static void writeBlockEntry(ByteArrayOutputStream block, byte[] key, byte[] value)
+      throws IOException {
+    block.write(new ProtoWriter()
+        .writeRawVarint(0)
+        .writeRawVarint(key.length)
+        .writeRawVarint(value.length)
+        .toByteArray());
+    block.write(key);
+    block.write(value);
+  }
+
+  private static long writeBlock(ByteArrayOutputStream table, byte[] entries) throws IOException {
+    byte[] contents = concat(entries, ByteBuffer.allocate(9).order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(0)  // restart offset
+        .putInt(1)  // number of restarts
+        .put((byte)0)  // compression type
+        .array());
+    table.write(contents);
+    table.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(Crc32c.mask(Crc32c.compute(contents, 0, contents.length)))
+        .array());
+    return contents.length - 1;
+  }
+
+  private static ProtoWriter entry(int dataType, ProtoWriter shape, long offset, byte[] data) {
+    return entry(dataType, shape, offset, data.length,
+        Crc32c.mask(Crc32c.compute(data, 0, data.length)));
+  }
+
+  private static ProtoWriter entry(int dataType, ProtoWriter shape, long offset, long size,
+      int crc32c) {
+    return new ProtoWriter()
+        .writeInt32(1, dataType)
+        .writeMessage(2, shape)
+        .writeInt64(4, offset)
+        .writeInt64(5, size)
+        .writeFixed32(6, crc32c);
+  }
+
+  // Encodes strings like the TensorFlow bundle writer, updating crc with the tensor checksum
+  private static byte[] stringTensor(Crc32c crc, String... values) throws IOException {
+    ProtoWriter lengths = new ProtoWriter();
+    ByteArrayOutputStream strings = new ByteArrayOutputStream();
+    for (String value : values) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      lengths.writeRawVarint(bytes.length);
+      crc.update(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(bytes.length)
+          .array(), 0, 4);
+      strings.write(bytes);
+    }
+    byte[] lengthChecksum = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN)
+        .putInt(Crc32c.mask((int)crc.getValue())).array();
+    crc.update(lengthChecksum, 0, 4);
+    crc.update(strings.toByteArray(), 0, strings.size());
+    return concat(concat(lengths.toByteArray(), lengthChecksum), strings.toByteArray());
+  }
+
+  private static ProtoWriter shape(long... dimensions) {
+    ProtoWriter shape = new ProtoWriter();
+    for (long dimension : dimensions) {
+      shape.writeMessage(2, new ProtoWriter().writeInt64(1, dimension));
+    }
+    return shape;
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.example;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffer;
+import org.tensorflow.tools.buffer.FloatDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.proto.ProtoWriter;
+
+public class ExampleDecoderTest {
+
+  @Test
+  public void decodeExamples() {
+    ExampleDecoder decoder = ExampleDecoder.of(Arrays.asList(
+        FeatureSpec.floats("x", 3),
+        FeatureSpec.longs("label", 1, -1L),
+        FeatureSpec.bytes("id", 1)
+    ));
+    ByteBuffer first = example(new ProtoWriter()
+        .writeMessage(1, entry("x", floatList(1.0f, 2.0f, 3.0f)))
+        .writeMessage(1, entry("ignored", floatList(4.0f)))
+        .writeMessage(1, entry("label", int64List(7L)))
+        .writeMessage(1, entry("id", bytesList("a"))));
+    ByteBuffer second = example(new ProtoWriter()
+        .writeMessage(1, entry("id", bytesList("b")))
+        .writeMessage(1, entry("x", unpackedFloatList(4.0f, 5.0f, 6.0f))));
+
+    ExampleBatch batch = decoder.decode(Arrays.asList(first, second));
+    assertEquals(2, batch.batchSize());
+    assertEquals(Shape.make(2, 3), batch.shape("x"));
+
+    FloatDataBuffer x = batch.floats("x");
+    float[] values = new float[6];
+    x.read(values);
+    assertArrayEquals(new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f }, values, 0.0f);
+    LongDataBuffer labels = batch.longs("label");
+    assertEquals(7L, labels.getLong(0));
+    assertEquals(-1L, labels.getLong(1));
+    DataBuffer<byte[]> ids = batch.bytes("id");
+    assertEquals("a", new String(ids.getObject(0), StandardCharsets.UTF_8));
+    assertEquals("b", new String(ids.getObject(1), StandardCharsets.UTF_8));
+
+    // batches can be reused
+    decoder.decode(first, batch, 1);
+    assertEquals(7L, labels.getLong(1));
+    assertEquals(1.0f, x.getFloat(3), 0.0f);
+  }
+
+  @Test
+  public void rejectInvalidExamples() {
+    ExampleDecoder decoder = ExampleDecoder.of(Arrays.asList(
+        FeatureSpec.floats("x", 2),
+        FeatureSpec.longs("y", 1, 0L)
+    ));
+    ExampleBatch batch = decoder.newBatch(1);
+    ByteBuffer[] invalidExamples = {
+        example(new ProtoWriter()),
+        example(new ProtoWriter().writeMessage(1, entry("x", floatList(1.0f)))),
+        example(new ProtoWriter().writeMessage(1, entry("x", floatList(1.0f, 2.0f, 3.0f)))),
+        example(new ProtoWriter().writeMessage(1, entry("x", int64List(1L, 2L)))),
+        ByteBuffer.wrap(new byte[] { 0x0A, 0x05, 0x01 })
+    };
+    for (ByteBuffer invalidExample : invalidExamples) {
+      try {
+        decoder.decode(invalidExample, batch, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+    try {
+      decoder.decode(invalidExamples[0], batch, 1);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // as expected
+    }
+    try {
+      ExampleDecoder.of(Arrays.asList(FeatureSpec.floats("x", 1), FeatureSpec.longs("x", 1)));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void decodeSequenceExamples() {
+    ExampleDecoder decoder = ExampleDecoder.ofSequence(
+        Collections.singletonList(FeatureSpec.longs("length", 1)),
+        Arrays.asList(FeatureSpec.longs("tokens", 1), FeatureSpec.floats("weights", 2, -1.0f)),
+        3
+    );
+    ProtoWriter context = new ProtoWriter().writeMessage(1, entry("length", int64List(2L)));
+    ProtoWriter featureLists = new ProtoWriter()
+        .writeMessage(1, new ProtoWriter()
+            .writeString(1, "tokens")
+            .writeMessage(2, new ProtoWriter()
+                .writeMessage(1, int64List(10L))
+                .writeMessage(1, int64List(11L))))
+        .writeMessage(1, new ProtoWriter()
+            .writeString(1, "weights")
+            .writeMessage(2, new ProtoWriter()
+                .writeMessage(1, floatList(0.5f, 1.5f))));
+    ByteBuffer example = ByteBuffer.wrap(new ProtoWriter()
+        .writeMessage(1, context)
+        .writeMessage(2, featureLists)
+        .toByteArray());
+
+    ExampleBatch batch = decoder.decode(Collections.singletonList(example));
+    assertEquals(Shape.make(1, 3, 2), batch.shape("weights"));
+    assertEquals(2L, batch.longs("length").getLong(0));
+
+    LongDataBuffer tokens = batch.longs("tokens");
+    assertEquals(10L, tokens.getLong(0));
+    assertEquals(11L, tokens.getLong(1));
+    assertEquals(0L, tokens.getLong(2));
+    assertEquals(2L, batch.sequenceLengths("tokens").getLong(0));
+
+    float[] weights = new float[6];
+    batch.floats("weights").read(weights);
+    assertArrayEquals(new float[] { 0.5f, 1.5f, -1.0f, -1.0f, -1.0f, -1.0f }, weights, 0.0f);
+    assertEquals(1L, batch.sequenceLengths("weights").getLong(0));
+  }
+
+  private static ByteBuffer example(ProtoWriter features) {
+    return ByteBuffer.wrap(new ProtoWriter().writeMessage(1, features).toByteArray());
+  }
+
+  private static ProtoWriter entry(String name, ProtoWriter feature) {
+    return new ProtoWriter().writeString(1, name).writeMessage(2, feature);
+  }
+
+  private static ProtoWriter floatList(float... values) {
+    ProtoWriter packed = new ProtoWriter();
+    for (float value : values) {
+      packed.writeRawFixed32(Float.floatToIntBits(value));
+    }
+    return new ProtoWriter().writeMessage(2, new ProtoWriter().writeMessage(1, packed));
+  }
+
+  private static ProtoWriter unpackedFloatList(float... values) {
+    ProtoWriter list = new ProtoWriter();
+    for (float value : values) {
+      list.writeFloat(1, value);
+    }
+    return new ProtoWriter().writeMessage(2, list);
+  }
+
+  private static ProtoWriter int64List(long... values) {
+    ProtoWriter packed = new ProtoWriter();
+    for (long value : values) {
+      packed.writeRawVarint(value);
+    }
+    return new ProtoWriter().writeMessage(3, new ProtoWriter().writeMessage(1, packed));
+  }
+
+  private static ProtoWriter bytesList(String... values) {
+    ProtoWriter list = new ProtoWriter();
+    for (String value : values) {
+      list.writeString(1, value);
+    }
+    return new ProtoWriter().writeMessage(1, list);
+  }
+}
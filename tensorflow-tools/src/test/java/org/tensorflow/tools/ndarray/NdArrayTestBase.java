@@ -24,6 +24,7 @@ import static org.tensorflow.tools.ndarray.index.Indices.at;
 import static org.tensorflow.tools.ndarray.index.Indices.even;
 import static org.tensorflow.tools.ndarray.index.Indices.flip;
 import static org.tensorflow.tools.ndarray.index.Indices.from;
+import static org.tensorflow.tools.ndarray.index.Indices.mask;
 import static org.tensorflow.tools.ndarray.index.Indices.odd;
 import static org.tensorflow.tools.ndarray.index.Indices.range;
 import static org.tensorflow.tools.ndarray.index.Indices.seq;
@@ -31,6 +32,7 @@ import static org.tensorflow.tools.ndarray.index.Indices.to;
 
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
+import java.nio.ReadOnlyBufferException;
 import java.util.stream.LongStream;
 import org.junit.Test;
 import org.tensorflow.tools.Shape;
@@ -250,6 +252,232 @@ public abstract class NdArrayTestBase<T> {
     assertEquals(val200, matrix_X0Z.getObject(2, 0));
   }
 
+  @Test
+  public void permuteAndTranspose() {
+    NdArray<T> matrix3d = allocate(Shape.make(2, 3, 4));
+    matrix3d.scalars().forEachIndexed((coords, scalar) ->
+        scalar.setObject(valueOf(coords[0] * 100 + coords[1] * 10 + coords[2]))
+    );
+
+    // Permuted view [z, x, y]
+    NdArray<T> zxy = matrix3d.permute(2, 0, 1);
+    assertEquals(Shape.make(4, 2, 3), zxy.shape());
+    assertEquals(valueOf(0L), zxy.getObject(0, 0, 0));
+    assertEquals(valueOf(123L), zxy.getObject(3, 1, 2));
+    assertEquals(valueOf(12L), zxy.getObject(2, 0, 1));
+
+    // Elements of the view can be iterated and copied to a dense array
+    NdArray<T> zx1 = zxy.slice(all(), all(), at(1));
+    assertEquals(Shape.make(4, 2), zx1.shape());
+    assertEquals(valueOf(112L), zx1.getObject(2, 1));
+    NdArray<T> copy = allocate(zxy.shape());
+    zxy.copyTo(copy);
+    assertEquals(valueOf(12L), copy.getObject(2, 0, 1));
+    assertEquals(valueOf(123L), copy.getObject(3, 1, 2));
+    long i = 0L;
+    for (NdArray<T> vector : zxy.elements(1)) {
+      assertEquals(Shape.make(3), vector.shape());
+      assertEquals(valueOf((i % 2) * 100 + (i / 2)), vector.getObject(0));
+      ++i;
+    }
+
+    // Permutation preserving the inner dimension
+    NdArray<T> yxz = matrix3d.permute(1, 0, 2);
+    assertEquals(Shape.make(3, 2, 4), yxz.shape());
+    NdArray<T> yxzCopy = allocate(yxz.shape());
+    yxz.copyTo(yxzCopy);
+    assertEquals(valueOf(103L), yxzCopy.getObject(0, 1, 3));
+    assertEquals(valueOf(21L), yxzCopy.getObject(2, 0, 1));
+
+    // Changes to the view are reflected in the original array
+    zxy.setObject(valueOf(99L), 3, 1, 0);
+    assertEquals(valueOf(99L), matrix3d.getObject(1, 0, 3));
+
+    // Transposing twice returns the original layout
+    NdArray<T> transposed = matrix3d.transpose();
+    assertEquals(Shape.make(4, 3, 2), transposed.shape());
+    assertEquals(valueOf(121L), transposed.getObject(1, 2, 1));
+    assertEquals(valueOf(121L), transposed.transpose().getObject(1, 2, 1));
+
+    try {
+      matrix3d.permute(0, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+    try {
+      matrix3d.permute(0, 1, 1);
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void reshape() {
+    NdArray<T> matrix = allocate(Shape.make(3, 4));
+    matrix.scalars().forEachIndexed((coords, scalar) ->
+        scalar.setObject(valueOf(coords[0] * 4 + coords[1]))
+    );
+
+    NdArray<T> reshaped = matrix.reshape(Shape.make(2, 2, 3));
+    assertEquals(Shape.make(2, 2, 3), reshaped.shape());
+    assertEquals(valueOf(5L), reshaped.getObject(0, 1, 2));
+    assertEquals(valueOf(11L), reshaped.getObject(1, 1, 2));
+
+    reshaped.setObject(valueOf(100L), 1, 0, 0);
+    assertEquals(valueOf(100L), matrix.getObject(1, 2));
+
+    NdArray<T> vector = matrix.get(1).reshape(Shape.make(2, 2));
+    assertEquals(valueOf(100L), vector.getObject(1, 0));
+
+    try {
+      matrix.reshape(Shape.make(5, 2));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+    try {
+      matrix.transpose().reshape(Shape.make(12));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void broadcastTo() {
+    NdArray<T> vector = allocate(Shape.make(3))
+        .setObject(valueOf(1L), 0)
+        .setObject(valueOf(2L), 1)
+        .setObject(valueOf(3L), 2);
+
+    NdArray<T> broadcast = vector.broadcastTo(Shape.make(2, 4, 3));
+    assertEquals(Shape.make(2, 4, 3), broadcast.shape());
+    assertEquals(valueOf(1L), broadcast.getObject(0, 0, 0));
+    assertEquals(valueOf(2L), broadcast.getObject(1, 3, 1));
+    assertEquals(valueOf(3L), broadcast.getObject(1, 2, 2));
+
+    NdArray<T> copy = allocate(broadcast.shape());
+    broadcast.copyTo(copy);
+    copy.elements(1).forEach(v -> {
+      assertEquals(valueOf(1L), v.getObject(0));
+      assertEquals(valueOf(2L), v.getObject(1));
+      assertEquals(valueOf(3L), v.getObject(2));
+    });
+    DataBuffer<T> buffer = allocateBuffer(broadcast.size());
+    broadcast.read(buffer);
+    assertEquals(valueOf(1L), buffer.getObject(21));
+    assertEquals(valueOf(3L), buffer.getObject(23));
+
+    // Expanding a dimension of size 1
+    NdArray<T> column = allocate(Shape.make(2, 1))
+        .setObject(valueOf(5L), 0, 0)
+        .setObject(valueOf(6L), 1, 0);
+    NdArray<T> matrix = column.broadcastTo(Shape.make(2, 4));
+    assertEquals(valueOf(5L), matrix.getObject(0, 3));
+    assertEquals(valueOf(6L), matrix.getObject(1, 2));
+    NdArray<T> matrixCopy = allocate(matrix.shape());
+    matrix.copyTo(matrixCopy);
+    assertEquals(valueOf(5L), matrixCopy.getObject(0, 1));
+    assertEquals(valueOf(6L), matrixCopy.getObject(1, 3));
+
+    try {
+      broadcast.setObject(valueOf(10L), 0, 0, 0);
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // as expected
+    }
+    try {
+      vector.copyTo(broadcast.get(0, 0));
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // as expected
+    }
+    try {
+      vector.broadcastTo(Shape.make(2, 4));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void gatherAndScatter() {
+    NdArray<T> matrix = allocate(Shape.make(4, 3));
+    matrix.scalars().forEachIndexed((coords, s) -> s.setObject(valueOf(coords[0] * 10 + coords[1])));
+
+    NdArray<T> rows = allocate(Shape.make(3, 3));
+    matrix.gather(NdArrays.vectorOf(3L, 0L, 3L), 0, rows);
+    assertEquals(valueOf(31L), rows.getObject(0, 1));
+    assertEquals(valueOf(2L), rows.getObject(1, 2));
+    assertEquals(valueOf(30L), rows.getObject(2, 0));
+
+    NdArray<T> columns = allocate(Shape.make(4, 2));
+    matrix.gather(NdArrays.vectorOf(2, 0), 1, columns);
+    assertEquals(valueOf(12L), columns.getObject(1, 0));
+    assertEquals(valueOf(30L), columns.getObject(3, 1));
+
+    NdArray<T> nested = allocate(Shape.make(2, 1, 3));
+    matrix.gather(NdArrays.ofLongs(Shape.make(2, 1)).setLong(1L, 0, 0).setLong(2L, 1, 0), 0, nested);
+    assertEquals(valueOf(11L), nested.getObject(0, 0, 1));
+    assertEquals(valueOf(22L), nested.getObject(1, 0, 2));
+
+    NdArray<T> target = allocate(Shape.make(4, 3));
+    target.scatter(rows.slice(range(1, 3)), NdArrays.vectorOf(2L, 1L), 0);
+    assertEquals(valueOf(2L), target.getObject(2, 2));
+    assertEquals(valueOf(30L), target.getObject(1, 0));
+    assertEquals(zeroOrNull(), target.getObject(0, 1));
+    assertEquals(zeroOrNull(), target.getObject(3, 1));
+
+    NdArray<T> large = allocate(Shape.make(1000, 100));
+    large.elements(0).forEachIndexed((coords, row) -> row.setObject(valueOf(coords[0]), 99));
+    long[] reversed = LongStream.range(0, 1000).map(i -> 999 - i).toArray();
+    NdArray<T> largeCopy = allocate(large.shape());
+    large.gather(NdArrays.vectorOf(reversed), 0, largeCopy);
+    assertEquals(valueOf(999L), largeCopy.getObject(0, 99));
+    assertEquals(valueOf(1L), largeCopy.getObject(998, 99));
+
+    try {
+      matrix.gather(NdArrays.vectorOf(4L), 0, allocate(Shape.make(1, 3)));
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // as expected
+    }
+    try {
+      matrix.gather(NdArrays.vectorOf(0L, 1L), 0, allocate(Shape.make(3, 3)));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void sliceWithMask() {
+    NdArray<T> matrix = allocate(Shape.make(4, 3));
+    matrix.scalars().forEachIndexed((coords, s) -> s.setObject(valueOf(coords[0] * 10 + coords[1])));
+
+    NdArray<T> selected = matrix.slice(mask(NdArrays.vectorOf(true, false, true, false)));
+    assertEquals(Shape.make(2, 3), selected.shape());
+    assertEquals(valueOf(1L), selected.getObject(0, 1));
+    assertEquals(valueOf(21L), selected.getObject(1, 1));
+
+    NdArray<T> copy = allocate(selected.shape());
+    selected.copyTo(copy);
+    assertEquals(valueOf(22L), copy.getObject(1, 2));
+
+    NdArray<T> column = matrix.slice(all(), mask(NdArrays.vectorOf(false, false, true)));
+    assertEquals(Shape.make(4, 1), column.shape());
+    assertEquals(valueOf(32L), column.getObject(3, 0));
+
+    try {
+      matrix.slice(mask(NdArrays.vectorOf(true, false)));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+
   @Test
   public void writeAndReadWithBuffers() {
     DataBuffer<T> buffer = allocateBuffer(15L);
@@ -0,0 +1,98 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.IntDataBuffer;
+import org.tensorflow.tools.ndarray.impl.AbstractNdArray;
+
+public class RaggedNdArrayTest {
+
+  @Test
+  public void accessRows() {
+    IntDataBuffer values = DataBuffers.from(new int[] { 1, 2, 3, 4, 5 }, false, false);
+    RaggedNdArray<Integer, IntNdArray> ragged =
+        NdArrays.raggedOf(values, DataBuffers.from(new long[] { 0, 3, 3, 5 }, true, false));
+
+    assertArrayEquals(new long[] { 3, Shape.UNKNOWN_SIZE }, ragged.shape().asArray());
+    assertEquals(3, ragged.numRows());
+    assertEquals(5, ragged.numValues());
+    assertEquals(3, ragged.maxRowLength());
+    assertEquals(0, ragged.rowLength(1));
+
+    assertEquals(Shape.make(3), ragged.row(0).shape());
+    assertEquals(0, ragged.row(1).size());
+    assertEquals(5, ragged.row(2).getInt(1));
+
+    int[] lengths = new int[3];
+    int i = 0;
+    for (IntNdArray row : ragged.rows()) {
+      lengths[i++] = (int)row.size();
+    }
+    assertArrayEquals(new int[] { 3, 0, 2 }, lengths);
+
+    // rows are views over the values
+    ragged.row(2).setInt(10, 0);
+    assertEquals(10, values.getInt(3));
+  }
+
+  @Test
+  public void wrapValuesAndSplits() {
+    FloatNdArray values = NdArrays.ofFloats(Shape.make(4, 2));
+    LongNdArray rowSplits = NdArrays.vectorOf(0L, 1L, 4L);
+    RaggedNdArray<Float, FloatNdArray> ragged = RaggedNdArray.create(values, rowSplits);
+
+    assertArrayEquals(new long[] { 2, Shape.UNKNOWN_SIZE, 2 }, ragged.shape().asArray());
+    assertSame(values, ragged.values());
+    assertSame(rowSplits, ragged.rowSplits());
+
+    ragged.row(1).setFloat(7.0f, 2, 1);
+    assertEquals(7.0f, values.getFloat(3, 1), 0.0f);
+
+    // rows are continuous, so they can be copied in bulk
+    FloatNdArray row = ragged.row(1);
+    assertFalse(((AbstractNdArray<?, ?>)row).dimensions().isSegmented());
+    row.write(new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f });
+    float[] rowValues = new float[6];
+    row.read(rowValues);
+    assertArrayEquals(new float[] { 1.0f, 2.0f, 3.0f, 4.0f, 5.0f, 6.0f }, rowValues, 0.0f);
+    assertEquals(1.0f, values.getFloat(1, 0), 0.0f);
+    assertEquals(6.0f, values.getFloat(3, 1), 0.0f);
+    assertEquals(0.0f, values.getFloat(0, 1), 0.0f);
+  }
+
+  @Test
+  public void invalidRowSplits() {
+    FloatNdArray values = NdArrays.ofFloats(Shape.make(4));
+    for (long[] splits : new long[][] { {}, { 1, 4 }, { 0, 3, 2 }, { 0, 5 } }) {
+      try {
+        RaggedNdArray.create(values, NdArrays.vectorOf(splits));
+        fail();
+      } catch (IllegalArgumentException e) {
+        // as expected
+      }
+    }
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.ndarray.impl.sparse;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import org.junit.Test;
+import org.tensorflow.tools.Shape;
+import org.tensorflow.tools.buffer.DataBuffers;
+import org.tensorflow.tools.buffer.FloatDataBuffer;
+import org.tensorflow.tools.buffer.LongDataBuffer;
+import org.tensorflow.tools.ndarray.FloatNdArray;
+import org.tensorflow.tools.ndarray.FloatSparseNdArray;
+import org.tensorflow.tools.ndarray.LongNdArray;
+import org.tensorflow.tools.ndarray.NdArrays;
+import org.tensorflow.tools.ndarray.index.Index;
+import org.tensorflow.tools.ndarray.index.Indices;
+
+public class FloatSparseNdArrayTest {
+
+  // [[0, 1, 0, 0],
+  //  [0, 0, 0, 0],
+  //  [2, 0, 3, 0]]
+  private static final float[] DENSE = { 0, 1, 0, 0, 0, 0, 0, 0, 2, 0, 3, 0 };
+
+  private static LongDataBuffer longs(long... values) {
+    return DataBuffers.from(values, true, false);
+  }
+
+  private static FloatDataBuffer floats(float... values) {
+    return DataBuffers.from(values, true, false);
+  }
+
+  private static FloatSparseNdArray coo() {
+    LongDataBuffer indices = longs(0L, 1L, 2L, 0L, 2L, 2L);
+    return NdArrays.sparseOf(indices, floats(1.0f, 2.0f, 3.0f), Shape.make(3, 4));
+  }
+
+  private static FloatSparseNdArray csr() {
+    LongDataBuffer rowSplits = longs(0L, 1L, 1L, 3L);
+    LongDataBuffer columns = longs(1L, 0L, 2L);
+    return NdArrays.sparseCsrOf(rowSplits, columns, floats(1.0f, 2.0f, 3.0f), Shape.make(3, 4));
+  }
+
+  private static void assertViewEquals(FloatNdArray expected, FloatNdArray actual) {
+    assertEquals(expected.shape(), actual.shape());
+    float[] expectedValues = new float[(int)expected.size()];
+    expected.read(expectedValues);
+    float[] actualValues = new float[(int)actual.size()];
+    actual.read(actualValues);
+    assertArrayEquals(expectedValues, actualValues, 0.0f);
+
+    FloatSparseNdArray sparse = (FloatSparseNdArray)actual;
+    LongNdArray indices = sparse.indices();
+    FloatNdArray values = sparse.values();
+    long numValues = 0;
+    for (int i = 0; i < expectedValues.length; ++i) {
+      if (expectedValues[i] != 0.0f) {
+        assertEquals(expectedValues[i], values.getFloat(numValues), 0.0f);
+        long[] coords = new long[expected.rank()];
+        indices.get(numValues++).read(coords);
+        assertEquals(expectedValues[i], expected.getFloat(coords), 0.0f);
+      }
+    }
+    assertEquals(numValues, sparse.numValues());
+  }
+
+  @Test
+  public void getValues() {
+    for (FloatNdArray matrix : new FloatNdArray[] { coo(), csr() }) {
+      assertEquals(Shape.make(3, 4), matrix.shape());
+      assertEquals(0.0f, matrix.getFloat(0, 0), 0.0f);
+      assertEquals(1.0f, matrix.getFloat(0, 1), 0.0f);
+      assertEquals(0.0f, matrix.getFloat(1, 1), 0.0f);
+      assertEquals(2.0f, matrix.getFloat(2, 0), 0.0f);
+      assertEquals(3.0f, matrix.getFloat(2, 2), 0.0f);
+      assertEquals(0.0f, matrix.getFloat(2, 3), 0.0f);
+      assertEquals(Float.valueOf(3.0f), matrix.getObject(2, 2));
+    }
+  }
+
+  @Test
+  public void readToDense() {
+    for (FloatNdArray matrix : new FloatNdArray[] { coo(), csr() }) {
+      float[] dense = new float[12];
+      matrix.read(dense);
+      assertArrayEquals(DENSE, dense, 0.0f);
+
+      FloatNdArray copy = NdArrays.ofFloats(matrix.shape());
+      matrix.copyTo(copy);
+      assertEquals(3.0f, copy.getFloat(2, 2), 0.0f);
+      assertEquals(0.0f, copy.getFloat(1, 2), 0.0f);
+    }
+  }
+
+  @Test
+  public void readLargeArrayToDirtyDense() {
+    // larger than the chunk of zeros copied to the destination, so it is zeroed in many passes
+    FloatNdArray matrix = NdArrays.sparseOf(longs(0L, 5L, 99L, 9999L), floats(1.0f, 2.0f),
+        Shape.make(100, 10000));
+    float[] dense = new float[1000000];
+    Arrays.fill(dense, 7.0f);
+    matrix.read(dense);
+    assertEquals(1.0f, dense[5], 0.0f);
+    assertEquals(2.0f, dense[999999], 0.0f);
+    assertEquals(0.0f, dense[0], 0.0f);
+    assertEquals(0.0f, dense[500000], 0.0f);
+
+    FloatNdArray copy = NdArrays.ofFloats(matrix.shape());
+    copy.scalars().forEach(scalar -> scalar.setFloat(7.0f));
+    matrix.copyTo(copy);
+    assertEquals(1.0f, copy.getFloat(0, 5), 0.0f);
+    assertEquals(2.0f, copy.getFloat(99, 9999), 0.0f);
+    assertEquals(0.0f, copy.getFloat(0, 0), 0.0f);
+    assertEquals(0.0f, copy.getFloat(50, 123), 0.0f);
+
+    FloatNdArray scalar = matrix.get(99, 9999);
+    FloatNdArray scalarCopy = NdArrays.scalarOf(7.0f);
+    scalar.copyTo(scalarCopy);
+    assertEquals(2.0f, scalarCopy.getFloat(), 0.0f);
+  }
+
+  @Test
+  public void iterateRows() {
+    for (FloatNdArray matrix : new FloatNdArray[] { coo(), csr() }) {
+      float[] sums = new float[3];
+      matrix.elements(0).forEachIndexed((coords, row) -> {
+        float[] values = new float[4];
+        row.read(values);
+        for (float v : values) {
+          sums[(int)coords[0]] += v;
+        }
+      });
+      assertArrayEquals(new float[] { 1.0f, 0.0f, 5.0f }, sums, 0.0f);
+    }
+  }
+
+  @Test
+  public void views() {
+    for (FloatNdArray matrix : new FloatNdArray[] { coo(), csr() }) {
+      FloatNdArray column = matrix.slice(Indices.all(), Indices.at(2));
+      float[] values = new float[3];
+      column.read(values);
+      assertArrayEquals(new float[] { 0.0f, 0.0f, 3.0f }, values, 0.0f);
+
+      FloatNdArray transposed = matrix.transpose();
+      assertEquals(Shape.make(4, 3), transposed.shape());
+      assertEquals(2.0f, transposed.getFloat(0, 2), 0.0f);
+      assertEquals(1.0f, transposed.getFloat(1, 0), 0.0f);
+    }
+  }
+
+  @Test
+  public void indicesAndValues() {
+    for (FloatSparseNdArray sparse : new FloatSparseNdArray[] { coo(), csr() }) {
+      assertEquals(3, sparse.numValues());
+      LongNdArray indices = sparse.indices();
+      assertEquals(Shape.make(3, 2), indices.shape());
+      assertEquals(2L, indices.getLong(2, 0));
+      assertEquals(2L, indices.getLong(2, 1));
+      assertEquals(2.0f, sparse.values().getFloat(1), 0.0f);
+    }
+  }
+
+  @Test
+  public void viewsMatchDenseArray() {
+    FloatNdArray dense = NdArrays.ofFloats(Shape.make(3, 4)).write(DENSE);
+    for (FloatNdArray matrix : new FloatNdArray[] { coo(), csr() }) {
+      Index[][] views = {
+          { Indices.all(), Indices.at(2) },
+          { Indices.at(2), Indices.even() },
+          { Indices.flip(), Indices.all() },
+          { Indices.range(1, 3), Indices.seq(2, 0, 1) },
+          { Indices.odd(), Indices.flip() }
+      };
+      for (Index[] view : views) {
+        assertViewEquals(dense.slice(view), matrix.slice(view));
+      }
+      assertViewEquals(dense.transpose(), matrix.transpose());
+      assertViewEquals(dense.transpose().slice(Indices.flip()),
+          matrix.transpose().slice(Indices.flip()));
+    }
+  }
+
+  @Test
+  public void visitValuesOfLargeView() {
+    // too many positions to look up each of them in the index
+    FloatSparseNdArray array = NdArrays.sparseOf(longs(0L, 7L, 1L, 99999L, 5L, 0L),
+        floats(1.0f, 2.0f), Shape.make(100000, 100000, 2));
+    FloatSparseNdArray view = (FloatSparseNdArray)array.slice(Indices.all(), Indices.all(),
+        Indices.at(1));
+    assertEquals(1, view.numValues());
+    assertEquals(1.0f, view.values().getFloat(0), 0.0f);
+    assertEquals(7L, view.indices().getLong(0, 1));
+
+    FloatSparseNdArray transposed = (FloatSparseNdArray)array.slice(Indices.all(), Indices.all(),
+        Indices.at(0)).transpose();
+    assertEquals(1, transposed.numValues());
+    assertEquals(5L, transposed.indices().getLong(0, 0));
+    assertEquals(99999L, transposed.indices().getLong(0, 1));
+  }
+
+  @Test
+  public void sparseArraysAreReadOnly() {
+    FloatNdArray matrix = coo();
+    try {
+      matrix.setFloat(10.0f, 1, 1);
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // as expected
+    }
+    try {
+      matrix.write(new float[12]);
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void invalidIndices() {
+    try {
+      NdArrays.sparseOf(longs(2L, 0L, 0L, 1L), floats(1.0f, 2.0f), Shape.make(3, 4));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+    try {
+      NdArrays.sparseOf(longs(3L, 0L), floats(1.0f), Shape.make(3, 4));
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // as expected
+    }
+    try {
+      NdArrays.sparseCsrOf(longs(0L, 2L, 2L, 2L), longs(2L, 1L), floats(1.0f, 2.0f), Shape.make(3, 4));
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.proto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+public class ProtoReaderTest {
+
+  @Test
+  public void readWrittenFields() {
+    byte[] message = new ProtoWriter()
+        .writeInt32(1, -5)
+        .writeInt64(2, 1L << 40)
+        .writeBool(3, true)
+        .writeSint64(4, -3L)
+        .writeFloat(5, 1.5f)
+        .writeDouble(6, -2.25)
+        .writeString(7, "h\u00e9llo")
+        .writeMessage(8, new ProtoWriter().writeInt64(1, 42L).writeString(2, "child"))
+        .writeFixed64(9, -1L)
+        .toByteArray();
+
+    ProtoReader reader = ProtoReader.of(message);
+    assertTrue(reader.next());
+    assertEquals(1, reader.fieldNumber());
+    assertEquals(WireType.VARINT, reader.wireType());
+    assertEquals(-5, reader.readInt32());
+    assertTrue(reader.next());
+    assertEquals(1L << 40, reader.readInt64());
+    assertTrue(reader.next());
+    assertTrue(reader.readBool());
+    assertTrue(reader.next());
+    assertEquals(-3L, reader.readSint64());
+    assertTrue(reader.next());
+    assertEquals(1.5f, reader.readFloat(), 0.0f);
+    assertTrue(reader.next());
+    assertEquals(-2.25, reader.readDouble(), 0.0);
+    assertTrue(reader.next());
+    assertEquals("h\u00e9llo", reader.readString());
+    assertTrue(reader.next());
+    assertEquals(8, reader.fieldNumber());
+    ProtoReader child = reader.readMessage();
+    assertTrue(child.next());
+    assertEquals(42L, child.readInt64());
+    assertTrue(child.next());
+    assertEquals("child", child.readString());
+    assertFalse(child.next());
+    assertTrue(reader.next());
+    assertEquals(-1L, reader.readFixed64());
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void skipUnreadFields() {
+    byte[] message = new ProtoWriter()
+        .writeString(1, "ignored")
+        .writeFixed32(2, 7)
+        .writeMessage(3, new ProtoWriter().writeInt64(1, 1L))
+        .writeInt64(4, 100L)
+        .toByteArray();
+
+    ProtoReader reader = ProtoReader.of(message);
+    int lastField = 0;
+    long value = 0;
+    while (reader.next()) {
+      lastField = reader.fieldNumber();
+      if (lastField == 4) {
+        value = reader.readInt64();
+      }
+    }
+    assertEquals(4, lastField);
+    assertEquals(100L, value);
+  }
+
+  @Test
+  public void readPackedValues() {
+    ProtoWriter packed = new ProtoWriter();
+    for (long i = 0; i < 5; ++i) {
+      packed.writeRawVarint(i * 300);
+    }
+    byte[] message = new ProtoWriter().writeMessage(1, packed).toByteArray();
+
+    ProtoReader reader = ProtoReader.of(ByteBuffer.wrap(message));
+    assertTrue(reader.next());
+    ProtoReader values = reader.readMessage();
+    long[] decoded = new long[5];
+    int i = 0;
+    while (values.hasRemaining()) {
+      decoded[i++] = values.readRawVarint();
+    }
+    assertArrayEquals(new long[] { 0, 300, 600, 900, 1200 }, decoded);
+  }
+
+  @Test
+  public void rejectMalformedMessages() {
+    byte[] truncated = new ProtoWriter().writeString(1, "truncated").toByteArray();
+    ProtoReader reader = ProtoReader.of(ByteBuffer.wrap(truncated, 0, truncated.length - 2));
+    assertTrue(reader.next());
+    try {
+      reader.readString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+    reader = ProtoReader.of(new ProtoWriter().writeInt64(1, 1L).toByteArray());
+    assertTrue(reader.next());
+    try {
+      reader.readString();
+      fail();
+    } catch (IllegalArgumentException e) {
+      // as expected
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class Crc32cTest {
+
+  @Test
+  public void knownValues() {
+    byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+    assertEquals(0xE3069283, Crc32c.compute(check, 0, check.length));
+
+    // from RFC 3720, appendix B.4
+    byte[] bytes = new byte[32];
+    assertEquals(0x8A9136AA, Crc32c.compute(bytes, 0, bytes.length));
+    Arrays.fill(bytes, (byte)0xFF);
+    assertEquals(0x62A8AB43, Crc32c.compute(bytes, 0, bytes.length));
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = (byte)i;
+    }
+    assertEquals(0x46DD794E, Crc32c.compute(bytes, 0, bytes.length));
+  }
+
+  @Test
+  public void updateIncrementally() {
+    byte[] bytes = new byte[1000];
+    new Random(42).nextBytes(bytes);
+    int expected = Crc32c.compute(bytes, 0, bytes.length);
+
+    Crc32c crc = new Crc32c();
+    crc.update(bytes, 0, 3);
+    crc.update(bytes[3]);
+    crc.update(ByteBuffer.allocateDirect(bytes.length - 4).put(bytes, 4, bytes.length - 4).flip()
+        .slice());
+    assertEquals(expected, (int)crc.getValue());
+
+    crc.reset();
+    crc.update(bytes, 0, bytes.length);
+    assertEquals(expected, (int)crc.getValue());
+    assertEquals(expected, Crc32c.compute(ByteBuffer.wrap(bytes)));
+  }
+
+  @Test
+  public void maskChecksums() {
+    int crc = 0xE3069283;
+    assertEquals(crc, Crc32c.unmask(Crc32c.mask(crc)));
+    assertEquals(0xA282EAD8, Crc32c.mask(0));
+  }
+}
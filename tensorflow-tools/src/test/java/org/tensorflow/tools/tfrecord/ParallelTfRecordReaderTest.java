@@ -0,0 +1,84 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelTfRecordReaderTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void readAllFiles() throws IOException {
+    List<Path> files = writeFiles(5, 100);
+    AtomicLong sum = new AtomicLong();
+    long numRecords = ParallelTfRecordReader.of(files)
+        .numThreads(3)
+        .forEach(record -> sum.addAndGet(record.getInt(0)));
+    assertEquals(500, numRecords);
+    assertEquals(5 * (99 * 100 / 2), sum.get());
+  }
+
+  @Test
+  public void readShards() throws IOException {
+    List<Path> files = writeFiles(5, 10);
+    long total = 0;
+    for (int shard = 0; shard < 2; ++shard) {
+      total += ParallelTfRecordReader.of(files).shard(shard, 2).forEach(record -> {});
+    }
+    assertEquals(50, total);
+    assertEquals(30, ParallelTfRecordReader.of(files).shard(0, 2).forEach(record -> {}));
+  }
+
+  @Test
+  public void stopOnFailure() throws IOException {
+    List<Path> files = writeFiles(4, 10);
+    try {
+      ParallelTfRecordReader.of(files).numThreads(2).forEach(record -> {
+        throw new IOException("consumer failure");
+      });
+      fail();
+    } catch (IOException e) {
+      assertEquals("consumer failure", e.getMessage());
+    }
+  }
+
+  private List<Path> writeFiles(int numFiles, int recordsPerFile) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (int f = 0; f < numFiles; ++f) {
+      Path path = tempFolder.newFile().toPath();
+      try (TfRecordWriter writer = TfRecordWriter.create(path, Compression.NONE)) {
+        for (int i = 0; i < recordsPerFile; ++i) {
+          writer.write(java.nio.ByteBuffer.allocate(4).putInt(0, i));
+        }
+      }
+      files.add(path);
+    }
+    return files;
+  }
+}
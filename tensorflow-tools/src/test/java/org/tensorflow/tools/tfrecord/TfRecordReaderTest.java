@@ -0,0 +1,146 @@
+/*
+ Copyright 2020 The TensorFlow Authors. All Rights Reserved.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+     http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ =======================================================================
+ */
+package org.tensorflow.tools.tfrecord;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TfRecordReaderTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void writeAndReadFiles() throws IOException {
+    for (Compression compression : Compression.values()) {
+      Path path = tempFolder.newFile("records-" + compression).toPath();
+      try (TfRecordWriter writer = TfRecordWriter.create(path, compression)) {
+        writer.write(bytes("first"))
+            .write(new byte[0])
+            .write(ByteBuffer.allocateDirect(6).put(bytes("third")).put((byte)'!').flip());
+        assertEquals(3, writer.numRecords());
+      }
+      try (TfRecordReader reader = TfRecordReader.open(path, compression, true)) {
+        assertEquals("first", string(reader.next()));
+        assertEquals(0, reader.next().remaining());
+        ByteBuffer third = reader.next();
+        assertTrue(third.isReadOnly());
+        assertEquals("third!", string(third));
+        assertNull(reader.next());
+        assertNull(reader.next());
+        assertEquals(3, reader.numRecords());
+      }
+    }
+  }
+
+  @Test
+  public void recordLayout() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TfRecordWriter writer = TfRecordWriter.of(out, Compression.NONE)) {
+      writer.write(bytes("abc"));
+    }
+    ByteBuffer record = ByteBuffer.wrap(out.toByteArray()).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+    assertEquals(19, record.remaining());
+    assertEquals(3L, record.getLong(0));
+    assertEquals(Crc32c.mask(Crc32c.compute(record.array(), 0, 8)), record.getInt(8));
+    assertEquals(Crc32c.mask(Crc32c.compute(bytes("abc"), 0, 3)), record.getInt(15));
+  }
+
+  @Test
+  public void mapLargeRecords() throws IOException {
+    Path path = tempFolder.newFile().toPath();
+    byte[] large = new byte[1 << 20];
+    Arrays.fill(large, (byte)7);
+    try (TfRecordWriter writer = TfRecordWriter.create(path, Compression.NONE)) {
+      for (int i = 0; i < 5; ++i) {
+        writer.write(large);
+      }
+    }
+    try (TfRecordReader reader = TfRecordReader.open(path)) {
+      ByteBuffer record;
+      while ((record = reader.next()) != null) {
+        byte[] copy = new byte[record.remaining()];
+        record.get(copy);
+        assertArrayEquals(large, copy);
+      }
+      assertEquals(5, reader.numRecords());
+    }
+  }
+
+  @Test
+  public void detectCorruptedRecords() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TfRecordWriter writer = TfRecordWriter.of(out, Compression.NONE)) {
+      writer.write(bytes("abc"));
+    }
+    byte[] corrupted = out.toByteArray();
+    corrupted[13] = 'x';
+    try (TfRecordReader reader =
+        TfRecordReader.of(new ByteArrayInputStream(corrupted), Compression.NONE, true)) {
+      reader.next();
+      fail();
+    } catch (IOException e) {
+      // as expected
+    }
+    try (TfRecordReader reader =
+        TfRecordReader.of(new ByteArrayInputStream(corrupted), Compression.NONE, false)) {
+      assertEquals("axc", string(reader.next()));
+    }
+
+    Path truncated = tempFolder.newFile().toPath();
+    Files.write(truncated, Arrays.copyOf(out.toByteArray(), 16));
+    try (TfRecordReader reader = TfRecordReader.open(truncated)) {
+      reader.next();
+      fail();
+    } catch (EOFException e) {
+      // as expected
+    }
+  }
+
+  @Test
+  public void compressionNames() {
+    assertEquals(Compression.GZIP, Compression.fromName("GZIP"));
+    assertEquals(Compression.NONE, Compression.fromName(""));
+    assertEquals("ZLIB", Compression.ZLIB.typeName());
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(ByteBuffer record) {
+    byte[] bytes = new byte[record.remaining()];
+    record.duplicate().get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}